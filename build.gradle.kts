@@ -165,4 +165,6 @@ dependencies {
         exclude("org.apache.httpcomponents", "httpmime")
     }
     testImplementation(kotlin("test"))
+    testImplementation(platform(libs.junit.bom))
+    testRuntimeOnly(libs.junit.vintage.engine)
 }
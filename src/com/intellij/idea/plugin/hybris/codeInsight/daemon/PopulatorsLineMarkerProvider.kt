@@ -24,12 +24,18 @@ import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils.message
 import com.intellij.idea.plugin.hybris.common.utils.HybrisIcons
+import com.intellij.lang.java.JavaLanguage
 import com.intellij.openapi.editor.markup.GutterIconRenderer
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
 import com.intellij.psi.*
+import com.intellij.psi.codeStyle.NameUtil
 import com.intellij.psi.impl.source.PsiClassReferenceType
 import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.search.searches.ClassInheritorsSearch
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
 import org.apache.commons.lang3.StringUtils
 import javax.swing.Icon
 
@@ -41,40 +47,29 @@ class PopulatorsLineMarkerProvider : AbstractHybrisLineMarkerProvider<PsiClass>(
     override fun tryCast(psi: PsiElement) = psi as? PsiClass
 
     override fun collectDeclarations(psi: PsiClass): Collection<LineMarkerInfo<PsiElement>> {
-        val populatorClass = findPopulatorClass(psi.project) ?: return emptyList()
-        val element = populatorClass.element ?: return emptyList()
         val converterFields = retrieveConverterFields(psi)
 
         if (converterFields.isEmpty()) return emptyList()
 
-        val allPopulators = ClassInheritorsSearch.search(element)
+        val populators = getPopulators(psi.project)
+
+        if (populators.isEmpty()) return emptyList()
 
         return converterFields
             .mapNotNull { field ->
                 val fieldName = field.name.replace("Converter", StringUtils.EMPTY)
-                return@mapNotNull allPopulators
-                    .filter { byName(it, fieldName) || byGenerics(it, field) }
-                    .map { if (byGenerics(it, field)) CandidateWrapper(0, it) else CandidateWrapper(1, it) }
-                    .sortedBy { it.priority }
-                    .map { it.psiClass }
+                val byGenerics = genericsKey(field.type)
+                    ?.let { populators.byGenerics[it] }
+                    ?: emptyList()
+                val byName = populators.byName(fieldName)
+                    .filterNot { byGenerics.contains(it) }
+
+                return@mapNotNull (byGenerics + byName)
                     .takeIf { it.isNotEmpty() }
                     ?.let { createTargetsWithGutterIcon(field.nameIdentifier, it) }
             }
     }
 
-    private fun byName(it: PsiClass, fieldName: String) = it.name?.contains(fieldName, true) ?: false
-
-    private fun byGenerics(it: PsiClass, field: PsiField): Boolean {
-        if (field.type !is PsiClassReferenceType) return false
-
-        val interfaces = it.implementsListTypes
-
-        if (interfaces.isEmpty()) return false
-        if (interfaces.first().parameterCount != (field.type as PsiClassReferenceType).parameterCount) return false
-
-        return interfaces.first().parameters.contentEquals((field.type as PsiClassReferenceType).parameters)
-    }
-
     private fun retrieveConverterFields(psiClass: PsiClass): List<PsiField> {
         return psiClass.fields
             .filterNot { it.modifierList?.hasModifierProperty("static") ?: false }
@@ -83,11 +78,21 @@ class PopulatorsLineMarkerProvider : AbstractHybrisLineMarkerProvider<PsiClass>(
             }
     }
 
-    private fun findPopulatorClass(project: Project): SmartPsiElementPointer<PsiClass>? {
+    /**
+     * All populators of the project are searched only once, till the next change of the Java structure or project roots.
+     */
+    private fun getPopulators(project: Project) = CachedValuesManager.getManager(project).getCachedValue(project) {
         val populatorClass = JavaPsiFacade.getInstance(project).findClass(HybrisConstants.CLASS_FQN_POPULATOR, GlobalSearchScope.allScope(project))
-            ?: return null
-
-        return SmartPointerManager.getInstance(project).createSmartPsiElementPointer(populatorClass)
+        val populators = populatorClass
+            ?.let { ClassInheritorsSearch.search(it).findAll() }
+            ?.let { Populators(it.toList()) }
+            ?: Populators(emptyList())
+
+        CachedValueProvider.Result.create(
+            populators,
+            PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE),
+            ProjectRootModificationTracker.getInstance(project)
+        )
     }
 
     private fun createTargetsWithGutterIcon(psiElement: PsiElement, targets: Collection<PsiElement>) = NavigationGutterIconBuilder
@@ -99,5 +104,50 @@ class PopulatorsLineMarkerProvider : AbstractHybrisLineMarkerProvider<PsiClass>(
         .setAlignment(GutterIconRenderer.Alignment.LEFT)
         .createLineMarkerInfo(psiElement)
 
-    private data class CandidateWrapper(var priority: Int, var psiClass: PsiClass)
+    /**
+     * Populators keyed by the type parameters of their first implemented interface, the same way as converter fields are matched.
+     * Names are keyed by every run of consecutive words of the class name in lower case, i.e. `ProductPricePopulator`
+     * by `product`, `productprice`, `price` and so on, so the name of a converter field is matched by a single lookup.
+     */
+    private class Populators(private val populators: List<PsiClass>) {
+
+        val byGenerics: Map<String, List<PsiClass>> = populators
+            .mapNotNull { populator ->
+                populator.implementsListTypes.firstOrNull()
+                    ?.let { genericsKey(it) }
+                    ?.let { it to populator }
+            }
+            .groupBy({ it.first }, { it.second })
+
+        private val byNameToken: Map<String, List<PsiClass>> = populators
+            .flatMap { populator -> nameTokens(populator.name).map { it to populator } }
+            .groupBy({ it.first }, { it.second })
+
+        fun isEmpty() = populators.isEmpty()
+
+        fun byName(name: String) = byNameToken[name.lowercase()] ?: emptyList()
+    }
+
+    companion object {
+        private fun genericsKey(type: PsiType) = (type as? PsiClassType)
+            ?.parameters
+            ?.joinToString(prefix = "<", postfix = ">") { it.canonicalText }
+
+        private fun nameTokens(name: String?): Set<String> {
+            if (name == null) return emptySet()
+
+            val words = NameUtil.nameToWords(name)
+                .filter { word -> word.any { it.isLetterOrDigit() } }
+                .map { it.lowercase() }
+            val tokens = LinkedHashSet<String>()
+
+            for (from in words.indices) {
+                val token = StringBuilder()
+                for (to in from until words.size) {
+                    tokens.add(token.append(words[to]).toString())
+                }
+            }
+            return tokens
+        }
+    }
 }
@@ -62,8 +62,7 @@ class CngContextMergeByTypeParentIsNotValid : AbstractCngConfigInspection() {
         // skip non-item types
         if (typeMeta !is TSGlobalMetaItem) return
 
-        val validParentType = typeMeta.allExtends
-            .any { parentType.equals(it.name, true) }
+        val validParentType = metaModelAccess.isSubTypeOf(typeMeta.name, parentType)
 
         if (validParentType) return
 
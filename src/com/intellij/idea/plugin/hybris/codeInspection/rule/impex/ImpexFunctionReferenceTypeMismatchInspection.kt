@@ -55,10 +55,7 @@ class ImpexFunctionReferenceTypeMismatchInspection : LocalInspectionTool() {
 
             when (referenceMeta) {
                 is TSGlobalMetaItem -> {
-                    val notExtends = metaModelAccess.findMetaItemByName(inlineType)
-                        ?.allExtends
-                        ?.contains(referenceMeta)
-                        ?: false
+                    val notExtends = metaModelAccess.isSubTypeOf(inlineType, referenceMeta.name)
                     if (!notExtends && !inlineType.equals(expectedItemType, true)) {
                         problemsHolder.registerProblemForReference(
                             typeReference,
@@ -20,34 +20,28 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.impex
 
 import com.intellij.codeHighlighting.HighlightDisplayLevel
 import com.intellij.codeInspection.LocalInspectionTool
-import com.intellij.codeInspection.LocalInspectionToolSession
 import com.intellij.codeInspection.ProblemHighlightType
 import com.intellij.codeInspection.ProblemsHolder
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils.message
 import com.intellij.idea.plugin.hybris.impex.psi.*
 import com.intellij.idea.plugin.hybris.impex.psi.references.ImpexMacroReference
-import com.intellij.openapi.vfs.LocalFileSystem
+import com.intellij.idea.plugin.hybris.impex.psi.util.ImpexMacroTable
 import com.intellij.psi.PsiElementVisitor
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiManager
 import com.intellij.psi.util.PsiTreeUtil
 import org.apache.commons.lang3.StringUtils
-import java.io.File
 
 class ImpexUnknownMacrosInspection : LocalInspectionTool() {
-    private val cachedMacros = HashMap<String, Boolean>()
     override fun getDefaultLevel(): HighlightDisplayLevel = HighlightDisplayLevel.ERROR
-    override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor = UnknownMacrosVisitor(holder, cachedMacros)
-    override fun inspectionStarted(session: LocalInspectionToolSession, isOnTheFly: Boolean) {
-        cachedMacros.clear()
-        PsiTreeUtil.findChildrenOfAnyType(session.file, ImpexMacroDeclaration::class.java)
-            .map { ImpexMacroReference.escapeName(it.firstChild.text) }
-            .forEach { cachedMacros[it] = true }
-    }
+    override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor = UnknownMacrosVisitor(holder)
 }
 
-private class UnknownMacrosVisitor(private val problemsHolder: ProblemsHolder, private val cachedMacros: HashMap<String, Boolean>) : ImpexVisitor() {
+private class UnknownMacrosVisitor(private val problemsHolder: ProblemsHolder) : ImpexVisitor() {
+
+    private val externalMacros = HashSet<String>()
+    private val visitedFiles = HashSet<PsiFile>()
 
     override fun visitMacroUsageDec(usage: ImpexMacroUsageDec) {
         val text = usage.text
@@ -57,33 +51,15 @@ private class UnknownMacrosVisitor(private val problemsHolder: ProblemsHolder, p
             ?.let { ImpexMacroReference.escapeName(it) }
             ?: return
 
-        val isDeclarationExists = cachedMacros[macroName]
-        if (isDeclarationExists == true) return
-
-        if (isDeclarationExists != null && isDeclarationExists == false) {
-            problemsHolder.registerProblem(
-                usage,
-                message("hybris.inspections.impex.ImpexUnknownMacrosInspection.key", macroName),
-                ProblemHighlightType.ERROR
-            )
-        } else {
-            val declaration = findMacrosDeclaration(usage.containingFile, macroName)
-            if (declaration == null) {
-                cachedMacros[macroName] = false
-                problemsHolder.registerProblem(
-                    usage,
-                    message("hybris.inspections.impex.ImpexUnknownMacrosInspection.key", macroName),
-                    ProblemHighlightType.ERROR
-                )
-            } else {
-                cachedMacros[macroName] = true
-            }
-        }
-    }
+        if (ImpexMacroTable.getInstance(usage.containingFile).containsDeclaration(macroName)) return
+        // same as for the local macros, usage may continue after the macro name
+        if (externalMacros.any { macroName.startsWith(it) }) return
 
-    private fun findMacrosDeclaration(file: PsiFile, macroName: String): ImpexMacroDeclaration? {
-        val declarations = PsiTreeUtil.findChildrenOfAnyType(file, ImpexMacroDeclaration::class.java)
-        return declarations.find { macroName.startsWith(it.firstChild.text) }
+        problemsHolder.registerProblem(
+            usage,
+            message("hybris.inspections.impex.ImpexUnknownMacrosInspection.key", macroName),
+            ProblemHighlightType.ERROR
+        )
     }
 
     override fun visitString(o: ImpexString) {
@@ -107,17 +83,18 @@ private class UnknownMacrosVisitor(private val problemsHolder: ProblemsHolder, p
 
         val resource = text.substring(startIndex + 1, endIndex)
             .let { StringUtils.strip(it, "\"' ") }
-        val directory = impexString.containingFile.containingDirectory.virtualFile
-        val dirPath = directory.canonicalPath
-        val referencedFile = LocalFileSystem.getInstance().findFileByIoFile(File(dirPath, resource))
-
-        if (referencedFile == null || !referencedFile.exists()) return
+        val referencedFile = impexString.containingFile.containingDirectory
+            ?.virtualFile
+            ?.findFileByRelativePath(resource)
+            ?: return
 
         val referencedPsi = PsiManager.getInstance(impexString.project).findFile(referencedFile) as? ImpexFile ?: return
-        val declarations = PsiTreeUtil.findChildrenOfAnyType(referencedPsi, ImpexMacroDeclaration::class.java)
-        declarations.forEach { declaration -> cachedMacros[declaration.firstChild.text] = true }
-        val impString = PsiTreeUtil.findChildrenOfAnyType(referencedPsi, ImpexString::class.java)
-        impString.forEach { resolveIncludeExternalData(it) }
+        if (!visitedFiles.add(referencedPsi)) return
+
+        PsiTreeUtil.findChildrenOfAnyType(referencedPsi, ImpexMacroDeclaration::class.java)
+            .forEach { declaration -> externalMacros.add(ImpexMacroReference.escapeName(declaration.macroNameDec.text)) }
+        PsiTreeUtil.findChildrenOfAnyType(referencedPsi, ImpexString::class.java)
+            .forEach { resolveIncludeExternalData(it) }
     }
 
 
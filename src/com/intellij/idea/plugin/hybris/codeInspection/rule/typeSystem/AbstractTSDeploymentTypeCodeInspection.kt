@@ -19,11 +19,11 @@
 package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 
 import com.intellij.idea.plugin.hybris.codeInspection.fix.xml.XmlUpdateAttributeQuickFix
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.meta.model.TSMetaDeployment
 import com.intellij.idea.plugin.hybris.system.type.model.Deployment
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.deployments
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder
@@ -42,23 +42,32 @@ abstract class AbstractTSDeploymentTypeCodeInspection : AbstractCustomOnlyTSInsp
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.deployments.forEach { check(it, project, holder, severity) }
+        val deployments = TSDomElements.getInstance(dom).deployments
+            .takeIf { it.isNotEmpty() }
+            ?: return
+        val metaModelAccess = TSMetaModelAccess.getInstance(project)
+        val metaModel = metaModelAccess.getMetaModel()
+        val nextAvailableTypeCode = lazy(LazyThreadSafetyMode.NONE) { metaModelAccess.getNextAvailableTypeCode() }
+
+        deployments.forEach { check(it, project, metaModel, nextAvailableTypeCode, holder, severity) }
     }
 
     private fun check(
         dom: Deployment,
         project: Project,
+        metaModel: TSGlobalMetaModel,
+        nextAvailableTypeCode: Lazy<Int?>,
         holder: DomElementAnnotationHolder,
         severity: HighlightSeverity
     ) {
         if (!applicable(project, dom)) return
 
-        val deployment = TSMetaModelAccess.getInstance(project).getMetaModel().getDeploymentForTypeCode(dom.typeCode.stringValue)
+        val deployment = metaModel.getDeploymentForTypeCode(dom.typeCode.stringValue)
         deployment ?: return
 
         if (!applicable(project, dom, deployment)) return
 
-        val fix = TSMetaModelAccess.getInstance(project).getNextAvailableTypeCode()
+        val fix = nextAvailableTypeCode.value
             ?.toString()
             ?.let {
                 XmlUpdateAttributeQuickFix(
@@ -21,10 +21,46 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 import com.intellij.idea.plugin.hybris.codeInspection.rule.AbstractInspection
 import com.intellij.idea.plugin.hybris.system.type.model.Items
 import com.intellij.idea.plugin.hybris.system.type.util.TSUtils
+import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.project.Project
 import com.intellij.psi.xml.XmlFile
+import com.intellij.util.xml.DomFileElement
+import com.intellij.util.xml.highlighting.DomElementAnnotationHolder
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.LongAdder
 
+/**
+ * Elements of the `Items` DOM should be obtained via [TSDomElements], so the file is walked only once for all inspections.
+ */
 abstract class AbstractTSInspection : AbstractInspection<Items>(Items::class.java) {
 
     override fun canProcess(project: Project, file: XmlFile) = TSUtils.isTypeSystemFile(file)
-}
\ No newline at end of file
+
+    override fun checkFileElement(domFileElement: DomFileElement<Items>, holder: DomElementAnnotationHolder) {
+        if (!LOG.isDebugEnabled) return super.checkFileElement(domFileElement, holder)
+
+        val start = System.nanoTime()
+        super.checkFileElement(domFileElement, holder)
+        val elapsed = System.nanoTime() - start
+
+        val timing = timings.computeIfAbsent(shortName) { Timing() }
+        timing.runs.increment()
+        timing.total.add(elapsed)
+
+        LOG.debug(
+            "$shortName: ${TimeUnit.NANOSECONDS.toMillis(elapsed)} ms for ${domFileElement.file.name}, " +
+                "${TimeUnit.NANOSECONDS.toMillis(timing.total.sum())} ms in ${timing.runs.sum()} runs in total"
+        )
+    }
+
+    private class Timing {
+        val runs = LongAdder()
+        val total = LongAdder()
+    }
+
+    companion object {
+        private val LOG = Logger.getInstance(AbstractTSInspection::class.java)
+        private val timings = ConcurrentHashMap<String, Timing>()
+    }
+}
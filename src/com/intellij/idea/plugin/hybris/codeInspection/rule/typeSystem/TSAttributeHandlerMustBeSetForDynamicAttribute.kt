@@ -35,8 +35,7 @@ class TSAttributeHandlerMustBeSetForDynamicAttribute : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.itemTypes.all
-            .flatMap { it.attributes.attributes }
+        TSDomElements.getInstance(dom).attributes
             .forEach { check(it, holder, severity) }
     }
 
@@ -19,10 +19,10 @@
 package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.model.Attribute
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder
@@ -37,20 +37,23 @@ class TSBooleanFieldCannotBeOptional : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.itemTypes.all
-            .flatMap { it.attributes.attributes }
-            .forEach { check(it, holder, severity, project) }
+        val attributes = TSDomElements.getInstance(dom).attributes
+            .takeIf { it.isNotEmpty() }
+            ?: return
+        val metaModel = TSMetaModelAccess.getInstance(project).getMetaModel()
+
+        attributes.forEach { check(it, metaModel, holder, severity) }
     }
 
     private fun check(
         dom: Attribute,
+        metaModel: TSGlobalMetaModel,
         holder: DomElementAnnotationHolder,
-        severity: HighlightSeverity,
-        project: Project
+        severity: HighlightSeverity
     ) {
         val optional = dom.modifiers.optional.value
         val defaultValue = dom.defaultValue.stringValue
-        val type = TSMetaModelAccess.getInstance(project).getMetaModel().getMetaAtomic(dom.type.stringValue)
+        val type = metaModel.getMetaAtomic(dom.type.stringValue)
             ?: return
 
         if (optional && defaultValue == null && "java.lang.Boolean".equals(type.name, true)) {
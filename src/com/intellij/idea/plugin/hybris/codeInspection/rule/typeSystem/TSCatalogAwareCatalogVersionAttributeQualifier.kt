@@ -21,10 +21,10 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaHelper
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaItemService
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.model.ItemType
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder
@@ -39,17 +39,21 @@ class TSCatalogAwareCatalogVersionAttributeQualifier : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.itemTypes.all.forEach { check(it, holder, severity, project) }
+        val itemTypes = TSDomElements.getInstance(dom).itemTypes
+            .takeIf { it.isNotEmpty() }
+            ?: return
+        val metaModel = TSMetaModelAccess.getInstance(project).getMetaModel()
+
+        itemTypes.forEach { check(it, metaModel, holder, severity, project) }
     }
 
     private fun check(
         dom: ItemType,
+        metaModel: TSGlobalMetaModel,
         holder: DomElementAnnotationHolder,
         severity: HighlightSeverity,
         project: Project
     ) {
-        val metaModel = TSMetaModelAccess.getInstance(project).getMetaModel()
-
         val meta = metaModel.getMetaItem(dom.code.stringValue)
             ?: return
         val domCustomProperty = TSMetaHelper.getProperty(dom.customProperties, HybrisConstants.TS_CATALOG_VERSION_ATTRIBUTE_QUALIFIER)
@@ -63,11 +67,7 @@ class TSCatalogAwareCatalogVersionAttributeQualifier : AbstractTSInspection() {
         val isAttributeTypeCatalogAware = attributes
             .any { attribute ->
                 HybrisConstants.TS_TYPE_CATALOG_VERSION.equals(attribute.type, true)
-                || metaModel.getMetaItem(attribute.type)?.let { attributeTypeMeta ->
-                    attributeTypeMeta.allExtends
-                        .mapNotNull { it.name }
-                        .any { HybrisConstants.TS_TYPE_CATALOG_VERSION.equals(it, true) }
-                } ?: false
+                || metaModel.getItemHierarchy().isSubTypeOf(attribute.type, HybrisConstants.TS_TYPE_CATALOG_VERSION)
             }
 
         if (!isAttributeTypeCatalogAware) {
@@ -21,10 +21,10 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaHelper
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaItemService
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.model.ItemType
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder
@@ -39,16 +39,22 @@ class TSCatalogAwareUniqueKeyAttributeQualifier : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.itemTypes.all.forEach { check(it, holder, severity, project) }
+        val itemTypes = TSDomElements.getInstance(dom).itemTypes
+            .takeIf { it.isNotEmpty() }
+            ?: return
+        val metaModel = TSMetaModelAccess.getInstance(project).getMetaModel()
+
+        itemTypes.forEach { check(it, metaModel, holder, severity, project) }
     }
 
     private fun check(
         dom: ItemType,
+        metaModel: TSGlobalMetaModel,
         holder: DomElementAnnotationHolder,
         severity: HighlightSeverity,
         project: Project
     ) {
-        val meta = TSMetaModelAccess.getInstance(project).getMetaModel().getMetaItem(dom.code.stringValue)
+        val meta = metaModel.getMetaItem(dom.code.stringValue)
             ?: return
         val domCustomProperty = TSMetaHelper.getProperty(dom.customProperties, HybrisConstants.TS_UNIQUE_KEY_ATTRIBUTE_QUALIFIER)
             ?: return
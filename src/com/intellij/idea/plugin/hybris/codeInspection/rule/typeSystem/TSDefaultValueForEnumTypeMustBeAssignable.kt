@@ -18,10 +18,10 @@
 
 package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.model.Attribute
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder
@@ -38,16 +38,18 @@ class TSDefaultValueForEnumTypeMustBeAssignable : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.itemTypes.all
-            .flatMap { it.attributes.attributes }
-            .forEach { check(it, holder, severity, project) }
+        // meta model is needed only for the enum default values, it is obtained on first of them
+        val metaModel = lazy(LazyThreadSafetyMode.NONE) { TSMetaModelAccess.getInstance(project).getMetaModel() }
+
+        TSDomElements.getInstance(dom).attributes
+            .forEach { check(it, metaModel, holder, severity) }
     }
 
     private fun check(
         dom: Attribute,
+        metaModel: Lazy<TSGlobalMetaModel>,
         holder: DomElementAnnotationHolder,
-        severity: HighlightSeverity,
-        project: Project
+        severity: HighlightSeverity
     ) {
         val defaultValue = dom.defaultValue.stringValue
             ?.trim()
@@ -80,7 +82,7 @@ class TSDefaultValueForEnumTypeMustBeAssignable : AbstractTSInspection() {
             return
         }
 
-        val meta = TSMetaModelAccess.getInstance(project).getMetaModel().getMetaEnum(dom.type.stringValue)
+        val meta = metaModel.value.getMetaEnum(dom.type.stringValue)
             ?: return
 
         // 3rd validation:
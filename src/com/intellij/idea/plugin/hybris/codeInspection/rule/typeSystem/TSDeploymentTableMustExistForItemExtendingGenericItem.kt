@@ -20,11 +20,11 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 
 import com.intellij.idea.plugin.hybris.codeInspection.fix.xml.XmlAddTagQuickFix
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.model.Deployment
 import com.intellij.idea.plugin.hybris.system.type.model.ItemType
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.highlighting.DomElementAnnotationHolder
@@ -40,12 +40,20 @@ class TSDeploymentTableMustExistForItemExtendingGenericItem : AbstractTSInspecti
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.itemTypes.all.forEach { check(it, project, holder, severity) }
+        val itemTypes = TSDomElements.getInstance(dom).itemTypes
+            .takeIf { it.isNotEmpty() }
+            ?: return
+        val metaModelAccess = TSMetaModelAccess.getInstance(project)
+        val metaModel = metaModelAccess.getMetaModel()
+        val nextAvailableTypeCode = lazy(LazyThreadSafetyMode.NONE) { metaModelAccess.getNextAvailableTypeCode() }
+
+        itemTypes.forEach { check(it, metaModel, nextAvailableTypeCode, holder, severity) }
     }
 
     private fun check(
         dom: ItemType,
-        project: Project,
+        metaModel: TSGlobalMetaModel,
+        nextAvailableTypeCode: Lazy<Int?>,
         holder: DomElementAnnotationHolder,
         severity: HighlightSeverity
     ) {
@@ -54,7 +62,7 @@ class TSDeploymentTableMustExistForItemExtendingGenericItem : AbstractTSInspecti
 
         val itemTypeCode = dom.code.stringValue ?: return
 
-        val metaItem = TSMetaModelAccess.getInstance(project).getMetaModel().getMetaItem(itemTypeCode)
+        val metaItem = metaModel.getMetaItem(itemTypeCode)
             ?: return
 
         if (StringUtils.isNotBlank(metaItem.deployment?.typeCode)) return
@@ -77,7 +85,7 @@ class TSDeploymentTableMustExistForItemExtendingGenericItem : AbstractTSInspecti
 
         if (countDeploymentTablesInParents > 0) return
 
-        val fix = getOptionalFix(project, itemTypeCode)
+        val fix = getOptionalFix(nextAvailableTypeCode.value, itemTypeCode)
 
         if (fix == null) {
             holder.createProblem(dom, severity, displayName, getTextRange(dom))
@@ -86,7 +94,7 @@ class TSDeploymentTableMustExistForItemExtendingGenericItem : AbstractTSInspecti
         }
     }
 
-    private fun getOptionalFix(project: Project, itemTypeCode: String) = TSMetaModelAccess.getInstance(project).getNextAvailableTypeCode()
+    private fun getOptionalFix(nextAvailableTypeCode: Int?, itemTypeCode: String) = nextAvailableTypeCode
         ?.toString()
         ?.let {
             sortedMapOf(
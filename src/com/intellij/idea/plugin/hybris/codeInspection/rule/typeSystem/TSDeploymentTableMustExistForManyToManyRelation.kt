@@ -34,7 +34,7 @@ class TSDeploymentTableMustExistForManyToManyRelation : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.relations.relations.forEach { check(it, holder, severity) }
+        TSDomElements.getInstance(dom).relations.forEach { check(it, holder, severity) }
     }
 
     private fun check(
@@ -36,12 +36,14 @@ class TSDeploymentTypeCodesMustBeGreaterThanTenThousandForRelations : AbstractCu
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.relations.relations.forEach { check(it.deployment, project, holder, severity) }
+        val nextAvailableTypeCode = lazy(LazyThreadSafetyMode.NONE) { TSMetaModelAccess.getInstance(project).getNextAvailableTypeCode() }
+
+        TSDomElements.getInstance(dom).relations.forEach { check(it.deployment, nextAvailableTypeCode, holder, severity) }
     }
 
     private fun check(
         dom: Deployment,
-        project: Project,
+        nextAvailableTypeCode: Lazy<Int?>,
         holder: DomElementAnnotationHolder,
         severity: HighlightSeverity
     ) {
@@ -54,7 +56,7 @@ class TSDeploymentTypeCodesMustBeGreaterThanTenThousandForRelations : AbstractCu
                 displayName,
                 XmlUpdateAttributeQuickFix(
                     Deployment.TYPE_CODE,
-                    TSMetaModelAccess.getInstance(project).getNextAvailableTypeCode().toString()
+                    nextAvailableTypeCode.value.toString()
                 )
             )
         }
@@ -0,0 +1,54 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019 EPAM Systems <hybrisideaplugin@epam.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
+
+import com.intellij.idea.plugin.hybris.system.type.model.*
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.util.xml.DomUtil
+
+/**
+ * Elements of the single items.xml file, shared by all type system inspections.
+ *
+ * The `Items` DOM is walked once per file modification instead of once per each enabled inspection,
+ * order of the elements is the same as of the [Items] model extensions.
+ */
+class TSDomElements private constructor(dom: Items) {
+
+    val itemTypes: List<ItemType> = dom.itemTypes.all
+    val attributes: List<Attribute> = itemTypes.flatMap { it.attributes.attributes }
+    val enumTypes: List<EnumType> = dom.enumTypes.enumTypes
+    val relations: List<Relation> = dom.relations.relations
+    val relationElements: List<RelationElement> = relations.flatMap { listOf(it.sourceElement, it.targetElement) }
+    val collectionTypes: List<CollectionType> = dom.collectionTypes.collectionTypes
+    val mapTypes: List<MapType> = dom.mapTypes.mapTypes
+    val deployments: List<Deployment> = itemTypes.map { it.deployment } + relations.map { it.deployment }
+    val modifiers: List<Modifiers> = attributes.map { it.modifiers } + relationElements.map { it.modifiers }
+
+    companion object {
+
+        fun getInstance(dom: Items): TSDomElements {
+            val file = DomUtil.getFile(dom)
+
+            return CachedValuesManager.getCachedValue(file) {
+                CachedValueProvider.Result.create(TSDomElements(dom), file)
+            }
+        }
+    }
+}
@@ -36,7 +36,7 @@ class TSListsInRelationShouldBeAvoided : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.relations.elements.forEach { check(it, holder, severity) }
+        TSDomElements.getInstance(dom).relationElements.forEach { check(it, holder, severity) }
     }
 
     private fun check(
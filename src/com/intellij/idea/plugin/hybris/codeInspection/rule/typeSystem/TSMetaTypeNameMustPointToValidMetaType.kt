@@ -20,9 +20,9 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaHelper
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.GenericAttributeValue
@@ -38,24 +38,24 @@ class TSMetaTypeNameMustPointToValidMetaType : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        val attributeMetaTypes = dom.itemTypes.all
-            .flatMap { it.attributes.attributes }
+        val attributeMetaTypes = TSDomElements.getInstance(dom).attributes
             .map { it.metaType }
+            .takeIf { it.isNotEmpty() }
+            ?: return
+        val metaModel = TSMetaModelAccess.getInstance(project).getMetaModel()
 
-        (attributeMetaTypes)
-            .forEach { check(it, holder, severity, project) }
+        attributeMetaTypes
+            .forEach { check(it, metaModel, holder, severity) }
     }
 
     private fun check(
         dom: GenericAttributeValue<String>,
+        metaModel: TSGlobalMetaModel,
         holder: DomElementAnnotationHolder,
-        severity: HighlightSeverity,
-        project: Project
+        severity: HighlightSeverity
     ) {
         val typeCode = dom.stringValue ?: return
 
-        val metaModel = TSMetaModelAccess.getInstance(project).getMetaModel()
-
         val meta = metaModel.getMetaItem(typeCode)
 
         if (meta == null || !TSMetaHelper.isAttributeDescriptor(meta)) {
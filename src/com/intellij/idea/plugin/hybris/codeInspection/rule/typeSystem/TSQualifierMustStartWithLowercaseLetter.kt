@@ -22,8 +22,6 @@ import com.intellij.idea.plugin.hybris.codeInspection.fix.xml.XmlUpdateAttribute
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils
 import com.intellij.idea.plugin.hybris.system.type.model.Attribute
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
-import com.intellij.idea.plugin.hybris.system.type.model.elements
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.GenericAttributeValue
@@ -39,10 +37,10 @@ class TSQualifierMustStartWithLowercaseLetter : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        val itemQualifiers = dom.itemTypes.all
-            .flatMap { it.attributes.attributes }
+        val elements = TSDomElements.getInstance(dom)
+        val itemQualifiers = elements.attributes
             .map { it.qualifier }
-        val relationQualifiers = dom.relations.elements
+        val relationQualifiers = elements.relationElements
             .map { it.qualifier }
 
         (itemQualifiers + relationQualifiers)
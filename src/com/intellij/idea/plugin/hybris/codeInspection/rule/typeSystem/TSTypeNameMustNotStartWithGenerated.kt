@@ -21,7 +21,6 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 import com.intellij.idea.plugin.hybris.codeInspection.fix.xml.XmlUpdateAttributeQuickFix
 import com.intellij.idea.plugin.hybris.system.type.model.ItemType
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.GenericAttributeValue
@@ -37,9 +36,10 @@ class TSTypeNameMustNotStartWithGenerated : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        val itemCodes = dom.itemTypes.all.map { it.code }
-        val enumCodes = dom.enumTypes.enumTypes.map { it.code }
-        val relationCodes = dom.relations.relations.map { it.code }
+        val elements = TSDomElements.getInstance(dom)
+        val itemCodes = elements.itemTypes.map { it.code }
+        val enumCodes = elements.enumTypes.map { it.code }
+        val relationCodes = elements.relations.map { it.code }
 
         (itemCodes + enumCodes + relationCodes).forEach { check(it, holder, severity) }
     }
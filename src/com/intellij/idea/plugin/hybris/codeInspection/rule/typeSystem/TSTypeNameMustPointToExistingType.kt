@@ -20,9 +20,9 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.GenericAttributeValue
@@ -38,23 +38,28 @@ class TSTypeNameMustPointToExistingType : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        val collectionElementTypes = dom.collectionTypes.collectionTypes
+        val elements = TSDomElements.getInstance(dom)
+        val collectionElementTypes = elements.collectionTypes
             .map { it.elementType }
-        val mapArgumentTypes = dom.mapTypes.mapTypes
+        val mapArgumentTypes = elements.mapTypes
             .flatMap { listOf(it.argumentType, it.returnType) }
-        val attributeTypes = dom.itemTypes.all
-            .flatMap { it.attributes.attributes }
+        val attributeTypes = elements.attributes
             .map { it.type }
 
-        (collectionElementTypes + mapArgumentTypes + attributeTypes)
-            .forEach { check(it, holder, severity, project) }
+        val typeNames = (collectionElementTypes + mapArgumentTypes + attributeTypes)
+            .takeIf { it.isNotEmpty() }
+            ?: return
+        val metaModel = TSMetaModelAccess.getInstance(project).getMetaModel()
+
+        typeNames
+            .forEach { check(it, metaModel, holder, severity) }
     }
 
     private fun check(
         dom: GenericAttributeValue<String>,
+        metaModel: TSGlobalMetaModel,
         holder: DomElementAnnotationHolder,
-        severity: HighlightSeverity,
-        project: Project
+        severity: HighlightSeverity
     ) {
         val typeCode = dom.stringValue
             ?.replace(HybrisConstants.TS_ATTRIBUTE_LOCALIZED_PREFIX, "")
@@ -63,7 +68,7 @@ class TSTypeNameMustPointToExistingType : AbstractTSInspection() {
         // If type code is Primitive - skip, it is not registered via TS, but available in Service Layer
         if (HybrisConstants.TS_PRIMITIVE_TYPES.contains(typeCode)) return
 
-        val meta = TSMetaModelAccess.getInstance(project).findMetaClassifierByName(typeCode)
+        val meta = metaModel.getMetaClassifier(typeCode)
 
         if (meta == null) {
             holder.createProblem(
@@ -21,7 +21,6 @@ package com.intellij.idea.plugin.hybris.codeInspection.rule.typeSystem
 import com.intellij.idea.plugin.hybris.codeInspection.fix.xml.XmlUpdateAttributeQuickFix
 import com.intellij.idea.plugin.hybris.system.type.model.ItemType
 import com.intellij.idea.plugin.hybris.system.type.model.Items
-import com.intellij.idea.plugin.hybris.system.type.model.all
 import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.project.Project
 import com.intellij.util.xml.GenericAttributeValue
@@ -37,9 +36,10 @@ class TSTypeNameMustStartWithUppercaseLetter : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.itemTypes.all.forEach { check(it.code, holder, severity) }
-        dom.enumTypes.enumTypes.forEach { check(it.code, holder, severity) }
-        dom.relations.relations.forEach { check(it.code, holder, severity) }
+        val elements = TSDomElements.getInstance(dom)
+        elements.itemTypes.forEach { check(it.code, holder, severity) }
+        elements.enumTypes.forEach { check(it.code, holder, severity) }
+        elements.relations.forEach { check(it.code, holder, severity) }
     }
 
     private fun check(
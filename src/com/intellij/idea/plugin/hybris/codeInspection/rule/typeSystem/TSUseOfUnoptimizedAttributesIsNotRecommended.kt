@@ -35,7 +35,7 @@ class TSUseOfUnoptimizedAttributesIsNotRecommended : AbstractTSInspection() {
         helper: DomHighlightingHelper,
         severity: HighlightSeverity
     ) {
-        dom.modifiers.forEach { check(it, holder, severity) }
+        TSDomElements.getInstance(dom).modifiers.forEach { check(it, holder, severity) }
     }
 
     private fun check(
@@ -0,0 +1,62 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.intellij.idea.plugin.hybris.common.utils
+
+import com.intellij.concurrency.JobLauncher
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressManager
+import java.lang.management.ManagementFactory
+import java.util.concurrent.atomic.AtomicLong
+
+object ConcurrentProcessingUtils {
+
+    private val LOG = Logger.getInstance(ConcurrentProcessingUtils::class.java)
+
+    /**
+     * Maps given items concurrently via [JobLauncher], which uses bounded shared pool and propagates read action
+     * and cancellation of the current progress indicator to the workers.
+     *
+     * Results are returned in the order of the input items, `null` results are skipped.
+     * Wall-clock and CPU time of the processing will be logged under the given [name].
+     */
+    fun <T, R : Any> mapConcurrently(name: String, items: Collection<T>, mapper: (T) -> R?): List<R> {
+        val input = items.toList()
+        val results = arrayOfNulls<Any>(input.size)
+        val cpuTime = AtomicLong()
+        val threadMXBean = ManagementFactory.getThreadMXBean()
+        val started = System.nanoTime()
+
+        val completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(
+            input.indices.toList(),
+            ProgressManager.getInstance().progressIndicator
+        ) { index ->
+            val threadStarted = threadMXBean.currentThreadCpuTime
+            results[index] = mapper(input[index])
+            cpuTime.addAndGet(threadMXBean.currentThreadCpuTime - threadStarted)
+            true
+        }
+
+        if (!completed) throw ProcessCanceledException()
+
+        LOG.debug("$name: processed ${input.size} items in ${(System.nanoTime() - started) / 1_000_000} ms, CPU time ${cpuTime.get() / 1_000_000} ms")
+
+        @Suppress("UNCHECKED_CAST")
+        return results.mapNotNull { it as R? }
+    }
+}
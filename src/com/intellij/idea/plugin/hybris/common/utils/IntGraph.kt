@@ -0,0 +1,178 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.intellij.idea.plugin.hybris.common.utils
+
+import java.util.*
+
+/**
+ * Directed graph over the nodes `0 until size`, successors of all nodes are kept in the single primitive array,
+ * successors of the node `n` are stored between `offsets[n]` and `offsets[n + 1]` in the order of the added edges.
+ */
+class IntGraph private constructor(
+    val size: Int,
+    @PublishedApi internal val offsets: IntArray,
+    @PublishedApi internal val successors: IntArray
+) {
+
+    inline fun forEachSuccessor(node: Int, action: (Int) -> Unit) {
+        for (index in offsets[node] until offsets[node + 1]) action(successors[index])
+    }
+
+    /**
+     * Finds strongly connected components with more than one node, i.e. cycles, using Tarjan's algorithm.
+     *
+     * Depth-first search is driven by the explicit stack, so deep graphs do not overflow the thread stack.
+     * Components are returned in the order of completion, same as in the recursive implementation.
+     */
+    fun findCycles(): List<IntArray> {
+        val cycles = mutableListOf<IntArray>()
+        val index = IntArray(size) { -1 }
+        val lowLink = IntArray(size)
+        val cursor = IntArray(size)
+        val onStack = BitSet(size)
+        val stack = IntArray(size)
+        val callStack = IntArray(size)
+        var stackSize = 0
+        var callStackSize = 0
+        var counter = 0
+
+        for (root in 0 until size) {
+            if (index[root] != -1) continue
+
+            index[root] = counter
+            lowLink[root] = counter++
+            cursor[root] = offsets[root]
+            stack[stackSize++] = root
+            onStack.set(root)
+            callStack[callStackSize++] = root
+
+            while (callStackSize > 0) {
+                val node = callStack[callStackSize - 1]
+
+                if (cursor[node] < offsets[node + 1]) {
+                    val successor = successors[cursor[node]++]
+
+                    if (index[successor] == -1) {
+                        index[successor] = counter
+                        lowLink[successor] = counter++
+                        cursor[successor] = offsets[successor]
+                        stack[stackSize++] = successor
+                        onStack.set(successor)
+                        callStack[callStackSize++] = successor
+                    } else if (onStack[successor]) {
+                        lowLink[node] = minOf(lowLink[node], index[successor])
+                    }
+                    continue
+                }
+
+                callStackSize--
+                if (callStackSize > 0) {
+                    val parent = callStack[callStackSize - 1]
+                    lowLink[parent] = minOf(lowLink[parent], lowLink[node])
+                }
+
+                if (lowLink[node] != index[node]) continue
+
+                var start = stackSize
+                do {
+                    val member = stack[--start]
+                    onStack.clear(member)
+                } while (member != node)
+
+                // don't return trivial components in the form of single nodes
+                if (stackSize - start > 1) cycles.add(stack.copyOfRange(start, stackSize).apply { reverse() })
+                stackSize = start
+            }
+        }
+
+        return cycles
+    }
+
+    /**
+     * Returns the number of the cycle for each node, see [findCycles], or `-1` if node is not a part of any cycle.
+     */
+    fun getCycleNumbers(cycles: List<IntArray> = findCycles()): IntArray {
+        val cycleNumbers = IntArray(size) { -1 }
+        cycles.forEachIndexed { cycleNumber, nodes -> nodes.forEach { cycleNumbers[it] = cycleNumber } }
+        return cycleNumbers
+    }
+
+    class Builder(private val size: Int) {
+
+        private var sources = IntArray(16)
+        private var targets = IntArray(16)
+        private var edges = 0
+
+        fun addEdge(source: Int, target: Int): Builder {
+            Objects.checkIndex(source, size)
+            Objects.checkIndex(target, size)
+
+            if (edges == sources.size) {
+                sources = sources.copyOf(edges * 2)
+                targets = targets.copyOf(edges * 2)
+            }
+            sources[edges] = source
+            targets[edges] = target
+            edges++
+            return this
+        }
+
+        /**
+         * Counting sort of the edges by source node, order of the edges of the same node is preserved.
+         */
+        fun build(): IntGraph {
+            val offsets = IntArray(size + 1)
+            for (edge in 0 until edges) offsets[sources[edge] + 1]++
+            for (node in 0 until size) offsets[node + 1] += offsets[node]
+
+            val position = offsets.copyOf(size)
+            val successors = IntArray(edges)
+            for (edge in 0 until edges) successors[position[sources[edge]]++] = targets[edge]
+
+            return IntGraph(size, offsets, successors)
+        }
+    }
+
+    companion object {
+
+        /**
+         * Builds graph of the given nodes, edges between unknown nodes are ignored.
+         *
+         * @return graph and index of each node in it
+         */
+        @JvmStatic
+        fun <N, E> of(
+            nodes: Collection<N>,
+            edges: Collection<E>,
+            source: (E) -> N,
+            target: (E) -> N
+        ): Pair<IntGraph, Map<N, Int>> {
+            val indices = LinkedHashMap<N, Int>(nodes.size)
+            nodes.forEach { indices.putIfAbsent(it, indices.size) }
+
+            val builder = Builder(indices.size)
+            edges.forEach { edge ->
+                val sourceIndex = indices[source(edge)] ?: return@forEach
+                val targetIndex = indices[target(edge)] ?: return@forEach
+                builder.addEdge(sourceIndex, targetIndex)
+            }
+
+            return builder.build() to indices
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.intellij.idea.plugin.hybris.common.utils
+
+/**
+ * Finds the longest of the given keys which is a prefix of the text, keys are kept in the sorted array.
+ *
+ * Keys sharing already matched prefix always form a contiguous range of the array, so the range is narrowed char by char
+ * with a binary search, and the exact match, if any, is the first key of that range.
+ */
+class LongestPrefixMatcher(keys: Collection<String>) {
+
+    private val sortedKeys = keys
+        .filter { it.isNotEmpty() }
+        .distinct()
+        .toTypedArray()
+        .apply { sort() }
+
+    fun isEmpty() = sortedKeys.isEmpty()
+
+    fun longestPrefixOf(text: CharSequence, start: Int = 0): String? {
+        var from = 0
+        var to = sortedKeys.size
+        var depth = 0
+        var match: String? = null
+
+        while (start + depth < text.length) {
+            val c = text[start + depth].code
+            from = bound(from, to, depth, c, false)
+            to = bound(from, to, depth, c, true)
+            if (from >= to) break
+
+            depth++
+            if (sortedKeys[from].length == depth) match = sortedKeys[from]
+        }
+
+        return match
+    }
+
+    /**
+     * Returns the longest keys contained in the text in the order of their first occurrence, all of them have the same length.
+     */
+    fun longestContainedIn(text: CharSequence): Set<String> {
+        val matches = LinkedHashSet<String>()
+        var matchLength = 0
+        for (start in text.indices) {
+            if (text.length - start < matchLength) break
+
+            val candidate = longestPrefixOf(text, start) ?: continue
+            if (candidate.length > matchLength) {
+                matches.clear()
+                matchLength = candidate.length
+            }
+            if (candidate.length == matchLength) matches.add(candidate)
+        }
+        return matches
+    }
+
+    /**
+     * Binary search for the first key in the range with the char at [depth] greater than (or equal to) [c],
+     * keys shorter than the [depth] are treated as the smallest ones.
+     */
+    private fun bound(from: Int, to: Int, depth: Int, c: Int, strict: Boolean): Int {
+        var low = from
+        var high = to
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            val key = sortedKeys[mid]
+            val midChar = if (depth < key.length) key[depth].code else -1
+            if (midChar < c || strict && midChar == c) low = mid + 1
+            else high = mid
+        }
+        return low
+    }
+}
@@ -18,99 +18,65 @@
 
 package com.intellij.idea.plugin.hybris.diagram.module.node;
 
+import com.intellij.idea.plugin.hybris.common.utils.IntGraph;
 import com.intellij.idea.plugin.hybris.diagram.module.node.graph.ModuleDepGraphNode;
+import kotlin.Pair;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Marks edges of the module dependency cycles, cycles are detected on the {@link IntGraph},
+ * so each edge is checked only once.
+ */
 public class TarjanCircularDetection {
 
-    private int index;
     private final Collection<ModuleDepDiagramEdge> myEdges;
-    private final Collection<ModuleDepGraphNode> myNodes;
-    private Deque<ModuleDepGraphNode> deque;
-    private final Map<ModuleDepGraphNode, Integer> indexMap;
-    private final Map<ModuleDepGraphNode, Integer> lowLinkMap;
+    private final List<ModuleDepGraphNode> myNodes;
+    private final IntGraph myGraph;
+    private final Map<ModuleDepGraphNode, Integer> myIndices;
 
     public TarjanCircularDetection(
         final Collection<ModuleDepDiagramNode> diagramNodes,
         final Collection<ModuleDepDiagramEdge> myEdges
     ) {
-        this.index = 0;
         this.myEdges = myEdges;
-        this.myNodes = diagramNodes.stream()
-            .map(ModuleDepDiagramNode::getIdentifyingElement)
-            .collect(Collectors.toList());
-        this.indexMap = new HashMap<>();
-        this.lowLinkMap = new HashMap<>();
-    }
-
-    public void detectAndMarkCircles() {
-        final List<List<ModuleDepGraphNode>> nodeSegments = computeTarjan();
-        int segmentId = 0;
-        for (List<ModuleDepGraphNode> segment : nodeSegments) {
-            final int finalSegmentId = segmentId;
-            myEdges.stream()
-                .filter(edge -> segment.contains(edge.getSource().getIdentifyingElement()))
-                .filter(edge -> segment.contains(edge.getTarget().getIdentifyingElement()))
-                .forEach(edge -> {
-                    edge.circleNumber = finalSegmentId;
-                    edge.numberOfCircles = nodeSegments.size();
-                });
-            segmentId++;
-        }
-    }
 
-    public List<List<ModuleDepGraphNode>> computeTarjan() {
-        this.index = 0;
-        deque = new ArrayDeque<>();
-        final List<List<ModuleDepGraphNode>> result = new ArrayList<>();
-        for (ModuleDepGraphNode v : this.myNodes) {
-            if (indexMap.get(v) == null) {
-                result.addAll(this.strongConnect(v));
-            }
-        }
-        return result;
+        final Pair<IntGraph, Map<ModuleDepGraphNode, Integer>> graph = IntGraph.of(
+            diagramNodes.stream()
+                .map(ModuleDepDiagramNode::getIdentifyingElement)
+                .collect(Collectors.toList()),
+            myEdges,
+            edge -> edge.getSource().getIdentifyingElement(),
+            edge -> edge.getTarget().getIdentifyingElement()
+        );
+        this.myGraph = graph.getFirst();
+        this.myIndices = graph.getSecond();
+        this.myNodes = new ArrayList<>(myIndices.keySet());
     }
 
+    public void detectAndMarkCircles() {
+        final List<int[]> cycles = myGraph.findCycles();
+        final int[] cycleNumbers = myGraph.getCycleNumbers(cycles);
 
-    public List<List<ModuleDepGraphNode>> strongConnect(final ModuleDepGraphNode v) {
-        indexMap.put(v, index);
-        lowLinkMap.put(v, index);
-        index++;
-        deque.push(v);
-        final List<List<ModuleDepGraphNode>> result = new ArrayList<>();
-        for (ModuleDepGraphNode w : getSuccessors(v)) {
-            if (indexMap.get(w) == null) {
-                result.addAll(strongConnect(w));
-                lowLinkMap.put(v, Math.min(lowLinkMap.get(v), lowLinkMap.get(w)));
-            } else {
-                if (deque.contains(w)) {
-                    lowLinkMap.put(v, Math.min(lowLinkMap.get(v), indexMap.get(w)));
-                }
-            }
-        }
+        for (ModuleDepDiagramEdge edge : myEdges) {
+            final Integer source = myIndices.get(edge.getSource().getIdentifyingElement());
+            final Integer target = myIndices.get(edge.getTarget().getIdentifyingElement());
+            if (source == null || target == null) continue;
 
-        if (lowLinkMap.get(v).equals(indexMap.get(v))) {
-            final List<ModuleDepGraphNode> sccList = new ArrayList<>();
-            while (true) {
-                final ModuleDepGraphNode w = deque.pop();
-                sccList.add(w);
-                if (w.equals(v)) {
-                    break;
-                }
+            final int cycleNumber = cycleNumbers[source];
+            if (cycleNumber != -1 && cycleNumber == cycleNumbers[target]) {
+                edge.circleNumber = cycleNumber;
+                edge.numberOfCircles = cycles.size();
             }
-            if (sccList.size() > 1) {
-                result.add(sccList);
-            } // don't return trivial sccs in the form of single nodes.
         }
-        return result;
     }
 
-    private List<ModuleDepGraphNode> getSuccessors(final ModuleDepGraphNode v) {
-        return myEdges.stream()
-            .filter(edge -> edge.getSource().getIdentifyingElement().equals(v))
-            .map(edge -> edge.getTarget().getIdentifyingElement())
+    public List<List<ModuleDepGraphNode>> computeTarjan() {
+        return myGraph.findCycles().stream()
+            .map(cycle -> Arrays.stream(cycle)
+                .mapToObj(myNodes::get)
+                .collect(Collectors.toList()))
             .collect(Collectors.toList());
     }
 }
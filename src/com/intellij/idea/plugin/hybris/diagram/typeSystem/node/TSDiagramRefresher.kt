@@ -29,28 +29,54 @@ import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.meta.model.*
 import com.intellij.idea.plugin.hybris.system.type.model.Cardinality
 import com.intellij.idea.plugin.hybris.system.type.settings.TSDiagramSettings
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.util.xml.DomElement
 import java.awt.Shape
 
+/**
+ * Nodes of the previous refresh are re-used as long as they represent the same meta classifier,
+ * unchanged meta classifiers are preserved by the Type System merge, so only changed types are re-created.
+ */
 object TSDiagramRefresher {
 
+    private val LOG = Logger.getInstance(TSDiagramRefresher::class.java)
+
     fun refresh(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, edges: MutableCollection<TSDiagramEdge>) {
+        val started = System.nanoTime()
         val settings = HybrisDeveloperSpecificProjectSettingsComponent.getInstance(model.project).state.typeSystemDiagramSettings
+        val previousNodes = HashMap(nodesMap)
 
-        refreshNodes(model, nodesMap, settings)
+        refreshNodes(model, nodesMap, previousNodes, settings)
         refreshEdges(model, nodesMap, edges)
+
+        val reusedNodes = nodesMap.values.count { previousNodes[it.graphNode.name] === it }
+        LOG.debug(
+            "Type System diagram ${if (previousNodes.isEmpty()) "full" else "incremental"} refresh: " +
+                "${nodesMap.size} nodes ($reusedNodes re-used), ${edges.size} edges in ${(System.nanoTime() - started) / 1_000_000} ms"
+        )
     }
 
-    private fun refreshNodes(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, settings: TSDiagramSettings) {
+    private fun refreshNodes(
+        model: TSDiagramDataModel,
+        nodesMap: MutableMap<String, TSDiagramNode>,
+        previousNodes: Map<String, TSDiagramNode>,
+        settings: TSDiagramSettings
+    ) {
         nodesMap.clear()
 
-        collectNodesItems(model, nodesMap, settings)
-        collectNodesDependencies(model, nodesMap, settings)
-        collectNodesExtends(model, nodesMap, settings)
+        collectNodesItems(model, nodesMap, previousNodes, settings)
+        collectNodesDependencies(model, nodesMap, previousNodes, settings)
+        collectNodesExtends(model, nodesMap, previousNodes, settings)
 
         updatedCollapsedNodes(model, nodesMap, settings)
     }
 
-    private fun collectNodesItems(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, settings: TSDiagramSettings) {
+    private fun collectNodesItems(
+        model: TSDiagramDataModel,
+        nodesMap: MutableMap<String, TSDiagramNode>,
+        previousNodes: Map<String, TSDiagramNode>,
+        settings: TSDiagramSettings
+    ) {
         TSMetaModelAccess.getInstance(model.project).getAll()
             .asSequence()
             .filter { it.name != null }
@@ -67,9 +93,8 @@ object TSDiagramRefresher {
                     else -> false
                 }
             }
-            .mapNotNull { TSGraphFactory.buildNode(it) }
-            .filter { model.scopeManager?.contains(it) ?: true }
-            .map { TSDiagramNode(it, model.provider) }
+            .mapNotNull { getOrBuildNode(model, previousNodes, it, false) }
+            .filter { model.scopeManager?.contains(it.graphNode) ?: true }
             .toList()
             .forEach {
                 nodesMap[it.graphNode.name] = it
@@ -82,7 +107,12 @@ object TSDiagramRefresher {
      * Nested dependencies will not be created as we're not interested at this stage in the complete picture.
      * If All possible dependencies are needed, another Type-Specific filter can be introduced with Scope = "All"
      */
-    private fun collectNodesDependencies(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, settings: TSDiagramSettings) {
+    private fun collectNodesDependencies(
+        model: TSDiagramDataModel,
+        nodesMap: MutableMap<String, TSDiagramNode>,
+        previousNodes: Map<String, TSDiagramNode>,
+        settings: TSDiagramSettings
+    ) {
         if (!model.isShowDependencies) return
 
         nodesMap.values
@@ -105,12 +135,14 @@ object TSDiagramRefresher {
                         if (settings.excludedTypeNames.contains(dependencyType)) return@mapNotNull null
                         if (nodesMap.containsKey(dependencyType)) return@mapNotNull null
 
-                        val transitiveNode = TSGraphFactory.buildTransitiveNode(model.project, dependencyType)
-                        if (!settings.showOOTBMapNodes && transitiveNode?.meta is TSGlobalMetaMap) return@mapNotNull null
-                        return@mapNotNull transitiveNode
+                        val dependencyMeta = TSMetaModelAccess.getInstance(model.project).findMetaClassifierByName(dependencyType)
+                            ?.takeIf { it.name != null }
+                            ?.takeIf { it !is TSGlobalMetaAtomic }
+                            ?: return@mapNotNull null
+                        if (!settings.showOOTBMapNodes && dependencyMeta is TSGlobalMetaMap) return@mapNotNull null
+                        return@mapNotNull getOrBuildNode(model, previousNodes, dependencyMeta, true)
                     }
             }
-            .map { TSDiagramNode(it, model.provider) }
             .forEach { nodesMap[it.graphNode.name] = it }
     }
 
@@ -121,7 +153,12 @@ object TSDiagramRefresher {
      *
      * Also, it is possible to specify STOP Types for extent names to limit down amount of created "shared" Edges
      */
-    private fun collectNodesExtends(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, settings: TSDiagramSettings) {
+    private fun collectNodesExtends(
+        model: TSDiagramDataModel,
+        nodesMap: MutableMap<String, TSDiagramNode>,
+        previousNodes: Map<String, TSDiagramNode>,
+        settings: TSDiagramSettings
+    ) {
         nodesMap.values
             .flatMap { sourceNode ->
                 val graphNode = sourceNode.graphNode as? TSGraphNodeClassifier ?: return@flatMap emptyList()
@@ -133,11 +170,10 @@ object TSDiagramRefresher {
                     .filterNot { extendsMeta -> settings.excludedTypeNames.contains(extendsMeta.name) }
                     .filter { extendsMeta -> nodesMap[extendsMeta.name] == null }
                     .filterNot { extendsMeta -> model.removedNodes.contains(extendsMeta.name) }
-                    .mapNotNull { extendsMeta -> TSGraphFactory.buildTransitiveNode(extendsMeta) }
-                    .filter { extendsGraphNode -> model.scopeManager?.contains(extendsGraphNode) ?: true }
+                    .mapNotNull { extendsMeta -> getOrBuildNode(model, previousNodes, extendsMeta, true) }
+                    .filter { extendsNode -> model.scopeManager?.contains(extendsNode.graphNode) ?: true }
                     .toList()
             }
-            .map { TSDiagramNode(it, model.provider) }
             .forEach { nodesMap[it.graphNode.name] = it }
     }
 
@@ -158,26 +194,56 @@ object TSDiagramRefresher {
         nodesMap.values
             .map { it.graphNode }
             .filter { model.collapsedNodes.contains(it.name) }
-            .forEach {
-                it.fields.clear()
-                it.collapsed = true
-            }
+            .forEach { it.collapsed = true }
+    }
+
+    /**
+     * Collapsed state of the re-used node is reset, it will be re-applied once all nodes are collected.
+     */
+    private fun getOrBuildNode(
+        model: TSDiagramDataModel,
+        previousNodes: Map<String, TSDiagramNode>,
+        meta: TSGlobalMetaClassifier<out DomElement>,
+        transitiveNode: Boolean
+    ): TSDiagramNode? {
+        val previousNode = previousNodes[meta.name]
+        val previousGraphNode = previousNode?.graphNode as? TSGraphNodeClassifier
+
+        if (previousGraphNode != null && previousGraphNode.meta === meta && previousGraphNode.transitiveNode == transitiveNode) {
+            previousGraphNode.collapsed = false
+            return previousNode
+        }
+
+        val graphNode = if (transitiveNode) TSGraphFactory.buildTransitiveNode(meta)
+        else TSGraphFactory.buildNode(meta)
+
+        return graphNode?.let { TSDiagramNode(it, model.provider) }
     }
 
     private fun refreshEdges(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, edges: MutableCollection<TSDiagramEdge>) {
         edges.clear()
 
+        // fields are filtered according to the current content settings only once for both types of edges,
+        // collapsed nodes have no visible fields, so their fields are not built just to find out there are no edges
+        val nodesFields = nodesMap.values
+            .filter { it.graphNode is TSGraphNodeClassifier && !it.graphNode.collapsed }
+            .associateWith { sourceNode ->
+                DiagramElementManager.getNodeItemsAccordingToCurrentContentSettings(sourceNode, model.builder)
+                    .filterIsInstance<TSGraphField>()
+            }
+
         collectEdgesExtends(nodesMap, edges)
-        collectEdgesPartOf(model, nodesMap, edges)
-        collectEdgesDependencies(model, nodesMap, edges)
+        collectEdgesPartOf(nodesMap, nodesFields, edges)
+        collectEdgesDependencies(nodesMap, nodesFields, edges)
     }
 
-    private fun collectEdgesPartOf(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, edges: MutableCollection<TSDiagramEdge>) {
-        nodesMap.values.forEach { sourceNode ->
-            if (sourceNode.graphNode !is TSGraphNodeClassifier) return@forEach
-
-            DiagramElementManager.getNodeItemsAccordingToCurrentContentSettings(sourceNode, model.builder)
-                .filterIsInstance<TSGraphField>()
+    private fun collectEdgesPartOf(
+        nodesMap: MutableMap<String, TSDiagramNode>,
+        nodesFields: Map<TSDiagramNode, List<TSGraphField>>,
+        edges: MutableCollection<TSDiagramEdge>
+    ) {
+        nodesFields.forEach { (sourceNode, fields) ->
+            fields
                 .mapNotNull { graphField ->
                     var name: String? = null
                     var type: String? = null
@@ -208,12 +274,13 @@ object TSDiagramRefresher {
         }
     }
 
-    private fun collectEdgesDependencies(model: TSDiagramDataModel, nodesMap: MutableMap<String, TSDiagramNode>, edges: MutableCollection<TSDiagramEdge>) {
-        nodesMap.values.forEach { sourceNode ->
-            if (sourceNode.graphNode !is TSGraphNodeClassifier) return@forEach
-
-            DiagramElementManager.getNodeItemsAccordingToCurrentContentSettings(sourceNode, model.builder)
-                .filterIsInstance<TSGraphField>()
+    private fun collectEdgesDependencies(
+        nodesMap: MutableMap<String, TSDiagramNode>,
+        nodesFields: Map<TSDiagramNode, List<TSGraphField>>,
+        edges: MutableCollection<TSDiagramEdge>
+    ) {
+        nodesFields.forEach { (sourceNode, fields) ->
+            fields
                 .mapNotNull { graphField ->
                     var name: String? = null
                     var type: String? = null
@@ -36,25 +36,34 @@ object TSGraphFactory {
         ?.takeIf { it !is TSGlobalMetaAtomic }
         ?.let { buildNode(it) }
 
-    fun buildTransitiveNode(project: Project, name: String) = TSMetaModelAccess.getInstance(project).findMetaClassifierByName(name)
-        ?.takeIf { it.name != null }
-        ?.takeIf { it !is TSGlobalMetaAtomic }
-        ?.let { buildTransitiveNode(it) }
-
     fun buildNode(meta: TSGlobalMetaClassifier<out DomElement>) = buildNode(meta, false)
 
     fun buildTransitiveNode(meta: TSGlobalMetaClassifier<out DomElement>) = buildNode(meta, true)
 
-    private fun buildNode(meta: TSGlobalMetaClassifier<out DomElement>, transitiveNode: Boolean) = when (meta) {
-        is TSGlobalMetaEnum -> buildNode(meta, transitiveNode)
-        is TSGlobalMetaCollection -> buildNode(meta, transitiveNode)
-        is TSGlobalMetaRelation -> buildNode(meta, transitiveNode)
-        is TSGlobalMetaMap -> buildNode(meta, transitiveNode)
-        is TSGlobalMetaItem -> buildNode(meta, transitiveNode)
-        else -> buildNode(meta.name, meta, mutableListOf(), transitiveNode)
+    /**
+     * Fields are built on first access to the expanded node, they are also used for the edges, so fields are
+     * not built only for collapsed nodes. Tooltip is built once requested.
+     */
+    private fun buildNode(meta: TSGlobalMetaClassifier<out DomElement>, transitiveNode: Boolean) = meta.name?.let { name ->
+        TSGraphNodeClassifier(
+            name = name,
+            meta = meta,
+            transitiveNode = transitiveNode,
+            fieldsProvider = { buildFields(meta) },
+            tooltipProvider = { TSMetaDetailsGenerator.generateTooltip(meta) }
+        )
+    }
+
+    private fun buildFields(meta: TSGlobalMetaClassifier<out DomElement>): List<TSGraphField> = when (meta) {
+        is TSGlobalMetaEnum -> buildFields(meta)
+        is TSGlobalMetaCollection -> buildFields(meta)
+        is TSGlobalMetaRelation -> buildFields(meta)
+        is TSGlobalMetaMap -> buildFields(meta)
+        is TSGlobalMetaItem -> buildFields(meta)
+        else -> emptyList()
     }
 
-    private fun buildNode(meta: TSGlobalMetaItem, transitiveNode: Boolean): TSGraphNodeClassifier? {
+    private fun buildFields(meta: TSGlobalMetaItem): List<TSGraphField> {
         val deploymentProperties = deploymentFields(meta.deployment)
         val customProperties = meta.customProperties.values
             .map { customProperty -> TSGraphFieldCustomProperty(customProperty.name, customProperty) }
@@ -70,42 +79,30 @@ object TSGraphFactory {
             .map { index -> TSGraphFieldIndex(index.name, index) }
             .sortedBy { it.name }
 
-        val fields = (deploymentProperties + customProperties + attributes + relationEnds + indexes).toMutableList()
-        return buildNode(meta.name, meta, fields, transitiveNode)
+        return (deploymentProperties + customProperties + attributes + relationEnds + indexes).toList()
     }
 
-    private fun buildNode(meta: TSGlobalMetaMap, transitiveNode: Boolean): TSGraphNodeClassifier? {
-        val properties: MutableList<TSGraphField> = listOf(
-            TSGraphFieldTyped(MapType.ARGUMENTTYPE, meta.argumentType ?: "?"),
-            TSGraphFieldTyped(MapType.RETURNTYPE, meta.returnType ?: "?"),
-        )
-            .toMutableList()
+    private fun buildFields(meta: TSGlobalMetaMap): List<TSGraphField> = listOf(
+        TSGraphFieldTyped(MapType.ARGUMENTTYPE, meta.argumentType ?: "?"),
+        TSGraphFieldTyped(MapType.RETURNTYPE, meta.returnType ?: "?"),
+    )
 
-        return buildNode(meta.name, meta, properties, transitiveNode)
-    }
-
-    private fun buildNode(meta: TSGlobalMetaRelation, transitiveNode: Boolean): TSGraphNodeClassifier? {
+    private fun buildFields(meta: TSGlobalMetaRelation): List<TSGraphField> {
         val deploymentFields = deploymentFields(meta.deployment)
         val properties = listOf(
             TSGraphFieldRelationElement(Relation.SOURCE_ELEMENT, meta.source),
             TSGraphFieldRelationElement(Relation.TARGET_ELEMENT, meta.target),
         )
 
-        val fields = deploymentFields + properties
-        return buildNode(meta.name, meta, fields.toMutableList(), transitiveNode)
+        return (deploymentFields + properties).toList()
     }
 
-    private fun buildNode(meta: TSGlobalMetaCollection, transitiveNode: Boolean): TSGraphNodeClassifier? {
-        val fields = listOf(
-            TSGraphFieldProperty(CollectionType.TYPE, meta.type.value),
-            TSGraphFieldTyped(CollectionType.ELEMENTTYPE, meta.elementType),
-        )
-            .toMutableList()
-
-        return buildNode(meta.name, meta, fields, transitiveNode)
-    }
+    private fun buildFields(meta: TSGlobalMetaCollection): List<TSGraphField> = listOf(
+        TSGraphFieldProperty(CollectionType.TYPE, meta.type.value),
+        TSGraphFieldTyped(CollectionType.ELEMENTTYPE, meta.elementType),
+    )
 
-    private fun buildNode(meta: TSGlobalMetaEnum, transitiveNode: Boolean): TSGraphNodeClassifier? {
+    private fun buildFields(meta: TSGlobalMetaEnum): List<TSGraphField> {
         val properties = listOf(
             TSGraphFieldProperty(HybrisConstants.ATTRIBUTE_PK, "PK"),
             TSGraphFieldProperty(HybrisConstants.ATTRIBUTE_CODE, "String"),
@@ -116,9 +113,7 @@ object TSGraphFactory {
             .map { (name, metaEnumValue) -> TSGraphFieldEnumValue(name, metaEnumValue) }
             .sortedBy { it.name }
 
-        val fields = (properties + values).toMutableList()
-
-        return buildNode(meta.name, meta, fields, transitiveNode)
+        return properties + values
     }
 
     private fun deploymentFields(deployment: TSMetaDeployment?): Array<TSGraphField> {
@@ -132,18 +127,4 @@ object TSGraphFactory {
         return deploymentProperties
     }
 
-    private fun buildNode(
-        name: String?,
-        meta: TSGlobalMetaClassifier<out DomElement>,
-        fields: MutableList<TSGraphField> = mutableListOf(),
-        transitiveNode: Boolean = false,
-    ) = name?.let {
-        TSGraphNodeClassifier(
-            name = name,
-            meta = meta,
-            fields = fields,
-            transitiveNode = transitiveNode,
-            tooltip = TSMetaDetailsGenerator.generateTooltip(meta))
-    }
-
 }
\ No newline at end of file
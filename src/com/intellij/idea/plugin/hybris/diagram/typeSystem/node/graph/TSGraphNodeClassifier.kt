@@ -24,29 +24,39 @@ import com.intellij.idea.plugin.hybris.system.type.meta.model.TSGlobalMetaClassi
  * `transitiveNode` can be true in following cases:
  *  - non-custom Extends Node (will be taken into account only in case of "Custom + Extends" or "All" current Scope
  *  - non-custom Dependency Node (will be taken into account only in combination with `model.isShowDependencies == true`
+ *
+ * Fields are built on first access while the node is expanded, collapsed node does not build them.
+ * Fields are hidden while the node is collapsed, so expanding of the node does not require re-creation.
+ * Fields are derived from the [meta], so only [name] and [meta] identify the node.
  */
-data class TSGraphNodeClassifier(
+class TSGraphNodeClassifier(
     override val name: String,
     val meta: TSGlobalMetaClassifier<*>,
-    override val fields: MutableList<TSGraphField> = mutableListOf(),
     val transitiveNode: Boolean = false,
     override var collapsed: Boolean = false,
-    override val tooltip: String?
+    fieldsProvider: () -> List<TSGraphField> = { emptyList() },
+    tooltipProvider: () -> String? = { null }
 ) : TSGraphNode {
 
+    private val allFields: MutableList<TSGraphField> by lazy { fieldsProvider().toMutableList() }
+
+    override val fields: MutableList<TSGraphField>
+        get() = if (collapsed) mutableListOf() else allFields
+    override val tooltip: String? by lazy { tooltipProvider() }
+
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
         if (other !is TSGraphNodeClassifier) return false
 
         if (name != other.name) return false
-        if (meta != other.meta) return false
-        return fields.toTypedArray().contentEquals(other.fields.toTypedArray())
+        return meta == other.meta
     }
 
     override fun hashCode(): Int {
         var result = name.hashCode()
         result = 31 * result + meta.hashCode()
-        result = 31 * result + fields.toTypedArray().contentHashCode()
         return result
     }
-}
\ No newline at end of file
+
+    override fun toString() = "TSGraphNodeClassifier(name=$name, transitiveNode=$transitiveNode, collapsed=$collapsed)"
+}
@@ -24,7 +24,6 @@ import com.intellij.idea.plugin.hybris.flexibleSearch.psi.impl.FlexibleSearchYCo
 import com.intellij.psi.PsiElement
 import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.psi.util.childrenOfType
-import com.intellij.psi.util.parentOfType
 import com.intellij.psi.util.siblings
 import org.jetbrains.plugins.groovy.lang.psi.util.backwardSiblings
 
@@ -73,78 +72,11 @@ fun getNameIdentifier(element: FlexibleSearchPsiNamedElement): PsiElement = elem
 fun getTable(element: FlexibleSearchTableAliasName) = element.backwardSiblings()
     .firstOrNull { it is FlexibleSearchDefinedTableName } as? FlexibleSearchDefinedTableName
 
-fun getTableToAlias(element: FlexibleSearchYColumnName): Pair<FlexibleSearchDefinedTableName, FlexibleSearchTableAliasName?>? {
-    val tableAlias = element
-        .backwardSiblings()
-        .firstOrNull { it is FlexibleSearchSelectedTableName }
-        ?.reference
-        ?.resolve()
-        ?.let { it as? FlexibleSearchTableAliasName }
+fun getTableToAlias(element: FlexibleSearchYColumnName) = FlexibleSearchScopeTable.getInstance(element.containingFile)
+    .getTableToAlias(element)
 
-    return tableAlias
-        ?.table
-        ?.let { it to tableAlias }
-        ?: getSuitableTableContainerParent(element)
-            .firstOrNull()
-            ?.let { fromClause ->
-                val definedTableName = PsiTreeUtil.findChildOfType(fromClause, FlexibleSearchDefinedTableName::class.java)
-                    ?: return@let null
-
-                definedTableName to definedTableName.tableAlias
-            }
-}
-
-fun getTableAliases(element: PsiElement): Collection<FlexibleSearchTableAliasName> {
-    // Order clause is outside the select core
-    if (PsiTreeUtil.getParentOfType(element, FlexibleSearchOrderClause::class.java) != null) {
-        return PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectStatement::class.java)
-            ?.let { PsiTreeUtil.findChildrenOfType(it, FlexibleSearchTableAliasName::class.java) }
-            ?: emptyList()
-    }
-
-    // Where a case also may contain sub-queries, in such a case visibility to aliases will be from top-most available select
-    val topWhereClauseTableAliases = PsiTreeUtil.getTopmostParentOfType(element, FlexibleSearchWhereClause::class.java)
-        ?.let { topWhereClause ->
-            PsiTreeUtil.getParentOfType(topWhereClause, FlexibleSearchSelectCoreSelect::class.java)
-                ?.let { PsiTreeUtil.findChildrenOfType(it, FlexibleSearchTableAliasName::class.java) }
-        }
-        ?: emptyList()
-    // Case when we're in the Result column, we may have nested selects in the result column, so have to find the top one
-    val topResultColumnsTableAliases = PsiTreeUtil.getTopmostParentOfType(element, FlexibleSearchResultColumns::class.java)
-        ?.let { topResultColumns ->
-            PsiTreeUtil.getParentOfType(topResultColumns, FlexibleSearchSelectStatement::class.java)
-                ?.let { PsiTreeUtil.findChildrenOfType(it, FlexibleSearchTableAliasName::class.java) }
-        }
-        ?: emptyList()
-
-    val tableAliases = topWhereClauseTableAliases + topResultColumnsTableAliases
-    if (tableAliases.isNotEmpty()) return tableAliases
-
-    // all other cases, like GROUP BY, HAVING, etc
-    return PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectCoreSelect::class.java)
-        ?.fromClause
-        ?.let { PsiTreeUtil.findChildrenOfType(it, FlexibleSearchTableAliasName::class.java) }
-        ?: emptyList()
-}
-
-/*
- Order clause is not part of the CoreSelect, so we have to go upper to Statement itself
- ORDER BY can be in the sub-query, so let's check for it first
- */
-private fun getSuitableTableContainerParent(element: PsiElement) = PsiTreeUtil
-    .getParentOfType(element, FlexibleSearchOrderClause::class.java)
-    ?.parentOfType<FlexibleSearchSelectStatement>()
-    ?.selectCoreSelectList
-    ?.mapNotNull { it.fromClause }
-    ?: PsiTreeUtil
-        .getParentOfType(element, FlexibleSearchSelectCoreSelect::class.java)
-        ?.fromClause
-        ?.let { listOf(it) }
-    ?: PsiTreeUtil
-        .getParentOfType(element, FlexibleSearchSelectStatement::class.java)
-        ?.selectCoreSelectList
-        ?.mapNotNull { it.fromClause }
-    ?: emptyList()
+fun getTableAliases(element: PsiElement): Collection<FlexibleSearchTableAliasName> = FlexibleSearchScopeTable.getInstance(element.containingFile)
+    .getTableAliases(element)
 
 fun getTableName(element: FlexibleSearchDefinedTableName): String = element.firstChild.text
 
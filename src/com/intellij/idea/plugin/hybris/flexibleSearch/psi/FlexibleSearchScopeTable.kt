@@ -0,0 +1,170 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.flexibleSearch.psi
+
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.psi.util.parentOfType
+import org.jetbrains.plugins.groovy.lang.psi.util.backwardSiblings
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Table aliases and defined tables of a single FlexibleSearch file with visibility rules of the nested selects,
+ * collected in one pass over the file and re-computed only when the file is modified.
+ *
+ * Elements are kept in the order of their offsets, so elements of any select, clause or sub-query form
+ * a contiguous range, found with a binary search instead of walking the whole sub-tree.
+ */
+class FlexibleSearchScopeTable private constructor(
+    private val tableAliases: List<FlexibleSearchTableAliasName>,
+    private val definedTableNames: List<FlexibleSearchDefinedTableName>
+) {
+
+    private val tableAliasOffsets = tableAliases.map { it.textRange.startOffset }.toIntArray()
+    private val definedTableNameOffsets = definedTableNames.map { it.textRange.startOffset }.toIntArray()
+    private val tableAliasesByContainer = ConcurrentHashMap<PsiElement, List<FlexibleSearchTableAliasName>>()
+
+    /**
+     * Returns table aliases visible from the given element, i.e. column or table alias reference.
+     */
+    fun getTableAliases(element: PsiElement): List<FlexibleSearchTableAliasName> {
+        // Order clause is outside the select core
+        if (PsiTreeUtil.getParentOfType(element, FlexibleSearchOrderClause::class.java) != null) {
+            return PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectStatement::class.java)
+                ?.let { getTableAliasesIn(it) }
+                ?: emptyList()
+        }
+
+        // Where a case also may contain sub-queries, in such a case visibility to aliases will be from top-most available select
+        val topWhereClauseTableAliases = PsiTreeUtil.getTopmostParentOfType(element, FlexibleSearchWhereClause::class.java)
+            ?.let { topWhereClause ->
+                PsiTreeUtil.getParentOfType(topWhereClause, FlexibleSearchSelectCoreSelect::class.java)
+                    ?.let { getTableAliasesIn(it) }
+            }
+            ?: emptyList()
+        // Case when we're in the Result column, we may have nested selects in the result column, so have to find the top one
+        val topResultColumnsTableAliases = PsiTreeUtil.getTopmostParentOfType(element, FlexibleSearchResultColumns::class.java)
+            ?.let { topResultColumns ->
+                PsiTreeUtil.getParentOfType(topResultColumns, FlexibleSearchSelectStatement::class.java)
+                    ?.let { getTableAliasesIn(it) }
+            }
+            ?: emptyList()
+
+        val tableAliases = topWhereClauseTableAliases + topResultColumnsTableAliases
+        if (tableAliases.isNotEmpty()) return tableAliases
+
+        // all other cases, like GROUP BY, HAVING, etc
+        return PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectCoreSelect::class.java)
+            ?.fromClause
+            ?.let { getTableAliasesIn(it) }
+            ?: emptyList()
+    }
+
+    fun getTableToAlias(element: FlexibleSearchYColumnName): Pair<FlexibleSearchDefinedTableName, FlexibleSearchTableAliasName?>? {
+        val tableAlias = element
+            .backwardSiblings()
+            .firstOrNull { it is FlexibleSearchSelectedTableName }
+            ?.reference
+            ?.resolve()
+            ?.let { it as? FlexibleSearchTableAliasName }
+
+        return tableAlias
+            ?.table
+            ?.let { it to tableAlias }
+            ?: getSuitableTableContainerParent(element)
+                .firstOrNull()
+                ?.let { fromClause ->
+                    val definedTableName = getFirstDefinedTableNameIn(fromClause)
+                        ?: return@let null
+
+                    definedTableName to definedTableName.tableAlias
+                }
+    }
+
+    /*
+     Order clause is not part of the CoreSelect, so we have to go upper to Statement itself
+     ORDER BY can be in the sub-query, so let's check for it first
+     */
+    private fun getSuitableTableContainerParent(element: PsiElement) = PsiTreeUtil
+        .getParentOfType(element, FlexibleSearchOrderClause::class.java)
+        ?.parentOfType<FlexibleSearchSelectStatement>()
+        ?.selectCoreSelectList
+        ?.mapNotNull { it.fromClause }
+        ?: PsiTreeUtil
+            .getParentOfType(element, FlexibleSearchSelectCoreSelect::class.java)
+            ?.fromClause
+            ?.let { listOf(it) }
+        ?: PsiTreeUtil
+            .getParentOfType(element, FlexibleSearchSelectStatement::class.java)
+            ?.selectCoreSelectList
+            ?.mapNotNull { it.fromClause }
+        ?: emptyList()
+
+    private fun getTableAliasesIn(container: PsiElement) = tableAliasesByContainer.computeIfAbsent(container) {
+        val range = it.textRange
+        tableAliases.subList(lowerBound(tableAliasOffsets, range.startOffset), lowerBound(tableAliasOffsets, range.endOffset))
+    }
+
+    private fun getFirstDefinedTableNameIn(container: PsiElement): FlexibleSearchDefinedTableName? {
+        val range = container.textRange
+        val index = lowerBound(definedTableNameOffsets, range.startOffset)
+
+        return definedTableNames.getOrNull(index)
+            ?.takeIf { definedTableNameOffsets[index] < range.endOffset }
+    }
+
+    /**
+     * Returns index of the first offset which is not less than the given one.
+     */
+    private fun lowerBound(offsets: IntArray, offset: Int): Int {
+        var low = 0
+        var high = offsets.size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (offsets[mid] < offset) low = mid + 1
+            else high = mid
+        }
+        return low
+    }
+
+    companion object {
+
+        @JvmStatic
+        fun getInstance(file: PsiFile): FlexibleSearchScopeTable = CachedValuesManager.getCachedValue(file) {
+            val tableAliases = ArrayList<FlexibleSearchTableAliasName>()
+            val definedTableNames = ArrayList<FlexibleSearchDefinedTableName>()
+
+            file.accept(object : PsiRecursiveElementWalkingVisitor() {
+                override fun visitElement(element: PsiElement) {
+                    when (element) {
+                        is FlexibleSearchTableAliasName -> tableAliases.add(element)
+                        is FlexibleSearchDefinedTableName -> definedTableNames.add(element)
+                    }
+                    super.visitElement(element)
+                }
+            })
+
+            CachedValueProvider.Result.create(FlexibleSearchScopeTable(tableAliases, definedTableNames), file)
+        }
+    }
+}
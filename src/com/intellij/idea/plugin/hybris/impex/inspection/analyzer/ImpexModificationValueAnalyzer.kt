@@ -39,8 +39,6 @@ fun keyAttrPredicate(param: ImpexFullHeaderParameter) = param.modifiersList
     .flatMap { it.attributeList }
     .find { it.anyAttributeName.text == AttributeModifier.UNIQUE.modifierName && it.anyAttributeValue?.text == "true" } != null
 
-fun intersection(a: ByteArray, b: ByteArray) = a.filterIndexed { index, i -> b[index] != 0.toByte() && b[index] == i }.isNotEmpty()
-
 fun createDataTable(dataMap: Map<String, List<PsiElement>>, distinctCommonAttrsNames: List<String>, notKeyAttrsList: List<ImpexFullHeaderParameter>): DataTable {
     val countKeyAttrs = dataMap.entries.size
     val countRows = dataMap.values.first().size
@@ -51,13 +49,13 @@ fun createDataTable(dataMap: Map<String, List<PsiElement>>, distinctCommonAttrsN
 }
 
 fun createRows(countRows: Int, countKeyAttrs: Int, dataMap: Map<String, List<PsiElement>>): MutableList<Key> {
-    val keyRows = mutableListOf<Key>()
+    val columns = dataMap.values.take(countKeyAttrs)
+    val keyRows = ArrayList<Key>(countRows)
     for (i in 0 until countRows) {
-        val k = mutableListOf<PsiElement>()
-        for (y in 0 until countKeyAttrs) {
-            val entry = dataMap.entries.toList()[y]
-            if ((entry.value as List<*>).isNotEmpty() && entry.value.size > i) {
-                k.add(entry.value[i])
+        val k = ArrayList<PsiElement>(columns.size)
+        for (column in columns) {
+            if (column.size > i) {
+                k.add(column[i])
             }
         }
         keyRows.add(Key(k))
@@ -65,45 +63,47 @@ fun createRows(countRows: Int, countKeyAttrs: Int, dataMap: Map<String, List<Psi
     return keyRows
 }
 
+/**
+ * Detects values of the same attribute, which are set multiple times for the same unique key within the header lines group.
+ *
+ * Rows are grouped by the texts of their key values via hash map, each row resolves only value groups of its own value line,
+ * so the whole analysis is linear in the number of rows.
+ * For every attribute the first non-blank value in the group is reported as overridden, all following ones as overriding.
+ */
 class DataTable(private val keyRows: List<Key>, private val attrs: List<String>, private val attrsValues: List<ImpexFullHeaderParameter>) {
 
-    private val rows = mutableListOf<Row>()
-    private val errorBag = mutableSetOf<PsiElement>()
-    private val warningBag = mutableSetOf<PsiElement>()
+    private val errorBag = LinkedHashSet<PsiElement>()
+    private val warningBag = LinkedHashSet<PsiElement>()
 
     fun analyze(problemsHolder: ProblemsHolder) {
-
-        analyzeProblems()
-        collectProblems()
+        collectProblems(analyzeProblems())
         showFoundProblems(problemsHolder)
     }
 
-    private fun collectProblems() {
-        val groupBy = rows.groupBy { it.key.toString() }
-        groupBy.forEach { (_, rows: List<Row>) ->
-            rows.forEach { row1 ->
-                rows.forEach { row2 ->
-                    if (row1.columns != row2.columns && intersection(row1.columns, row2.columns)) {
-                        row1.columns.forEachIndexed { idx, az ->
-                            val row1Element = row1.valueGroup[idx]
-                            val row2Element = row2.valueGroup[idx]
-
-                            if ((row1Element != null && row1Element.text.replace(";", "").isNotBlank()) &&
-                                (row2Element != null && row2Element.text.replace(";", "").isNotBlank())
-                            ) {
-                                if (az == 1.toByte()) {
-                                    if (!errorBag.contains(row2Element) && !warningBag.contains(row2Element))
-                                        warningBag.add(row2Element)
-
-                                    if (!errorBag.contains(row1Element) && !warningBag.contains(row1Element))
-                                        errorBag.add(row1Element)
-                                }
-                            }
+    private fun collectProblems(rows: List<Row>) {
+        rows
+            .groupBy { it.key.texts }
+            .values
+            .filter { it.size > 1 }
+            .forEach { rowsGroup ->
+                for (idx in attrs.indices) {
+                    val elements = rowsGroup
+                        .mapNotNull { it.valueGroups[idx] }
+                        .filter { it.text.replace(";", "").isNotBlank() }
+
+                    if (elements.size < 2) continue
+
+                    val overridden = elements.first()
+                    elements.forEachIndexed { index, element ->
+                        if (index > 0 && !errorBag.contains(element) && !warningBag.contains(element)) {
+                            warningBag.add(element)
+                        }
+                        if (index == 1 && !errorBag.contains(overridden) && !warningBag.contains(overridden)) {
+                            errorBag.add(overridden)
                         }
                     }
                 }
             }
-        }
     }
 
     private fun showFoundProblems(problemsHolder: ProblemsHolder) {
@@ -122,52 +122,47 @@ class DataTable(private val keyRows: List<Key>, private val attrs: List<String>,
         }
     }
 
-    private fun analyzeProblems() {
-        keyRows.forEach { keyValue ->
-            val bitSet = ByteArray(attrs.size)
-
-            val row = Row(keyValue, bitSet, arrayOfNulls(attrs.size))
-            attrs.forEach { av ->
-                val valueGroups =
-                    attrsValues.filter { it.text == av }
-                        .filter { hasNoAppendModeModifier(it) }
-                        .flatMap { ImpexPsiUtils.getColumnForHeader(it) }
-                        .filter { it.value != null }
-                        .filter {
-                            PsiTreeUtilExt.getLeafsOfAnyElementType(
-                                it.value!!,
-                                ImpexTypes.COLLECTION_APPEND_PREFIX,
-                                ImpexTypes.COLLECTION_REMOVE_PREFIX,
-                                ImpexTypes.COLLECTION_MERGE_PREFIX
-                            ).isEmpty()
-                        }
-                        .filter {
-                            val commonContext = PsiTreeUtil.findCommonContext(keyValue.keys.first(), it)
-                            commonContext != null && commonContext !is ImpexFile
-                        }
+    private fun analyzeProblems(): List<Row> {
+        // header parameters are the same for every row, resolve them only once
+        val attrsParameters = attrs.map { av ->
+            attrsValues
+                .filter { it.text == av }
+                .filter { hasNoAppendModeModifier(it) }
+                .mapNotNull { parameter -> parameter.headerLine?.let { it to parameter.columnNumber } }
+                .filter { it.second >= 0 }
+        }
 
-                if (valueGroups.isNotEmpty()) {
-                    valueGroups.forEach { valueGroup ->
-                        if (valueGroup == null) {
-                            val indexOf = attrs.indexOfFirst { s -> s == av }
+        return keyRows.map { keyValue ->
+            val row = Row(keyValue, arrayOfNulls(attrs.size))
+            val valueLine = keyValue.keys.firstOrNull()
+                ?.let { PsiTreeUtil.getParentOfType(it, ImpexValueLine::class.java) }
+                ?: return@map row
+            val headerLine = valueLine.headerLine
+
+            attrsParameters.forEach { parameters ->
+                parameters
+                    .filter { (parameterHeaderLine, _) -> parameterHeaderLine == headerLine }
+                    .mapNotNull { (_, columnNumber) -> valueLine.getValueGroup(columnNumber) }
+                    .filter { it.value != null }
+                    .filter {
+                        PsiTreeUtilExt.getLeafsOfAnyElementType(
+                            it.value!!,
+                            ImpexTypes.COLLECTION_APPEND_PREFIX,
+                            ImpexTypes.COLLECTION_REMOVE_PREFIX,
+                            ImpexTypes.COLLECTION_MERGE_PREFIX
+                        ).isEmpty()
+                    }
+                    .forEach { valueGroup ->
+                        val headerForValueGroup = ImpexPsiUtils.getHeaderForValueGroup(valueGroup)
+                        if (headerForValueGroup is ImpexFullHeaderParameter) {
+                            val indexOf = attrs.indexOfFirst { headerForValueGroup.text == it }
                             if (indexOf > -1) {
-                                bitSet[indexOf] = 0
-                                row.valueGroup[indexOf] = null
-                            }
-                        } else {
-                            val headerForValueGroup = ImpexPsiUtils.getHeaderForValueGroup(valueGroup as? ImpexValueGroup)
-                            if (headerForValueGroup is ImpexFullHeaderParameter) {
-                                val indexOf = attrs.indexOfFirst { headerForValueGroup.text == it }
-                                if (indexOf > -1) {
-                                    bitSet[indexOf] = 1
-                                    row.valueGroup[indexOf] = valueGroup
-                                }
+                                row.valueGroups[indexOf] = valueGroup
                             }
                         }
                     }
-                }
             }
-            rows.add(row)
+            row
         }
     }
 
@@ -180,8 +175,13 @@ class DataTable(private val keyRows: List<Key>, private val attrs: List<String>,
 
 }
 
-class Row(val key: Key, val columns: ByteArray, val valueGroup: Array<PsiElement?>)
+/**
+ * @param valueGroups value group of each analyzed attribute in the row, `null` if the row does not set the attribute
+ */
+class Row(val key: Key, val valueGroups: Array<PsiElement?>)
 
 class Key(val keys: List<PsiElement>) {
+    val texts: List<String> = keys.map { it.text }
+
     override fun toString(): String = keys.joinToString { "|" + it.text }
 }
@@ -20,6 +20,7 @@ package com.intellij.idea.plugin.hybris.impex.lang.folding;
 
 import com.intellij.idea.plugin.hybris.common.HybrisConstants;
 import com.intellij.idea.plugin.hybris.impex.psi.*;
+import com.intellij.idea.plugin.hybris.impex.psi.util.ImpexMacroTable;
 import com.intellij.idea.plugin.hybris.properties.PropertyService;
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.folding.FoldingBuilder;
@@ -27,7 +28,6 @@ import com.intellij.lang.folding.FoldingDescriptor;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
@@ -37,10 +37,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.intellij.psi.util.PsiTreeUtil.findChildrenOfAnyType;
 
@@ -102,10 +102,11 @@ public class ImpexMacroFoldingBuilder implements FoldingBuilder {
             return;
         }
         final var resource = StringUtils.strip(text.substring(startIndex + 1, endIndex), "\"' ");
-        final var directory = impexString.getContainingFile().getContainingDirectory().getVirtualFile();
-        final var dirPath = directory.getCanonicalPath();
-        final var referencedFile = LocalFileSystem.getInstance().findFileByIoFile(new File(dirPath, resource));
-        if (referencedFile == null || !referencedFile.exists()) {
+        final var directory = impexString.getContainingFile().getContainingDirectory();
+        final var referencedFile = directory == null
+            ? null
+            : directory.getVirtualFile().findFileByRelativePath(resource);
+        if (referencedFile == null) {
             return;
         }
         final PsiFile referencedPsi = PsiManager.getInstance(impexString.getProject()).findFile(referencedFile);
@@ -153,7 +154,7 @@ public class ImpexMacroFoldingBuilder implements FoldingBuilder {
                 anchor = child;
             } else {
                 if (child instanceof ImpexMacroUsageDec) {
-                    final ImpexMacroDescriptor descriptor = findInCache(cache, child.getText());
+                    final ImpexMacroDescriptor descriptor = findInCache(cache, child);
                     if (descriptor != null) {
                         sb.append(descriptor.resolvedValue());
                         final int delta = child.getText().length() - descriptor.macroName().length();
@@ -233,18 +234,11 @@ public class ImpexMacroFoldingBuilder implements FoldingBuilder {
 
     private void resolveLocalMacro(final ImpexMacroUsageDec macroUsage, final SmartList<FoldingDescriptor> results) {
         final Map<String, ImpexMacroDescriptor> cache = ImpexMacroUtils.getFileCache(macroUsage.getContainingFile()).getValue();
-        String currentKey = "";
-        for (String key : cache.keySet()) {
-            if (macroUsage.getText().startsWith(key)) {
-                if (key.length() > currentKey.length()) {
-                    currentKey = key;
-                }
-            }
-        }
-        if (currentKey.isEmpty()) {
+        final ImpexMacroDescriptor descriptor = Optional.ofNullable(findDeclaredInCache(cache, macroUsage))
+            .orElseGet(() -> findLongestInCache(cache, macroUsage.getText()));
+        if (descriptor == null) {
             return;
         }
-        final ImpexMacroDescriptor descriptor = cache.get(currentKey);
         final int start = macroUsage.getTextRange().getStartOffset();
         final TextRange range = new TextRange(start, start + descriptor.macroName().length());
         results.add(new FoldingDescriptor(macroUsage.getNode(), range, null));
@@ -252,14 +246,51 @@ public class ImpexMacroFoldingBuilder implements FoldingBuilder {
         cache.put(macroUsage.getText(), descriptor);
     }
 
+    /**
+     * Resolves macro usage via the macro table of the file, only already resolved declarations are taken into account.
+     */
+    @Nullable
+    private ImpexMacroDescriptor findDeclaredInCache(final Map<String, ImpexMacroDescriptor> cache, final PsiElement macroUsage) {
+        final var declaration = ImpexMacroTable.getInstance(macroUsage.getContainingFile())
+            .findDeclaration(macroUsage.getText(), macroUsage.getTextRange().getStartOffset());
+        if (declaration == null) {
+            return null;
+        }
+        return cache.get(declaration.getMacroNameDec().getText());
+    }
+
+    /**
+     * Fallback for macros which are not declared in the file itself, i.e. included via <code>impex.includeExternalData</code>.
+     */
+    @Nullable
+    private ImpexMacroDescriptor findLongestInCache(final Map<String, ImpexMacroDescriptor> cache, final String text) {
+        String currentKey = "";
+        for (String key : cache.keySet()) {
+            if (text.startsWith(key)) {
+                if (key.length() > currentKey.length()) {
+                    currentKey = key;
+                }
+            }
+        }
+        return currentKey.isEmpty()
+            ? null
+            : cache.get(currentKey);
+    }
+
     private ImpexMacroDescriptor findInCache(
         final Map<String, ImpexMacroDescriptor> cache,
-        final String text
+        final PsiElement macroUsage
     ) {
+        final String text = macroUsage.getText();
         final ImpexMacroDescriptor impexMacroDescriptor = cache.get(text);
         if (impexMacroDescriptor != null) {
             return impexMacroDescriptor;
         }
+        final ImpexMacroDescriptor declaredDescriptor = findDeclaredInCache(cache, macroUsage);
+        if (declaredDescriptor != null) {
+            cache.put(text, declaredDescriptor);
+            return declaredDescriptor;
+        }
         for (ImpexMacroDescriptor md : cache.values()) {
             if (text.startsWith(md.macroName())) {
                 cache.put(text, md);
@@ -22,6 +22,7 @@ package com.intellij.idea.plugin.hybris.impex.psi
 
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.idea.plugin.hybris.impex.constants.modifier.AttributeModifier
+import com.intellij.idea.plugin.hybris.impex.psi.util.ImpexTableIndex
 import com.intellij.idea.plugin.hybris.impex.utils.ImpexPsiUtils
 import com.intellij.idea.plugin.hybris.properties.PropertyService
 import com.intellij.idea.plugin.hybris.system.type.psi.reference.result.*
@@ -41,8 +42,9 @@ import org.jetbrains.kotlin.utils.addToStdlib.indexOfOrNull
 fun getHeaderLine(element: ImpexFullHeaderParameter): ImpexHeaderLine? = PsiTreeUtil
     .getParentOfType(element, ImpexHeaderLine::class.java)
 
-fun getHeaderLine(element: ImpexValueLine): ImpexHeaderLine? = PsiTreeUtil
-    .getPrevSiblingOfType(element, ImpexHeaderLine::class.java)
+fun getHeaderLine(element: ImpexValueLine): ImpexHeaderLine? = ImpexTableIndex.getInstance(element.containingFile)
+    .getHeaderLine(element)
+    ?: PsiTreeUtil.getPrevSiblingOfType(element, ImpexHeaderLine::class.java)
 
 fun getValueGroup(element: ImpexString): ImpexValueGroup? = PsiTreeUtil
     .getParentOfType(element, ImpexValueGroup::class.java)
@@ -56,8 +58,9 @@ fun getColumnNumber(element: ImpexValueGroup): Int = ImpexPsiUtils
 fun getColumnNumber(element: ImpexFullHeaderParameter): Int = ImpexPsiUtils
     .getColumnNumber(element)
 
-fun getValueGroup(element: ImpexValueLine, columnNumber: Int): ImpexValueGroup? = element
-    .childrenOfType<ImpexValueGroup>()
+fun getValueGroup(element: ImpexValueLine, columnNumber: Int): ImpexValueGroup? = (ImpexTableIndex.getInstance(element.containingFile)
+    .getValueGroups(element)
+    ?: element.childrenOfType<ImpexValueGroup>())
     .getOrNull(columnNumber)
 
 fun getValueLine(element: PsiElement): ImpexValueLine? = PsiTreeUtil
@@ -73,6 +76,10 @@ fun getFullHeaderParameter(element: ImpexValueGroup): ImpexFullHeaderParameter?
     .getHeaderForValueGroup(element) as? ImpexFullHeaderParameter
 
 fun getValueLines(element: ImpexHeaderLine): Collection<ImpexValueLine> {
+    ImpexTableIndex.getInstance(element.containingFile)
+        .getValueLines(element)
+        ?.let { return it }
+
     val subTypesIterator = element.siblings(withSelf = false).iterator()
     var proceed = true
     val valueLines = mutableListOf<ImpexValueLine>()
@@ -154,11 +161,16 @@ fun getAttribute(element: ImpexFullHeaderParameter, attributeModifier: Attribute
     .flatMap { it.attributeList }
     .find { it.anyAttributeName.textMatches(attributeModifier.modifierName) }
 
-fun getValueGroups(element: ImpexFullHeaderParameter): List<ImpexValueGroup> = element
-    .headerLine
-    ?.valueLines
-    ?.mapNotNull { it.getValueGroup(element.columnNumber) }
-    ?: emptyList()
+fun getValueGroups(element: ImpexFullHeaderParameter): List<ImpexValueGroup> {
+    val columnNumber = element.columnNumber
+    if (columnNumber < 0) return emptyList()
+
+    return element
+        .headerLine
+        ?.valueLines
+        ?.mapNotNull { it.getValueGroup(columnNumber) }
+        ?: emptyList()
+}
 
 fun getHeaderTypeName(element: ImpexSubTypeName): ImpexHeaderTypeName? = element
     .valueLine
@@ -17,14 +17,13 @@
  */
 package com.intellij.idea.plugin.hybris.impex.psi.references
 
-import com.intellij.idea.plugin.hybris.impex.psi.ImpexMacroDeclaration
+import com.intellij.idea.plugin.hybris.impex.psi.util.ImpexMacroTable
 import com.intellij.idea.plugin.hybris.impex.rename.manipulator.ImpexMacrosManipulator
 import com.intellij.openapi.util.TextRange
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementResolveResult
 import com.intellij.psi.PsiReferenceBase
 import com.intellij.psi.ResolveResult
-import com.intellij.psi.util.PsiTreeUtil
 
 class ImpexMacroReference(owner: PsiElement) : PsiReferenceBase.Poly<PsiElement?>(owner, false) {
 
@@ -38,12 +37,8 @@ class ImpexMacroReference(owner: PsiElement) : PsiReferenceBase.Poly<PsiElement?
         ?.let { PsiElementResolveResult.createResults(it.macroNameDec) }
         ?: ResolveResult.EMPTY_ARRAY
 
-    private fun findMacroDeclaration() = PsiTreeUtil.findChildrenOfType(
-        element.containingFile,
-        ImpexMacroDeclaration::class.java
-    )
-        .reversed()
-        .find { element.text.startsWith(escapeName(it.macroNameDec.text)) }
+    private fun findMacroDeclaration() = ImpexMacroTable.getInstance(element.containingFile)
+        .findDeclaration(element.text, element.textRange.startOffset)
 
     override fun handleElementRename(newElementName: String) = ImpexMacrosManipulator().handleContentChange(element, rangeInElement, newElementName)
 
@@ -24,7 +24,6 @@ import com.intellij.idea.plugin.hybris.psi.util.PsiUtils
 import com.intellij.idea.plugin.hybris.system.type.codeInsight.lookup.TSLookupElementFactory
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.type.meta.model.TSGlobalMetaItem
-import com.intellij.idea.plugin.hybris.system.type.meta.model.TSMetaType
 import com.intellij.idea.plugin.hybris.system.type.psi.reference.result.ItemResolveResult
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.util.Key
@@ -58,7 +57,7 @@ class ImpexTSSubTypeItemReference(owner: ImpexSubTypeName) : TSReferenceBase<Imp
             val metaService = TSMetaModelAccess.getInstance(ref.project)
 
             val result: Array<ResolveResult> = metaService.findMetaItemByName(lookingForName)
-                ?.takeIf { getAllowedVariants(ref.element).contains(it) }
+                ?.takeIf { isAllowedVariant(ref.element, it) }
                 ?.declarations
                 ?.map { ItemResolveResult(it) }
                 ?.toTypedArray()
@@ -76,12 +75,18 @@ class ImpexTSSubTypeItemReference(owner: ImpexSubTypeName) : TSReferenceBase<Imp
                 ?.text
                 ?: return emptyList()
 
-            return TSMetaModelAccess.getInstance(element.project).getAll<TSGlobalMetaItem>(TSMetaType.META_ITEM)
-                .filter {meta ->
-                    meta.allExtends.find { it.name == headerTypeName } != null
-                        // or itself, it will be highlighted as unnecessary via Inspection
-                        || meta.name == headerTypeName
-                }
+            val metaModelAccess = TSMetaModelAccess.getInstance(element.project)
+            // or itself, it will be highlighted as unnecessary via Inspection
+            return listOfNotNull(metaModelAccess.findMetaItemByName(headerTypeName)) + metaModelAccess.getAllSubTypes(headerTypeName)
+        }
+
+        private fun isAllowedVariant(element: ImpexSubTypeName, meta: TSGlobalMetaItem): Boolean {
+            val headerTypeName = element.headerTypeName
+                ?.text
+                ?: return false
+
+            return meta.name.equals(headerTypeName, true)
+                || TSMetaModelAccess.getInstance(element.project).isSubTypeOf(meta.name, headerTypeName)
         }
     }
 }
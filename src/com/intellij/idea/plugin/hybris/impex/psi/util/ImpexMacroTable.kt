@@ -0,0 +1,96 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.impex.psi.util
+
+import com.intellij.idea.plugin.hybris.common.HybrisConstants
+import com.intellij.idea.plugin.hybris.common.utils.LongestPrefixMatcher
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexMacroDeclaration
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexMacroUsageDec
+import com.intellij.idea.plugin.hybris.impex.psi.references.ImpexMacroReference
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+
+/**
+ * Macro declarations and usages of a single ImpEx file, collected in one pass over the file
+ * and re-computed only when the file is modified.
+ *
+ * Declarations of the same macro are kept in the order of their offsets, so redefined macro is resolved
+ * to the closest preceding declaration.
+ */
+class ImpexMacroTable private constructor(
+    private val declarationsByName: Map<String, List<ImpexMacroDeclaration>>,
+    private val usages: List<ImpexMacroUsageDec>
+) {
+
+    private val namesMatcher = LongestPrefixMatcher(declarationsByName.keys)
+    private val usagesByDeclaration by lazy {
+        usages.groupBy { usage -> findDeclaration(usage) }
+    }
+
+    /**
+     * Returns declaration with the longest name, which is a prefix of the given text.
+     * If macro is declared multiple times, the last declaration before the [offset] wins, otherwise the last one in the file.
+     */
+    fun findDeclaration(text: String, offset: Int = Int.MAX_VALUE): ImpexMacroDeclaration? {
+        val name = namesMatcher.longestPrefixOf(text) ?: return null
+        val declarations = declarationsByName[name] ?: return null
+
+        return declarations.lastOrNull { it.textRange.startOffset < offset }
+            ?: declarations.last()
+    }
+
+    fun findDeclaration(usage: ImpexMacroUsageDec) = findDeclaration(usage.text, usage.textRange.startOffset)
+
+    fun containsDeclaration(text: String) = namesMatcher.longestPrefixOf(text) != null
+
+    /**
+     * Returns usages resolved to the given declaration, usages of the redefined macro are split between its declarations.
+     */
+    fun findUsages(declaration: ImpexMacroDeclaration): List<ImpexMacroUsageDec> = usagesByDeclaration[declaration]
+        ?: emptyList()
+
+    companion object {
+
+        @JvmStatic
+        fun getInstance(file: PsiFile): ImpexMacroTable = CachedValuesManager.getCachedValue(file) {
+            val declarations = LinkedHashMap<String, MutableList<ImpexMacroDeclaration>>()
+            val usages = ArrayList<ImpexMacroUsageDec>()
+
+            file.accept(object : PsiRecursiveElementWalkingVisitor() {
+                override fun visitElement(element: PsiElement) {
+                    when (element) {
+                        is ImpexMacroDeclaration -> declarations
+                            .computeIfAbsent(ImpexMacroReference.escapeName(element.macroNameDec.text)) { ArrayList(1) }
+                            .add(element)
+
+                        is ImpexMacroUsageDec -> if (element.text.startsWith("$")
+                            && !element.text.startsWith(HybrisConstants.IMPEX_CONFIG_COMPLETE_PREFIX)
+                        ) usages.add(element)
+                    }
+                    super.visitElement(element)
+                }
+            })
+
+            CachedValueProvider.Result.create(ImpexMacroTable(declarations, usages), file)
+        }
+    }
+}
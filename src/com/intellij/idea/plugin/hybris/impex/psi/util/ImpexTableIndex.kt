@@ -0,0 +1,101 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.impex.psi.util
+
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexFullHeaderParameter
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexHeaderLine
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexValueGroup
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexValueLine
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiTreeUtil
+
+/**
+ * Tables of a single ImpEx file: header lines with their value lines, value groups of each row and column numbers
+ * of the value groups and header parameters. Collected in one pass over the top-level elements of the file
+ * and re-computed only when the file is modified.
+ *
+ * Elements not known to the index, i.e. not top-level value lines, are reported as `null` or `-1`,
+ * callers are expected to fall back to the PSI walk in such cases.
+ */
+class ImpexTableIndex private constructor(
+    private val headerLines: Map<ImpexValueLine, ImpexHeaderLine>,
+    private val valueLines: Map<ImpexHeaderLine, List<ImpexValueLine>>,
+    private val rows: Map<ImpexValueLine, List<ImpexValueGroup>>,
+    private val valueGroupColumns: Map<ImpexValueGroup, Int>,
+    private val headerParameterColumns: Map<ImpexFullHeaderParameter, Int>
+) {
+
+    fun getHeaderLine(valueLine: ImpexValueLine): ImpexHeaderLine? = headerLines[valueLine]
+
+    fun getValueLines(headerLine: ImpexHeaderLine): List<ImpexValueLine>? = valueLines[headerLine]
+
+    fun getValueGroups(valueLine: ImpexValueLine): List<ImpexValueGroup>? = rows[valueLine]
+
+    fun getColumnNumber(valueGroup: ImpexValueGroup) = valueGroupColumns[valueGroup] ?: -1
+
+    fun getColumnNumber(headerParameter: ImpexFullHeaderParameter) = headerParameterColumns[headerParameter] ?: -1
+
+    companion object {
+
+        @JvmStatic
+        fun getInstance(file: PsiFile): ImpexTableIndex = CachedValuesManager.getCachedValue(file) {
+            val headerLines = HashMap<ImpexValueLine, ImpexHeaderLine>()
+            val valueLines = HashMap<ImpexHeaderLine, MutableList<ImpexValueLine>>()
+            val rows = HashMap<ImpexValueLine, List<ImpexValueGroup>>()
+            val valueGroupColumns = HashMap<ImpexValueGroup, Int>()
+            val headerParameterColumns = HashMap<ImpexFullHeaderParameter, Int>()
+
+            var currentHeaderLine: ImpexHeaderLine? = null
+            var currentValueLines: MutableList<ImpexValueLine> = ArrayList()
+            var child = file.firstChild
+
+            while (child != null) {
+                when (child) {
+                    is ImpexHeaderLine -> {
+                        currentHeaderLine = child
+                        currentValueLines = ArrayList()
+                        valueLines[child] = currentValueLines
+
+                        PsiTreeUtil.getChildrenOfTypeAsList(child, ImpexFullHeaderParameter::class.java)
+                            .forEachIndexed { column, parameter -> headerParameterColumns[parameter] = column }
+                    }
+
+                    is ImpexValueLine -> {
+                        if (currentHeaderLine != null) {
+                            headerLines[child] = currentHeaderLine
+                            currentValueLines.add(child)
+                        }
+
+                        val valueGroups = PsiTreeUtil.getChildrenOfTypeAsList(child, ImpexValueGroup::class.java)
+                        valueGroups.forEachIndexed { column, valueGroup -> valueGroupColumns[valueGroup] = column }
+                        rows[child] = valueGroups
+                    }
+                }
+                child = child.nextSibling
+            }
+
+            CachedValueProvider.Result.create(
+                ImpexTableIndex(headerLines, valueLines, rows, valueGroupColumns, headerParameterColumns),
+                file
+            )
+        }
+    }
+}
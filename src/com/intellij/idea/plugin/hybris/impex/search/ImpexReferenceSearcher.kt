@@ -17,8 +17,11 @@
  */
 package com.intellij.idea.plugin.hybris.impex.search
 
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexFile
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexMacroDeclaration
 import com.intellij.idea.plugin.hybris.impex.psi.ImpexMacroUsageDec
 import com.intellij.idea.plugin.hybris.impex.psi.references.ImpexMacroReference
+import com.intellij.idea.plugin.hybris.impex.psi.util.ImpexMacroTable
 import com.intellij.idea.plugin.hybris.impex.utils.ImpexPsiUtils
 import com.intellij.openapi.application.QueryExecutorBase
 import com.intellij.psi.PsiReference
@@ -41,11 +44,16 @@ class ImpexReferenceSearcher : QueryExecutorBase<PsiReference, ReferencesSearch.
             && !ImpexPsiUtils.isMacroNameDeclaration(elementToSearch)
         ) return
 
-        PsiTreeUtil.collectElements(elementToSearch.containingFile)
-        {
-            it is ImpexMacroUsageDec
-                && it.reference?.resolve()?.textMatches(elementToSearch) ?: false
-        }
+        val file = elementToSearch.containingFile as? ImpexFile ?: return
+        val macroTable = ImpexMacroTable.getInstance(file)
+        // usage has to be checked first, it can be a part of the value of another macro declaration
+        val declaration = PsiTreeUtil.getParentOfType(elementToSearch, ImpexMacroUsageDec::class.java, false)
+            ?.let { macroTable.findDeclaration(it) }
+            ?: PsiTreeUtil.getParentOfType(elementToSearch, ImpexMacroDeclaration::class.java, false)
+            ?: return
+
+        macroTable
+            .findUsages(declaration)
             .map { ImpexMacroReference(it) }
             .forEach { consumer.process(it) }
     }
@@ -20,6 +20,7 @@
 package com.intellij.idea.plugin.hybris.impex.utils;
 
 import com.intellij.idea.plugin.hybris.impex.psi.*;
+import com.intellij.idea.plugin.hybris.impex.psi.util.ImpexTableIndex;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
@@ -419,6 +420,11 @@ public final class ImpexPsiUtils {
 
     @Contract(pure = true)
     public static int getColumnNumber(@NotNull final ImpexValueGroup valueGroup) {
+        final int indexedColumnNumber = ImpexTableIndex.getInstance(valueGroup.getContainingFile()).getColumnNumber(valueGroup);
+        if (indexedColumnNumber >= 0) {
+            return indexedColumnNumber;
+        }
+
         final List<ImpexValueGroup> valueGroups = PsiTreeUtil.getChildrenOfTypeAsList(valueGroup.getValueLine(), ImpexValueGroup.class);
 
         int columnNumber = 0;
@@ -436,6 +442,11 @@ public final class ImpexPsiUtils {
 
     @Contract(pure = true)
     public static int getColumnNumber(@NotNull final ImpexFullHeaderParameter element) {
+        final int indexedColumnNumber = ImpexTableIndex.getInstance(element.getContainingFile()).getColumnNumber(element);
+        if (indexedColumnNumber >= 0) {
+            return indexedColumnNumber;
+        }
+
         final List<ImpexFullHeaderParameter> groups = PsiTreeUtil.getChildrenOfTypeAsList(element.getHeaderLine(), ImpexFullHeaderParameter.class);
 
         int columnNumber = 0;
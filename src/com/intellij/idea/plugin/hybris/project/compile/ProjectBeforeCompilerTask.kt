@@ -46,9 +46,9 @@ import java.nio.charset.StandardCharsets
 import java.nio.file.*
 import java.nio.file.attribute.BasicFileAttributes
 import java.util.jar.JarOutputStream
-import kotlin.io.path.exists
-import kotlin.io.path.extension
-import kotlin.io.path.name
+import java.util.zip.ZipEntry
+import java.util.zip.ZipFile
+import kotlin.io.path.*
 
 // TODO: add progress indicator
 class ProjectBeforeCompilerTask : CompileTask {
@@ -81,22 +81,125 @@ class ProjectBeforeCompilerTask : CompileTask {
             ?: return true
 
         val bootstrapDirectory = platformModuleRoot.resolve(HybrisConstants.PLATFORM_BOOTSTRAP_DIRECTORY)
-        if (!invokeCodeGeneration(context, platformModuleRoot, bootstrapDirectory, coreModuleRoot, vmExecutablePath, settings.state)) {
-            ProjectCompileUtil.triggerRefreshGeneratedFiles(bootstrapDirectory)
+        val genSrcDirectory = bootstrapDirectory.resolve(HybrisConstants.GEN_SRC_DIRECTORY)
+        val modelClassesDirectory = bootstrapDirectory.resolve(HybrisConstants.PLATFORM_MODEL_CLASSES_DIRECTORY)
+        val modelsFile = getModelsFile(bootstrapDirectory)
+        val incremental = settings.state.generateCodeIncrementally
+            && genSrcDirectory.exists() && modelClassesDirectory.exists() && modelsFile.exists()
+
+        val fingerprint = ProjectCodeGenerationCache.computeFingerprint(context.project)
+        if (incremental && fingerprint == ProjectCodeGenerationCache.loadFingerprint(context.project)) {
+            context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Code generation skipped, items.xml and beans.xml files were not changed since the last generation.", null, -1, -1)
+            return true
+        }
+        ProjectCodeGenerationCache.saveFingerprint(context.project, null)
+
+        val previousSources = if (incremental) ProjectCodeGenerationCache.hashSources(genSrcDirectory) else null
+
+        if (!timed(context, "Code generation") { invokeCodeGeneration(context, platformModuleRoot, bootstrapDirectory, coreModuleRoot, vmExecutablePath, settings.state) }) {
+            onFailure(context, bootstrapDirectory, settings.state)
             return false
         }
-        if (!invokeCodeCompilation(context, platformModule, bootstrapDirectory, sdkVersion)) {
-            ProjectCompileUtil.triggerRefreshGeneratedFiles(bootstrapDirectory)
+
+        val changes = previousSources
+            ?.let { collectChanges(genSrcDirectory, it, ProjectCodeGenerationCache.hashSources(genSrcDirectory)) }
+        if (changes != null && changes.isEmpty()) {
+            context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Generated code was not changed, compilation of the generated code skipped.", null, -1, -1)
+            ProjectCodeGenerationCache.saveFingerprint(context.project, fingerprint)
+            return true
+        }
+
+        val compiledClasses = timed(context, "Generated code compilation") { invokeCodeCompilation(context, platformModule, bootstrapDirectory, sdkVersion, changes) }
+        if (compiledClasses == null) {
+            onFailure(context, bootstrapDirectory, settings.state)
             return false
         }
-        if (!invokeModelsJarCreation(context, bootstrapDirectory)) {
-            ProjectCompileUtil.triggerRefreshGeneratedFiles(bootstrapDirectory)
+        val modelsJarCreated = timed(context, "models.jar creation") {
+            if (changes == null) invokeModelsJarCreation(context, bootstrapDirectory)
+            else invokeModelsJarUpdate(context, bootstrapDirectory, compiledClasses, changes)
+        }
+        if (!modelsJarCreated) {
+            onFailure(context, bootstrapDirectory, settings.state)
             return false
         }
 
+        ProjectCodeGenerationCache.saveFingerprint(context.project, fingerprint)
         return true;
     }
 
+    private fun onFailure(context: CompileContext, bootstrapDirectory: Path, settings: HybrisProjectSettings) {
+        // generated sources and compiled classes may be out of sync now, next build must not rely on the previous output
+        if (settings.generateCodeIncrementally) {
+            cleanDirectory(context, bootstrapDirectory.resolve(HybrisConstants.PLATFORM_MODEL_CLASSES_DIRECTORY))
+        }
+        ProjectCompileUtil.triggerRefreshGeneratedFiles(bootstrapDirectory)
+    }
+
+    private fun <T> timed(context: CompileContext, phase: String, action: () -> T): T {
+        val startTime = System.currentTimeMillis()
+        try {
+            return action()
+        } finally {
+            context.addMessage(CompilerMessageCategory.STATISTICS, "[y] $phase took ${System.currentTimeMillis() - startTime} ms.", null, -1, -1)
+        }
+    }
+
+    /**
+     * Returns `null` if too many sources were changed and complete re-compilation has to be performed.
+     *
+     * Unchanged sources referring to the changed or removed classes are re-compiled as well, because `javac` inlines
+     * `static final` constants and does not verify signatures of the already compiled classes. Dependents are collected
+     * transitively, so constants initialized from the other constants are propagated too.
+     */
+    internal fun collectChanges(genSrcDirectory: Path, previousSources: Map<String, Long>, currentSources: Map<String, Long>): GeneratedSourcesChanges? {
+        val changed = currentSources
+            .filter { (path, hash) -> previousSources[path] != hash }
+            .keys
+        val removed = previousSources.keys - currentSources.keys
+        if (changed.size > currentSources.size / 2) return null
+
+        val dependents = collectDependents(genSrcDirectory, currentSources.keys - changed, changed + removed)
+        val recompiled = changed + dependents
+        if (recompiled.size > currentSources.size / 2) return null
+
+        return GeneratedSourcesChanges(
+            recompiled.map { genSrcDirectory.resolve(it) },
+            recompiled + removed
+        )
+    }
+
+    /**
+     * Textual references are used instead of the bytecode analysis: any usage of a class in the Java source, including imports,
+     * static imports and fully qualified names, contains its simple name. Same named classes from other packages may lead to
+     * extra re-compilation, which is safe.
+     */
+    private fun collectDependents(genSrcDirectory: Path, unchangedSources: Collection<String>, affectedSources: Collection<String>): Set<String> {
+        val identifiers = unchangedSources.associateWith { source ->
+            JAVA_IDENTIFIER.findAll(genSrcDirectory.resolve(source).readText())
+                .map { it.value }
+                .toSet()
+        }
+        val dependents = mutableSetOf<String>()
+        val queue = ArrayDeque(affectedSources.map { simpleClassName(it) })
+        val visited = mutableSetOf<String>()
+
+        while (queue.isNotEmpty()) {
+            val className = queue.removeFirst()
+            if (!visited.add(className)) continue
+
+            identifiers
+                .filter { (source, sourceIdentifiers) -> source !in dependents && className in sourceIdentifiers }
+                .forEach { (source, _) ->
+                    dependents.add(source)
+                    queue.add(simpleClassName(source))
+                }
+        }
+
+        return dependents
+    }
+
+    private fun simpleClassName(source: String) = source.substringAfterLast('/').removeSuffix(".java")
+
     private fun invokeCodeGeneration(
         context: CompileContext,
         platformModuleRoot: Path,
@@ -105,6 +208,7 @@ class ProjectBeforeCompilerTask : CompileTask {
         vmExecutablePath: String,
         settings: HybrisProjectSettings,
     ): Boolean {
+        // generator produces complete set of sources, so removed types must not leave stale files behind
         val pathToBeDeleted = bootstrapDirectory.resolve(HybrisConstants.GEN_SRC_DIRECTORY)
         cleanDirectory(context, pathToBeDeleted)
 
@@ -160,22 +264,34 @@ class ProjectBeforeCompilerTask : CompileTask {
         context: CompileContext,
         platformModule: Module,
         bootstrapDirectory: Path,
-        sdkVersion: JavaSdkVersion
-    ): Boolean {
-        val pathToBeDeleted = bootstrapDirectory.resolve(HybrisConstants.PLATFORM_MODEL_CLASSES_DIRECTORY)
-        cleanDirectory(context, pathToBeDeleted)
+        sdkVersion: JavaSdkVersion,
+        changes: GeneratedSourcesChanges?
+    ): List<String>? {
+        val modelClassesDirectory = bootstrapDirectory.resolve(HybrisConstants.PLATFORM_MODEL_CLASSES_DIRECTORY)
+        if (changes == null) {
+            cleanDirectory(context, modelClassesDirectory)
+        } else {
+            deleteClasses(modelClassesDirectory, changes.affectedSources)
+        }
 
         try {
             context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Started compilation of the generated code...", null, -1, -1)
             val sourceFiles = mutableSetOf<File>()
-            Files.walkFileTree(
-                bootstrapDirectory.resolve(HybrisConstants.GEN_SRC_DIRECTORY),
-                object : SimpleFileVisitor<Path>() {
-                    override fun visitFile(file: Path?, attrs: BasicFileAttributes?): FileVisitResult {
-                        if (file?.extension == "java" && file.name != "package-info.java") sourceFiles.add(file.toFile())
-                        return super.visitFile(file, attrs)
-                    }
-                })
+            if (changes == null) {
+                Files.walkFileTree(
+                    bootstrapDirectory.resolve(HybrisConstants.GEN_SRC_DIRECTORY),
+                    object : SimpleFileVisitor<Path>() {
+                        override fun visitFile(file: Path?, attrs: BasicFileAttributes?): FileVisitResult {
+                            if (file?.extension == "java" && file.name != "package-info.java") sourceFiles.add(file.toFile())
+                            return super.visitFile(file, attrs)
+                        }
+                    })
+            } else {
+                changes.changedSources
+                    .filter { it.name != "package-info.java" }
+                    .forEach { sourceFiles.add(it.toFile()) }
+                context.addMessage(CompilerMessageCategory.STATISTICS, "[y] Compiling ${sourceFiles.size} changed generated sources and their dependents.", null, -1, -1)
+            }
 
             val profile = CompilerConfiguration.getInstance(context.project).getAnnotationProcessingConfiguration(platformModule)
             val sourceOption = JpsJavaSdkType.complianceOption(sdkVersion.maxLanguageLevel.toJavaVersion())
@@ -192,6 +308,8 @@ class ProjectBeforeCompilerTask : CompileTask {
             val rootManager = ModuleRootManager.getInstance(platformModule)
             val classpath = rootManager.orderEntries().compileOnly().recursively().exportedOnly().withoutSdk().pathsList.pathList
                 .map { File(it) }
+                // unchanged generated classes are taken from the previous compilation output
+                .let { if (changes != null) it + modelClassesDirectory.toFile() else it }
             val platformClasspath = rootManager.orderEntries().compileOnly().sdkOnly().pathsList.pathList
                 .map { File(it) }
 
@@ -201,9 +319,9 @@ class ProjectBeforeCompilerTask : CompileTask {
                 classpath,
                 emptyList(),
                 emptyList(),
-                listOf(bootstrapDirectory.resolve(HybrisConstants.GEN_SRC_DIRECTORY).toFile()),
+                if (changes == null) listOf(bootstrapDirectory.resolve(HybrisConstants.GEN_SRC_DIRECTORY).toFile()) else emptyList(),
                 sourceFiles,
-                bootstrapDirectory.resolve(HybrisConstants.PLATFORM_MODEL_CLASSES_DIRECTORY).toFile()
+                modelClassesDirectory.toFile()
             )
             context.addMessage(CompilerMessageCategory.STATISTICS, "[y] Compiled ${classes.size} generated classes.", null, -1, -1)
             val flushedClasses = classes
@@ -212,25 +330,36 @@ class ProjectBeforeCompilerTask : CompileTask {
                 .onEach { (path, bytes) -> FileUtil.writeToFile(File(path), bytes) }
             context.addMessage(CompilerMessageCategory.STATISTICS, "[y] Flushed ${flushedClasses.size} compiled classes.", null, -1, -1)
             context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Completed compilation of the generated code.", null, -1, -1)
+
+            return flushedClasses.map { (path, _) -> modelClassesDirectory.relativize(Paths.get(path)).invariantSeparatorsPathString }
         } catch (e: CompilationException) {
             e.messages.forEach {
                 context.addMessage(CompilerMessageCategory.WARNING, it.text, null, -1, -1)
             }
             context.addMessage(CompilerMessageCategory.ERROR, "[y] Generated code compilation failed.", null, -1, -1)
-            return false
+            return null
         }
+    }
 
-        return true
+    /**
+     * Deletes classes compiled from the given sources, including nested and anonymous classes.
+     */
+    private fun deleteClasses(modelClassesDirectory: Path, sources: Collection<String>) = sources.forEach { source ->
+        val classPath = modelClassesDirectory.resolve(source.removeSuffix(".java"))
+        val packageDirectory = classPath.parent
+            ?.takeIf { it.isDirectory() }
+            ?: return@forEach
+        val className = classPath.name
+
+        packageDirectory.listDirectoryEntries("$className*.class")
+            .filter { it.name == "$className.class" || it.name.startsWith("$className$") }
+            .forEach { it.deleteIfExists() }
     }
 
     private fun invokeModelsJarCreation(context: CompileContext, bootstrapDirectory: Path): Boolean {
         context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Started creation of the models.jar file...", null, -1, -1)
 
-        val bootstrapDir = (System.getenv(HybrisConstants.ENV_HYBRIS_BOOTSTRAP_BIN_DIR)
-            ?.let { Paths.get(it) }
-            ?: bootstrapDirectory.resolve(HybrisConstants.BIN_DIRECTORY))
-
-        val modelsFile = bootstrapDir.resolve(HybrisConstants.JAR_MODELS).toFile()
+        val modelsFile = getModelsFile(bootstrapDirectory).toFile()
         if (modelsFile.exists()) modelsFile.delete()
 
         try {
@@ -255,6 +384,62 @@ class ProjectBeforeCompilerTask : CompileTask {
         return true;
     }
 
+    /**
+     * Re-writes only changed entries of the models.jar file, other entries are copied from the previous version of the file.
+     */
+    private fun invokeModelsJarUpdate(
+        context: CompileContext,
+        bootstrapDirectory: Path,
+        compiledClasses: List<String>,
+        changes: GeneratedSourcesChanges
+    ): Boolean {
+        context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Started update of the models.jar file...", null, -1, -1)
+
+        val modelsFile = getModelsFile(bootstrapDirectory)
+        val modelClassesDirectory = bootstrapDirectory.resolve(HybrisConstants.PLATFORM_MODEL_CLASSES_DIRECTORY)
+        val affectedClasses = changes.affectedSources
+            .map { it.removeSuffix(".java") }
+        val updatedModelsFile = modelsFile.resolveSibling(modelsFile.name + ".tmp")
+
+        try {
+            ZipFile(modelsFile.toFile()).use { previousJar ->
+                JarOutputStream(updatedModelsFile.outputStream().buffered()).use { jos ->
+                    previousJar.entries().asSequence()
+                        .filterNot { entry -> affectedClasses.any { isClassOf(entry.name, it) } }
+                        .forEach { entry ->
+                            jos.putNextEntry(ZipEntry(entry.name).apply { time = entry.time })
+                            previousJar.getInputStream(entry).use { it.copyTo(jos) }
+                            jos.closeEntry()
+                        }
+
+                    compiledClasses.forEach { compiledClass ->
+                        jos.putNextEntry(ZipEntry(compiledClass))
+                        modelClassesDirectory.resolve(compiledClass).inputStream().use { it.copyTo(jos) }
+                        jos.closeEntry()
+                    }
+                }
+            }
+            Files.move(updatedModelsFile, modelsFile, StandardCopyOption.REPLACE_EXISTING)
+        } catch (e: IOException) {
+            updatedModelsFile.deleteIfExists()
+            context.addMessage(CompilerMessageCategory.ERROR, e.toString(), null, -1, -1)
+            context.addMessage(CompilerMessageCategory.ERROR, "[y] Generated code compilation failed.", null, -1, -1)
+            return false
+        }
+        context.addMessage(CompilerMessageCategory.STATISTICS, "[y] Updated ${compiledClasses.size} entries of the models.jar file.", null, -1, -1)
+        context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Completed update of the models.jar file.", null, -1, -1)
+
+        return true
+    }
+
+    private fun isClassOf(entryName: String, classPath: String) = entryName == "$classPath.class"
+        || (entryName.startsWith("$classPath$") && entryName.endsWith(".class"))
+
+    private fun getModelsFile(bootstrapDirectory: Path) = (System.getenv(HybrisConstants.ENV_HYBRIS_BOOTSTRAP_BIN_DIR)
+        ?.let { Paths.get(it) }
+        ?: bootstrapDirectory.resolve(HybrisConstants.BIN_DIRECTORY))
+        .resolve(HybrisConstants.JAR_MODELS)
+
     private fun cleanDirectory(context: CompileContext, pathToBeDeleted: Path) {
         if (!pathToBeDeleted.exists()) return
 
@@ -268,4 +453,19 @@ class ProjectBeforeCompilerTask : CompileTask {
         context.addMessage(CompilerMessageCategory.INFORMATION, "[y] Cleaned: $pathToBeDeleted", null, -1, -1)
     }
 
+    /**
+     * @param changedSources new or modified generated sources and unchanged sources depending on them
+     * @param affectedSources paths of changed and removed sources, relative to the `gensrc` directory
+     */
+    internal data class GeneratedSourcesChanges(
+        val changedSources: List<Path>,
+        val affectedSources: Collection<String>
+    ) {
+        fun isEmpty() = affectedSources.isEmpty()
+    }
+
+    companion object {
+        private val JAVA_IDENTIFIER = Regex("[\\p{L}_$][\\p{L}\\p{N}_$]*")
+    }
+
 }
@@ -0,0 +1,134 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.intellij.idea.plugin.hybris.project.compile
+
+import com.intellij.idea.plugin.hybris.common.HybrisConstants
+import com.intellij.idea.plugin.hybris.common.root
+import com.intellij.idea.plugin.hybris.facet.YFacet
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.getProjectDataPath
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.CRC32
+import kotlin.io.path.*
+
+/**
+ * Keeps track of the inputs and outputs of the last code generation.
+ *
+ * Fingerprint covers all `*-items.xml` and `*-beans.xml` files of the extensions, if it is the same as during the previous
+ * successful generation, there is no need to invoke the code generator again.
+ */
+internal object ProjectCodeGenerationCache {
+
+    private const val VERSION = 1
+    private const val CACHE_DIRECTORY = "sap-commerce"
+    private const val CACHE_FILE = "codegen-fingerprint.bin"
+    private val LOG = Logger.getInstance(ProjectCodeGenerationCache::class.java)
+    private val GENERATED_AT = Regex("^.*\\bGenerated at\\b.*$", RegexOption.MULTILINE)
+
+    fun computeFingerprint(project: Project): Long {
+        val crc = CRC32()
+
+        ModuleManager.getInstance(project).modules
+            .filter { YFacet.get(it) != null }
+            .mapNotNull { it.root() }
+            .map { it.resolve(HybrisConstants.RESOURCES_DIRECTORY) }
+            .filter { it.isDirectory() }
+            .flatMap { resources ->
+                resources.listDirectoryEntries()
+                    .filter { it.name.endsWith(HybrisConstants.HYBRIS_ITEMS_XML_FILE_ENDING) || it.name.endsWith(HybrisConstants.HYBRIS_BEANS_XML_FILE_ENDING) }
+                    .filter { it.isRegularFile() }
+            }
+            .map { it.toAbsolutePath().normalize() }
+            .distinct()
+            .sortedBy { it.toString() }
+            .forEach {
+                crc.update(it.toString().toByteArray())
+                crc.update(it.readBytes())
+            }
+
+        return crc.value
+    }
+
+    fun loadFingerprint(project: Project): Long? {
+        val cacheFile = cacheFile(project)
+        if (!cacheFile.exists()) return null
+
+        return try {
+            DataInputStream(cacheFile.inputStream().buffered()).use { input ->
+                if (input.readInt() != VERSION) null
+                else input.readLong()
+            }
+        } catch (e: IOException) {
+            LOG.warn("Unable to read code generation fingerprint: $cacheFile", e)
+            null
+        }
+    }
+
+    fun saveFingerprint(project: Project, fingerprint: Long?) {
+        val cacheFile = cacheFile(project)
+
+        try {
+            if (fingerprint == null) {
+                cacheFile.deleteIfExists()
+                return
+            }
+
+            Files.createDirectories(cacheFile.parent)
+            DataOutputStream(cacheFile.outputStream().buffered()).use { out ->
+                out.writeInt(VERSION)
+                out.writeLong(fingerprint)
+            }
+        } catch (e: IOException) {
+            LOG.warn("Unable to store code generation fingerprint: $cacheFile", e)
+        }
+    }
+
+    /**
+     * Returns content hashes of the generated sources, keyed by the path relative to the `gensrc` directory.
+     * Generation time stamp from the header of the source is not hashed, otherwise every source would be changed by each generation.
+     */
+    fun hashSources(genSrcDirectory: Path): Map<String, Long> {
+        if (!genSrcDirectory.isDirectory()) return emptyMap()
+
+        return Files.walk(genSrcDirectory).use { paths ->
+            paths
+                .filter { it.extension == "java" && it.isRegularFile() }
+                .toList()
+                .associate {
+                    genSrcDirectory.relativize(it).invariantSeparatorsPathString to hashSource(it.readText())
+                }
+        }
+    }
+
+    private fun hashSource(text: String): Long {
+        val headerEnd = text.indexOf("package ").coerceAtLeast(0)
+
+        return CRC32()
+            .apply { update(GENERATED_AT.replace(text.substring(0, headerEnd), "").toByteArray()) }
+            .apply { update(text.substring(headerEnd).toByteArray()) }
+            .value
+    }
+
+    private fun cacheFile(project: Project) = project.getProjectDataPath(CACHE_DIRECTORY).resolve(CACHE_FILE)
+}
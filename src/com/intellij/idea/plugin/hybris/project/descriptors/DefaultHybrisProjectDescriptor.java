@@ -57,7 +57,6 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -84,9 +83,11 @@ public class DefaultHybrisProjectDescriptor implements HybrisProjectDescriptor {
     @GuardedBy("lock")
     protected final Set<ModuleDescriptor> alreadyOpenedModules = new HashSet<>();
     protected final Lock lock = new ReentrantLock();
-    private final Set<File> vcs = new HashSet<>();
+    private final Set<File> vcs = ConcurrentHashMap.newKeySet();
     private final Set<String> excludedFromScanning = new HashSet<>();
     @Nullable
+    private ModuleRootsScanManifest moduleRootsScanManifest;
+    @Nullable
     protected Project project;
     @Nullable
     protected File rootDirectory;
@@ -389,26 +390,34 @@ public class DefaultHybrisProjectDescriptor implements HybrisProjectDescriptor {
 
         final Map<DIRECTORY_TYPE, Set<File>> moduleRootMap = newModuleRootMap();
         final var excludedFromScanning = getExcludedFromScanningDirectories();
+        moduleRootsScanManifest = ModuleRootsScanManifest.load(rootDirectory, followSymlink);
+        final Set<File> moduleRootDirectories;
+        try {
+            LOG.info("Scanning for modules");
+            findModuleRoots(moduleRootMap, excludedFromScanning, false, rootDirectory, progressListenerProcessor);
 
-        LOG.info("Scanning for modules");
-        findModuleRoots(moduleRootMap, excludedFromScanning, false, rootDirectory, progressListenerProcessor);
+            if (externalExtensionsDirectory != null && !FileUtils.isFileUnder(externalExtensionsDirectory, rootDirectory)) {
+                LOG.info("Scanning for external modules");
+                findModuleRoots(moduleRootMap, excludedFromScanning, false, externalExtensionsDirectory, progressListenerProcessor);
+            }
 
-        if (externalExtensionsDirectory != null && !FileUtils.isFileUnder(externalExtensionsDirectory, rootDirectory)) {
-            LOG.info("Scanning for external modules");
-            findModuleRoots(moduleRootMap, excludedFromScanning, false, externalExtensionsDirectory, progressListenerProcessor);
+            if (hybrisDistributionDirectory != null && !FileUtils.isFileUnder(hybrisDistributionDirectory, rootDirectory)) {
+                LOG.info("Scanning for hybris modules out of the project");
+                findModuleRoots(moduleRootMap, excludedFromScanning, false, hybrisDistributionDirectory, progressListenerProcessor);
+            }
+            moduleRootDirectories = processDirectoriesByTypePriority(
+                moduleRootMap,
+                excludedFromScanning,
+                isScanThroughExternalModule(),
+                progressListenerProcessor
+            );
+
+            // failed or cancelled scan must not leave partially visited tree in the manifest
+            moduleRootsScanManifest.save();
+        } finally {
+            moduleRootsScanManifest = null;
         }
 
-        if (hybrisDistributionDirectory != null && !FileUtils.isFileUnder(hybrisDistributionDirectory, rootDirectory)) {
-            LOG.info("Scanning for hybris modules out of the project");
-            findModuleRoots(moduleRootMap, excludedFromScanning, false, hybrisDistributionDirectory, progressListenerProcessor);
-        }
-        final var moduleRootDirectories = processDirectoriesByTypePriority(
-            moduleRootMap,
-            excludedFromScanning,
-            isScanThroughExternalModule(),
-            progressListenerProcessor
-        );
-
         final var moduleDescriptors = new ArrayList<ModuleDescriptor>();
         final var pathsFailedToImport = new ArrayList<File>();
 
@@ -549,7 +558,7 @@ public class DefaultHybrisProjectDescriptor implements HybrisProjectDescriptor {
         final Set<File> excludedFromScanning,
         final boolean scanThroughExternalModule,
         @Nullable final TaskProgressProcessor<File> progressListenerProcessor
-    ) throws InterruptedException, IOException {
+    ) throws IOException {
         final Map<String, File> moduleRootDirectories = new HashMap<>();
 
         moduleRootMap.get(HYBRIS).forEach(file -> addIfNotExists(moduleRootDirectories, file));
@@ -610,9 +619,9 @@ public class DefaultHybrisProjectDescriptor implements HybrisProjectDescriptor {
 
     private Map<DIRECTORY_TYPE, Set<File>> newModuleRootMap() {
         return Map.of(
-            HYBRIS, new HashSet<>(),
-            NON_HYBRIS, new HashSet<>(),
-            CCV2, new HashSet<>()
+            HYBRIS, ConcurrentHashMap.newKeySet(),
+            NON_HYBRIS, ConcurrentHashMap.newKeySet(),
+            CCV2, ConcurrentHashMap.newKeySet()
         );
     }
 
@@ -645,90 +654,9 @@ public class DefaultHybrisProjectDescriptor implements HybrisProjectDescriptor {
         final boolean acceptOnlyHybrisModules,
         @NotNull final File rootProjectDirectory,
         @Nullable final TaskProgressProcessor<File> progressListenerProcessor
-    ) throws InterruptedException, IOException {
-        if (null != progressListenerProcessor) {
-            if (!progressListenerProcessor.shouldContinue(rootProjectDirectory)) {
-                LOG.error("Modules scanning has been interrupted.");
-                throw new InterruptedException("Modules scanning has been interrupted.");
-            }
-        }
-
-        if (rootProjectDirectory.isHidden()) {
-            LOG.debug("Skipping hidden directory: ", rootProjectDirectory);
-            return;
-        }
-        if (excludedFromScanning.contains(rootProjectDirectory)) {
-            LOG.debug("Skipping excluded directory: ", rootProjectDirectory);
-            return;
-        }
-
-        final HybrisProjectService hybrisProjectService = ApplicationManager.getApplication().getService(HybrisProjectService.class);
-
-        if (hybrisProjectService.hasVCS(rootProjectDirectory)) {
-            LOG.info("Detected version control service " + rootProjectDirectory.getAbsolutePath());
-            vcs.add(rootProjectDirectory.getCanonicalFile());
-        }
-
-        if (hybrisProjectService.isHybrisModule(rootProjectDirectory)) {
-            LOG.info("Detected hybris module " + rootProjectDirectory.getAbsolutePath());
-            moduleRootMap.get(HYBRIS).add(rootProjectDirectory);
-            return;
-        }
-        if (hybrisProjectService.isConfigModule(rootProjectDirectory)) {
-            LOG.info("Detected config module " + rootProjectDirectory.getAbsolutePath());
-            moduleRootMap.get(HYBRIS).add(rootProjectDirectory);
-            return;
-        }
-
-        if (!acceptOnlyHybrisModules) {
-            if (!rootProjectDirectory.getAbsolutePath().endsWith(HybrisConstants.PLATFORM_MODULE)
-                && !FileUtil.filesEqual(rootProjectDirectory, rootDirectory)
-                && (hybrisProjectService.isGradleModule(rootProjectDirectory) || hybrisProjectService.isGradleKtsModule(rootProjectDirectory))
-                && !hybrisProjectService.isCCv2Module(rootProjectDirectory)) {
-                LOG.info("Detected gradle module " + rootProjectDirectory.getAbsolutePath());
-                moduleRootMap.get(NON_HYBRIS).add(rootProjectDirectory);
-//                return;
-            }
-
-            if (hybrisProjectService.isMavenModule(rootProjectDirectory)
-                && !FileUtil.filesEqual(rootProjectDirectory, rootDirectory)
-                && !hybrisProjectService.isCCv2Module(rootProjectDirectory)
-            ) {
-                LOG.info("Detected maven module " + rootProjectDirectory.getAbsolutePath());
-                moduleRootMap.get(NON_HYBRIS).add(rootProjectDirectory);
-//                return;
-            }
-
-            if (hybrisProjectService.isPlatformModule(rootProjectDirectory)) {
-                LOG.info("Detected platform module " + rootProjectDirectory.getAbsolutePath());
-                moduleRootMap.get(HYBRIS).add(rootProjectDirectory);
-            } else if (hybrisProjectService.isEclipseModule(rootProjectDirectory)
-                && !FileUtil.filesEqual(rootProjectDirectory, rootDirectory)
-            ) {
-                LOG.info("Detected eclipse module " + rootProjectDirectory.getAbsolutePath());
-                moduleRootMap.get(NON_HYBRIS).add(rootProjectDirectory);
-//                return;
-            }
-
-            if (hybrisProjectService.isCCv2Module(rootProjectDirectory)) {
-                LOG.info("Detected CCv2 module " + rootProjectDirectory.getAbsolutePath());
-                moduleRootMap.get(CCV2).add(rootProjectDirectory);
-                final var name = rootProjectDirectory.getName();
-                if (name.endsWith(HybrisConstants.CCV2_JS_STOREFRONT_NAME) || name.endsWith(HybrisConstants.CCV2_DATAHUB_NAME)) {
-                    // faster import: no need to process sub-folders of the CCv2 js-storefront and datahub directories
-                    return;
-                }
-            }
-        }
-
-        scanSubdirectories(
-            moduleRootMap,
-            excludedFromScanning,
-            acceptOnlyHybrisModules,
-            rootProjectDirectory.toPath(),
-            progressListenerProcessor
-        );
-
+    ) throws IOException {
+        newModuleRootsScanner(moduleRootMap, excludedFromScanning, acceptOnlyHybrisModules, progressListenerProcessor)
+            .findModuleRoots(rootProjectDirectory);
     }
 
     private void scanSubdirectories(
@@ -737,29 +665,29 @@ public class DefaultHybrisProjectDescriptor implements HybrisProjectDescriptor {
         final boolean acceptOnlyHybrisModules,
         @NotNull final Path rootProjectDirectory,
         @Nullable final TaskProgressProcessor<File> progressListenerProcessor
-    ) throws InterruptedException, IOException {
-        if (!Files.isDirectory(rootProjectDirectory)) {
-            return;
-        }
+    ) throws IOException {
+        newModuleRootsScanner(moduleRootMap, excludedFromScanning, acceptOnlyHybrisModules, progressListenerProcessor)
+            .scanSubdirectories(rootProjectDirectory);
+    }
 
-        final DirectoryStream<Path> files = Files.newDirectoryStream(rootProjectDirectory, file -> {
-            if (file == null) {
-                return false;
-            }
-            if (!Files.isDirectory(file)) {
-                return false;
-            }
-            if (isDirectoryExcluded(file)) {
-                return false;
-            }
-            return !Files.isSymbolicLink(file) || followSymlink;
-        });
-        if (files != null) {
-            for (final var file : files) {
-                findModuleRoots(moduleRootMap, excludedFromScanning, acceptOnlyHybrisModules, file.toFile(), progressListenerProcessor);
-            }
-            files.close();
-        }
+    private ModuleRootsScanner newModuleRootsScanner(
+        @NotNull final Map<DIRECTORY_TYPE, Set<File>> moduleRootMap,
+        final Set<File> excludedFromScanning,
+        final boolean acceptOnlyHybrisModules,
+        @Nullable final TaskProgressProcessor<File> progressListenerProcessor
+    ) {
+        return new ModuleRootsScanner(
+            ApplicationManager.getApplication().getService(HybrisProjectService.class),
+            moduleRootMap,
+            vcs,
+            excludedFromScanning,
+            this::isDirectoryExcluded,
+            rootDirectory,
+            followSymlink,
+            acceptOnlyHybrisModules,
+            progressListenerProcessor,
+            moduleRootsScanManifest
+        );
     }
 
     private boolean isDirectoryExcluded(final Path file) {
@@ -0,0 +1,180 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.project.descriptors;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers listings of the directories visited during the last modules scan of the same root directory.
+ * <p>
+ * Modification time of a directory changes only when its direct entries are added, removed or renamed, so if it is the same
+ * as during the previous scan, stored marker files and subdirectories can be re-used without listing the directory again.
+ * Scan of the unchanged tree is reduced to a single attributes read per directory, while changed subtrees are re-listed.
+ * Directories visited during the current scan are re-used as is by the subsequent passes of the same scan.
+ * <p>
+ * Format: `version`, `follow symlinks`, `entries count`, then for each entry: `path`, `modification time`,
+ * `markers`, `subdirectory names`.
+ */
+class ModuleRootsScanManifest {
+
+    private static final Logger LOG = Logger.getInstance(ModuleRootsScanManifest.class);
+    private static final int VERSION = 1;
+    private static final String MANIFEST_DIRECTORY = "sap-commerce/module-scan";
+
+    private final Path manifestFile;
+    private final boolean followSymlink;
+    private final Map<String, Entry> previousEntries;
+    private final Map<String, Entry> currentEntries = new ConcurrentHashMap<>();
+    private final AtomicInteger reusedDirectories = new AtomicInteger();
+    private final AtomicInteger listedDirectories = new AtomicInteger();
+
+    private ModuleRootsScanManifest(@NotNull final Path manifestFile, final boolean followSymlink, @NotNull final Map<String, Entry> previousEntries) {
+        this.manifestFile = manifestFile;
+        this.followSymlink = followSymlink;
+        this.previousEntries = previousEntries;
+    }
+
+    @NotNull
+    static ModuleRootsScanManifest load(@NotNull final File rootDirectory, final boolean followSymlink) {
+        final var manifestFile = getManifestFile(rootDirectory);
+
+        if (!Files.isRegularFile(manifestFile)) return new ModuleRootsScanManifest(manifestFile, followSymlink, Collections.emptyMap());
+
+        try (final var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile)))) {
+            if (input.readInt() != VERSION || input.readBoolean() != followSymlink) {
+                return new ModuleRootsScanManifest(manifestFile, followSymlink, Collections.emptyMap());
+            }
+
+            final int count = input.readInt();
+            final var entries = new HashMap<String, Entry>(count);
+            for (int i = 0; i < count; i++) {
+                final var path = input.readUTF();
+                final var modificationTime = input.readLong();
+                final var markers = readStrings(input);
+                final var subdirectories = readStrings(input);
+                entries.put(path, new Entry(modificationTime, Set.copyOf(markers), subdirectories));
+            }
+
+            LOG.info("Loaded modules scan manifest with " + count + " directories: " + manifestFile);
+            return new ModuleRootsScanManifest(manifestFile, followSymlink, entries);
+        } catch (final IOException e) {
+            LOG.warn("Unable to read modules scan manifest: " + manifestFile, e);
+            return new ModuleRootsScanManifest(manifestFile, followSymlink, Collections.emptyMap());
+        }
+    }
+
+    @NotNull
+    static Path getManifestFile(@NotNull final File rootDirectory) {
+        return PathManager.getSystemDir()
+            .resolve(MANIFEST_DIRECTORY)
+            .resolve(rootDirectory.getName() + '-' + Integer.toHexString(rootDirectory.getAbsolutePath().hashCode()) + ".bin");
+    }
+
+    /**
+     * Returns stored entry only if directory was not modified since the previous scan.
+     */
+    @Nullable
+    Entry get(@NotNull final Path directory, final long modificationTime) {
+        final var key = directory.toString();
+        final var entry = previousEntries.get(key);
+
+        if (entry == null || entry.modificationTime() != modificationTime) return null;
+
+        reusedDirectories.incrementAndGet();
+        currentEntries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Returns entry of the directory already visited during the current scan.
+     */
+    @Nullable
+    Entry getCurrent(@NotNull final Path directory) {
+        return currentEntries.get(directory.toString());
+    }
+
+    void put(@NotNull final Path directory, @NotNull final Entry entry) {
+        listedDirectories.incrementAndGet();
+        currentEntries.put(directory.toString(), entry);
+    }
+
+    /**
+     * Stores only directories visited during the current scan, so removed subtrees do not pile up in the manifest.
+     * Has to be called only after a successful scan, the manifest is replaced atomically, so it is never left partially written.
+     */
+    void save() {
+        LOG.info("Modules scan: " + reusedDirectories.get() + " directories skipped as unchanged, "
+            + listedDirectories.get() + " directories listed");
+
+        try {
+            Files.createDirectories(manifestFile.getParent());
+            final var tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+
+            try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(VERSION);
+                out.writeBoolean(followSymlink);
+                out.writeInt(currentEntries.size());
+                for (final var entry : currentEntries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().modificationTime());
+                    writeStrings(out, entry.getValue().markers());
+                    writeStrings(out, entry.getValue().subdirectories());
+                }
+            }
+
+            Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            LOG.warn("Unable to store modules scan manifest: " + manifestFile, e);
+        }
+    }
+
+    private static List<String> readStrings(final DataInputStream input) throws IOException {
+        final int count = input.readInt();
+        final var strings = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(input.readUTF());
+        }
+        return strings;
+    }
+
+    private static void writeStrings(final DataOutputStream out, final Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (final var string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    /**
+     * @param markers        names of the module marker files and version control directories
+     * @param subdirectories names of the subdirectories which have to be scanned
+     */
+    record Entry(long modificationTime, @NotNull Set<String> markers, @NotNull List<String> subdirectories) {
+    }
+}
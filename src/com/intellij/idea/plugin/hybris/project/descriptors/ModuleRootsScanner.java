@@ -0,0 +1,378 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.project.descriptors;
+
+import com.intellij.idea.plugin.hybris.common.HybrisConstants;
+import com.intellij.idea.plugin.hybris.project.services.HybrisProjectService;
+import com.intellij.idea.plugin.hybris.project.tasks.TaskProgressProcessor;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static com.intellij.idea.plugin.hybris.project.descriptors.DefaultHybrisProjectDescriptor.DIRECTORY_TYPE.*;
+
+/**
+ * Scans directory tree for module roots in parallel, each subdirectory is processed as a separate fork/join task.
+ * <p>
+ * Every directory is listed only once, attributes of its entries are read with a single call and used
+ * to detect potential module markers. {@link HybrisProjectService} is consulted only when corresponding marker
+ * is present, so most of the directories are processed without additional file system calls.
+ * <p>
+ * If {@link TaskProgressProcessor} rejects a directory, the scan is cancelled with {@link ProcessCanceledException}.
+ */
+class ModuleRootsScanner {
+
+    private static final Logger LOG = Logger.getInstance(ModuleRootsScanner.class);
+    private static final long UNKNOWN_MODIFICATION_TIME = -1;
+    private static final Set<String> VCS_DIRECTORIES = Set.of(".git", ".svn", ".hg");
+    private static final Set<String> MARKER_FILES = Set.of(
+        HybrisConstants.EXTENSION_INFO_XML,
+        HybrisConstants.EXTENSIONS_XML,
+        HybrisConstants.LOCAL_EXTENSIONS_XML,
+        HybrisConstants.LOCAL_PROPERTIES_FILE,
+        HybrisConstants.CCV2_MANIFEST_NAME,
+        HybrisConstants.DOT_PROJECT,
+        HybrisConstants.GRADLE_SETTINGS,
+        HybrisConstants.GRADLE_SETTINGS_KTS,
+        HybrisConstants.GRADLE_BUILD,
+        HybrisConstants.GRADLE_BUILD_KTS,
+        MavenConstants.POM_XML
+    );
+
+    private final HybrisProjectService hybrisProjectService;
+    private final Map<DefaultHybrisProjectDescriptor.DIRECTORY_TYPE, Set<File>> moduleRootMap;
+    private final Set<File> vcs;
+    private final Set<File> excludedFromScanning;
+    private final Predicate<Path> directoryExcluded;
+    @Nullable
+    private final File rootDirectory;
+    private final boolean followSymlink;
+    private final boolean acceptOnlyHybrisModules;
+    @Nullable
+    private final TaskProgressProcessor<File> progressListenerProcessor;
+    @Nullable
+    private final ModuleRootsScanManifest manifest;
+    private final AtomicInteger scannedDirectories = new AtomicInteger();
+
+    /**
+     * @param moduleRootMap and {@code vcs} have to be thread-safe, they are populated concurrently
+     * @param manifest      if present, listings of the directories unchanged since the previous scan will be re-used
+     */
+    ModuleRootsScanner(
+        @NotNull final HybrisProjectService hybrisProjectService,
+        @NotNull final Map<DefaultHybrisProjectDescriptor.DIRECTORY_TYPE, Set<File>> moduleRootMap,
+        @NotNull final Set<File> vcs,
+        @NotNull final Set<File> excludedFromScanning,
+        @NotNull final Predicate<Path> directoryExcluded,
+        @Nullable final File rootDirectory,
+        final boolean followSymlink,
+        final boolean acceptOnlyHybrisModules,
+        @Nullable final TaskProgressProcessor<File> progressListenerProcessor,
+        @Nullable final ModuleRootsScanManifest manifest
+    ) {
+        this.hybrisProjectService = hybrisProjectService;
+        this.moduleRootMap = moduleRootMap;
+        this.vcs = vcs;
+        this.excludedFromScanning = excludedFromScanning;
+        this.directoryExcluded = directoryExcluded;
+        this.rootDirectory = rootDirectory;
+        this.followSymlink = followSymlink;
+        this.acceptOnlyHybrisModules = acceptOnlyHybrisModules;
+        this.progressListenerProcessor = progressListenerProcessor;
+        this.manifest = manifest;
+    }
+
+    /**
+     * Processes given directory and all its subdirectories.
+     */
+    void findModuleRoots(@NotNull final File rootProjectDirectory) throws IOException {
+        scan(new DirectoryScanTask(rootProjectDirectory.toPath(), UNKNOWN_MODIFICATION_TIME, true), rootProjectDirectory);
+    }
+
+    /**
+     * Processes subdirectories of the given directory, directory itself is not checked for being a module root.
+     */
+    void scanSubdirectories(@NotNull final Path rootProjectDirectory) throws IOException {
+        if (!Files.isDirectory(rootProjectDirectory)) return;
+
+        scan(new DirectoryScanTask(rootProjectDirectory, UNKNOWN_MODIFICATION_TIME, false), rootProjectDirectory.toFile());
+    }
+
+    private void scan(final DirectoryScanTask task, final File rootProjectDirectory) throws IOException {
+        final long startTime = System.nanoTime();
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            // cancellation is propagated from the workers as ProcessCanceledException
+            pool.invoke(task);
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        final int directories = scannedDirectories.getAndSet(0);
+        if (progressListenerProcessor != null) {
+            progressListenerProcessor.completed(rootProjectDirectory, directories, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
+    }
+
+    private void detectVcs(@NotNull final File directory, @NotNull final DirectoryListing listing) throws IOException {
+        if (listing.hasAny(VCS_DIRECTORIES) && hybrisProjectService.hasVCS(directory)) {
+            LOG.info("Detected version control service " + directory.getAbsolutePath());
+            vcs.add(directory.getCanonicalFile());
+        }
+    }
+
+    /**
+     * @return <code>true</code> if subdirectories of the given directory have to be scanned
+     */
+    private boolean detectModuleRoot(@NotNull final File directory, @NotNull final DirectoryListing listing) {
+        if (listing.has(HybrisConstants.EXTENSION_INFO_XML) && hybrisProjectService.isHybrisModule(directory)) {
+            LOG.info("Detected hybris module " + directory.getAbsolutePath());
+            moduleRootMap.get(HYBRIS).add(directory);
+            return false;
+        }
+        if (listing.has(HybrisConstants.LOCAL_EXTENSIONS_XML) && hybrisProjectService.isConfigModule(directory)) {
+            LOG.info("Detected config module " + directory.getAbsolutePath());
+            moduleRootMap.get(HYBRIS).add(directory);
+            return false;
+        }
+
+        if (acceptOnlyHybrisModules) return true;
+
+        final boolean ccv2Module = listing.has(HybrisConstants.CCV2_MANIFEST_NAME) && hybrisProjectService.isCCv2Module(directory);
+
+        if (!directory.getAbsolutePath().endsWith(HybrisConstants.PLATFORM_MODULE)
+            && !FileUtil.filesEqual(directory, rootDirectory)
+            && (
+            (listing.hasAny(HybrisConstants.GRADLE_SETTINGS, HybrisConstants.GRADLE_BUILD) && hybrisProjectService.isGradleModule(directory))
+                || (listing.hasAny(HybrisConstants.GRADLE_SETTINGS_KTS, HybrisConstants.GRADLE_BUILD_KTS) && hybrisProjectService.isGradleKtsModule(directory))
+        )
+            && !ccv2Module) {
+            LOG.info("Detected gradle module " + directory.getAbsolutePath());
+            moduleRootMap.get(NON_HYBRIS).add(directory);
+        }
+
+        if (listing.has(MavenConstants.POM_XML)
+            && hybrisProjectService.isMavenModule(directory)
+            && !FileUtil.filesEqual(directory, rootDirectory)
+            && !ccv2Module
+        ) {
+            LOG.info("Detected maven module " + directory.getAbsolutePath());
+            moduleRootMap.get(NON_HYBRIS).add(directory);
+        }
+
+        if (listing.has(HybrisConstants.EXTENSIONS_XML) && hybrisProjectService.isPlatformModule(directory)) {
+            LOG.info("Detected platform module " + directory.getAbsolutePath());
+            moduleRootMap.get(HYBRIS).add(directory);
+        } else if (listing.has(HybrisConstants.DOT_PROJECT)
+            && hybrisProjectService.isEclipseModule(directory)
+            && !FileUtil.filesEqual(directory, rootDirectory)
+        ) {
+            LOG.info("Detected eclipse module " + directory.getAbsolutePath());
+            moduleRootMap.get(NON_HYBRIS).add(directory);
+        }
+
+        if (ccv2Module) {
+            LOG.info("Detected CCv2 module " + directory.getAbsolutePath());
+            moduleRootMap.get(CCV2).add(directory);
+            final var name = directory.getName();
+            // faster import: no need to process sub-folders of the CCv2 js-storefront and datahub directories
+            return !name.endsWith(HybrisConstants.CCV2_JS_STOREFRONT_NAME) && !name.endsWith(HybrisConstants.CCV2_DATAHUB_NAME);
+        }
+
+        return true;
+    }
+
+    /**
+     * @param knownModificationTime modification time read together with the parent directory listing,
+     *                              directory attributes are read only if it is unknown
+     */
+    private DirectoryListing list(@NotNull final Path directory, final long knownModificationTime) throws IOException {
+        if (manifest == null) return listDirectory(directory);
+
+        // directory was already visited by another pass of the same scan
+        final var currentEntry = manifest.getCurrent(directory);
+        if (currentEntry != null) return toListing(directory, currentEntry);
+
+        final long modificationTime;
+        if (knownModificationTime != UNKNOWN_MODIFICATION_TIME) {
+            modificationTime = knownModificationTime;
+        } else {
+            try {
+                modificationTime = Files.getLastModifiedTime(directory).toMillis();
+            } catch (final NoSuchFileException e) {
+                return new DirectoryListing(Collections.emptySet(), Collections.emptyList());
+            }
+        }
+
+        final var entry = manifest.get(directory, modificationTime);
+        if (entry != null) return toListing(directory, entry);
+
+        final var listing = listDirectory(directory);
+        manifest.put(directory, new ModuleRootsScanManifest.Entry(
+            modificationTime,
+            listing.markers,
+            listing.subdirectories.stream()
+                .map(it -> it.path().getFileName().toString())
+                .toList()
+        ));
+        return listing;
+    }
+
+    private static DirectoryListing toListing(@NotNull final Path directory, @NotNull final ModuleRootsScanManifest.Entry entry) {
+        return new DirectoryListing(entry.markers(), entry.subdirectories().stream()
+            .map(it -> new Subdirectory(directory.resolve(it), UNKNOWN_MODIFICATION_TIME))
+            .toList());
+    }
+
+    private DirectoryListing listDirectory(@NotNull final Path directory) throws IOException {
+        final var listing = new DirectoryListing(new HashSet<>(), new ArrayList<>());
+        final var linkOptions = followSymlink
+            ? new LinkOption[0]
+            : new LinkOption[]{LinkOption.NOFOLLOW_LINKS};
+
+        try (final var entries = Files.newDirectoryStream(directory)) {
+            for (final var entry : entries) {
+                final BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(entry, BasicFileAttributes.class, linkOptions);
+                } catch (final IOException e) {
+                    LOG.debug("Unable to access " + entry, e);
+                    continue;
+                }
+                final var name = entry.getFileName().toString();
+
+                if (attrs.isDirectory()) {
+                    if (VCS_DIRECTORIES.contains(name)) listing.markers.add(name);
+                    if (!directoryExcluded.test(entry)) listing.subdirectories.add(new Subdirectory(entry, attrs.lastModifiedTime().toMillis()));
+                } else if (attrs.isSymbolicLink() || attrs.isRegularFile()) {
+                    // not followed symbolic links will be verified by the HybrisProjectService
+                    if (MARKER_FILES.contains(name) || VCS_DIRECTORIES.contains(name)) listing.markers.add(name);
+                }
+            }
+        }
+
+        return listing;
+    }
+
+    /**
+     * @param modificationTime taken from the attributes read during the parent directory listing, if it was listed
+     */
+    private record Subdirectory(@NotNull Path path, long modificationTime) {
+    }
+
+    private static final class DirectoryListing {
+        private final Set<String> markers;
+        private final List<Subdirectory> subdirectories;
+
+        private DirectoryListing(final Set<String> markers, final List<Subdirectory> subdirectories) {
+            this.markers = markers;
+            this.subdirectories = subdirectories;
+        }
+
+        private boolean has(final String name) {
+            return markers.contains(name);
+        }
+
+        private boolean hasAny(final String... names) {
+            for (final String name : names) {
+                if (markers.contains(name)) return true;
+            }
+            return false;
+        }
+
+        private boolean hasAny(final Collection<String> names) {
+            for (final String name : names) {
+                if (markers.contains(name)) return true;
+            }
+            return false;
+        }
+    }
+
+    private final class DirectoryScanTask extends RecursiveAction {
+
+        private final Path directory;
+        private final long modificationTime;
+        private final boolean detectModuleRoot;
+
+        private DirectoryScanTask(final Path directory, final long modificationTime, final boolean detectModuleRoot) {
+            this.directory = directory;
+            this.modificationTime = modificationTime;
+            this.detectModuleRoot = detectModuleRoot;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                final var subdirectories = scan();
+                if (subdirectories.isEmpty()) return;
+
+                invokeAll(subdirectories.stream()
+                    .map(it -> new DirectoryScanTask(it.path(), it.modificationTime(), true))
+                    .toList());
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<Subdirectory> scan() throws IOException {
+            final var file = directory.toFile();
+
+            if (detectModuleRoot) {
+                if (null != progressListenerProcessor && !progressListenerProcessor.shouldContinue(file)) {
+                    throw new ProcessCanceledException();
+                }
+                if (Files.isHidden(directory)) {
+                    LOG.debug("Skipping hidden directory: ", file);
+                    return Collections.emptyList();
+                }
+                if (excludedFromScanning.contains(file)) {
+                    LOG.debug("Skipping excluded directory: ", file);
+                    return Collections.emptyList();
+                }
+            }
+
+            scannedDirectories.incrementAndGet();
+            final var listing = list(directory, modificationTime);
+
+            if (detectModuleRoot) {
+                detectVcs(file, listing);
+                if (!detectModuleRoot(file, listing)) return Collections.emptyList();
+            }
+
+            return listing.subdirectories;
+        }
+    }
+}
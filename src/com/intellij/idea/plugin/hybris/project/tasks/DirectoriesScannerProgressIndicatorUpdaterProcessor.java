@@ -23,6 +23,8 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 
+import static com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils.message;
+
 public class DirectoriesScannerProgressIndicatorUpdaterProcessor implements TaskProgressProcessor<File> {
 
     protected final ProgressIndicator progressIndicator;
@@ -41,4 +43,12 @@ public class DirectoriesScannerProgressIndicatorUpdaterProcessor implements Task
 
         return true;
     }
+
+    @Override
+    public void completed(final File t, final int processed, final long durationMillis) {
+        this.progressIndicator.setText2(message(
+            "hybris.project.import.scan.completed",
+            processed, t.getAbsolutePath(), durationMillis, processed * 1000L / Math.max(1, durationMillis)
+        ));
+    }
 }
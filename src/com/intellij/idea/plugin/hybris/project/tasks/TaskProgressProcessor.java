@@ -22,4 +22,13 @@ public interface TaskProgressProcessor<T> {
 
     boolean shouldContinue(T t);
 
+    /**
+     * Called once processing of the given input is completed.
+     *
+     * @param processed      number of processed items, e.g. scanned directories
+     * @param durationMillis processing time
+     */
+    default void completed(T t, int processed, long durationMillis) {
+    }
+
 }
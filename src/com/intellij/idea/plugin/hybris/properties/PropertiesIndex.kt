@@ -0,0 +1,138 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.properties
+
+import com.intellij.idea.plugin.hybris.common.utils.LongestPrefixMatcher
+import com.intellij.lang.properties.IProperty
+
+/**
+ * Immutable snapshot of the project properties, built once per change of the properties files.
+ *
+ * Values are resolved eagerly, each placeholder is resolved only once, so lookups do not repeat placeholder substitution.
+ * Keys are additionally kept in the [LongestPrefixMatcher], which finds the longest key contained in the macro value
+ * without checking every single property, ties are broken by the position of the property kept for each key.
+ */
+internal class PropertiesIndex private constructor(
+    val properties: List<IProperty>,
+    private val propertiesByKey: Map<String, IProperty>,
+    private val positionsByKey: Map<String, Int>,
+    val resolvedProperties: Map<String, String>,
+    private val keysMatcher: LongestPrefixMatcher,
+    private val longestKeyProperty: IProperty?
+) {
+
+    fun findProperty(key: String) = resolvedProperties[key]
+
+    fun findAutoCompleteProperties(query: String) = if (query.isBlank()) properties
+    else properties.filter { it.key!!.contains(query) }
+
+    /**
+     * Returns property with the longest key contained in the query, the last one in the override order wins in case of equal length.
+     */
+    fun findMacroProperty(query: String): IProperty? = if (query.isBlank()) longestKeyProperty
+    else keysMatcher.longestContainedIn(query)
+        .maxByOrNull { positionsByKey[it] ?: -1 }
+        ?.let { propertiesByKey[it] }
+
+    companion object {
+        private const val NESTED_PROPERTY_PREFIX = "\${"
+        private const val NESTED_PROPERTY_SUFFIX = "}"
+
+        val EMPTY = create(emptyList(), emptyMap())
+
+        /**
+         * @param properties  properties in the override order, the latter one wins
+         * @param overrides   raw values which take precedence over the properties, i.e. environment variables
+         */
+        fun create(properties: Collection<IProperty>, overrides: Map<String, String>): PropertiesIndex {
+            val propertiesByKey = LinkedHashMap<String, IProperty>()
+            properties
+                .filter { it.key != null }
+                .forEach { propertiesByKey[it.key!!] = it }
+
+            val rawValues = LinkedHashMap<String, String>()
+            propertiesByKey.values
+                .forEach { property -> property.value?.let { rawValues[property.key!!] = it } }
+            rawValues.putAll(overrides)
+
+            val resolvedValues = PlaceholderResolver(rawValues).resolveAll()
+            val longestKeyLength = propertiesByKey.keys.maxOfOrNull { it.length }
+            val longestKeyProperty = propertiesByKey.values
+                .lastOrNull { it.key!!.length == longestKeyLength }
+
+            val positionsByKey = HashMap<String, Int>(propertiesByKey.size)
+            propertiesByKey.keys.forEachIndexed { position, key -> positionsByKey[key] = position }
+
+            return PropertiesIndex(
+                propertiesByKey.values.toList(),
+                propertiesByKey,
+                positionsByKey,
+                resolvedValues,
+                LongestPrefixMatcher(propertiesByKey.keys),
+                longestKeyProperty
+            )
+        }
+    }
+
+    /**
+     * Resolves `${key}` placeholders, results of the nested properties are memoized.
+     * Unknown placeholders and placeholders forming a cycle are kept as is.
+     */
+    private class PlaceholderResolver(private val rawValues: Map<String, String>) {
+
+        private val resolved = HashMap<String, String>()
+        private val inProgress = HashSet<String>()
+
+        fun resolveAll(): Map<String, String> = rawValues.keys
+            .associateWithTo(LinkedHashMap()) { resolve(it) }
+
+        private fun resolve(key: String): String {
+            resolved[key]?.let { return it }
+
+            val value = rawValues[key] ?: return ""
+            if (!value.contains(NESTED_PROPERTY_PREFIX)) return value
+            if (!inProgress.add(key)) return value
+
+            val result = StringBuilder(value.length)
+            var lastIndex = 0
+
+            while (true) {
+                val startIndex = value.indexOf(NESTED_PROPERTY_PREFIX, lastIndex)
+                if (startIndex == -1) break
+                val endIndex = value.indexOf(NESTED_PROPERTY_SUFFIX, startIndex + NESTED_PROPERTY_PREFIX.length)
+                if (endIndex == -1) break
+
+                result.append(value, lastIndex, startIndex)
+
+                val nestedKey = value.substring(startIndex + NESTED_PROPERTY_PREFIX.length, endIndex)
+                val nestedValue = if (rawValues.containsKey(nestedKey) && nestedKey !in inProgress) resolve(nestedKey) else null
+
+                if (nestedValue != null && !nestedValue.contains(NESTED_PROPERTY_PREFIX)) result.append(nestedValue)
+                else result.append(value, startIndex, endIndex + NESTED_PROPERTY_SUFFIX.length)
+
+                lastIndex = endIndex + NESTED_PROPERTY_SUFFIX.length
+            }
+            result.append(value, lastIndex, value.length)
+
+            inProgress.remove(key)
+            return result.toString()
+                .also { resolved[key] = it }
+        }
+    }
+}
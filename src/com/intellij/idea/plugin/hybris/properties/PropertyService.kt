@@ -50,15 +50,13 @@ Improve order of the properties - https://help.sap.com/docs/SAP_COMMERCE/b490bb4
 @Service(Service.Level.PROJECT)
 class PropertyService(val project: Project) {
 
-    private val nestedPropertyPrefix = "\${"
-    private val nestedPropertySuffix = "}"
     private val optionalPropertiesFilePattern = Pattern.compile("([1-9]\\d)-(\\w*)\\.properties")
 
     private val cachedProperties = CachedValuesManager.getManager(project).createCachedValue(
         {
             val result = LinkedHashMap<String, IProperty>()
-            val configModule = obtainConfigModule() ?: return@createCachedValue CachedValueProvider.Result.create(emptyList(), ModificationTracker.NEVER_CHANGED)
-            val platformModule = obtainPlatformModule() ?: return@createCachedValue CachedValueProvider.Result.create(emptyList(), ModificationTracker.NEVER_CHANGED)
+            val configModule = obtainConfigModule() ?: return@createCachedValue CachedValueProvider.Result.create(PropertiesIndex.EMPTY, ModificationTracker.NEVER_CHANGED)
+            val platformModule = obtainPlatformModule() ?: return@createCachedValue CachedValueProvider.Result.create(PropertiesIndex.EMPTY, ModificationTracker.NEVER_CHANGED)
             val scope = createSearchScope(configModule, platformModule)
             var envPropsFile: PropertiesFile? = null
             var advancedPropsFile: PropertiesFile? = null
@@ -88,7 +86,9 @@ class PropertyService(val project: Project) {
             loadHybrisRuntimeProperties(result)
             loadHybrisOptionalConfigDir(result)
 
-            CachedValueProvider.Result.create(result.values.toList(), propertiesFiles
+            val index = PropertiesIndex.create(result.values, getEnvironmentProperties(result))
+
+            CachedValueProvider.Result.create(index, propertiesFiles
                 .map { it.virtualFile }
                 .toTypedArray()
                 .ifEmpty { ModificationTracker.EVER_CHANGED }
@@ -113,97 +113,39 @@ class PropertyService(val project: Project) {
     fun containsLanguage(language: String, supportedLanguages: Set<String>) = supportedLanguages
         .contains(language.lowercase())
 
-    fun findProperty(query: String): String? = findAllProperties()[query]
+    fun findProperty(query: String): String? = getIndex().findProperty(query)
 
-    fun findAutoCompleteProperties(query: String): List<IProperty> = ApplicationManager.getApplication()
-        .runReadAction<List<IProperty>> {
-            findAllIProperties()
-                .filter { it.key != null && it.key!!.contains(query) || query.isBlank() }
-        }
+    fun findAutoCompleteProperties(query: String): List<IProperty> = getIndex().findAutoCompleteProperties(query)
 
-    fun findMacroProperty(query: String): IProperty? = ApplicationManager.getApplication()
-        .runReadAction<IProperty?> {
-            findAllIProperties()
-                .takeIf { it.isNotEmpty() }
-                ?.filter { it.key != null && query.contains(it.key!!) || query.isBlank() }
-                ?.takeIf { it.isNotEmpty() }
-                ?.reduce { one, two -> if (one.key!!.length > two.key!!.length) one else two }
-        }
+    fun findMacroProperty(query: String): IProperty? = getIndex().findMacroProperty(query)
 
-    fun findAllProperties(): Map<String, String> = ApplicationManager.getApplication()
-        .runReadAction<Map<String, String>> {
-            findAllIProperties()
-                .filter { it.value != null && it.key != null }
-                .associateTo(LinkedHashMap()) { it.key!! to it.value!! }
-                .let { properties ->
-                    addEnvironmentProperties(properties)
-                    properties
-                        .filter { it.value.contains(nestedPropertyPrefix) }
-                        .forEach { replacePlaceholder(properties, it.key, HashSet<String>()) }
-                    return@let properties
-                }
-        }
+    fun findAllProperties(): Map<String, String> = getIndex().resolvedProperties
 
     fun initCache() = ReadAction
         .nonBlocking<Collection<IProperty>> {
-            findAllIProperties()
+            cachedProperties.value.properties
         }
         .inSmartMode(project)
         .submit(AppExecutorUtil.getAppExecutorService())
 
-    private fun findAllIProperties() = cachedProperties.value
-
-    private fun addEnvironmentProperties(properties: MutableMap<String, String>) {
-        properties[HybrisConstants.PROPERTY_ENV_PROPERTY_PREFIX]
-            ?.let { prefix ->
-                System.getenv()
-                    .filter { it.key.startsWith(prefix) }
-                    .forEach {
-                        val envPropertyKey = it.key.substring(prefix.length)
-                        val key = envPropertyKey.replace("__", "##")
-                            .replace("_", ".")
-                            .replace("##", "_")
-                        properties[key] = it.value
-                    }
-            }
-    }
-
-    private fun replacePlaceholder(result: LinkedHashMap<String, String>, key: String, visitedProperties: MutableSet<String>) {
-
-        var lastIndex = 0
-
-        val value = result[key] ?: ""
-        var replacedValue = value
-
-        while (true) {
-            val startIndex = value.indexOf(nestedPropertyPrefix, lastIndex)
-            val endIndex = value.indexOf(nestedPropertySuffix, startIndex + 1)
-            lastIndex = endIndex + nestedPropertyPrefix.length
-
-            if (startIndex == -1 || endIndex == -1)
-                break
-
-            val placeHolder = value.substring(startIndex, endIndex + nestedPropertySuffix.length)
-            val nestedKey = placeHolder.substring(nestedPropertyPrefix.length, placeHolder.length - nestedPropertySuffix.length)
-            if (visitedProperties.contains(nestedKey))
-                continue
-            visitedProperties.add(nestedKey)
-            val nestedValue: String? = result[nestedKey]
-            nestedValue?.let {
-                var newValue = it
-                if (it.contains(nestedPropertyPrefix)) {
-                    replacePlaceholder(result, nestedKey, visitedProperties)
-                    newValue = result[nestedKey] ?: ""
+    private fun getIndex() = ApplicationManager.getApplication()
+        .runReadAction<PropertiesIndex> { cachedProperties.value }
+
+    private fun getEnvironmentProperties(properties: Map<String, IProperty>): Map<String, String> = properties[HybrisConstants.PROPERTY_ENV_PROPERTY_PREFIX]
+        ?.value
+        ?.let { prefix ->
+            System.getenv()
+                .filter { it.key.startsWith(prefix) }
+                .map {
+                    val envPropertyKey = it.key.substring(prefix.length)
+                    val key = envPropertyKey.replace("__", "##")
+                        .replace("_", ".")
+                        .replace("##", "_")
+                    key to it.value
                 }
-
-                if (!newValue.contains(nestedPropertyPrefix)) {
-                    replacedValue = replacedValue.replace(placeHolder, newValue)
-                }
-            }
-
+                .toMap()
         }
-        result[key] = replacedValue
-    }
+        ?: emptyMap()
 
     private fun loadHybrisOptionalConfigDir(result: MutableMap<String, IProperty>) = (System.getenv(HybrisConstants.ENV_HYBRIS_OPT_CONFIG_DIR)
         ?: result[HybrisConstants.PROPERTY_OPTIONAL_CONFIG_DIR]?.value)
@@ -37,6 +37,7 @@ class HybrisProjectSettings : BaseState() {
     var hybrisProject by property(false)
     var generateCodeOnRebuild by property(true)
     var generateCodeTimeoutSeconds by property(60)
+    var generateCodeIncrementally by property(true)
     var importOotbModulesInReadOnlyMode by property(false)
     var followSymlink by property(false)
     var scanThroughExternalModule by property(true)
@@ -88,6 +88,18 @@ class HybrisProjectSettingsConfigurableProvider(val project: Project) : Configur
                         .bindIntValue(state::generateCodeTimeoutSeconds)
                         .enabledIf(generateCodeOnRebuildCheckBox.selected)
                 }
+                row {
+                    checkBox("Generate code incrementally")
+                        .comment(
+                            """
+                            If checked, code generation will be skipped when <strong>items.xml</strong> and <strong>beans.xml</strong> files were not changed since the last generation,
+                            otherwise only changed generated sources and sources depending on them will be compiled and <strong>models.jar</strong> will be updated in place.<br>
+                            If unchecked, code will always be generated and compiled from scratch.
+                        """.trimIndent()
+                        )
+                        .bindSelected(state::generateCodeIncrementally)
+                        .enabledIf(generateCodeOnRebuildCheckBox.selected)
+                }
             }
 
             group(message("hybris.settings.project.common.title")) {
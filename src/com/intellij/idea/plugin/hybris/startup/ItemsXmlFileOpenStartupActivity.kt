@@ -17,12 +17,14 @@
  */
 package com.intellij.idea.plugin.hybris.startup
 
+import com.intellij.idea.plugin.hybris.common.utils.ConcurrentProcessingUtils
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils.message
 import com.intellij.idea.plugin.hybris.common.utils.HybrisItemsXmlFileType
 import com.intellij.idea.plugin.hybris.settings.HybrisApplicationSettingsComponent
 import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
 import com.intellij.idea.plugin.hybris.system.type.validation.ItemsXmlFileValidation
-import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.progress.ProgressIndicator
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.progress.Task
@@ -30,8 +32,11 @@ import com.intellij.openapi.progress.impl.BackgroundableProcessIndicator
 import com.intellij.openapi.project.DumbService
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.startup.ProjectActivity
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.search.FileTypeIndex
 import com.intellij.psi.search.GlobalSearchScope
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
 
 
 class ItemsXmlFileOpenStartupActivity : ProjectActivity {
@@ -42,16 +47,46 @@ class ItemsXmlFileOpenStartupActivity : ProjectActivity {
 
         val task = object : Task.Backgroundable(project, message("hybris.startupActivity.itemsXmlValidation.progress.title")) {
             override fun run(indicator: ProgressIndicator) {
-                ApplicationManager.getApplication().runReadAction {
-                    val validation = ItemsXmlFileValidation.getInstance(project)
-                    val isOutdated = FileTypeIndex.getFiles(
-                        HybrisItemsXmlFileType,
-                        GlobalSearchScope.projectScope(project)
-                    )
-                        .any { file -> validation.isFileOutOfDate(file) }
-                    if (isOutdated) {
-                        validation.showNotification(null)
-                    }
+                val started = System.currentTimeMillis()
+                val validation = ItemsXmlFileValidation.getInstance(project)
+
+                indicator.isIndeterminate = false
+                indicator.text2 = message("hybris.startupActivity.itemsXmlValidation.progress.subTitle.collectingClasses")
+                ReadAction.nonBlocking<Unit> { validation.initCache() }
+                    .inSmartMode(project)
+                    .wrapProgress(indicator)
+                    .executeSynchronously()
+
+                val files = ReadAction.nonBlocking<Collection<VirtualFile>> {
+                    FileTypeIndex.getFiles(HybrisItemsXmlFileType, GlobalSearchScope.projectScope(project))
+                }
+                    .inSmartMode(project)
+                    .wrapProgress(indicator)
+                    .executeSynchronously()
+
+                val validated = AtomicInteger()
+                val isOutdated = AtomicBoolean()
+
+                // every file is validated in own non-blocking read action, so pending write actions are not blocked by the whole validation
+                ConcurrentProcessingUtils.mapConcurrently<VirtualFile, Boolean>("Items.xml out-of-date validation", files) { file ->
+                    if (isOutdated.get()) return@mapConcurrently null
+
+                    val fileOutOfDate = ReadAction.nonBlocking<Boolean> { validation.isFileOutOfDate(file) }
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .executeSynchronously()
+                    if (fileOutOfDate) isOutdated.set(true)
+
+                    indicator.fraction = validated.incrementAndGet().toDouble() / files.size
+                    fileOutOfDate
+                }
+
+                val elapsed = System.currentTimeMillis() - started
+                indicator.text2 = message("hybris.startupActivity.itemsXmlValidation.progress.subTitle.completed", validated.get(), elapsed)
+                LOG.info("Validated ${validated.get()} of ${files.size} items.xml files in $elapsed ms, out-of-date: ${isOutdated.get()}")
+
+                if (isOutdated.get()) {
+                    validation.showNotification(null)
                 }
             }
         }
@@ -59,4 +94,8 @@ class ItemsXmlFileOpenStartupActivity : ProjectActivity {
             ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, BackgroundableProcessIndicator(task))
         }
     }
+
+    companion object {
+        private val LOG = Logger.getInstance(ItemsXmlFileOpenStartupActivity::class.java)
+    }
 }
\ No newline at end of file
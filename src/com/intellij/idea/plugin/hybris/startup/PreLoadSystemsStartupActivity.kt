@@ -21,7 +21,6 @@ import com.intellij.idea.plugin.hybris.properties.PropertyService
 import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
 import com.intellij.idea.plugin.hybris.system.bean.meta.BSMetaModelAccess
 import com.intellij.idea.plugin.hybris.system.cockpitng.meta.CngMetaModelAccess
-import com.intellij.idea.plugin.hybris.system.spring.SimpleSpringService
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
 import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.project.DumbService
@@ -33,12 +32,12 @@ class PreLoadSystemsStartupActivity : ProjectActivity {
     override suspend fun execute(project: Project) {
         if (!HybrisProjectSettingsComponent.getInstance(project).isHybrisProject()) return
 
+        // Type System built from the files of the previous session can be used until indexes are ready
+        TSMetaModelAccess.getInstance(project).initMetaModelWithoutIndexes()
         refreshSystem(project) { TSMetaModelAccess.getInstance(project).initMetaModel() }
         refreshSystem(project) { BSMetaModelAccess.getInstance(project).initMetaModel() }
         refreshSystem(project) { CngMetaModelAccess.getInstance(project).initMetaModel() }
 
-        SimpleSpringService.getService(project)
-            ?.let { service -> refreshSystem(project) { service.initCache() } }
         PropertyService.getInstance(project)
             ?.let { service -> refreshSystem(project) { service.initCache() } }
     }
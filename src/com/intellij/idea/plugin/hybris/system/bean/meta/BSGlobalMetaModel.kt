@@ -33,7 +33,10 @@ class BSGlobalMetaModel : ModificationTracker, Disposable {
 
     fun clear() {
         cleanup()
+        incModificationCount()
+    }
 
+    fun incModificationCount() {
         if (modificationTracker == Long.MAX_VALUE) modificationTracker = 0L
         modificationTracker++
     }
@@ -17,6 +17,7 @@
  */
 package com.intellij.idea.plugin.hybris.system.bean.meta
 
+import com.intellij.idea.plugin.hybris.common.utils.ConcurrentProcessingUtils
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils
 import com.intellij.idea.plugin.hybris.system.bean.meta.impl.BSMetaModelNameProvider
 import com.intellij.idea.plugin.hybris.system.bean.meta.model.BSGlobalMetaBean
@@ -26,6 +27,7 @@ import com.intellij.idea.plugin.hybris.system.bean.meta.model.BSMetaType
 import com.intellij.idea.plugin.hybris.system.bean.model.Bean
 import com.intellij.idea.plugin.hybris.system.bean.model.Enum
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ReadAction
 import com.intellij.openapi.components.Service
 import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.progress.ProgressIndicator
@@ -43,6 +45,7 @@ import com.intellij.psi.util.CachedValueProvider
 import com.intellij.psi.util.CachedValuesManager
 import com.intellij.util.messages.Topic
 import java.util.*
+import java.util.concurrent.Future
 import java.util.concurrent.Semaphore
 
 @Service(Service.Level.PROJECT)
@@ -55,30 +58,36 @@ class BSMetaModelAccess(private val myProject: Project) {
         fun getInstance(project: Project): BSMetaModelAccess = project.getService(BSMetaModelAccess::class.java)
     }
 
-    private val myGlobalMetaModel = BSGlobalMetaModel()
     private val myMessageBus = myProject.messageBus
 
+    // last started build, it is in progress until its future is done, no matter whether it was completed, cancelled or failed
     @Volatile
-    private var building: Boolean = false
+    private var myBuild: Future<*>? = null
 
     @Volatile
     private var initialized: Boolean = false
+
+    // last completely built model, it is replaced as a whole once new one is built
+    @Volatile
+    private var myMetaModelSnapshot: BSGlobalMetaModel? = null
     private val semaphore = Semaphore(1)
 
     private val myGlobalMetaModelCache = CachedValuesManager.getManager(myProject).createCachedValue(
         {
-            val localMetaModels = BSMetaModelCollector.getInstance(myProject).collectDependencies()
+            val files = BSMetaModelCollector.getInstance(myProject).collectDependencies()
                 .filter { obj: PsiFile? -> Objects.nonNull(obj) }
-                .map { psiFile: PsiFile -> retrieveSingleMetaModelPerFile(psiFile) }
-                .map { obj: CachedValue<BSMetaModel> -> obj.value }
+            val localMetaModels = ConcurrentProcessingUtils.mapConcurrently("Bean System", files) { psiFile: PsiFile ->
+                retrieveSingleMetaModelPerFile(psiFile).value
+            }
                 .sortedBy { !it.custom }
 
             val dependencies = localMetaModels
                 .map { it.psiFile }
                 .toTypedArray()
-            BSMetaModelMerger.merge(myGlobalMetaModel, localMetaModels)
+            val globalMetaModel = BSGlobalMetaModel()
+            BSMetaModelMerger.merge(globalMetaModel, localMetaModels)
 
-            CachedValueProvider.Result.create(myGlobalMetaModel, dependencies.ifEmpty { ModificationTracker.EVER_CHANGED })
+            CachedValueProvider.Result.create(globalMetaModel, dependencies.ifEmpty { ModificationTracker.EVER_CHANGED })
         }, false
     )
 
@@ -86,44 +95,40 @@ class BSMetaModelAccess(private val myProject: Project) {
         override fun run(indicator: ProgressIndicator) {
             indicator.text2 = HybrisI18NBundleUtils.message("hybris.bs.access.progress.subTitle.waitingForIndex")
 
-            DumbService.getInstance(project).runReadActionInSmartMode(
-                Computable {
-                    val lock = semaphore.tryAcquire()
-
-                    if (lock) {
-                        try {
-                            building = true
-                            val globalMetaModel = myGlobalMetaModelCache.value
-                            building = false
-                            initialized = true
-
-                            myMessageBus.syncPublisher(BSMetaModelAccess.TOPIC).beanSystemChanged(globalMetaModel)
-                        } finally {
-                            semaphore.release()
-                        }
-                    }
-                }
-            )
+            if (!semaphore.tryAcquire()) return
+
+            try {
+                val globalMetaModel = ReadAction.nonBlocking<BSGlobalMetaModel> { myGlobalMetaModelCache.value }
+                    .inSmartMode(myProject)
+                    .expireWith(myProject)
+                    .wrapProgress(indicator)
+                    .executeSynchronously()
+                publishSnapshot(globalMetaModel)
+                initialized = true
+
+                myMessageBus.syncPublisher(BSMetaModelAccess.TOPIC).beanSystemChanged(globalMetaModel)
+            } finally {
+                semaphore.release()
+            }
         }
     }
 
     fun isInitialized() = initialized
 
     fun initMetaModel() {
-        building = true
-        ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, BackgroundableProcessIndicator(task))
+        myBuild = ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, BackgroundableProcessIndicator(task))
     }
 
+    fun isStale() = isBuilding() || !myGlobalMetaModelCache.hasUpToDateValue()
+
     fun getMetaModel(): BSGlobalMetaModel {
-        if (building || !initialized || DumbService.isDumb(myProject)) throw ProcessCanceledException()
+        val snapshot = myMetaModelSnapshot
 
-        if (myGlobalMetaModelCache.hasUpToDateValue()) {
-            return myGlobalMetaModelCache.value
+        if (!isBuilding() && !DumbService.isDumb(myProject) && !myGlobalMetaModelCache.hasUpToDateValue()) {
+            initMetaModel()
         }
 
-        initMetaModel()
-
-        throw ProcessCanceledException()
+        return snapshot ?: throw ProcessCanceledException()
     }
 
     fun getAllBeans() = getAll<BSGlobalMetaBean>(BSMetaType.META_BEAN) +
@@ -165,6 +170,17 @@ class BSMetaModelAccess(private val myProject: Project) {
     private fun <T : BSGlobalMetaClassifier<*>> findMetaByName(metaType: BSMetaType, name: String?): T? =
         getMetaModel().getMetaType<T>(metaType)[name]
 
+    private fun isBuilding() = myBuild?.isDone == false
+
+    private fun publishSnapshot(globalMetaModel: BSGlobalMetaModel) {
+        val previousSnapshot = myMetaModelSnapshot
+        if (previousSnapshot === globalMetaModel) return
+
+        myMetaModelSnapshot = globalMetaModel
+        // invalidate all caches which depend on the previous snapshot
+        previousSnapshot?.incModificationCount()
+    }
+
     private fun retrieveSingleMetaModelPerFile(psiFile: PsiFile): CachedValue<BSMetaModel> {
         return Optional.ofNullable(psiFile.getUserData(SINGLE_MODEL_CACHE_KEY))
             .orElseGet {
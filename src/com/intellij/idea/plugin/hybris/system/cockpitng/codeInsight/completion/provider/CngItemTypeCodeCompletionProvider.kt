@@ -71,7 +71,7 @@ class CngItemTypeCodeCompletionProvider : ItemTypeCodeCompletionProvider() {
 
         val allItems = metaModelAccess.getAllOf(TSMetaType.META_ITEM, TSMetaType.META_ENUM)
 
-        val boostedItems = getBoostedItems(currentAttributeName, anotherAttributeValue, allItems)
+        val boostedItems = getBoostedItems(metaModelAccess, currentAttributeName, anotherAttributeValue, allItems)
             ?.takeIf { it.isNotEmpty() }
             ?.toSet()
             ?: return super.addCompletions(parameters, context, result)
@@ -133,18 +133,20 @@ class CngItemTypeCodeCompletionProvider : ItemTypeCodeCompletionProvider() {
     }
 
     private fun getBoostedItems(
+        metaModelAccess: TSMetaModelAccess,
         currentAttributeName: String,
         anotherAttributeMeta: TSGlobalMetaClassifier<out DomElement>,
         allItems: Collection<TSGlobalMetaClassifier<*>>
     ) = when (currentAttributeName) {
-        Context.TYPE -> allItems
-            .filter { meta ->
-                when (meta) {
-                    is TSGlobalMetaItem -> meta.allExtends.find { it == anotherAttributeMeta } != null
-                    is TSGlobalMetaEnum -> anotherAttributeMeta.name == HybrisConstants.TS_TYPE_ENUMERATION_VALUE
-                    else -> false
-                }
-            }
+        Context.TYPE -> {
+            val subTypes = (anotherAttributeMeta as? TSGlobalMetaItem)
+                ?.let { metaModelAccess.getAllSubTypes(it.name) }
+                ?: emptyList()
+            val enums = if (anotherAttributeMeta.name == HybrisConstants.TS_TYPE_ENUMERATION_VALUE) allItems.filterIsInstance<TSGlobalMetaEnum>()
+            else emptyList()
+
+            subTypes + enums
+        }
 
         Context.PARENT -> when (anotherAttributeMeta) {
             is TSGlobalMetaItem -> anotherAttributeMeta.allExtends
@@ -41,7 +41,10 @@ class CngGlobalMetaModel : ModificationTracker, Disposable {
 
     fun clear() {
         cleanup()
+        incModificationCount()
+    }
 
+    fun incModificationCount() {
         if (modificationTracker == Long.MAX_VALUE) modificationTracker = 0L
         modificationTracker++
     }
@@ -26,6 +26,10 @@ interface CngMetaModelAccess {
     }
 
     fun initMetaModel()
+    /**
+     * Returns last completely built model, it will not be blocked by the ongoing re-build.
+     */
     fun getMetaModel(): CngGlobalMetaModel
+    fun isStale(): Boolean
 
 }
\ No newline at end of file
@@ -17,6 +17,7 @@
  */
 package com.intellij.idea.plugin.hybris.system.cockpitng.meta.impl
 
+import com.intellij.idea.plugin.hybris.common.utils.ConcurrentProcessingUtils
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils.message
 import com.intellij.idea.plugin.hybris.system.cockpitng.meta.*
 import com.intellij.idea.plugin.hybris.system.cockpitng.meta.model.*
@@ -26,6 +27,7 @@ import com.intellij.idea.plugin.hybris.system.cockpitng.model.core.EditorDefinit
 import com.intellij.idea.plugin.hybris.system.cockpitng.model.core.WidgetDefinition
 import com.intellij.idea.plugin.hybris.system.cockpitng.model.core.Widgets
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ReadAction
 import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.progress.ProgressIndicator
 import com.intellij.openapi.progress.ProgressManager
@@ -44,6 +46,7 @@ import com.intellij.util.messages.Topic
 import com.intellij.util.xml.DomElement
 import com.intellij.util.xml.DomFileElement
 import java.util.*
+import java.util.concurrent.Future
 import java.util.concurrent.Semaphore
 
 /**
@@ -61,103 +64,114 @@ import java.util.concurrent.Semaphore
  */
 class CngMetaModelAccessImpl(private val myProject: Project) : CngMetaModelAccess {
 
-    private val myGlobalMetaModel = CngGlobalMetaModel()
     private val myMessageBus = myProject.messageBus
+    // last started build, it is in progress until its future is done, no matter whether it was completed, cancelled or failed
     @Volatile
-    private var building: Boolean = false
+    private var myBuild: Future<*>? = null
     @Volatile
     private var initialized: Boolean = false
+    // last completely built model, it is replaced as a whole once new one is built
+    @Volatile
+    private var myMetaModelSnapshot: CngGlobalMetaModel? = null
     private val semaphore = Semaphore(1)
 
     private val myGlobalMetaModelCache = CachedValuesManager.getManager(myProject).createCachedValue(
         {
             val processor = CngMetaModelProcessor.getInstance(myProject)
-            val (configs, configDependencies) = collectLocalMetaModels(SINGLE_CONFIG_CACHE_KEY, Config::class.java,
+
+            // files of all kinds are processed concurrently, workers inherit the read action of the caller
+            val fileProcessors = collectFileProcessors(SINGLE_CONFIG_CACHE_KEY, Config::class.java,
                 { file -> processor.processConfig(file) },
                 { _ -> true }
-            )
-            val (actions, actionDependencies) = collectLocalMetaModels(SINGLE_ACTION_DEFINITION_CACHE_KEY, ActionDefinition::class.java,
+            ) + collectFileProcessors(SINGLE_ACTION_DEFINITION_CACHE_KEY, ActionDefinition::class.java,
                 { file -> processor.processActionDefinition(file) },
                 { dom -> dom.rootElement.id.exists() }
-            )
-            val (widgetDefinitions, widgetDependencies) = collectLocalMetaModels(SINGLE_WIDGET_DEFINITION_CACHE_KEY, WidgetDefinition::class.java,
+            ) + collectFileProcessors(SINGLE_WIDGET_DEFINITION_CACHE_KEY, WidgetDefinition::class.java,
                 { file -> processor.processWidgetDefinition(file) },
                 { dom -> dom.rootElement.id.exists() }
-            )
-            val (editors, editorDependencies) = collectLocalMetaModels(SINGLE_EDITOR_DEFINITION_CACHE_KEY, EditorDefinition::class.java,
+            ) + collectFileProcessors(SINGLE_EDITOR_DEFINITION_CACHE_KEY, EditorDefinition::class.java,
                 { file -> processor.processEditorDefinition(file) },
                 { dom -> dom.rootElement.id.exists() }
-            )
-            val (widgets, widgetsDependencies) = collectLocalMetaModels(SINGLE_WIDGETS_MODEL_CACHE_KEY, Widgets::class.java,
+            ) + collectFileProcessors(SINGLE_WIDGETS_MODEL_CACHE_KEY, Widgets::class.java,
                 { file -> processor.processWidgets(file) },
                 { _ -> true }
             )
-            CngMetaModelMerger.getInstance(myProject).merge(
-                myGlobalMetaModel, configs, actions, widgetDefinitions, editors, widgets
+
+            val localMetaModels = LocalMetaModels(
+                ConcurrentProcessingUtils.mapConcurrently("Cockpit NG", fileProcessors) { fileProcessor -> fileProcessor() }
             )
 
-            val dependencies = configDependencies + actionDependencies + widgetDependencies + editorDependencies + widgetsDependencies
+            val globalMetaModel = CngGlobalMetaModel()
+            CngMetaModelMerger.getInstance(myProject).merge(
+                globalMetaModel,
+                localMetaModels.configs,
+                localMetaModels.actionDefinitions,
+                localMetaModels.widgetDefinitions,
+                localMetaModels.editorDefinitions,
+                localMetaModels.widgets
+            )
 
-            CachedValueProvider.Result.create(myGlobalMetaModel, dependencies.ifEmpty { ModificationTracker.EVER_CHANGED })
+            CachedValueProvider.Result.create(globalMetaModel, localMetaModels.dependencies.ifEmpty { ModificationTracker.EVER_CHANGED })
         }, false
     )
 
-    private fun <D : DomElement, T : CngMeta<D>> collectLocalMetaModels(
+    private fun <D : DomElement, T : CngMeta<D>> collectFileProcessors(
         key: Key<CachedValue<T>>,
         clazz: Class<D>,
         resultProcessor: (input: PsiFile) -> T?,
         shouldCollect: (DomFileElement<D>) -> Boolean
-    ): Pair<List<T>, Array<PsiFile>> {
-        val localConfigMetaModels = CngMetaModelCollector.getInstance(myProject).collectDependencies(clazz, shouldCollect)
-            .filter { obj: PsiFile? -> Objects.nonNull(obj) }
-            .map { psiFile: PsiFile -> retrieveSingleMetaModelPerFile(psiFile, key, resultProcessor) }
-            .map { obj: CachedValue<T> -> obj.value }
-
-        val dependencies = localConfigMetaModels
-            .map { it.psiFile }
-            .toTypedArray()
-        return Pair(localConfigMetaModels, dependencies)
-    }
+    ): List<() -> CngMeta<*>?> = CngMetaModelCollector.getInstance(myProject).collectDependencies(clazz, shouldCollect)
+        .filter { obj: PsiFile? -> Objects.nonNull(obj) }
+        .map { psiFile: PsiFile -> { retrieveSingleMetaModelPerFile(psiFile, key, resultProcessor).value } }
 
     private val task = object : Task.Backgroundable(myProject, message("hybris.cng.access.progress.title.building")) {
         override fun run(indicator: ProgressIndicator) {
             indicator.text2 = message("hybris.cng.access.progress.subTitle.waitingForIndex")
 
-            DumbService.getInstance(project).runReadActionInSmartMode(
-                Computable {
-                    val lock = semaphore.tryAcquire()
-
-                    if (lock) {
-                        try {
-                            building = true
-                            val globalMetaModel = myGlobalMetaModelCache.value
-                            building = false
-                            initialized = true
-                            myMessageBus.syncPublisher(topic).cngSystemChanged(globalMetaModel)
-                        } finally {
-                            semaphore.release()
-                        }
-                    }
-                }
-            )
+            if (!semaphore.tryAcquire()) return
+
+            try {
+                // whole model and its dependencies are computed within single read action, so any PSI change made during the build
+                // cancels it and computation is restarted, stale model will never be cached against the new modification stamps
+                val globalMetaModel = ReadAction.nonBlocking<CngGlobalMetaModel> { myGlobalMetaModelCache.value }
+                    .inSmartMode(myProject)
+                    .expireWith(myProject)
+                    .wrapProgress(indicator)
+                    .executeSynchronously()
+                publishSnapshot(globalMetaModel)
+                initialized = true
+                myMessageBus.syncPublisher(topic).cngSystemChanged(globalMetaModel)
+            } finally {
+                semaphore.release()
+            }
         }
     }
 
     override fun initMetaModel() {
-        building = true
-        ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, BackgroundableProcessIndicator(task))
+        myBuild = ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, BackgroundableProcessIndicator(task))
     }
 
+    override fun isStale() = isBuilding() || !myGlobalMetaModelCache.hasUpToDateValue()
+
     override fun getMetaModel(): CngGlobalMetaModel {
-        if (building || !initialized || DumbService.isDumb(myProject)) throw ProcessCanceledException()
+        val snapshot = myMetaModelSnapshot
 
-        if (myGlobalMetaModelCache.hasUpToDateValue()) {
-            return myGlobalMetaModelCache.value
+        if (!isBuilding() && !DumbService.isDumb(myProject) && !myGlobalMetaModelCache.hasUpToDateValue()) {
+            initMetaModel()
         }
 
-        initMetaModel()
+        return snapshot ?: throw ProcessCanceledException()
+    }
+
+    private fun isBuilding() = myBuild?.isDone == false
+
+    private fun publishSnapshot(globalMetaModel: CngGlobalMetaModel) {
+        val previousSnapshot = myMetaModelSnapshot
+        if (previousSnapshot === globalMetaModel) return
 
-        throw ProcessCanceledException()
+        myMetaModelSnapshot = globalMetaModel
+        // invalidate all caches which depend on the previous snapshot
+        previousSnapshot?.incModificationCount()
     }
 
     private fun <D : DomElement, T : CngMeta<D>> retrieveSingleMetaModelPerFile(
@@ -188,6 +202,17 @@ class CngMetaModelAccessImpl(private val myProject: Project) : CngMetaModelAcces
         )
     }
 
+    private class LocalMetaModels(metas: List<CngMeta<*>>) {
+        val configs = metas.filterIsInstance<CngConfigMeta>()
+        val actionDefinitions = metas.filterIsInstance<CngMetaActionDefinition>()
+        val widgetDefinitions = metas.filterIsInstance<CngMetaWidgetDefinition>()
+        val editorDefinitions = metas.filterIsInstance<CngMetaEditorDefinition>()
+        val widgets = metas.filterIsInstance<CngMetaWidgets>()
+        val dependencies = metas
+            .map { it.psiFile }
+            .toTypedArray()
+    }
+
     companion object {
         val topic = Topic("HYBRIS_COCKPITNG_SYSTEM_LISTENER", CngChangeListener::class.java)
         private val SINGLE_CONFIG_CACHE_KEY = Key.create<CachedValue<CngConfigMeta>>("SINGLE_CNG_CONFIG_CACHE")
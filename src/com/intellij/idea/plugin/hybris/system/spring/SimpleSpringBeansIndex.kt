@@ -0,0 +1,94 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.spring
+
+import com.intellij.ide.highlighter.XmlFileType
+import com.intellij.idea.plugin.hybris.common.HybrisConstants
+import com.intellij.psi.xml.XmlFile
+import com.intellij.psi.xml.XmlTag
+import com.intellij.util.indexing.*
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.IOUtil
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * Spring beans declared directly under the root `beans` tag of the Spring XML files, keyed by the bean id.
+ * All XML files are accepted, as Spring configurations are not bound to any naming convention, e.g. `*-web-spring.xml`
+ * under `web/webroot` or `spring-mvc-config.xml`; files without the Spring beans namespace are skipped by a text check.
+ *
+ * Used only by the [SimpleSpringService], so only beans with the `class` attribute are indexed.
+ * Registered only for IntelliJ IDEA Community, Ultimate relies on the Spring plugin.
+ */
+class SimpleSpringBeansIndex : FileBasedIndexExtension<String, SimpleSpringBeansIndex.Bean>() {
+
+    override fun getName() = NAME
+    override fun getVersion() = 3
+    override fun dependsOnFileContent() = true
+    override fun getKeyDescriptor(): EnumeratorStringDescriptor = EnumeratorStringDescriptor.INSTANCE
+    override fun getValueExternalizer(): DataExternalizer<Bean> = BeanExternalizer
+    override fun getInputFilter() = DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE)
+
+    override fun getIndexer() = DataIndexer<String, Bean, FileContent> { inputData ->
+        // cheap text check first, PSI is built only for the files which may be Spring configurations
+        if (!inputData.contentAsText.contains(HybrisConstants.SPRING_NAMESPACE)) return@DataIndexer emptyMap()
+
+        val rootTag = (inputData.psiFile as? XmlFile)
+            ?.rootTag
+            ?.takeIf { it.getAttributeValue("xmlns") == HybrisConstants.SPRING_NAMESPACE }
+            ?: return@DataIndexer emptyMap()
+
+        rootTag.subTags
+            .filter { it.localName == "bean" }
+            .mapNotNull { tag ->
+                val id = tag.getAttributeValue("id") ?: return@mapNotNull null
+                val className = tag.getAttributeValue("class") ?: return@mapNotNull null
+
+                id to Bean(tag.textRange.startOffset, className, tag.getAttributeValue("parent"))
+            }
+            .toMap()
+    }
+
+    /**
+     * @param offset    offset of the bean [XmlTag] in the file
+     * @param className value of the `class` attribute
+     * @param parent    value of the `parent` attribute
+     */
+    data class Bean(val offset: Int, val className: String, val parent: String?)
+
+    private object BeanExternalizer : DataExternalizer<Bean> {
+        override fun save(out: DataOutput, value: Bean) {
+            out.writeInt(value.offset)
+            IOUtil.writeUTF(out, value.className)
+            out.writeBoolean(value.parent != null)
+            value.parent?.let { IOUtil.writeUTF(out, it) }
+        }
+
+        override fun read(input: DataInput) = Bean(
+            input.readInt(),
+            IOUtil.readUTF(input),
+            if (input.readBoolean()) IOUtil.readUTF(input) else null
+        )
+    }
+
+    companion object {
+        val NAME: ID<String, Bean> = ID.create("SimpleSpringBeansIndex")
+    }
+}
@@ -18,22 +18,17 @@
 
 package com.intellij.idea.plugin.hybris.system.spring
 
-import com.intellij.ide.highlighter.XmlFileType
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.openapi.application.ApplicationNamesInfo
-import com.intellij.openapi.application.ReadAction
 import com.intellij.openapi.components.Service
+import com.intellij.openapi.project.DumbService
 import com.intellij.openapi.project.Project
-import com.intellij.openapi.util.ModificationTracker
 import com.intellij.psi.PsiManager
-import com.intellij.psi.search.FileTypeIndex
 import com.intellij.psi.search.GlobalSearchScope
-import com.intellij.psi.util.CachedValueProvider
-import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.psi.xml.XmlFile
 import com.intellij.psi.xml.XmlTag
-import com.intellij.util.concurrency.AppExecutorUtil
-import org.jetbrains.kotlin.psi.psiUtil.getChildrenOfType
+import com.intellij.util.indexing.FileBasedIndex
 
 /**
  * Incredibly simple handling of the Spring beans.
@@ -44,53 +39,29 @@ import org.jetbrains.kotlin.psi.psiUtil.getChildrenOfType
 @Service(Service.Level.PROJECT)
 class SimpleSpringService(val project: Project) {
 
-    private val cache = CachedValuesManager.getManager(project).createCachedValue(
-        {
-            val springFiles = collectFiles()
-            val beans = processBeans(springFiles)
+    /**
+     * Resolves bean via [SimpleSpringBeansIndex], only the files declaring the bean are loaded.
+     * If the same bean id is declared in several files, the last one wins, same as for the bean overrides.
+     */
+    fun findBean(id: String): XmlTag? {
+        if (DumbService.isDumb(project)) return null
 
-            val dependencies = springFiles
-                .toTypedArray()
-
-            CachedValueProvider.Result.create(beans, dependencies.ifEmpty { ModificationTracker.EVER_CHANGED })
-        }, false
-    )
-
-    fun findBean(id: String) = if (cache.hasUpToDateValue()) cache.value[id]
-    else null
-
-    fun initCache() {
-        ReadAction
-            .nonBlocking<Map<String, XmlTag>>() {
-                cache.value
-            }
-            .submit(AppExecutorUtil.getAppExecutorService())
-    }
-
-    private fun processBeans(xmlFiles: List<XmlFile>) = xmlFiles
-        .mapNotNull { it.rootTag }
-        .flatMap {
-            it.getChildrenOfType<XmlTag>()
-                .filter { tag -> tag.localName == "bean" }
-                .mapNotNull { tag ->
-                    val id = tag.getAttributeValue("id") ?: return@mapNotNull null
-                    tag.getAttributeValue("class") ?: return@mapNotNull null
-
-                    id to tag
-                }
-        }
-        .associate { it.first to it.second }
-
-    private fun collectFiles(): List<XmlFile> {
+        var result: XmlTag? = null
         val psiManager = PsiManager.getInstance(project)
 
-        return FileTypeIndex.getFiles(
-            XmlFileType.INSTANCE,
+        FileBasedIndex.getInstance().processValues(
+            SimpleSpringBeansIndex.NAME, id, null,
+            { file, bean ->
+                (psiManager.findFile(file) as? XmlFile)
+                    ?.findElementAt(bean.offset)
+                    ?.let { PsiTreeUtil.getParentOfType(it, XmlTag::class.java, false) }
+                    ?.let { result = it }
+                true
+            },
             GlobalSearchScope.allScope(project)
         )
-            .mapNotNull { psiManager.findFile(it) }
-            .filterIsInstance<XmlFile>()
-            .filter { it.rootTag?.getAttributeValue("xmlns") == HybrisConstants.SPRING_NAMESPACE }
+
+        return result
     }
 
     companion object {
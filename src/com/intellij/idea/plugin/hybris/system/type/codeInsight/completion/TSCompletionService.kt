@@ -95,15 +95,11 @@ class TSCompletionService(private val project: Project) {
         }
 
         val metaModelAccess = TSMetaModelAccess.getInstance(project)
-        metaModelAccess.findMetaItemByName(referenceItemTypeName)
+        val referenceMeta = metaModelAccess.findMetaItemByName(referenceItemTypeName)
             ?: return emptyList()
 
-        return metaModelAccess.getAll<TSGlobalMetaItem>(TSMetaType.META_ITEM)
-            .filter { meta ->
-                meta.allExtends.find { it.name.equals(referenceItemTypeName, true) } != null
-                    // or itself, it will be highlighted as unnecessary via Inspection
-                    || meta.name.equals(referenceItemTypeName, true)
-            }
+        // or itself, it will be highlighted as unnecessary via Inspection
+        return (listOf(referenceMeta) + metaModelAccess.getAllSubTypes(referenceItemTypeName))
             .mapNotNull {
                 TSLookupElementFactory.build(it, suffix)
                     ?.withTypeText(" child of $referenceItemTypeName", true)
@@ -33,9 +33,15 @@ class TSGlobalMetaModel : ModificationTracker, Disposable {
     private val myDeploymentTables = CaseInsensitive.CaseInsensitiveConcurrentHashMap<String, TSMetaDeployment>()
     private val myDeploymentTypeCodes = ConcurrentHashMap<Int, TSMetaDeployment>()
 
+    @Volatile
+    private var myItemHierarchy: TSMetaItemHierarchy? = null
+
     fun clear() {
         cleanup()
+        incModificationCount()
+    }
 
+    fun incModificationCount() {
         if (modificationTracker == Long.MAX_VALUE) modificationTracker = 0L
         modificationTracker++
     }
@@ -54,12 +60,30 @@ class TSGlobalMetaModel : ModificationTracker, Disposable {
     fun getMetaRelation(name: String?) = getMetaType<TSGlobalMetaRelation>(TSMetaType.META_RELATION)[name]
     fun getMetaItem(name: String?) = getMetaType<TSGlobalMetaItem>(TSMetaType.META_ITEM)[name]
     fun getMetaCollection(name: String?) = getMetaType<TSGlobalMetaCollection>(TSMetaType.META_COLLECTION)[name]
+    fun getMetaClassifier(name: String?): TSGlobalMetaClassifier<out DomElement>? = getMetaItem(name)
+        ?: getMetaCollection(name)
+        ?: getMetaRelation(name)
+        ?: getMetaEnum(name)
+        ?: getMetaMap(name)
+        ?: getMetaAtomic(name)
 
     fun getMetaTypes() = myMetaCache
 
     fun getRelations(name: String?): Collection<TSMetaRelation.TSMetaRelationElement>? = name?.let { getAllRelations()[it] }
 
     fun getAllRelations() = myReferencesBySourceTypeName
+
+    fun getItemHierarchy() = myItemHierarchy
+        ?: TSMetaItemHierarchy.build(getMetaType(TSMetaType.META_ITEM))
+            .also { myItemHierarchy = it }
+
+    /**
+     * Has to be invoked once all meta classifiers are merged, otherwise indexes will be lazily built on first access.
+     */
+    fun updateIndexes() {
+        myItemHierarchy = TSMetaItemHierarchy.build(getMetaType(TSMetaType.META_ITEM))
+    }
+
     fun getDeploymentTypeCodes() = myDeploymentTypeCodes
 
     fun addDeployment(deployment: TSMetaDeployment) {
@@ -70,6 +94,24 @@ class TSGlobalMetaModel : ModificationTracker, Disposable {
         }
     }
 
+    /**
+     * Copies all meta classifiers, relation ends and deployments of the given model into the current one.
+     * Classifiers are shared between both models, only lookup structures are copied.
+     */
+    fun copyFrom(globalMetaModel: TSGlobalMetaModel) {
+        globalMetaModel.myMetaCache.forEach { (metaType, metas) ->
+            getMetaType<TSGlobalMetaClassifier<out DomElement>>(metaType).putAll(metas)
+        }
+        myReferencesBySourceTypeName.putAllValues(globalMetaModel.myReferencesBySourceTypeName)
+        myDeploymentTables.putAll(globalMetaModel.myDeploymentTables)
+        myDeploymentTypeCodes.putAll(globalMetaModel.myDeploymentTypeCodes)
+    }
+
+    fun clearDeployments() {
+        myDeploymentTables.clear()
+        myDeploymentTypeCodes.clear()
+    }
+
     override fun getModificationCount() = modificationTracker
     override fun dispose() = cleanup()
 
@@ -77,7 +119,7 @@ class TSGlobalMetaModel : ModificationTracker, Disposable {
     private fun cleanup() {
         myMetaCache.clear()
         myReferencesBySourceTypeName.clear()
-        myDeploymentTables.clear()
-        myDeploymentTypeCodes.clear()
+        myItemHierarchy = null
+        clearDeployments()
     }
 }
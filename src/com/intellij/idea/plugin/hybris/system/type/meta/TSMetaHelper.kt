@@ -51,18 +51,21 @@ object TSMetaHelper {
     }
 
     fun flattenType(plainType: String, allTypes: Map<String, TSTypedClassifier>): String? {
-        var type = plainType
-        val localized = type.startsWith(HybrisConstants.TS_ATTRIBUTE_LOCALIZED_PREFIX, true)
-        if (localized) {
-            type = type.replace(HybrisConstants.TS_ATTRIBUTE_LOCALIZED_PREFIX, "")
-        }
-        var flattenType = allTypes[type]?.flattenType ?: plainType
+        val localized = plainType.startsWith(HybrisConstants.TS_ATTRIBUTE_LOCALIZED_PREFIX, true)
+        var flattenType = allTypes[getReferencedTypeName(plainType)]?.flattenType ?: plainType
         flattenType = if (localized) HybrisConstants.TS_ATTRIBUTE_LOCALIZED_PREFIX + flattenType
         else flattenType
 
         return escapeType(flattenType)
     }
 
+    /**
+     * Name of the type which is looked up to flatten given plain type, flatten type will change only if flatten type of that type changes.
+     */
+    fun getReferencedTypeName(plainType: String) = if (plainType.startsWith(HybrisConstants.TS_ATTRIBUTE_LOCALIZED_PREFIX, true))
+        plainType.replace(HybrisConstants.TS_ATTRIBUTE_LOCALIZED_PREFIX, "")
+    else plainType
+
     fun flattenType(meta: TSMetaRelation.TSMetaRelationElement) = if (meta.cardinality == Cardinality.ONE) escapeType(meta.type) ?: "?"
     else flattenType(meta.collectionType, escapeType(meta.type))
 
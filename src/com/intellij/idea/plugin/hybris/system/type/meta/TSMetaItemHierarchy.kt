@@ -0,0 +1,123 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.meta
+
+import com.intellij.idea.plugin.hybris.common.HybrisConstants
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSGlobalMetaItem
+
+/**
+ * Reverse inheritance index of the Item types.
+ *
+ * All Item types are ordered via depth-first traversal of the inheritance tree, so all descendants of the type
+ * are placed right after it. For each type we keep its position and position of its last descendant, which allows
+ * to check sub-type relation in O(1) and to get all sub-types as a slice of the ordered list.
+ */
+class TSMetaItemHierarchy private constructor(
+    private val ordered: List<TSGlobalMetaItem>,
+    private val positions: Map<String, Int>,
+    private val lastDescendants: IntArray,
+    private val directSubTypes: Map<String, List<TSGlobalMetaItem>>
+) {
+
+    fun getDirectSubTypes(name: String?): List<TSGlobalMetaItem> = name
+        ?.let { directSubTypes[it.lowercase()] }
+        ?: emptyList()
+
+    /**
+     * Returns all direct and transitive sub-types of the Item type, the type itself is not included.
+     */
+    fun getAllSubTypes(name: String?): List<TSGlobalMetaItem> {
+        val position = position(name) ?: return emptyList()
+
+        return ordered.subList(position + 1, lastDescendants[position] + 1)
+    }
+
+    /**
+     * Returns `true` if [name] is a direct or transitive sub-type of the [parentName], type is not a sub-type of itself.
+     */
+    fun isSubTypeOf(name: String?, parentName: String?): Boolean {
+        val position = position(name) ?: return false
+        val parentPosition = position(parentName) ?: return false
+
+        return position > parentPosition && position <= lastDescendants[parentPosition]
+    }
+
+    private fun position(name: String?) = name
+        ?.let { positions[it.lowercase()] }
+
+    companion object {
+        fun build(metaItems: Map<String, TSGlobalMetaItem>): TSMetaItemHierarchy {
+            val directSubTypes = HashMap<String, MutableList<TSGlobalMetaItem>>()
+            val roots = ArrayList<TSGlobalMetaItem>()
+
+            metaItems.values
+                .sortedBy { it.name }
+                .forEach { metaItem ->
+                    // merged `extends` is the direct parent, all Item types without it extend GenericItem
+                    val parentName = (metaItem.extendedMetaItemName ?: HybrisConstants.TS_TYPE_GENERIC_ITEM).lowercase()
+                        .takeUnless { it == metaItem.name?.lowercase() }
+
+                    if (parentName == null || !metaItems.containsKey(parentName)) roots.add(metaItem)
+                    else directSubTypes.computeIfAbsent(parentName) { ArrayList() }.add(metaItem)
+                }
+
+            val ordered = ArrayList<TSGlobalMetaItem>(metaItems.size)
+            val positions = HashMap<String, Int>(metaItems.size)
+            val lastDescendants = IntArray(metaItems.size)
+
+            // iterative traversal to avoid stack overflow on deep hierarchies, visited types are skipped to survive cycles
+            roots.forEach { root ->
+                val stack = ArrayDeque<Pair<Int, Iterator<TSGlobalMetaItem>>>()
+
+                visit(root, ordered, positions, directSubTypes)
+                    ?.let { stack.addLast(it) }
+
+                while (stack.isNotEmpty()) {
+                    val (position, children) = stack.last()
+
+                    if (children.hasNext()) {
+                        visit(children.next(), ordered, positions, directSubTypes)
+                            ?.let { stack.addLast(it) }
+                    } else {
+                        lastDescendants[position] = ordered.size - 1
+                        stack.removeLast()
+                    }
+                }
+            }
+
+            return TSMetaItemHierarchy(ordered, positions, lastDescendants, directSubTypes)
+        }
+
+        private fun visit(
+            metaItem: TSGlobalMetaItem,
+            ordered: MutableList<TSGlobalMetaItem>,
+            positions: MutableMap<String, Int>,
+            directSubTypes: Map<String, List<TSGlobalMetaItem>>
+        ): Pair<Int, Iterator<TSGlobalMetaItem>>? {
+            val name = metaItem.name?.lowercase() ?: return null
+            if (positions.containsKey(name)) return null
+
+            val position = ordered.size
+            ordered.add(metaItem)
+            positions[name] = position
+
+            return position to (directSubTypes[name]?.iterator() ?: emptyList<TSGlobalMetaItem>().iterator())
+        }
+    }
+}
@@ -37,14 +37,24 @@ class TSMetaModel(
 
     private val myMetaCache: MutableMap<TSMetaType, MultiMap<String, TSMetaClassifier<DomElement>>> = ConcurrentHashMap()
     private val myRelationsBySourceTypeName = CaseInsensitive.NoCaseMultiMap<TSMetaRelation.TSMetaRelationElement>()
+    private val myFingerprints: MutableMap<TSMetaType, MutableMap<String, Long>> = ConcurrentHashMap()
 
-    fun addMetaModel(meta: TSMetaClassifier<out DomElement>, metaType: TSMetaType) {
+    fun addMetaModel(meta: TSMetaClassifier<out DomElement>, metaType: TSMetaType, dom: DomElement) {
         // add log why no name
         if (meta.name == null) return
 
-        getMetaType<TSMetaClassifier<out DomElement>>(metaType).putValue(meta.name!!.lowercase(), meta)
+        val key = meta.name!!.lowercase()
+        getMetaType<TSMetaClassifier<out DomElement>>(metaType).putValue(key, meta)
+        myFingerprints.computeIfAbsent(metaType) { HashMap() }
+            .merge(key, fingerprint(dom)) { previous, current -> 31 * previous + current }
     }
 
+    /**
+     * Fingerprint of the text of all declarations with the given key in this file.
+     * Together with equal DOM anchors it indicates that the declarations were not changed since the previous version of the file.
+     */
+    fun getFingerprint(metaType: TSMetaType, key: String) = myFingerprints[metaType]?.get(key)
+
     @Suppress("UNCHECKED_CAST")
     fun <T : TSMetaClassifier<out DomElement>> getMetaType(metaType: TSMetaType): MultiMap<String, T> =
         myMetaCache.computeIfAbsent(metaType) { MultiMap.createLinked() } as MultiMap<String, T>
@@ -55,7 +65,19 @@ class TSMetaModel(
     override fun dispose() {
         myMetaCache.clear()
         myRelationsBySourceTypeName.clear()
+        myFingerprints.clear()
     }
 
     override fun toString() = "Module: ${module.yExtensionName()} | psi file: ${psiFile.name}"
+
+    // 64-bit FNV-1a hash of the declaration text
+    private fun fingerprint(dom: DomElement): Long {
+        val text = dom.xmlElement?.text ?: return 0L
+        var hash = -0x340d631b7bdddcdbL
+
+        for (char in text) {
+            hash = (hash xor char.code.toLong()) * 0x100000001b3L
+        }
+        return hash
+    }
 }
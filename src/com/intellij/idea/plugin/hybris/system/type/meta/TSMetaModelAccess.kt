@@ -34,7 +34,23 @@ interface TSMetaModelAccess {
 
     fun isInitialized(): Boolean
     fun initMetaModel()
+
+    /**
+     * Builds initial Type System snapshot from the `items.xml` files which contributed to the previous session's Type System.
+     * Only the list of files is persisted, so every file is still parsed and merged, just without waiting for the indexes.
+     * Snapshot will be replaced by the regular build once indexing is completed.
+     */
+    fun initMetaModelWithoutIndexes()
+    /**
+     * Returns last completely built Type System, it will not be blocked by the ongoing re-build.
+     * Use [isStale] to check if newer Type System is being built.
+     */
     fun getMetaModel(): TSGlobalMetaModel
+
+    /**
+     * Returns `true` if the Type System returned by [getMetaModel] is outdated and re-build is pending or in progress.
+     */
+    fun isStale(): Boolean
     fun findMetaClassifierByName(name: String?): TSGlobalMetaClassifier<out DomElement>?
     fun findRelationByName(name: String?): List<TSMetaRelation>
     fun findMetaMapByName(name: String?): TSGlobalMetaMap?
@@ -50,4 +66,7 @@ interface TSMetaModelAccess {
     fun getNextAvailableTypeCode(): Int?
     fun getReservedTypeCodes(): Map<Int, String>
     fun getAllOf(vararg metaTypes: TSMetaType): Collection<TSGlobalMetaClassifier<*>>
+    fun getDirectSubTypes(name: String?): List<TSGlobalMetaItem>
+    fun getAllSubTypes(name: String?): List<TSGlobalMetaItem>
+    fun isSubTypeOf(name: String?, parentName: String?): Boolean
 }
\ No newline at end of file
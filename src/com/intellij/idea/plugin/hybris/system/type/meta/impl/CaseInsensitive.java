@@ -54,6 +54,12 @@ public final class CaseInsensitive {
                 .collect(Collectors.toSet());
         }
 
+        public void putValues(final @NotNull String key, final @NotNull Collection<V> values) {
+            myMap
+                .computeIfAbsent(key, s -> new LinkedList<>())
+                .addAll(values);
+        }
+
         public void putAllValues(@NotNull final NoCaseMultiMap<V> map) {
             map.entrySet().forEach(entry ->
                 myMap
@@ -67,6 +73,11 @@ public final class CaseInsensitive {
             return myMap.get(key);
         }
 
+        @Nullable
+        public Collection<V> remove(final @NotNull String key) {
+            return myMap.remove(key);
+        }
+
         public void clear() {
             myMap.clear();
         }
@@ -84,6 +95,11 @@ public final class CaseInsensitive {
             return super.get(convertKey(key));
         }
 
+        @Override
+        public V remove(final Object key) {
+            return super.remove(convertKey(key));
+        }
+
         @Override
         public void putAll(final Map<? extends K, ? extends V> map) {
             for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
@@ -118,7 +134,7 @@ public final class CaseInsensitive {
 
         @SuppressWarnings("unchecked")
         protected <T> T convertKey(final Object key) {
-            if (key != null) {
+            if (key != null && key != nullKey) {
                 return (T) key.toString().toLowerCase();
             }
             return (T) nullKey;
@@ -19,6 +19,7 @@ package com.intellij.idea.plugin.hybris.system.type.meta.impl
 
 import com.intellij.idea.plugin.hybris.common.HybrisConstants
 import com.intellij.idea.plugin.hybris.common.root
+import com.intellij.idea.plugin.hybris.common.utils.ConcurrentProcessingUtils
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils.message
 import com.intellij.idea.plugin.hybris.common.yExtensionName
 import com.intellij.idea.plugin.hybris.system.type.meta.*
@@ -26,6 +27,7 @@ import com.intellij.idea.plugin.hybris.system.type.meta.model.*
 import com.intellij.idea.plugin.hybris.system.type.model.EnumType
 import com.intellij.idea.plugin.hybris.system.type.model.ItemType
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ReadAction
 import com.intellij.openapi.module.ModuleManager
 import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.progress.ProgressIndicator
@@ -33,17 +35,21 @@ import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.progress.Task
 import com.intellij.openapi.progress.impl.BackgroundableProcessIndicator
 import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.IndexNotReadyException
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.util.Computable
 import com.intellij.openapi.util.Key
 import com.intellij.openapi.util.ModificationTracker
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
 import com.intellij.psi.util.CachedValue
 import com.intellij.psi.util.CachedValueProvider
 import com.intellij.psi.util.CachedValuesManager
 import com.intellij.util.xml.DomElement
-import org.apache.commons.collections4.CollectionUtils
+import org.jetbrains.annotations.TestOnly
 import java.util.*
+import java.util.concurrent.Future
 import java.util.concurrent.Semaphore
 import kotlin.io.path.exists
 import kotlin.io.path.inputStream
@@ -63,8 +69,8 @@ import kotlin.io.path.inputStream
  */
 class TSMetaModelAccessImpl(private val myProject: Project) : TSMetaModelAccess {
 
-    private val myGlobalMetaModel = TSGlobalMetaModel()
     private val myMessageBus = myProject.messageBus
+    private val myStartupCache = TSMetaModelStartupCache(myProject)
     private val myReservedTypeCodes by lazy {
         ModuleManager.getInstance(myProject)
             .modules
@@ -86,28 +92,44 @@ class TSMetaModelAccessImpl(private val myProject: Project) : TSMetaModelAccess
             ?: emptyMap()
     }
 
+    // last started build, it is in progress until its future is done, no matter whether it was completed, cancelled or failed
     @Volatile
-    private var building: Boolean = false
+    private var myBuild: Future<*>? = null
+
+    @Volatile
+    private var myBuildIndicator: ProgressIndicator? = null
 
     @Volatile
     private var initialized: Boolean = false
+
+    // last completely built Type System, it is replaced as a whole once new one is built
+    @Volatile
+    private var myMetaModelSnapshot: TSGlobalMetaModel? = null
+
+    // files which contributed to the last computed Type System, they will be persisted for the next startup
+    @Volatile
+    private var myContributingFiles: List<VirtualFile> = emptyList()
+
     private val semaphore = Semaphore(1)
 
     private val myGlobalMetaModelCache = CachedValuesManager.getManager(myProject).createCachedValue(
         {
-            val localMetaModels = TSMetaModelCollector.getInstance(myProject).collectDependencies()
+            val files = TSMetaModelCollector.getInstance(myProject).collectDependencies()
                 .filter { obj: PsiFile? -> Objects.nonNull(obj) }
-                .map { psiFile: PsiFile -> retrieveSingleMetaModelPerFile(psiFile) }
-                .map { obj: CachedValue<TSMetaModel> -> obj.value }
+            val localMetaModels = ConcurrentProcessingUtils.mapConcurrently("Type System", files) { psiFile: PsiFile ->
+                retrieveSingleMetaModelPerFile(psiFile).value
+            }
                 .sortedBy { !it.custom }
 
             val dependencies = localMetaModels
                 .map { it.psiFile }
                 .toTypedArray()
 
-            TSMetaModelMerger.getInstance(myProject).merge(myGlobalMetaModel, localMetaModels)
+            val globalMetaModel = TSGlobalMetaModel()
+            TSMetaModelMerger.getInstance(myProject).merge(globalMetaModel, localMetaModels)
+            myContributingFiles = localMetaModels.mapNotNull { it.psiFile.virtualFile }
 
-            CachedValueProvider.Result.create(myGlobalMetaModel, dependencies.ifEmpty { ModificationTracker.EVER_CHANGED })
+            CachedValueProvider.Result.create(globalMetaModel, dependencies.ifEmpty { ModificationTracker.EVER_CHANGED })
         }, false
     )
 
@@ -115,44 +137,95 @@ class TSMetaModelAccessImpl(private val myProject: Project) : TSMetaModelAccess
         override fun run(indicator: ProgressIndicator) {
             indicator.text2 = message("hybris.ts.access.progress.subTitle.waitingForIndex")
 
-            DumbService.getInstance(project).runReadActionInSmartMode(
-                Computable {
-                    if (DumbService.isDumb(project)) throw ProcessCanceledException()
-                    val lock = semaphore.tryAcquire()
-
-                    if (lock) {
-                        try {
-                            building = true
-                            val globalMetaModel = myGlobalMetaModelCache.value
-                            building = false
-                            initialized = true
-                            myMessageBus.syncPublisher(TSMetaModelAccess.TOPIC).typeSystemChanged(globalMetaModel)
-                        } finally {
-                            semaphore.release()
+            if (!semaphore.tryAcquire()) return
+
+            try {
+                // a write action restarts the computation instead of waiting for it, so the model is never cached against outdated PSI
+                val globalMetaModel = ReadAction.nonBlocking<TSGlobalMetaModel> { myGlobalMetaModelCache.value }
+                    .inSmartMode(myProject)
+                    .expireWith(myProject)
+                    .wrapProgress(indicator)
+                    .executeSynchronously()
+                publishSnapshot(globalMetaModel)
+                initialized = true
+                myMessageBus.syncPublisher(TSMetaModelAccess.TOPIC).typeSystemChanged(globalMetaModel)
+            } finally {
+                semaphore.release()
+            }
+
+            myStartupCache.save(myContributingFiles)
+        }
+    }
+
+    private val initialTask = object : Task.Backgroundable(myProject, message("hybris.ts.access.progress.title.buildingInitial")) {
+        override fun run(indicator: ProgressIndicator) {
+            val files = myStartupCache.load() ?: return
+            val psiManager = PsiManager.getInstance(myProject)
+            val processor = TSMetaModelProcessor.getInstance(myProject)
+
+            // every file is processed in own non-blocking read action, so pending write actions are not blocked by the whole initial build,
+            // per-file caches are not used to avoid caching of the results computed without indexes
+            val localMetaModels = ConcurrentProcessingUtils.mapConcurrently("Initial Type System", files) { file ->
+                // regular build is already completed, there is no need in the initial snapshot anymore
+                if (myMetaModelSnapshot != null) throw ProcessCanceledException()
+
+                ReadAction.nonBlocking<TSMetaModel?> {
+                    psiManager.findFile(file)
+                        ?.let {
+                            try {
+                                processor.process(it)
+                            } catch (e: IndexNotReadyException) {
+                                null
+                            }
                         }
-                    }
                 }
-            )
+                    .wrapProgress(indicator)
+                    .executeSynchronously()
+            }
+                .takeIf { it.isNotEmpty() }
+                ?: return
+
+            val globalMetaModel = ReadAction.nonBlocking<TSGlobalMetaModel> {
+                // dedicated merger is used to not interfere with the regular one and its incremental state
+                TSGlobalMetaModel().also { TSMetaModelMergerImpl(myProject).merge(it, localMetaModels) }
+            }
+                .wrapProgress(indicator)
+                .executeSynchronously()
+
+            if (publishSnapshot(globalMetaModel, false)) {
+                initialized = true
+                myMessageBus.syncPublisher(TSMetaModelAccess.TOPIC).typeSystemChanged(globalMetaModel)
+            }
         }
     }
 
     override fun isInitialized() = initialized
 
+    override fun initMetaModelWithoutIndexes() {
+        ProgressManager.getInstance().runProcessWithProgressAsynchronously(initialTask, BackgroundableProcessIndicator(initialTask))
+    }
+
     override fun initMetaModel() {
-        building = true
-        ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, BackgroundableProcessIndicator(task))
+        val indicator = BackgroundableProcessIndicator(task)
+        myBuildIndicator = indicator
+        myBuild = ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, indicator)
     }
 
+    override fun isStale() = isBuilding() || !myGlobalMetaModelCache.hasUpToDateValue()
+
+    @TestOnly
+    fun cancelBuild() = myBuildIndicator?.cancel()
+
+    private fun isBuilding() = myBuild?.isDone == false
+
     override fun getMetaModel(): TSGlobalMetaModel {
-        if (building || !initialized || DumbService.isDumb(myProject)) throw ProcessCanceledException()
+        val snapshot = myMetaModelSnapshot
 
-        if (myGlobalMetaModelCache.hasUpToDateValue()) {
-            return myGlobalMetaModelCache.value
+        if (!isBuilding() && !DumbService.isDumb(myProject) && !myGlobalMetaModelCache.hasUpToDateValue()) {
+            initMetaModel()
         }
 
-        initMetaModel()
-
-        throw ProcessCanceledException()
+        return snapshot ?: throw ProcessCanceledException()
     }
 
     override fun <T : TSGlobalMetaClassifier<*>> getAll(metaType: TSMetaType) = getMetaModel().getMetaType<T>(metaType).values
@@ -165,6 +238,10 @@ class TSMetaModelAccessImpl(private val myProject: Project) : TSMetaModelAccess
     override fun getAll(): Collection<TSGlobalMetaClassifier<*>> = TSMetaType.entries
         .flatMap { getAll(it) }
 
+    override fun getDirectSubTypes(name: String?) = getMetaModel().getItemHierarchy().getDirectSubTypes(name)
+    override fun getAllSubTypes(name: String?) = getMetaModel().getItemHierarchy().getAllSubTypes(name)
+    override fun isSubTypeOf(name: String?, parentName: String?) = getMetaModel().getItemHierarchy().isSubTypeOf(name, parentName)
+
     override fun findMetaForDom(dom: ItemType) = findMetaItemByName(TSMetaModelNameProvider.extract(dom))
     override fun findMetaForDom(dom: EnumType) = findMetaEnumByName(TSMetaModelNameProvider.extract(dom))
 
@@ -175,16 +252,11 @@ class TSMetaModelAccessImpl(private val myProject: Project) : TSMetaModelAccess
     override fun findMetaMapByName(name: String?) = findMetaByName<TSGlobalMetaMap>(TSMetaType.META_MAP, name)
     override fun findMetaRelationByName(name: String?) = findMetaByName<TSGlobalMetaRelation>(TSMetaType.META_RELATION, name)
 
-    override fun findRelationByName(name: String?) = CollectionUtils.emptyIfNull(getMetaModel().getAllRelations().values())
+    override fun findRelationByName(name: String?) = getMetaModel().getAllRelations().values()
         .mapNotNull { metaRelationElement -> metaRelationElement.owner }
         .filter { ref: TSMetaRelation -> name == ref.name }
 
-    override fun findMetaClassifierByName(name: String?): TSGlobalMetaClassifier<out DomElement>? = findMetaItemByName(name)
-        ?: findMetaCollectionByName(name)
-        ?: findMetaRelationByName(name)
-        ?: findMetaEnumByName(name)
-        ?: findMetaMapByName(name)
-        ?: findMetaAtomicByName(name)
+    override fun findMetaClassifierByName(name: String?): TSGlobalMetaClassifier<out DomElement>? = getMetaModel().getMetaClassifier(name)
 
     override fun getNextAvailableTypeCode(): Int? {
         val projectTypeCodes = getMetaModel().getDeploymentTypeCodes().keys
@@ -205,6 +277,21 @@ class TSMetaModelAccessImpl(private val myProject: Project) : TSMetaModelAccess
     private fun <T : TSGlobalMetaClassifier<*>> findMetaByName(metaType: TSMetaType, name: String?): T? =
         getMetaModel().getMetaType<T>(metaType)[name]
 
+    /**
+     * Preloaded snapshot must not replace the one built by the regular build, so [replace] has to be set to `false` for it.
+     */
+    @Synchronized
+    private fun publishSnapshot(globalMetaModel: TSGlobalMetaModel, replace: Boolean = true): Boolean {
+        val previousSnapshot = myMetaModelSnapshot
+        if (previousSnapshot === globalMetaModel) return false
+        if (!replace && previousSnapshot != null) return false
+
+        myMetaModelSnapshot = globalMetaModel
+        // invalidate all caches which depend on the previous snapshot
+        previousSnapshot?.incModificationCount()
+        return true
+    }
+
     private fun retrieveSingleMetaModelPerFile(psiFile: PsiFile): CachedValue<TSMetaModel> {
         return Optional.ofNullable(psiFile.getUserData(SINGLE_MODEL_CACHE_KEY))
             .orElseGet {
@@ -37,53 +37,53 @@ class TSMetaModelBuilder(
     fun build() = myMetaModel
 
     fun withItemTypes(types: List<ItemType>): TSMetaModelBuilder {
-        types
-            .mapNotNull { create(it) }
-            .forEach { myMetaModel.addMetaModel(it, TSMetaType.META_ITEM) }
+        types.forEach { dom ->
+            create(dom)?.let { myMetaModel.addMetaModel(it, TSMetaType.META_ITEM, dom) }
+        }
 
         return this
     }
 
     fun withEnumTypes(types: List<EnumType>): TSMetaModelBuilder {
-        types
-            .mapNotNull { create(it) }
-            .forEach { myMetaModel.addMetaModel(it, TSMetaType.META_ENUM) }
+        types.forEach { dom ->
+            create(dom)?.let { myMetaModel.addMetaModel(it, TSMetaType.META_ENUM, dom) }
+        }
 
         return this
     }
 
     fun withCollectionTypes(types: List<CollectionType>): TSMetaModelBuilder {
-        types
-            .mapNotNull { create(it) }
-            .forEach { myMetaModel.addMetaModel(it, TSMetaType.META_COLLECTION) }
+        types.forEach { dom ->
+            create(dom)?.let { myMetaModel.addMetaModel(it, TSMetaType.META_COLLECTION, dom) }
+        }
 
         return this
     }
 
     fun withMapTypes(types: List<MapType>): TSMetaModelBuilder {
-        types
-            .mapNotNull { create(it) }
-            .forEach { myMetaModel.addMetaModel(it, TSMetaType.META_MAP) }
+        types.forEach { dom ->
+            create(dom)?.let { myMetaModel.addMetaModel(it, TSMetaType.META_MAP, dom) }
+        }
 
         return this
     }
 
     fun withRelationTypes(types: List<Relation>): TSMetaModelBuilder {
-        types
-            .mapNotNull { create(it) }
-            .forEach {
-                myMetaModel.addMetaModel(it, TSMetaType.META_RELATION)
+        types.forEach { dom ->
+            create(dom)?.let {
+                myMetaModel.addMetaModel(it, TSMetaType.META_RELATION, dom)
                 registerReferenceEnd(it.source, it.target)
                 registerReferenceEnd(it.target, it.source)
             }
+        }
 
         return this
     }
 
     fun withAtomicTypes(types: List<AtomicType>): TSMetaModelBuilder {
-        types
-            .mapNotNull { create(it) }
-            .forEach { myMetaModel.addMetaModel(it, TSMetaType.META_ATOMIC) }
+        types.forEach { dom ->
+            create(dom)?.let { myMetaModel.addMetaModel(it, TSMetaType.META_ATOMIC, dom) }
+        }
 
         return this
     }
@@ -1,6 +1,6 @@
 /*
  * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
- * Copyright (C) 2019-2023 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU Lesser General Public License as
@@ -15,6 +15,7 @@
  * You should have received a copy of the GNU Lesser General Public License
  * along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
+
 package com.intellij.idea.plugin.hybris.system.type.meta.impl
 
 import com.intellij.idea.plugin.hybris.common.utils.HybrisI18NBundleUtils.message
@@ -24,27 +25,53 @@ import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModel
 import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelMerger
 import com.intellij.idea.plugin.hybris.system.type.meta.model.*
 import com.intellij.idea.plugin.hybris.system.type.meta.model.impl.*
+import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.util.xml.DomElement
+import java.util.*
 
+/**
+ * Merges local per-file Type System models into the global one.
+ *
+ * Global model is merged incrementally when possible. Each changed `items.xml` file is diffed against its previous local model
+ * and only meta classifiers whose declarations were changed, added or removed are re-created, everything else is shared
+ * with the previous global model, which stays untouched and can still be used by readers.
+ * Dependants of the changed meta classifiers are re-created too: Item types whose attributes reference a type with changed
+ * flatten type, owners of changed relation ends and ordering attributes, and sub-types of all of them.
+ * In case of too many changed files or Item types, or changed order of the files, full rebuild of the global model will be triggered.
+ */
 class TSMetaModelMergerImpl(val myProject: Project) : TSMetaModelMerger {
 
-    override fun merge(globalMetaModel: TSGlobalMetaModel, localMetaModels: Collection<TSMetaModel>) = with(globalMetaModel) {
-        globalMetaModel.clear()
+    @Volatile
+    private var myMergeState: MergeState? = null
+
+    override fun merge(globalMetaModel: TSGlobalMetaModel, localMetaModels: Collection<TSMetaModel>) {
+        ProgressManager.getInstance().progressIndicator?.text2 = message("hybris.ts.access.progress.subTitle.merging")
+
+        // ideally, we have to get the same dependency order as SAP Commerce
+        val sortedLocalMetaModels = localMetaModels.sortedBy { !it.custom }
+        val previousMergeState = myMergeState
+        var mergeState: MergeState? = null
+
+        try {
+            mergeState = previousMergeState
+                ?.let { mergeIncrementally(globalMetaModel, it, sortedLocalMetaModels) }
+                ?: mergeFully(globalMetaModel, sortedLocalMetaModels)
+        } finally {
+            // in case of cancellation, global model may be partially merged, so we have to re-create it from scratch next time
+            myMergeState = mergeState
+        }
+    }
 
-        ProgressManager.getInstance().progressIndicator.text2 = message("hybris.ts.access.progress.subTitle.merging")
+    private fun mergeFully(globalMetaModel: TSGlobalMetaModel, localMetaModels: List<TSMetaModel>): MergeState? = with(globalMetaModel) {
+        globalMetaModel.clear()
 
-        localMetaModels
-            // ideally, we have to get the same dependency order as SAP Commerce
-            .sortedBy { !it.custom }
-            .forEach { merge(this, it) }
+        localMetaModels.forEach { merge(this, it) }
+        localMetaModels.forEach { mergeDeployments(this, it) }
 
-        val allTypes = getMetaTypes().values
-            .flatMap { it.values }
-            .filter { it.name != null }
-            .filter { it is TSTypedClassifier }
-            .associate { it.name!! to (it as TSTypedClassifier) }
+        val allTypes = getAllTypes(this)
 
         // after merging all different declarations of the same time we may need to process properties which can be overridden via extends
         val metaItems = getMetaType<TSGlobalMetaItem>(TSMetaType.META_ITEM)
@@ -53,71 +80,271 @@ class TSMetaModelMergerImpl(val myProject: Project) : TSMetaModelMerger {
 
         metaItems.values
             .flatMap { it.allAttributes.values }
-            .filter { it.type != null }
-            .forEach { it.flattenType = TSMetaHelper.flattenType(it.type!!, allTypes) }
+            .forEach { flattenType(it, allTypes) }
 
-        // to properly propagate `isCustom` flag, we need to check every relation end defined for non directly modified Item Types
-        // if at least one relation end is custom Item Type will be marked as custom too
-        metaItems.values
-            .filterNot { it.isCustom }
-            .filter { it.allRelationEnds.any { relationEnd -> relationEnd.isCustom } }
-            .forEach { it.isCustom = true }
+        propagateCustomFlag(metaItems.values)
 
         getMetaType<TSGlobalMetaRelation>(TSMetaType.META_RELATION).values
             .forEach {
-                it.source.flattenType = TSMetaHelper.flattenType(TSMetaHelper.flattenType(it.source), allTypes)
-                it.target.flattenType = TSMetaHelper.flattenType(TSMetaHelper.flattenType(it.target), allTypes)
-
-                it.orderingAttribute
-                    ?.let { orderingAttribute ->
-                        val type = orderingAttribute.owner.type
-                        getMetaItem(type)
-                            ?.let { metaItem -> metaItem as? TSGlobalMetaItemImpl }
-                            ?.let { metaItem ->
-                                metaItem.allOrderingAttributes[orderingAttribute.qualifier] = orderingAttribute
-                            }
-                    }
+                flattenType(it, allTypes)
+                registerOrderingAttribute(this, it)
             }
 
-        // it is possible to declare many-to-many Relation as Item to declare custom indexes
-        // in such a case we have to remove such Item types
-        metaItems.keys
-            .filter {
-                getMetaRelation(it)
-                    ?.let { relation -> relation.deployment != null }
-                    ?: false
+        removeRelationItems(this, metaItems.keys)
+
+        updateIndexes()
+
+        mapByFile(localMetaModels)
+            ?.let { MergeState(globalMetaModel, it, it, allTypes) }
+    }
+
+    /**
+     * Returns new merge state or `null` if the model cannot be merged incrementally.
+     */
+    private fun mergeIncrementally(
+        globalMetaModel: TSGlobalMetaModel,
+        previousMergeState: MergeState,
+        localMetaModels: List<TSMetaModel>
+    ): MergeState? = with(globalMetaModel) {
+        val currentLocalMetaModels = mapByFile(localMetaModels) ?: return null
+        val previousLocalMetaModels = previousMergeState.localMetaModels
+        val previousMetaModel = previousMergeState.globalMetaModel
+
+        if (previousMetaModel === globalMetaModel) return null
+
+        // per-file models are cached, so unchanged items.xml file will be represented by the same instance of the local model
+        val touchedFiles = (currentLocalMetaModels.keys + previousLocalMetaModels.keys)
+            .filter { previousLocalMetaModels[it] !== currentLocalMetaModels[it] }
+
+        if (touchedFiles.size > maxOf(INCREMENTAL_MERGE_MIN_FILES, currentLocalMetaModels.size / 10)) return null
+        // declarations are merged in the order of the files, unchanged meta classifiers can be re-used only if that order is the same
+        if (currentLocalMetaModels.keys.filter { it in previousLocalMetaModels } != previousLocalMetaModels.keys.filter { it in currentLocalMetaModels }) return null
+
+        val changedKeys = TSMetaType.entries.associateWith { metaType ->
+            touchedFiles
+                .flatMapTo(HashSet()) { getChangedKeys(metaType, previousLocalMetaModels[it], currentLocalMetaModels[it]) }
+        }
+
+        // unchanged declarations of the changed files are replaced by the previous ones, which are already merged into the previous global model
+        val effectiveMetaModels = currentLocalMetaModels.mapValuesTo(LinkedHashMap()) { (file, localMetaModel) ->
+            val previousEffectiveMetaModel = previousMergeState.effectiveMetaModels[file]
+
+            if (previousLocalMetaModels[file] === localMetaModel) previousEffectiveMetaModel!!
+            else stabilize(previousEffectiveMetaModel, localMetaModel, changedKeys)
+        }
+        val mergeState = MergeState(globalMetaModel, currentLocalMetaModels, effectiveMetaModels, previousMergeState.allTypes)
+
+        copyFrom(previousMetaModel)
+
+        if (changedKeys.values.all { it.isEmpty() }) return mergeState
+
+        val effectiveLocalMetaModels = effectiveMetaModels.values.toList()
+        val changedItemKeys = changedKeys[TSMetaType.META_ITEM]!!
+        val changedRelationKeys = changedKeys[TSMetaType.META_RELATION]!!
+        val changedRelations = touchedFiles
+            .flatMap { listOfNotNull(previousMergeState.effectiveMetaModels[it], effectiveMetaModels[it]) }
+            .flatMap { localMetaModel ->
+                val localRelations = localMetaModel.getMetaType<TSMetaRelation>(TSMetaType.META_RELATION)
+                changedRelationKeys.flatMap { localRelations[it] }
             }
-            .forEach { metaItems.remove(it) }
+        val relationEndOwners = changedRelations
+            .flatMap { listOf(it.source.type, it.target.type) }
+            .filter { it.isNotEmpty() }
+            .mapTo(HashSet()) { it.lowercase() }
+        val orderingAttributeOwners = changedRelations
+            .mapNotNull { it.orderingAttribute?.owner?.type?.lowercase() }
+        val previousNames = changedKeys.flatMap { (metaType, keys) ->
+            val previousMetas = previousMetaModel.getMetaType<TSGlobalMetaClassifier<out DomElement>>(metaType)
+            keys.mapNotNull { previousMetas[it]?.name }
+        }
+
+        // changed meta classifiers are re-created from all their declarations
+        recreate(this, effectiveLocalMetaModels, changedKeys)
+
+        // flatten type of an attribute or a relation end depends only on the flatten type of the referenced type
+        val changedAllTypes = getAllTypes(this)
+        val changedTypeNames = (previousNames + changedKeys.flatMap { (metaType, keys) ->
+            val metas = getMetaType<TSGlobalMetaClassifier<out DomElement>>(metaType)
+            keys.mapNotNull { metas[it]?.name }
+        })
+            .filterTo(HashSet()) { previousMergeState.allTypes[it]?.flattenType != changedAllTypes[it]?.flattenType }
+
+        val dependentItemKeys = getMetaType<TSGlobalMetaItem>(TSMetaType.META_ITEM).values
+            .filter { metaItem -> metaItem.attributes.values.any { it.type?.let { type -> TSMetaHelper.getReferencedTypeName(type) } in changedTypeNames } }
+            .mapNotNull { it.name?.lowercase() }
+        val reFlattenRelations = getMetaType<TSGlobalMetaRelation>(TSMetaType.META_RELATION).values
+            .filter { relation ->
+                relation.name?.lowercase() in changedRelationKeys
+                    || listOf(relation.source, relation.target)
+                    .any { TSMetaHelper.getReferencedTypeName(TSMetaHelper.flattenType(it)) in changedTypeNames }
+            }
+        // relation ends are shared with the previous global model, even a re-created Relation refers to the same ends,
+        // so ends of not changed Relations cannot be re-flattened without modification of the previous global model
+        if (reFlattenRelations.any { it.name?.lowercase() !in changedRelationKeys }) return null
+
+        // all Item types which have to be post-merged again: changed ones, their dependants and all their sub-types,
+        // many-to-many Relation can be declared as Item, such Item depends on the Relation deployment
+        val rootItemKeys = changedItemKeys + changedRelationKeys + relationEndOwners + orderingAttributeOwners + dependentItemKeys
+        val previousMetaItems = previousMetaModel.getMetaType<TSGlobalMetaItem>(TSMetaType.META_ITEM)
+        val postMergeItemKeys = previousMetaItems.values
+            .filter { it.name?.lowercase() in rootItemKeys || isSubTypeOf(it, rootItemKeys) }
+            .mapNotNullTo(HashSet()) { it.name?.lowercase() }
+            .apply { addAll(rootItemKeys) }
+
+        if (postMergeItemKeys.size > maxOf(INCREMENTAL_MERGE_MIN_FILES, previousMetaItems.size / 2)) return null
+
+        LOG.debug("Incremental merge of ${touchedFiles.size} items.xml files, re-processing ${postMergeItemKeys.size} of ${previousMetaItems.size} item types")
+
+        // Item types which have to be post-merged are re-created to keep the previous global model untouched
+        recreate(this, effectiveLocalMetaModels, mapOf(TSMetaType.META_ITEM to postMergeItemKeys - changedItemKeys))
+        relationEndOwners.forEach { getAllRelations().remove(it) }
+        effectiveLocalMetaModels.forEach { mergeRelationEnds(this, it, relationEndOwners) }
+
+        clearDeployments()
+        effectiveLocalMetaModels.forEach { mergeDeployments(this, it) }
+
+        val allTypes = getAllTypes(this)
+        val metaItems = getMetaType<TSGlobalMetaItem>(TSMetaType.META_ITEM)
+        val postMergeItems = postMergeItemKeys.mapNotNull { metaItems[it] }
+        postMergeItems.forEach { (it as? TSGlobalMetaItemSelfMerge<*, *>)?.postMerge(this) }
+
+        // only own attributes of the re-created Item types are flattened, inherited ones belong to the shared super types
+        postMergeItems
+            .flatMap { it.attributes.values }
+            .forEach { flattenType(it, allTypes) }
+
+        propagateCustomFlag(postMergeItems)
+
+        reFlattenRelations.forEach { flattenType(it, allTypes) }
+        getMetaType<TSGlobalMetaRelation>(TSMetaType.META_RELATION).values
+            .forEach {
+                val orderingAttributeOwner = it.orderingAttribute?.owner?.type?.lowercase()
+                if (orderingAttributeOwner in postMergeItemKeys) registerOrderingAttribute(this, it)
+            }
+
+        removeRelationItems(this, postMergeItemKeys)
+
+        updateIndexes()
+        incModificationCount()
+
+        MergeState(globalMetaModel, currentLocalMetaModels, effectiveMetaModels, allTypes)
+    }
+
+    /**
+     * Keys of the meta classifiers declared differently in the current version of the file than in the previous one.
+     * Declaration is the same if its DOM anchor is equal and its text is the same, so the previous declaration resolves
+     * to the equivalent DOM element and can be shared with the previous global model.
+     */
+    private fun getChangedKeys(metaType: TSMetaType, previous: TSMetaModel?, current: TSMetaModel?): Collection<String> {
+        val previousMetas = previous?.getMetaType<TSMetaClassifier<DomElement>>(metaType)
+        val currentMetas = current?.getMetaType<TSMetaClassifier<DomElement>>(metaType)
+        val keys = (previousMetas?.keySet() ?: emptySet()) + (currentMetas?.keySet() ?: emptySet())
+
+        return keys.filter { key ->
+            val previousDeclarations = previousMetas?.get(key) ?: emptyList()
+            val currentDeclarations = currentMetas?.get(key) ?: emptyList()
+
+            previousDeclarations.size != currentDeclarations.size
+                || previous?.getFingerprint(metaType, key) != current?.getFingerprint(metaType, key)
+                || previousDeclarations.zip(currentDeclarations).any { (previousDeclaration, currentDeclaration) -> previousDeclaration.domAnchor != currentDeclaration.domAnchor }
+        }
+    }
+
+    /**
+     * Creates local model of the changed file with the declarations of the [previous] model for all not changed keys,
+     * relation ends of such declarations are replaced too.
+     */
+    private fun stabilize(previous: TSMetaModel?, current: TSMetaModel, changedKeys: Map<TSMetaType, Set<String>>): TSMetaModel {
+        previous ?: return current
+
+        val stable = TSMetaModel(current.module, current.psiFile, current.custom)
+        val previousRelationEnds = IdentityHashMap<TSMetaRelation.TSMetaRelationElement, TSMetaRelation.TSMetaRelationElement>()
+
+        current.getMetaTypes().forEach { (metaType, currentMetas) ->
+            val previousMetas = previous.getMetaType<TSMetaClassifier<DomElement>>(metaType)
+            val stableMetas = stable.getMetaType<TSMetaClassifier<DomElement>>(metaType)
+            val metaTypeChangedKeys = changedKeys[metaType] ?: emptySet()
+
+            currentMetas.entrySet().forEach { (key, currentDeclarations) ->
+                if (key in metaTypeChangedKeys) {
+                    stableMetas.putValues(key, currentDeclarations)
+                } else {
+                    val previousDeclarations = previousMetas[key]
+                    stableMetas.putValues(key, previousDeclarations)
+
+                    currentDeclarations.zip(previousDeclarations)
+                        .forEach { (currentDeclaration, previousDeclaration) ->
+                            if (currentDeclaration is TSMetaRelation && previousDeclaration is TSMetaRelation) {
+                                previousRelationEnds[currentDeclaration.source] = previousDeclaration.source
+                                previousRelationEnds[currentDeclaration.target] = previousDeclaration.target
+                            }
+                        }
+                }
+            }
+        }
+
+        current.getRelations().entrySet().forEach { (owner, relationEnds) ->
+            stable.getRelations().putValues(owner, relationEnds.map { previousRelationEnds[it] ?: it })
+        }
+
+        return stable
+    }
+
+    private fun recreate(globalMetaModel: TSGlobalMetaModel, localMetaModels: List<TSMetaModel>, keys: Map<TSMetaType, Set<String>>) {
+        keys.forEach { (metaType, metaTypeKeys) ->
+            val globalCache = globalMetaModel.getMetaType<TSGlobalMetaClassifier<out DomElement>>(metaType)
+            metaTypeKeys.forEach { globalCache.remove(it) }
+        }
+
+        localMetaModels.forEach { merge(globalMetaModel, it, keys) }
     }
 
+    /**
+     * Merges all meta classifiers of the local model or only the ones with given [keys], relation ends are merged only in the first case.
+     */
     @Suppress("UNCHECKED_CAST")
-    private fun merge(globalMetaModel: TSGlobalMetaModel, localMetaModel: TSMetaModel) {
+    private fun merge(
+        globalMetaModel: TSGlobalMetaModel,
+        localMetaModel: TSMetaModel,
+        keys: Map<TSMetaType, Set<String>>? = null
+    ) {
         localMetaModel.getMetaTypes().forEach { (metaType, localMetas) ->
             run {
                 val globalCache = globalMetaModel.getMetaType<TSMetaSelfMerge<out DomElement, out TSMetaClassifier<out DomElement>>>(metaType)
+                val metaTypeKeys = keys?.let { it[metaType] ?: emptySet() }
 
-                localMetas.entrySet().forEach { (key, localMetaClassifiers) ->
-                    localMetaClassifiers.forEach { localMetaClassifier ->
-                        val globalMetaClassifier = globalCache.computeIfAbsent(key) {
-                            when (localMetaClassifier) {
-                                is TSMetaAtomic -> TSGlobalMetaAtomicImpl(localMetaClassifier)
-                                is TSMetaEnum -> TSGlobalMetaEnumImpl(localMetaClassifier)
-                                is TSMetaCollection -> TSGlobalMetaCollectionImpl(localMetaClassifier)
-                                is TSMetaMap -> TSGlobalMetaMapImpl(localMetaClassifier)
-                                is TSMetaRelation -> TSGlobalMetaRelationImpl(localMetaClassifier)
-                                is TSMetaItem -> TSGlobalMetaItemImpl(localMetaClassifier)
-                                else -> null
+                localMetas.entrySet()
+                    .filter { metaTypeKeys == null || it.key in metaTypeKeys }
+                    .forEach { (key, localMetaClassifiers) ->
+                        localMetaClassifiers.forEach { localMetaClassifier ->
+                            val globalMetaClassifier = globalCache.computeIfAbsent(key) {
+                                when (localMetaClassifier) {
+                                    is TSMetaAtomic -> TSGlobalMetaAtomicImpl(localMetaClassifier)
+                                    is TSMetaEnum -> TSGlobalMetaEnumImpl(localMetaClassifier)
+                                    is TSMetaCollection -> TSGlobalMetaCollectionImpl(localMetaClassifier)
+                                    is TSMetaMap -> TSGlobalMetaMapImpl(localMetaClassifier)
+                                    is TSMetaRelation -> TSGlobalMetaRelationImpl(localMetaClassifier)
+                                    is TSMetaItem -> TSGlobalMetaItemImpl(localMetaClassifier)
+                                    else -> null
+                                }
                             }
-                        }
 
-                        (globalMetaClassifier as TSMetaSelfMerge<DomElement, TSMetaClassifier<DomElement>>).merge(localMetaClassifier)
+                            (globalMetaClassifier as TSMetaSelfMerge<DomElement, TSMetaClassifier<DomElement>>).merge(localMetaClassifier)
+                        }
                     }
-                }
             }
         }
 
-        globalMetaModel.getAllRelations().putAllValues(localMetaModel.getRelations())
+        if (keys == null) {
+            globalMetaModel.getAllRelations().putAllValues(localMetaModel.getRelations())
+        }
+    }
+
+    private fun mergeRelationEnds(globalMetaModel: TSGlobalMetaModel, localMetaModel: TSMetaModel, ownerKeys: Set<String>) = localMetaModel.getRelations().entrySet()
+        .filter { it.key.lowercase() in ownerKeys }
+        .forEach { globalMetaModel.getAllRelations().putValues(it.key, it.value) }
 
+    private fun mergeDeployments(globalMetaModel: TSGlobalMetaModel, localMetaModel: TSMetaModel) {
         val itemTypeDeployments = localMetaModel.getMetaType<TSMetaItem>(TSMetaType.META_ITEM).values()
             .mapNotNull { it.deployment }
         val relationDeployments = localMetaModel.getMetaType<TSMetaRelation>(TSMetaType.META_RELATION).values()
@@ -127,4 +354,86 @@ class TSMetaModelMergerImpl(val myProject: Project) : TSMetaModelMerger {
             .forEach { globalMetaModel.addDeployment(it) }
     }
 
-}
\ No newline at end of file
+    private fun getAllTypes(globalMetaModel: TSGlobalMetaModel) = globalMetaModel.getMetaTypes().values
+        .flatMap { it.values }
+        .filter { it.name != null }
+        .filter { it is TSTypedClassifier }
+        .associate { it.name!! to (it as TSTypedClassifier) }
+
+    private fun flattenType(attribute: TSGlobalMetaItem.TSGlobalMetaItemAttribute, allTypes: Map<String, TSTypedClassifier>) {
+        attribute.flattenType = attribute.type
+            ?.let { TSMetaHelper.flattenType(it, allTypes) }
+    }
+
+    private fun flattenType(relation: TSGlobalMetaRelation, allTypes: Map<String, TSTypedClassifier>) {
+        relation.source.flattenType = TSMetaHelper.flattenType(TSMetaHelper.flattenType(relation.source), allTypes)
+        relation.target.flattenType = TSMetaHelper.flattenType(TSMetaHelper.flattenType(relation.target), allTypes)
+    }
+
+    // to properly propagate `isCustom` flag, we need to check every relation end defined for non directly modified Item Types
+    // if at least one relation end is custom Item Type will be marked as custom too
+    private fun propagateCustomFlag(metaItems: Collection<TSGlobalMetaItem>) = metaItems
+        .filterNot { it.isCustom }
+        .filter { it.allRelationEnds.any { relationEnd -> relationEnd.isCustom } }
+        .forEach { it.isCustom = true }
+
+    private fun registerOrderingAttribute(globalMetaModel: TSGlobalMetaModel, relation: TSGlobalMetaRelation) = relation.orderingAttribute
+        ?.let { orderingAttribute ->
+            val type = orderingAttribute.owner.type
+            globalMetaModel.getMetaItem(type)
+                ?.let { metaItem -> metaItem as? TSGlobalMetaItemImpl }
+                ?.let { metaItem ->
+                    metaItem.allOrderingAttributes[orderingAttribute.qualifier] = orderingAttribute
+                }
+        }
+
+    // it is possible to declare many-to-many Relation as Item to declare custom indexes
+    // in such a case we have to remove such Item types
+    private fun removeRelationItems(globalMetaModel: TSGlobalMetaModel, itemKeys: Collection<String>) {
+        val metaItems = globalMetaModel.getMetaType<TSGlobalMetaItem>(TSMetaType.META_ITEM)
+
+        itemKeys
+            .filter {
+                globalMetaModel.getMetaRelation(it)
+                    ?.let { relation -> relation.deployment != null }
+                    ?: false
+            }
+            .forEach { metaItems.remove(it) }
+    }
+
+    private fun isSubTypeOf(metaItem: TSGlobalMetaItem, itemKeys: Set<String>): Boolean {
+        // extends chain may be broken, in such a case it will be stopped at the first unknown Item type
+        if (metaItem.extendedMetaItemName?.lowercase() in itemKeys) return true
+
+        return metaItem.allExtends.any {
+            it.name?.lowercase() in itemKeys || it.extendedMetaItemName?.lowercase() in itemKeys
+        }
+    }
+
+    private fun mapByFile(localMetaModels: List<TSMetaModel>): Map<VirtualFile, TSMetaModel>? {
+        val localMetaModelsByFile = LinkedHashMap<VirtualFile, TSMetaModel>()
+
+        localMetaModels.forEach {
+            val virtualFile = it.psiFile.virtualFile ?: return null
+            localMetaModelsByFile[virtualFile] = it
+        }
+
+        return localMetaModelsByFile
+    }
+
+    /**
+     * [localMetaModels] are cached per-file models, [effectiveMetaModels] hold the declarations which were actually merged
+     * into the [globalMetaModel], unchanged declarations of the changed files are kept from their previous versions.
+     */
+    private class MergeState(
+        val globalMetaModel: TSGlobalMetaModel,
+        val localMetaModels: Map<VirtualFile, TSMetaModel>,
+        val effectiveMetaModels: Map<VirtualFile, TSMetaModel>,
+        val allTypes: Map<String, TSTypedClassifier>
+    )
+
+    companion object {
+        private const val INCREMENTAL_MERGE_MIN_FILES = 10
+        private val LOG = Logger.getInstance(TSMetaModelMergerImpl::class.java)
+    }
+}
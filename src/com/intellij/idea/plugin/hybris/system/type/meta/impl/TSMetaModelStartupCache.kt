@@ -0,0 +1,152 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.meta.impl
+
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.getProjectDataPath
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.file.Files
+import java.util.zip.CRC32
+import kotlin.io.path.exists
+
+/**
+ * Persists the list of `items.xml` files which contributed to the last built Type System into the project system directory.
+ *
+ * Merged model itself is not stored, meta classifiers are bound to DOM anchors and modules, so on the next startup
+ * stored files, which were not changed since the last build, are parsed and merged again into the initial Type System snapshot.
+ * The only saving is that it does not wait for the indexes, such snapshot will be replaced once the regular,
+ * index based, Type System build is completed.
+ *
+ * File is considered unchanged when its time stamp and length are the same as stored, content hash is computed only
+ * when they differ, so touched but not modified files are still re-used.
+ *
+ * Format: `version`, `files count`, then for each file: `url`, `time stamp`, `length`, `CRC32 of the content`.
+ */
+internal class TSMetaModelStartupCache(private val project: Project) {
+
+    private val cacheFile by lazy { project.getProjectDataPath(CACHE_DIRECTORY).resolve(CACHE_FILE) }
+
+    @Volatile
+    private var lastSavedStamps: Map<String, FileStamp> = emptyMap()
+
+    /**
+     * Stores contributing files with their stamps, cache will be re-written only if any of them has been changed.
+     * Performs disk I/O, so it must not be invoked under the read action.
+     */
+    @Synchronized
+    fun save(files: Collection<VirtualFile>) {
+        try {
+            val currentStamps = LinkedHashMap<String, FileStamp>()
+
+            files
+                .filter { it.isValid }
+                .forEach { file -> currentStamps[file.url] = stamp(file, lastSavedStamps[file.url]) }
+
+            if (currentStamps == lastSavedStamps) return
+
+            Files.createDirectories(cacheFile.parent)
+            DataOutputStream(Files.newOutputStream(cacheFile).buffered()).use { out ->
+                out.writeInt(VERSION)
+                out.writeInt(currentStamps.size)
+                currentStamps.forEach { (url, stamp) ->
+                    out.writeUTF(url)
+                    out.writeLong(stamp.timeStamp)
+                    out.writeLong(stamp.length)
+                    out.writeLong(stamp.hash)
+                }
+            }
+            lastSavedStamps = currentStamps
+        } catch (e: IOException) {
+            LOG.warn("Unable to store Type System startup cache: $cacheFile", e)
+        }
+    }
+
+    /**
+     * Returns stored files which are still present in the project and were not changed since the last build
+     * or `null` if the cache is missing or outdated.
+     */
+    @Synchronized
+    fun load(): List<VirtualFile>? {
+        if (!cacheFile.exists()) return null
+
+        return try {
+            DataInputStream(Files.newInputStream(cacheFile).buffered()).use { input ->
+                if (input.readInt() != VERSION) return null
+
+                val virtualFileManager = VirtualFileManager.getInstance()
+                val count = input.readInt()
+                val storedStamps = LinkedHashMap<String, FileStamp>(count)
+                val files = ArrayList<VirtualFile>(count)
+
+                repeat(count) {
+                    val url = input.readUTF()
+                    val storedStamp = FileStamp(input.readLong(), input.readLong(), input.readLong())
+                    storedStamps[url] = storedStamp
+
+                    val file = virtualFileManager.findFileByUrl(url)
+                        ?.takeIf { it.isValid }
+                        ?: return@repeat
+
+                    // changed files may declare types which are not known to the last build, they will be processed by the regular one
+                    if (stamp(file, storedStamp).hash == storedStamp.hash) files.add(file)
+                }
+                lastSavedStamps = storedStamps
+
+                LOG.debug("Loaded Type System startup cache with $count files, ${count - files.size} of them were changed or removed since last build")
+
+                // too many changes, there is no sense to build initial snapshot, regular build will be triggered anyway
+                if (files.size < count / 2) null
+                else files
+            }
+        } catch (e: IOException) {
+            LOG.warn("Unable to read Type System startup cache: $cacheFile", e)
+            null
+        }
+    }
+
+    /**
+     * Re-uses hash of the [previous] stamp if the time stamp and length of the file are the same, otherwise reads the file content.
+     */
+    private fun stamp(file: VirtualFile, previous: FileStamp?): FileStamp {
+        val timeStamp = file.timeStamp
+        val length = file.length
+
+        if (previous != null && previous.timeStamp == timeStamp && previous.length == length) return previous
+
+        return FileStamp(timeStamp, length, contentHash(file))
+    }
+
+    private fun contentHash(file: VirtualFile) = CRC32()
+        .apply { update(file.contentsToByteArray()) }
+        .value
+
+    private data class FileStamp(val timeStamp: Long, val length: Long, val hash: Long)
+
+    companion object {
+        private const val VERSION = 2
+        private const val CACHE_DIRECTORY = "sap-commerce"
+        private const val CACHE_FILE = "ts-dependencies.bin"
+        private val LOG = Logger.getInstance(TSMetaModelStartupCache::class.java)
+    }
+}
@@ -22,6 +22,11 @@ import com.intellij.openapi.vfs.VirtualFile
 
 interface ItemsXmlFileValidation {
 
+    /**
+     * Collects generated model classes used for the validation, subsequent validations re-use them
+     * till the next change of the Java structure or project roots.
+     */
+    fun initCache()
     fun isFileOutOfDate(file: VirtualFile): Boolean
     fun showNotification(file: VirtualFile?)
 
@@ -24,6 +24,7 @@ import com.intellij.idea.plugin.hybris.settings.HybrisApplicationSettingsCompone
 import com.intellij.idea.plugin.hybris.system.type.model.ItemType
 import com.intellij.idea.plugin.hybris.system.type.model.Items
 import com.intellij.idea.plugin.hybris.system.type.validation.ItemsXmlFileValidation
+import com.intellij.lang.java.JavaLanguage
 import com.intellij.notification.NotificationType
 import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.module.ModuleUtil
@@ -31,18 +32,49 @@ import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.DumbService
 import com.intellij.openapi.project.IndexNotReadyException
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.JavaPsiFacade
 import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiManager
 import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.search.searches.ClassInheritorsSearch
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.psi.xml.XmlFile
 import com.intellij.util.xml.DomManager
 import org.apache.commons.collections4.map.CaseInsensitiveMap
 
 class ItemsFileValidation(private val project: Project) : ItemsXmlFileValidation {
 
+    private val generatedClasses = CachedValuesManager.getManager(project).createCachedValue(
+        {
+            val started = System.currentTimeMillis()
+            val classes = GeneratedClasses(
+                findAllInheritClasses(project, HybrisConstants.CLASS_FQN_ENUM_ROOT),
+                findAllInheritClasses(project, HybrisConstants.CLASS_FQN_ITEM_ROOT)
+            )
+            LOG.info("Collected ${classes.enumClasses.size} enum and ${classes.itemClasses.size} item generated classes in ${System.currentTimeMillis() - started} ms")
+
+            CachedValueProvider.Result.create(
+                classes,
+                PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE),
+                ProjectRootModificationTracker.getInstance(project)
+            )
+        }, false
+    )
+
+    override fun initCache() {
+        if (DumbService.isDumb(project)) return
+
+        try {
+            generatedClasses.value
+        } catch (ignore: IndexNotReadyException) {
+            //do not collect classes until index is not ready
+        }
+    }
+
     override fun isFileOutOfDate(file: VirtualFile): Boolean {
         if (!HybrisApplicationSettingsComponent.getInstance().state.warnIfGeneratedItemsAreOutOfDate) return false
         if (!file.name.endsWith(HybrisConstants.HYBRIS_ITEMS_XML_FILE_ENDING)) return false
@@ -82,11 +114,11 @@ class ItemsFileValidation(private val project: Project) : ItemsXmlFileValidation
 
             val items = fileElement.rootElement
 
-            val inheritedEnumClasses = findAllInheritClasses(project, HybrisConstants.CLASS_FQN_ENUM_ROOT)
+            val inheritedEnumClasses = generatedClasses.value.enumClasses
             val enumTypes = items.enumTypes.enumTypes
             if (enumTypeClassValidation.validate(project, enumTypes, inheritedEnumClasses)) return true
 
-            val inheritedItemClasses = findAllInheritClasses(project, HybrisConstants.CLASS_FQN_ITEM_ROOT)
+            val inheritedItemClasses = generatedClasses.value.itemClasses
             val filteredItemTypes = getItemTypesExcludeRelations(items)
             if (itemTypeClassValidation.validate(project, filteredItemTypes, inheritedItemClasses)) return true
 
@@ -133,6 +165,8 @@ class ItemsFileValidation(private val project: Project) : ItemsXmlFileValidation
         return result
     }
 
+    private class GeneratedClasses(val enumClasses: Map<String, PsiClass>, val itemClasses: Map<String, PsiClass>)
+
     companion object {
         private val LOG = Logger.getInstance(ItemsFileValidation::class.java)
     }
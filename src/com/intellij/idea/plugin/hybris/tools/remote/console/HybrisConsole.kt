@@ -40,6 +40,11 @@ abstract class HybrisConsole(project: Project, title: String, language: Language
 
     abstract fun execute(query: String): HybrisHttpResult
 
+    /**
+     * Executes the query and passes the output available before the completion of the request to [onPartialOutput].
+     */
+    open fun execute(query: String, onPartialOutput: (String) -> Unit): HybrisHttpResult = execute(query)
+
     abstract fun title(): String
 
     abstract fun tip(): String
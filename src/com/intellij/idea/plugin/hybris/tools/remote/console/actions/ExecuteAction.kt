@@ -54,7 +54,7 @@ class HybrisExecuteImmediatelyAction(executeActionHandler: HybrisConsoleExecuteA
 
         val editor = activeConsole.consoleEditor
         val lookup = LookupManager.getActiveLookup(editor)
-        e.presentation.isEnabled = !executeActionHandler.isProcessRunning && (lookup == null || !lookup.isCompletion)
+        e.presentation.isEnabled = !executeActionHandler.isProcessRunning(activeConsole) && (lookup == null || !lookup.isCompletion)
     }
 }
 
@@ -63,10 +63,18 @@ class HybrisSuspendAction(executeActionHandler: HybrisConsoleExecuteActionHandle
     override fun getActionUpdateThread() = ActionUpdateThread.BGT
 
     override fun actionPerformed(e: AnActionEvent) {
+        val project = e.project ?: return
+
+        HybrisConsoleService.getInstance(project).getActiveConsole()
+            ?.let { executeActionHandler.cancel(it) }
     }
 
     override fun update(e: AnActionEvent) {
-        e.presentation.isEnabled = executeActionHandler.isProcessRunning
+        val project = e.project ?: return
+
+        e.presentation.isEnabled = HybrisConsoleService.getInstance(project).getActiveConsole()
+            ?.let { executeActionHandler.isProcessRunning(it) }
+            ?: false
     }
 
 }
\ No newline at end of file
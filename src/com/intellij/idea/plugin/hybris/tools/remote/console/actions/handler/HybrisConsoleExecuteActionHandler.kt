@@ -29,18 +29,22 @@ import com.intellij.idea.plugin.hybris.tools.remote.console.HybrisConsole
 import com.intellij.idea.plugin.hybris.tools.remote.console.HybrisConsoleService
 import com.intellij.idea.plugin.hybris.tools.remote.console.impl.HybrisImpexMonitorConsole
 import com.intellij.idea.plugin.hybris.tools.remote.console.impl.HybrisSolrSearchConsole
+import com.intellij.idea.plugin.hybris.tools.remote.http.HybrisHacHttpClient
+import com.intellij.idea.plugin.hybris.tools.remote.http.flexibleSearch.FlexibleSearchResult
 import com.intellij.idea.plugin.hybris.tools.remote.http.impex.HybrisHttpResult
 import com.intellij.idea.plugin.hybris.tools.remote.http.impex.HybrisHttpResult.HybrisHttpResultBuilder.createResult
 import com.intellij.json.JsonFileType
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.fileTypes.FileType
 import com.intellij.openapi.fileTypes.PlainTextFileType
+import com.intellij.openapi.progress.BackgroundTaskQueue
 import com.intellij.openapi.progress.ProgressIndicator
-import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.progress.Task
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Disposer
 import com.intellij.openapi.util.TextRange
 import com.intellij.openapi.util.text.StringUtil
+import java.util.concurrent.ConcurrentHashMap
 
 class HybrisConsoleExecuteActionHandler(private val project: Project,
                                         private val preserveMarkup: Boolean) {
@@ -50,48 +54,82 @@ class HybrisConsoleExecuteActionHandler(private val project: Project,
         ApplicationManager.getApplication().invokeLater { console.consoleEditor.component.updateUI() }
     }
 
+    /**
+     * Each console has its own queue, so executions in different consoles do not block each other.
+     * Running execution can be cancelled via [cancel], in such case in-flight HTTP request will be aborted.
+     */
     private fun processLine(console: HybrisConsole, query: String) {
-        ApplicationManager.getApplication().runReadAction {
-            ProgressManager.getInstance().run(object : Task.Backgroundable(project, "Execute HTTP Call to SAP Commerce...") {
-                override fun run(indicator: ProgressIndicator) {
-                    isProcessRunning = true
-                    try {
-                        setEditorEnabled(console, false)
-                        val httpResult = console.execute(query)
-
-                        when (console) {
-                            is HybrisImpexMonitorConsole -> {
-                                console.clear()
-                                printSyntaxText(console, httpResult.output, ImpexFileType)
-                            }
-                            is HybrisSolrSearchConsole -> {
-                                console.clear()
+        val queue = queues.computeIfAbsent(console) { createQueue(it) }
 
-                                printCurrentHost(console, RemoteConnectionType.SOLR)
+        queue.run(object : Task.Backgroundable(project, "Execute HTTP Call to SAP Commerce...", true) {
+            override fun run(indicator: ProgressIndicator) {
+                runningExecutions[console] = indicator
+                try {
+                    setEditorEnabled(console, false)
 
-                                if (httpResult.hasError()) {
-                                    printSyntaxText(console, httpResult.errorMessage, PlainTextFileType.INSTANCE)
-                                } else {
-                                    printSyntaxText(console, httpResult.output, JsonFileType.INSTANCE)
-                                }
+                    if (console !is HybrisImpexMonitorConsole && console !is HybrisSolrSearchConsole) {
+                        printCurrentHost(console, RemoteConnectionType.Hybris)
+                    }
 
-                            }
-                            else -> {
-                                printCurrentHost(console, RemoteConnectionType.Hybris)
+                    var outputStreamed = false
+                    val httpResult = console.execute(query) { partialOutput ->
+                        outputStreamed = true
+                        console.print("[OUTPUT] \n", SYSTEM_OUTPUT)
+                        console.print(partialOutput, NORMAL_OUTPUT)
+                    }
+
+                    when (console) {
+                        is HybrisImpexMonitorConsole -> {
+                            console.clear()
+                            printSyntaxText(console, httpResult.output, ImpexFileType)
+                        }
+                        is HybrisSolrSearchConsole -> {
+                            console.clear()
+
+                            printCurrentHost(console, RemoteConnectionType.SOLR)
 
-                                printPlainText(console, httpResult)
+                            if (httpResult.hasError()) {
+                                printSyntaxText(console, httpResult.errorMessage, PlainTextFileType.INSTANCE)
+                            } else {
+                                printSyntaxText(console, httpResult.output, JsonFileType.INSTANCE)
                             }
+
+                        }
+                        else -> {
+                            if (!outputStreamed || httpResult.hasError()) printPlainText(console, httpResult)
+                            httpResult.flexibleSearchResult
+                                ?.takeUnless { httpResult.hasError() }
+                                ?.let { printNextPageLink(console, it, HybrisHacHttpClient.FLEXIBLE_SEARCH_PAGE_SIZE) }
                         }
-                    } finally {
-                        isProcessRunning = false
-                        setEditorEnabled(console, true)
                     }
+                } finally {
+                    runningExecutions.remove(console)
+                    setEditorEnabled(console, true)
                 }
+            }
 
-            })
+            override fun onCancel() {
+                console.print("[CANCELLED] \n", SYSTEM_OUTPUT)
+            }
+
+        })
+    }
+
+    /**
+     * Queue and running execution of the console are dropped together with the console, which is disposed with the project.
+     */
+    private fun createQueue(console: HybrisConsole): BackgroundTaskQueue {
+        Disposer.tryRegister(console) {
+            queues.remove(console)
+            runningExecutions.remove(console)?.cancel()
         }
+        return BackgroundTaskQueue(project, "Execute HTTP Call to SAP Commerce...")
     }
 
+    fun isProcessRunning(console: HybrisConsole) = runningExecutions.containsKey(console)
+
+    fun cancel(console: HybrisConsole) = runningExecutions[console]?.cancel()
+
     private fun printCurrentHost(console: HybrisConsole, remoteConnectionType: RemoteConnectionType) {
         val activeConnectionSettings = RemoteConnectionUtil.getActiveRemoteConnectionSettings(project, remoteConnectionType)
         console.print("Host ${activeConnectionSettings.displayName?.let { "($it)" } ?: ""}: ${activeConnectionSettings.generatedURL}\n", LOG_INFO_OUTPUT)
@@ -124,6 +162,25 @@ class HybrisConsoleExecuteActionHandler(private val project: Project,
         }
     }
 
+    /**
+     * Large results are rendered page by page, next page will be printed only when requested by the user.
+     */
+    private fun printNextPageLink(console: HybrisConsole, result: FlexibleSearchResult, fromRow: Int) {
+        if (fromRow >= result.rowCount) return
+
+        val toRow = minOf(fromRow + HybrisHacHttpClient.FLEXIBLE_SEARCH_PAGE_SIZE, result.rowCount)
+        var shown = false
+        console.printHyperlink("[Show rows ${fromRow + 1}-$toRow of ${result.rowCount}]") {
+            if (shown) return@printHyperlink
+            shown = true
+
+            console.print("\n", NORMAL_OUTPUT)
+            console.print(result.render(fromRow, toRow), NORMAL_OUTPUT)
+            printNextPageLink(console, result, toRow)
+        }
+        console.print("\n", NORMAL_OUTPUT)
+    }
+
     private fun printSyntaxText(console: HybrisConsole, output: String, fileType: FileType) {
         ConsoleViewUtil.printAsFileType(console, output, fileType)
     }
@@ -158,6 +215,7 @@ class HybrisConsoleExecuteActionHandler(private val project: Project,
         }
     }
 
-    var isProcessRunning: Boolean = false
+    private val queues = ConcurrentHashMap<HybrisConsole, BackgroundTaskQueue>()
+    private val runningExecutions = ConcurrentHashMap<HybrisConsole, ProgressIndicator>()
 
 }
@@ -46,7 +46,7 @@ class HybrisFlexibleSearchConsole(project: Project) : HybrisConsole(project, Hyb
         .also { it.border = borders10 }
     private val plainSqlCheckbox = JBCheckBox("Plain SQL")
         .also { it.border = borders10 }
-    private val maxRowsSpinner = JSpinner(SpinnerNumberModel(10, 1, 100, 1))
+    private val maxRowsSpinner = JSpinner(SpinnerNumberModel(10, 1, 50000, 1))
         .also { it.border = borders5 }
 
     init {
@@ -54,7 +54,7 @@ class HybrisFlexibleSearchConsole(project: Project) : HybrisConsole(project, Hyb
 
         panel.add(commitCheckbox)
         panel.add(plainSqlCheckbox)
-        panel.add(JBLabel("Rows (max 100):").also { it.border = bordersLabel })
+        panel.add(JBLabel("Rows (max 50000):").also { it.border = bordersLabel })
         panel.add(maxRowsSpinner)
 
         add(panel, BorderLayout.NORTH)
@@ -62,13 +62,16 @@ class HybrisFlexibleSearchConsole(project: Project) : HybrisConsole(project, Hyb
         ConsoleHistoryController(MyConsoleRootType, "hybris.flexible.search.shell", this).install()
     }
 
-    override fun execute(query: String) = HybrisHacHttpClient.getInstance(project)
+    override fun execute(query: String) = execute(query) {}
+
+    override fun execute(query: String, onPartialOutput: (String) -> Unit) = HybrisHacHttpClient.getInstance(project)
         .executeFlexibleSearch(
             project,
             commitCheckbox.isSelected,
             plainSqlCheckbox.isSelected,
             maxRowsSpinner.value.toString(),
-            query
+            query,
+            onPartialOutput
         )
 
     override fun title(): String = "FlexibleSearch"
@@ -43,7 +43,7 @@ class HybrisPolyglotQueryConsole(project: Project) : HybrisConsole(project, Hybr
         .also { it.border = borders10 }
     private val plainSqlCheckbox = JBCheckBox("Plain SQL")
         .also { it.border = borders10 }
-    private val maxRowsSpinner = JSpinner(SpinnerNumberModel(10, 1, 100, 1))
+    private val maxRowsSpinner = JSpinner(SpinnerNumberModel(10, 1, 50000, 1))
         .also { it.border = borders5 }
 
     init {
@@ -52,7 +52,7 @@ class HybrisPolyglotQueryConsole(project: Project) : HybrisConsole(project, Hybr
         val panel = JPanel(WrappedFlowLayout(0, 0))
         panel.add(commitCheckbox)
         panel.add(plainSqlCheckbox)
-        panel.add(JBLabel("Rows (max 100):").also { it.border = bordersLabel })
+        panel.add(JBLabel("Rows (max 50000):").also { it.border = bordersLabel })
         panel.add(maxRowsSpinner)
 
         add(panel, BorderLayout.NORTH)
@@ -60,12 +60,15 @@ class HybrisPolyglotQueryConsole(project: Project) : HybrisConsole(project, Hybr
         ConsoleHistoryController(MyConsoleRootType, ID, this).install()
     }
 
-    override fun execute(query: String) = HybrisHacHttpClient.getInstance(project).executeFlexibleSearch(
+    override fun execute(query: String) = execute(query) {}
+
+    override fun execute(query: String, onPartialOutput: (String) -> Unit) = HybrisHacHttpClient.getInstance(project).executeFlexibleSearch(
         project,
         commitCheckbox.isSelected,
         false,
         maxRowsSpinner.value.toString(),
-        query
+        query,
+        onPartialOutput
     )
 
     override fun title() = "Polyglot Query"
@@ -19,113 +19,130 @@
 package com.intellij.idea.plugin.hybris.tools.remote.http;
 
 import com.intellij.idea.plugin.hybris.settings.HybrisRemoteConnectionSettings;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.Header;
-import org.apache.http.HttpHeaders;
-import org.apache.http.HttpResponse;
-import org.apache.http.HttpStatus;
+import org.apache.http.*;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.message.BasicStatusLine;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContexts;
+import org.apache.http.util.EntityUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jsoup.Connection;
-import org.jsoup.Connection.Method;
-import org.jsoup.Connection.Response;
-import org.jsoup.Jsoup;
-import org.jsoup.helper.ValidationException;
-import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
-
-import javax.net.ssl.HttpsURLConnection;
+
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
-import java.net.ConnectException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static java.net.HttpURLConnection.HTTP_MOVED_TEMP;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static org.apache.http.HttpVersion.HTTP_1_1;
 
-public abstract class AbstractHybrisHacHttpClient {
+/**
+ * HAC client keeps one pooled HTTP client per remote connection, so TLS handshake is performed only for new connections.
+ * <p>
+ * CSRF token is cached per HAC session and re-requested only once the session is invalidated, which happens on
+ * <code>403</code>, <code>405</code> or redirect to the login page. Concurrent requests share a single re-login,
+ * which is performed without holding any lock, so requests of other threads are never blocked by it.
+ */
+public abstract class AbstractHybrisHacHttpClient implements Disposable {
 
     private static final Logger LOG = Logger.getInstance(AbstractHybrisHacHttpClient.class);
     private static final String COOKIE_JSESSIONID = "JSESSIONID";
+    private static final String CONTEXT_CONNECT_TIME = "hybris.hac.connect.time";
+    private static final String CONTEXT_TLS_TIME = "hybris.hac.tls.time";
+    private static final Pattern CSRF_META_PATTERN = Pattern.compile("<meta\\s[^>]*name=[\"']_csrf[\"'][^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CONTENT_ATTRIBUTE_PATTERN = Pattern.compile("content=[\"']([^\"']*)[\"']", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_REDIRECTS = 5;
+    private static final int MAX_CONCURRENT_REQUESTS_PER_CONNECTION = 4;
+    private static final long CANCELLATION_CHECK_INTERVAL = 100;
     public static final int DEFAULT_HAC_TIMEOUT = 6000;
-    private static final X509TrustManager X_509_TRUST_MANAGER = new X509TrustManager() {
-
-        @Override
-        @Nullable
-        public X509Certificate[] getAcceptedIssuers() {
-            return null;
-        }
-
-        @Override
-        public void checkClientTrusted(@NotNull final X509Certificate[] chain, final String authType) {
-        }
-
-        @Override
-        public void checkServerTrusted(@NotNull final X509Certificate[] chain, final String authType) {
-        }
-    };
 
-    private final Map<HybrisRemoteConnectionSettings, Map<String, String>> cookiesPerSettings = new WeakHashMap<>();
+    private final Map<HybrisRemoteConnectionSettings, Map<String, String>> cookiesPerSettings = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<HybrisRemoteConnectionSettings, CsrfToken> csrfTokensPerSettings = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, CloseableHttpClient> clientsPerConnection = new ConcurrentHashMap<>();
+    private final Map<String, Object> loginLocks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> loginsInProgress = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> permitsPerConnection = new ConcurrentHashMap<>();
 
+    /**
+     * Session is published only once the login succeeds, so concurrent requests never use the anonymous session of the login page.
+     * CSRF token of the login page is kept for the new session, it is re-requested only if the server rejects it.
+     */
     public String login(@NotNull final Project project, @NotNull final HybrisRemoteConnectionSettings settings) {
         final var hostHacURL = settings.getGeneratedURL();
-        retrieveCookies(hostHacURL, project, settings);
-        final var sessionId = Optional.ofNullable(cookiesPerSettings.get(settings))
-            .map(it -> it.get(COOKIE_JSESSIONID))
-            .orElse(null);
+        final var cookies = new ConcurrentHashMap<String, String>();
+
+        final var csrfToken = fetchCsrfToken(hostHacURL, cookies, settings);
+        final var sessionId = cookies.get(COOKIE_JSESSIONID);
         if (sessionId == null) {
+            removeSession(settings);
             return "Unable to obtain sessionId for " + hostHacURL;
         }
-        final var csrfToken = getCsrfToken(hostHacURL, sessionId, settings);
         final var params = List.of(
             new BasicNameValuePair("j_username", settings.getUsername()),
             new BasicNameValuePair("j_password", settings.getPassword()),
-            new BasicNameValuePair("_csrf", csrfToken)
+            new BasicNameValuePair("_csrf", StringUtils.defaultString(csrfToken))
         );
         final var loginURL = hostHacURL + "/j_spring_security_check";
-        final HttpResponse response = post(project, loginURL, params, false, DEFAULT_HAC_TIMEOUT, settings);
+        final HttpResponse response = post(loginURL, params, DEFAULT_HAC_TIMEOUT, settings, cookies, StringUtils.defaultString(csrfToken));
+        // only status and headers are relevant, content has to be consumed to release the pooled connection
+        EntityUtils.consumeQuietly(response.getEntity());
         if (response.getStatusLine().getStatusCode() == HttpStatus.SC_MOVED_TEMPORARILY) {
             final Header location = response.getFirstHeader("Location");
             if (location != null && location.getValue().contains("login_error")) {
+                removeSession(settings);
                 return "Wrong username/password. Set your credentials in [y] tool window.";
             }
         }
         final var newSessionId = CookieParser.getInstance().getSpecialCookie(response.getAllHeaders());
         if (newSessionId != null) {
-            Optional.ofNullable(cookiesPerSettings.get(settings))
-                .ifPresent(cookies -> cookies.put(COOKIE_JSESSIONID, newSessionId));
+            cookies.put(COOKIE_JSESSIONID, newSessionId);
+            if (csrfToken != null) {
+                csrfTokensPerSettings.put(settings, new CsrfToken(newSessionId, csrfToken, true));
+            } else {
+                csrfTokensPerSettings.remove(settings);
+            }
+            cookiesPerSettings.put(settings, cookies);
             return StringUtils.EMPTY;
         }
+        removeSession(settings);
+
         final int statusCode = response.getStatusLine().getStatusCode();
         final StringBuilder sb = new StringBuilder();
         sb.append("HTTP ");
@@ -148,155 +165,469 @@ public abstract class AbstractHybrisHacHttpClient {
         final long timeout,
         final HybrisRemoteConnectionSettings settings
     ) {
-        var cookies = cookiesPerSettings.get(settings);
-        if (cookies == null || !cookies.containsKey(COOKIE_JSESSIONID)) {
-            final String errorMessage = login(project, settings);
-            if (StringUtils.isNotBlank(errorMessage)) {
-                return createErrorResponse(errorMessage);
-            }
+        final String errorMessage = ensureSession(project, settings);
+        if (StringUtils.isNotBlank(errorMessage)) {
+            return createErrorResponse(errorMessage);
+        }
+        final var cookies = cookiesPerSettings.get(settings);
+        if (cookies == null) {
+            return createErrorResponse("Unable to obtain sessionId for " + settings.getGeneratedURL());
         }
-        cookies = cookiesPerSettings.get(settings);
         final var sessionId = cookies.get(COOKIE_JSESSIONID);
-        final var csrfToken = getCsrfToken(settings.getGeneratedURL(), sessionId, settings);
+        final var csrfToken = getCsrfToken(settings, cookies);
         if (csrfToken == null) {
-            cookiesPerSettings.remove(settings);
+            invalidateSession(settings, sessionId);
 
             if (canReLoginIfNeeded) {
                 return post(project, actionUrl, params, false, timeout, settings);
             }
             return createErrorResponse("Unable to obtain csrfToken for sessionId=" + sessionId);
         }
-        final var client = createAllowAllClient(timeout);
+
+        final var response = post(actionUrl, params, timeout, settings, cookies, csrfToken.token());
+        final var statusCode = response.getStatusLine().getStatusCode();
+
+        // CSRF token of the login page may be re-generated by the server for the authenticated session
+        if (statusCode == HttpStatus.SC_FORBIDDEN && csrfToken.fromLoginPage()) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            csrfTokensPerSettings.remove(settings, csrfToken);
+            return post(project, actionUrl, params, canReLoginIfNeeded, timeout, settings);
+        }
+
+        final var needsLogin = switch (statusCode) {
+            case HttpStatus.SC_FORBIDDEN,
+                HttpStatus.SC_METHOD_NOT_ALLOWED -> true;
+            case HttpStatus.SC_MOVED_TEMPORARILY -> {
+                final var location = response.getFirstHeader("Location");
+                yield location != null && location.getValue().contains("login");
+            }
+            default -> false;
+        };
+
+        if (needsLogin) {
+            invalidateSession(settings, sessionId);
+            if (canReLoginIfNeeded) {
+                return post(project, actionUrl, params, false, DEFAULT_HAC_TIMEOUT, settings);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Logs timings of the given request completed with the time spent on processing of its response, see {@link HacRequestMetrics}.
+     */
+    protected void reportParseTime(@NotNull final HttpResponse response, final long parseTime) {
+        if (response instanceof final HacHttpResponse hacResponse) {
+            LOG.debug(hacResponse.getMetrics().withParseTime(parseTime).toString());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        clientsPerConnection.values().forEach(client -> {
+            try {
+                client.close();
+            } catch (final IOException e) {
+                LOG.debug(e.getMessage(), e);
+            }
+        });
+        clientsPerConnection.clear();
+    }
+
+    protected HttpResponse createErrorResponse(final String reasonPhrase) {
+        return new BasicHttpResponse(new BasicStatusLine(HTTP_1_1, HttpStatus.SC_SERVICE_UNAVAILABLE, reasonPhrase));
+    }
+
+    @NotNull
+    private HttpResponse post(
+        @NotNull final String actionUrl,
+        @NotNull final List<BasicNameValuePair> params,
+        final long timeout,
+        @NotNull final HybrisRemoteConnectionSettings settings,
+        @NotNull final Map<String, String> cookies,
+        @NotNull final String csrfToken
+    ) {
+        final var client = getClient(settings);
         if (client == null) {
             return createErrorResponse("Unable to create HttpClient");
         }
         final var post = new HttpPost(actionUrl);
-        final var cookie = cookies.entrySet().stream()
-            .map(it -> it.getKey() + '=' + it.getValue())
-            .collect(Collectors.joining("; "));
+        post.setConfig(createRequestConfig(timeout));
         post.setHeader("User-Agent", HttpHeaders.USER_AGENT);
         post.setHeader("X-CSRF-TOKEN", csrfToken);
-        post.setHeader("Cookie", cookie);
+        post.setHeader("Cookie", toCookieHeader(cookies));
         post.setHeader("Accept", "application/json");
         post.setHeader("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
         post.setHeader("Sec-Fetch-Dest", "empty");
         post.setHeader("Sec-Fetch-Mode", "cors");
         post.setHeader("Sec-Fetch-Site", "same-origin");
 
-        final HttpResponse response;
         try {
             post.setEntity(new UrlEncodedFormEntity(params, StandardCharsets.UTF_8));
-            response = client.execute(post);
+            return execute(client, post, actionUrl, settings);
         } catch (IOException e) {
             LOG.warn(e.getMessage(), e);
             return createErrorResponse(e.getMessage());
         }
+    }
+
+    /**
+     * Performs login if there is no session yet and returns an error message in case of a failure.
+     * Only one login per remote connection is performed at a time, other threads wait for its result without holding any lock.
+     */
+    @NotNull
+    private String ensureSession(@NotNull final Project project, @NotNull final HybrisRemoteConnectionSettings settings) {
+        if (hasSession(settings)) return StringUtils.EMPTY;
+
+        final var key = StringUtils.defaultString(settings.getUuid());
+        final var newLogin = new CompletableFuture<String>();
+        final var pendingLogin = loginsInProgress.putIfAbsent(key, newLogin);
+        if (pendingLogin != null) return awaitLogin(pendingLogin);
+
+        try {
+            final var result = hasSession(settings)
+                ? StringUtils.EMPTY
+                : StringUtils.defaultString(login(project, settings));
+            newLogin.complete(result);
+            return result;
+        } catch (final RuntimeException e) {
+            newLogin.completeExceptionally(e);
+            throw e;
+        } finally {
+            loginsInProgress.remove(key, newLogin);
+        }
+    }
+
+    @NotNull
+    private static String awaitLogin(@NotNull final CompletableFuture<String> login) {
+        try {
+            while (true) {
+                try {
+                    return login.get(CANCELLATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (final TimeoutException e) {
+                    ProgressManager.checkCanceled();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Login was interrupted";
+        } catch (final ExecutionException e) {
+            return "Login failed: " + e.getCause().getMessage();
+        }
+    }
+
+    private boolean hasSession(@NotNull final HybrisRemoteConnectionSettings settings) {
+        final var cookies = cookiesPerSettings.get(settings);
+        return cookies != null && cookies.containsKey(COOKIE_JSESSIONID);
+    }
+
+    /**
+     * Invalidates the session only if it was not already replaced by a concurrent re-login.
+     */
+    private void invalidateSession(@NotNull final HybrisRemoteConnectionSettings settings, @Nullable final String sessionId) {
+        synchronized (getLoginLock(settings)) {
+            final var cookies = cookiesPerSettings.get(settings);
+            if (cookies != null && !Objects.equals(cookies.get(COOKIE_JSESSIONID), sessionId)) return;
+
+            removeSession(settings);
+        }
+    }
+
+    private void removeSession(@NotNull final HybrisRemoteConnectionSettings settings) {
+        cookiesPerSettings.remove(settings);
+        csrfTokensPerSettings.remove(settings);
+    }
+
+    private Object getLoginLock(@NotNull final HybrisRemoteConnectionSettings settings) {
+        return loginLocks.computeIfAbsent(StringUtils.defaultString(settings.getUuid()), it -> new Object());
+    }
+
+    @Nullable
+    private CsrfToken getCsrfToken(@NotNull final HybrisRemoteConnectionSettings settings, @NotNull final Map<String, String> cookies) {
+        final var sessionId = cookies.get(COOKIE_JSESSIONID);
+        final var cachedToken = csrfTokensPerSettings.get(settings);
+        if (cachedToken != null && Objects.equals(cachedToken.sessionId(), sessionId)) return cachedToken;
+
+        final var token = fetchCsrfToken(settings.getGeneratedURL(), cookies, settings);
+        if (token == null || sessionId == null) return null;
+
+        final var csrfToken = new CsrfToken(sessionId, token, false);
+        csrfTokensPerSettings.put(settings, csrfToken);
+        return csrfToken;
+    }
+
+    /**
+     * Requests HAC landing page and extracts CSRF token from its <code>_csrf</code> meta tag.
+     * Redirects are followed manually to collect cookies set by each of the responses.
+     */
+    @Nullable
+    private String fetchCsrfToken(
+        @NotNull final String hacURL,
+        @NotNull final Map<String, String> cookies,
+        @NotNull final HybrisRemoteConnectionSettings settings
+    ) {
+        final var client = getClient(settings);
+        if (client == null) return null;
+
+        var url = hacURL;
+        try {
+            for (int redirect = 0; redirect <= MAX_REDIRECTS; redirect++) {
+                final var get = new HttpGet(url);
+                get.setConfig(createRequestConfig(DEFAULT_HAC_TIMEOUT));
+                get.setHeader("User-Agent", HttpHeaders.USER_AGENT);
+                if (!cookies.isEmpty()) get.setHeader("Cookie", toCookieHeader(cookies));
+
+                final var response = execute(client, get, url, settings);
+                final var entity = response.getEntity();
+                final var content = entity != null
+                    ? EntityUtils.toString(entity, StandardCharsets.UTF_8)
+                    : null;
+
+                for (final Header header : response.getHeaders("Set-Cookie")) {
+                    final var cookie = StringUtils.substringBefore(header.getValue(), ";");
+                    final var separator = cookie.indexOf('=');
+                    if (separator > 0) cookies.put(cookie.substring(0, separator).trim(), cookie.substring(separator + 1).trim());
+                }
 
-        final var statusCode = response.getStatusLine().getStatusCode();
-        final var needsLogin = switch (statusCode) {
-            case HttpStatus.SC_FORBIDDEN,
-                HttpStatus.SC_METHOD_NOT_ALLOWED -> true;
-            case HttpStatus.SC_MOVED_TEMPORARILY -> {
                 final var location = response.getFirstHeader("Location");
-                yield location != null && location.getValue().contains("login");
+                if (response.getStatusLine().getStatusCode() / 100 == 3 && location != null) {
+                    url = URI.create(url).resolve(location.getValue()).toString();
+                    continue;
+                }
+
+                return extractCsrfToken(content);
             }
-            default -> false;
-        };
+        } catch (final IOException | IllegalArgumentException e) {
+            LOG.warn(e.getMessage(), e);
+        }
+        return null;
+    }
 
-        if (needsLogin) {
-            cookiesPerSettings.remove(settings);
-            if (canReLoginIfNeeded) {
-                return post(project, actionUrl, params, false, DEFAULT_HAC_TIMEOUT, settings);
+    @Nullable
+    private static String extractCsrfToken(@Nullable final String content) {
+        if (content == null) return null;
+
+        final var meta = CSRF_META_PATTERN.matcher(content);
+        if (!meta.find()) return StringUtils.EMPTY;
+
+        final var attribute = CONTENT_ATTRIBUTE_PATTERN.matcher(meta.group());
+        return attribute.find()
+            ? attribute.group(1)
+            : StringUtils.EMPTY;
+    }
+
+    /**
+     * Executes the request and attaches its timings to the response, responses other than <code>200</code> are buffered
+     * to release the pooled connection, because such responses are usually not consumed by the callers.
+     * <p>
+     * Number of concurrent requests to the same remote instance is limited, if executed under a progress indicator,
+     * in-flight request will be aborted as soon as the indicator is cancelled. Permit is held only till the response
+     * headers are received, transfer of the content is limited by the connection pool of the client.
+     */
+    private HttpResponse execute(
+        final CloseableHttpClient client,
+        final HttpRequestBase request,
+        final String url,
+        final HybrisRemoteConnectionSettings settings
+    ) throws IOException {
+        final var permits = permitsPerConnection.computeIfAbsent(
+            StringUtils.defaultString(settings.getUuid()),
+            it -> new Semaphore(MAX_CONCURRENT_REQUESTS_PER_CONNECTION)
+        );
+        acquire(permits, request.getConfig().getConnectionRequestTimeout(), url);
+        try {
+            return execute(client, request, url);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private HttpResponse execute(final CloseableHttpClient client, final HttpRequestBase request, final String url) throws IOException {
+        final var context = HttpClientContext.create();
+        final long startTime = System.nanoTime();
+        final CloseableHttpResponse response = executeCancellable(client, request, context);
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        final var connectTime = getTime(context, CONTEXT_CONNECT_TIME);
+        final var tlsTime = getTime(context, CONTEXT_TLS_TIME);
+        final var metrics = new HacRequestMetrics(url, connectTime - tlsTime, tlsTime, Math.max(0, duration - connectTime), -1);
+        LOG.debug(metrics.toString());
+
+        final var entity = response.getEntity();
+        if (entity != null && response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            try {
+                response.setEntity(new BufferedHttpEntity(entity));
+            } finally {
+                EntityUtils.consumeQuietly(entity);
             }
         }
-        return response;
+        return new HacHttpResponse(response, metrics);
     }
 
-    protected HttpResponse createErrorResponse(final String reasonPhrase) {
-        return new BasicHttpResponse(new BasicStatusLine(HTTP_1_1, HttpStatus.SC_SERVICE_UNAVAILABLE, reasonPhrase));
+    private static CloseableHttpResponse executeCancellable(
+        final CloseableHttpClient client,
+        final HttpRequestBase request,
+        final HttpContext context
+    ) throws IOException {
+        final var indicator = ProgressManager.getInstance().getProgressIndicator();
+        if (indicator == null) return client.execute(request, context);
+
+        final Future<CloseableHttpResponse> future = AppExecutorUtil.getAppExecutorService()
+            .submit(() -> client.execute(request, context));
+        try {
+            while (true) {
+                try {
+                    return future.get(CANCELLATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                } catch (final TimeoutException e) {
+                    indicator.checkCanceled();
+                }
+            }
+        } catch (final ProcessCanceledException e) {
+            request.abort();
+            throw e;
+        } catch (final InterruptedException e) {
+            request.abort();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof final IOException ioException) throw ioException;
+            if (e.getCause() instanceof final RuntimeException runtimeException) throw runtimeException;
+            throw new IOException(e.getCause());
+        }
     }
 
-    protected CloseableHttpClient createAllowAllClient(final long timeout) {
-        final SSLContext sslcontext;
+    private static void acquire(final Semaphore permits, final long timeout, final String url) throws IOException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
         try {
-            sslcontext = SSLContexts.custom().loadTrustMaterial(null, (chain, authType) -> true).build();
-        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
-            LOG.warn(e.getMessage(), e);
-            return null;
+            while (!permits.tryAcquire(CANCELLATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                ProgressManager.checkCanceled();
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new ConnectionPoolTimeoutException("Timeout waiting for a free request slot: " + url);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
         }
-        final SSLConnectionSocketFactory sslConnectionFactory = new SSLConnectionSocketFactory(sslcontext, NoopHostnameVerifier.INSTANCE);
+    }
 
-        final Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
-            .register("http", PlainConnectionSocketFactory.getSocketFactory())
-            .register("https", sslConnectionFactory)
-            .build();
+    private static long getTime(final HttpContext context, final String attribute) {
+        return context.getAttribute(attribute) instanceof final Long time
+            ? time
+            : 0;
+    }
 
-        final HttpClientConnectionManager ccm = new BasicHttpClientConnectionManager(registry);
-        final HttpClientBuilder builder = HttpClients.custom();
-        builder.setConnectionManager(ccm);
-        final RequestConfig config = RequestConfig.custom()
+    private static RequestConfig createRequestConfig(final long timeout) {
+        return RequestConfig.custom()
             .setSocketTimeout((int) timeout)
             .setConnectTimeout((int) timeout)
+            .setConnectionRequestTimeout((int) timeout)
+            .setRedirectsEnabled(false)
             .build();
-        builder.setDefaultRequestConfig(config);
-        return builder.build();
     }
 
+    private static String toCookieHeader(final Map<String, String> cookies) {
+        return cookies.entrySet().stream()
+            .map(it -> it.getKey() + '=' + it.getValue())
+            .collect(Collectors.joining("; "));
+    }
 
-    protected void retrieveCookies(
-        final String hacURL,
-        final @NotNull Project project,
-        final @NotNull HybrisRemoteConnectionSettings settings
-    ) {
-        final var cookies = cookiesPerSettings.computeIfAbsent(settings, _settings -> new HashMap<>());
-        cookies.clear();
+    @Nullable
+    private CloseableHttpClient getClient(@NotNull final HybrisRemoteConnectionSettings settings) {
+        final var sslProtocol = settings.getSslProtocol();
+        final var key = settings.getUuid() + '|' + sslProtocol;
+
+        final var client = clientsPerConnection.get(key);
+        if (client != null) return client;
 
-        final var res = getResponseForUrl(hacURL, settings);
+        final var newClient = createPooledClient(sslProtocol);
+        if (newClient == null) return null;
 
-        if (res == null) return;
+        final var existingClient = clientsPerConnection.putIfAbsent(key, newClient);
+        if (existingClient == null) return newClient;
 
-        cookies.putAll(res.cookies());
+        try {
+            newClient.close();
+        } catch (final IOException e) {
+            LOG.debug(e.getMessage(), e);
+        }
+        return existingClient;
     }
 
-    protected Response getResponseForUrl(
-        final String hacURL,
-        final @NotNull HybrisRemoteConnectionSettings settings
-    ) {
+    @Nullable
+    private static CloseableHttpClient createPooledClient(@Nullable final String sslProtocol) {
+        final SSLContext sslcontext;
         try {
-            final var sslProtocol = settings.getSslProtocol();
-            return connect(hacURL, sslProtocol).method(Method.GET).execute();
-        } catch (ConnectException ce) {
-            return null;
-        } catch (NoSuchAlgorithmException | IOException | KeyManagementException | ValidationException e) {
+            final var builder = SSLContexts.custom().loadTrustMaterial(null, (chain, authType) -> true);
+            if (StringUtils.isNotBlank(sslProtocol)) builder.setProtocol(sslProtocol);
+            sslcontext = builder.build();
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
             LOG.warn(e.getMessage(), e);
             return null;
         }
+
+        final Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", new TimedPlainConnectionSocketFactory())
+            .register("https", new TimedSSLConnectionSocketFactory(sslcontext))
+            .build();
+
+        final var connectionManager = new PoolingHttpClientConnectionManager(registry, null, null, null, 60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(10);
+        connectionManager.setDefaultMaxPerRoute(10);
+        connectionManager.setValidateAfterInactivity(5_000);
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .disableCookieManagement()
+            .build();
     }
 
-    protected String getCsrfToken(
-        final @NotNull String hacURL,
-        final @NotNull String sessionId,
-        final @NotNull HybrisRemoteConnectionSettings settings
-    ) {
-        try {
-            final var sslProtocol = settings.getSslProtocol();
+    private record CsrfToken(@NotNull String sessionId, @NotNull String token, boolean fromLoginPage) {
+    }
 
-            final Document doc = connect(hacURL, sslProtocol).cookie("JSESSIONID", sessionId).get();
-            final Elements csrfMetaElt = doc.select("meta[name=_csrf]");
-            return csrfMetaElt.attr("content");
-        } catch (IOException | NoSuchAlgorithmException | KeyManagementException e) {
-            LOG.warn(e.getMessage(), e);
+    private static class TimedPlainConnectionSocketFactory extends PlainConnectionSocketFactory {
+
+        @Override
+        public Socket connectSocket(
+            final int connectTimeout, final Socket socket, final HttpHost host, final InetSocketAddress remoteAddress,
+            final InetSocketAddress localAddress, final HttpContext context
+        ) throws IOException {
+            final long startTime = System.nanoTime();
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                context.setAttribute(CONTEXT_CONNECT_TIME, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
         }
-        return null;
     }
 
-    private Connection connect(@NotNull final String url, final String sslProtocol) throws NoSuchAlgorithmException, KeyManagementException {
-        final TrustManager[] trustAllCerts = new TrustManager[]{X_509_TRUST_MANAGER};
+    private static class TimedSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+        private TimedSSLConnectionSocketFactory(final SSLContext sslContext) {
+            super(sslContext, NoopHostnameVerifier.INSTANCE);
+        }
+
+        @Override
+        public Socket connectSocket(
+            final int connectTimeout, final Socket socket, final HttpHost host, final InetSocketAddress remoteAddress,
+            final InetSocketAddress localAddress, final HttpContext context
+        ) throws IOException {
+            final long startTime = System.nanoTime();
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                context.setAttribute(CONTEXT_CONNECT_TIME, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+        }
 
-        final SSLContext sc = SSLContext.getInstance(sslProtocol);
-        sc.init(null, trustAllCerts, new SecureRandom());
-        HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
-        HttpsURLConnection.setDefaultHostnameVerifier(new NoopHostnameVerifier());
-        return Jsoup.connect(url);
+        @Override
+        public Socket createLayeredSocket(final Socket socket, final String target, final int port, final HttpContext context) throws IOException {
+            final long startTime = System.nanoTime();
+            try {
+                return super.createLayeredSocket(socket, target, port, context);
+            } finally {
+                context.setAttribute(CONTEXT_TLS_TIME, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+        }
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.tools.remote.http;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.message.BasicHttpResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Response of the HAC request together with its own timings, so concurrent requests do not overwrite metrics of each other.
+ */
+public class HacHttpResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+    private final CloseableHttpResponse response;
+    private final HacRequestMetrics metrics;
+
+    HacHttpResponse(@NotNull final CloseableHttpResponse response, @NotNull final HacRequestMetrics metrics) {
+        super(response.getStatusLine());
+        setHeaders(response.getAllHeaders());
+        setEntity(response.getEntity());
+        setLocale(response.getLocale());
+        this.response = response;
+        this.metrics = metrics;
+    }
+
+    @NotNull
+    public HacRequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        response.close();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.tools.remote.http;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Timings of a single HAC request in milliseconds.
+ * <p>
+ * Connect and TLS times are zero when a pooled connection has been re-used,
+ * server time covers everything from sending the request till receiving the response headers.
+ *
+ * @param connectTime establishing of the TCP connection
+ * @param tlsTime     TLS handshake
+ * @param serverTime  request processing by the server, including transfer of the request
+ * @param parseTime   processing of the response by the client, <code>-1</code> if not measured
+ */
+public record HacRequestMetrics(@NotNull String url, long connectTime, long tlsTime, long serverTime, long parseTime) {
+
+    @NotNull
+    public HacRequestMetrics withParseTime(final long parseTime) {
+        return new HacRequestMetrics(url, connectTime, tlsTime, serverTime, parseTime);
+    }
+
+    @Override
+    public String toString() {
+        return "HAC request " + url
+            + ": connect=" + connectTime + "ms"
+            + ", tls=" + tlsTime + "ms"
+            + ", server=" + serverTime + "ms"
+            + (parseTime >= 0 ? ", parse=" + parseTime + "ms" : "");
+    }
+}
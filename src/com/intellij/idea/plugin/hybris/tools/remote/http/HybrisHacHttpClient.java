@@ -20,10 +20,12 @@
 package com.intellij.idea.plugin.hybris.tools.remote.http;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.MalformedJsonException;
 import com.intellij.idea.plugin.hybris.settings.HybrisRemoteConnectionSettings;
 import com.intellij.idea.plugin.hybris.tools.remote.RemoteConnectionType;
 import com.intellij.idea.plugin.hybris.tools.remote.RemoteConnectionUtil;
-import com.intellij.idea.plugin.hybris.tools.remote.http.flexibleSearch.TableBuilder;
+import com.intellij.idea.plugin.hybris.tools.remote.http.flexibleSearch.FlexibleSearchResult;
 import com.intellij.idea.plugin.hybris.tools.remote.http.impex.HybrisHttpResult;
 import com.intellij.idea.plugin.hybris.tools.remote.http.solr.SolrQueryObject;
 import com.intellij.idea.plugin.hybris.tools.remote.http.solr.impl.SolrHttpClient;
@@ -43,11 +45,13 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.intellij.idea.plugin.hybris.tools.remote.http.impex.HybrisHttpResult.HybrisHttpResultBuilder.createResult;
@@ -60,6 +64,7 @@ import static org.jsoup.Jsoup.parse;
 public final class HybrisHacHttpClient extends AbstractHybrisHacHttpClient {
 
     private static final Logger LOG = Logger.getInstance(HybrisHacHttpClient.class);
+    public static final int FLEXIBLE_SEARCH_PAGE_SIZE = 100;
 
     public static HybrisHacHttpClient getInstance(@NotNull final Project project) {
         return project.getService(HybrisHacHttpClient.class);
@@ -71,12 +76,13 @@ public final class HybrisHacHttpClient extends AbstractHybrisHacHttpClient {
         final HttpResponse response = getHttpResponse(project, "/console/impex/import/validate", requestParams, settings);
         HybrisHttpResult.HybrisHttpResultBuilder resultBuilder = createResult();
         resultBuilder = resultBuilder.httpCode(response.getStatusLine().getStatusCode());
-        if (response.getStatusLine().getStatusCode() != SC_OK) {
+        if (response.getStatusLine().getStatusCode() != SC_OK || response.getEntity() == null) {
             return resultBuilder.errorMessage(response.getStatusLine().getReasonPhrase()).build();
         }
         final Document document;
-        try {
-            document = Jsoup.parse(response.getEntity().getContent(), StandardCharsets.UTF_8.name(), "");
+        // closing of the content stream releases the pooled connection, even if the content was not read completely
+        try (final var content = response.getEntity().getContent()) {
+            document = Jsoup.parse(content, StandardCharsets.UTF_8.name(), "");
         } catch (IOException e) {
             LOG.warn(e.getMessage(), e);
             return resultBuilder.errorMessage(e.getMessage()).build();
@@ -123,12 +129,12 @@ public final class HybrisHacHttpClient extends AbstractHybrisHacHttpClient {
         final HttpResponse response = getHttpResponse(project, "/console/impex/import", requestParams, settings);
         HybrisHttpResult.HybrisHttpResultBuilder resultBuilder = createResult();
         resultBuilder = resultBuilder.httpCode(response.getStatusLine().getStatusCode());
-        if (response.getStatusLine().getStatusCode() != SC_OK) {
+        if (response.getStatusLine().getStatusCode() != SC_OK || response.getEntity() == null) {
             return resultBuilder.errorMessage(response.getStatusLine().getReasonPhrase()).build();
         }
         final Document document;
-        try {
-            document = Jsoup.parse(response.getEntity().getContent(), StandardCharsets.UTF_8.name(), "");
+        try (final var content = response.getEntity().getContent()) {
+            document = Jsoup.parse(content, StandardCharsets.UTF_8.name(), "");
         } catch (IOException e) {
             LOG.warn(e.getMessage(), e);
             return resultBuilder.errorMessage(e.getMessage()).build();
@@ -162,6 +168,22 @@ public final class HybrisHacHttpClient extends AbstractHybrisHacHttpClient {
         final boolean isPlainSQL,
         final String maxRows,
         final String content
+    ) {
+        return executeFlexibleSearch(project, shouldCommit, isPlainSQL, maxRows, content, null);
+    }
+
+    /**
+     * @param firstPageConsumer receives the first {@link #FLEXIBLE_SEARCH_PAGE_SIZE} rows rendered as a table as soon as they are read,
+     *                          in such case output of the result contains the same first page
+     */
+    @NotNull
+    public HybrisHttpResult executeFlexibleSearch(
+        final Project project,
+        final boolean shouldCommit,
+        final boolean isPlainSQL,
+        final String maxRows,
+        final String content,
+        @Nullable final Consumer<String> firstPageConsumer
     ) {
         final var settings = RemoteConnectionUtil.INSTANCE.getActiveRemoteConnectionSettings(project, RemoteConnectionType.Hybris);
         final var params = Arrays.asList(
@@ -184,40 +206,31 @@ public final class HybrisHacHttpClient extends AbstractHybrisHacHttpClient {
             return resultBuilder.errorMessage("[" + statusLine.getStatusCode() + "] " +
                 statusLine.getReasonPhrase()).build();
         }
-        final Document document;
-        try {
-            document = parse(response.getEntity().getContent(), StandardCharsets.UTF_8.name(), "");
-        } catch (final IOException e) {
-            return resultBuilder.errorMessage(e.getMessage() + ' ' + actionUrl).httpCode(SC_BAD_REQUEST).build();
-        }
-        final Elements fsResultStatus = document.getElementsByTag("body");
-        if (fsResultStatus == null) {
-            return resultBuilder.errorMessage("No data in response").build();
-        }
-        final Map json = parseResponse(fsResultStatus);
-
-        if (json == null) {
+        final FlexibleSearchResult flexibleSearchResult;
+        final long parseStartTime = System.currentTimeMillis();
+        try (final var reader = new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8)) {
+            flexibleSearchResult = FlexibleSearchResult.read(reader, FLEXIBLE_SEARCH_PAGE_SIZE, firstPageConsumer);
+        } catch (final JsonParseException | MalformedJsonException | IllegalStateException e) {
+            LOG.error("Cannot parse response", e);
             return createResult()
                 .errorMessage("Cannot parse response from the server...")
                 .build();
+        } catch (final IOException e) {
+            return resultBuilder.errorMessage(e.getMessage() + ' ' + actionUrl).httpCode(SC_BAD_REQUEST).build();
         }
 
-        if (json.get("exception") != null) {
+        reportParseTime(response, System.currentTimeMillis() - parseStartTime);
+
+        if (flexibleSearchResult.getExceptionMessage() != null) {
             return createResult()
-                .errorMessage(((Map<String, Object>) json.get("exception")).get("message").toString())
+                .errorMessage(flexibleSearchResult.getExceptionMessage())
                 .build();
         }
 
-
-        final TableBuilder tableBuilder = new TableBuilder();
-
-        final List<String> headers = (List<String>) json.get("headers");
-        final List<List<String>> resultList = (List<List<String>>) json.get("resultList");
-
-        tableBuilder.addRow(headers.toArray(new String[]{}));
-        resultList.forEach(row -> tableBuilder.addRow(row.toArray(new String[]{})));
-
-        return resultBuilder.output(tableBuilder.toString()).build();
+        return resultBuilder
+            .output(flexibleSearchResult.render(0, FLEXIBLE_SEARCH_PAGE_SIZE))
+            .flexibleSearchResult(flexibleSearchResult)
+            .build();
     }
 
     public @NotNull
@@ -242,8 +255,8 @@ public final class HybrisHacHttpClient extends AbstractHybrisHacHttpClient {
                 statusLine.getReasonPhrase()).build();
         }
         final Document document;
-        try {
-            document = parse(response.getEntity().getContent(), StandardCharsets.UTF_8.name(), "");
+        try (final var stream = response.getEntity().getContent()) {
+            document = parse(stream, StandardCharsets.UTF_8.name(), "");
         } catch (final IOException e) {
             return resultBuilder.errorMessage(e.getMessage() + ' ' + actionUrl).httpCode(SC_BAD_REQUEST).build();
         }
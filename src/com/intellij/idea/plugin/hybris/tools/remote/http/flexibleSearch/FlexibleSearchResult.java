@@ -0,0 +1,214 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.tools.remote.http.flexibleSearch;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Result of the FlexibleSearch query read directly from the HAC response stream.
+ * <p>
+ * Rows are not kept as separate objects, values are stored column by column in growing arrays,
+ * so only requested pages are rendered into the text representation.
+ */
+public class FlexibleSearchResult {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<String> headers = new ArrayList<>();
+    private final List<String[]> columns = new ArrayList<>();
+    private int capacity = INITIAL_CAPACITY;
+    private int rowCount;
+    @Nullable
+    private String exceptionMessage;
+    private int firstPageSize;
+    @Nullable
+    private Consumer<String> firstPageConsumer;
+
+    private FlexibleSearchResult() {
+    }
+
+    /**
+     * Reads HAC FlexibleSearch response, unknown properties are skipped without being materialized.
+     */
+    @NotNull
+    public static FlexibleSearchResult read(@NotNull final Reader reader) throws IOException {
+        return read(reader, 0, null);
+    }
+
+    /**
+     * Reads HAC FlexibleSearch response and passes the rendered first page to the given consumer as soon as it is read,
+     * before the rest of the response arrives. Consumer is not called if there are fewer rows than the page size
+     * or if headers follow the rows in the response.
+     */
+    @NotNull
+    public static FlexibleSearchResult read(
+        @NotNull final Reader reader,
+        final int firstPageSize,
+        @Nullable final Consumer<String> firstPageConsumer
+    ) throws IOException {
+        final var result = new FlexibleSearchResult();
+        result.firstPageSize = firstPageSize;
+        result.firstPageConsumer = firstPageConsumer;
+
+        try (final var json = new JsonReader(reader)) {
+            json.setLenient(true);
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "headers" -> result.readHeaders(json);
+                    case "resultList" -> result.readRows(json);
+                    case "exception" -> result.readException(json);
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+
+        return result;
+    }
+
+    @Nullable
+    public String getExceptionMessage() {
+        return exceptionMessage;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Renders rows in the range <code>[fromRow, toRow)</code> together with the headers as a text table.
+     */
+    @NotNull
+    public String render(final int fromRow, final int toRow) {
+        final var tableBuilder = new TableBuilder();
+        tableBuilder.addRow(headers.toArray(String[]::new));
+
+        final int columnCount = columns.size();
+        for (int row = Math.max(0, fromRow); row < Math.min(toRow, rowCount); row++) {
+            final var cols = new String[columnCount];
+            for (int col = 0; col < columnCount; col++) {
+                cols[col] = columns.get(col)[row];
+            }
+            tableBuilder.addRow(cols);
+        }
+
+        return tableBuilder.toString();
+    }
+
+    private void readHeaders(final JsonReader json) throws IOException {
+        if (skipNull(json)) return;
+
+        json.beginArray();
+        while (json.hasNext()) {
+            headers.add(nextString(json));
+        }
+        json.endArray();
+
+        ensureColumns(headers.size());
+    }
+
+    private void readRows(final JsonReader json) throws IOException {
+        if (skipNull(json)) return;
+
+        json.beginArray();
+        while (json.hasNext()) {
+            if (rowCount == capacity) grow();
+
+            json.beginArray();
+            int col = 0;
+            while (json.hasNext()) {
+                ensureColumns(col + 1);
+                columns.get(col)[rowCount] = nextString(json);
+                col++;
+            }
+            json.endArray();
+
+            rowCount++;
+            if (rowCount == firstPageSize) notifyFirstPage();
+        }
+        json.endArray();
+    }
+
+    private void notifyFirstPage() {
+        final var consumer = firstPageConsumer;
+        firstPageConsumer = null;
+        if (consumer != null && !headers.isEmpty()) consumer.accept(render(0, firstPageSize));
+    }
+
+    private void readException(final JsonReader json) throws IOException {
+        if (skipNull(json)) return;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("message".equals(json.nextName())) {
+                exceptionMessage = nextString(json);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (exceptionMessage == null) exceptionMessage = "";
+    }
+
+    private void ensureColumns(final int count) {
+        while (columns.size() < count) {
+            columns.add(new String[capacity]);
+        }
+    }
+
+    private void grow() {
+        capacity = capacity + (capacity >> 1);
+        columns.replaceAll(column -> Arrays.copyOf(column, capacity));
+    }
+
+    private static boolean skipNull(final JsonReader json) throws IOException {
+        if (json.peek() != JsonToken.NULL) return false;
+
+        json.nextNull();
+        return true;
+    }
+
+    @Nullable
+    private static String nextString(final JsonReader json) throws IOException {
+        return switch (json.peek()) {
+            case NULL -> {
+                json.nextNull();
+                yield null;
+            }
+            case BOOLEAN -> String.valueOf(json.nextBoolean());
+            case STRING, NUMBER -> json.nextString();
+            default -> {
+                json.skipValue();
+                yield null;
+            }
+        };
+    }
+}
@@ -21,12 +21,12 @@ package com.intellij.idea.plugin.hybris.tools.remote.http.flexibleSearch;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TableBuilder {
 
-    private final List<String[]> rows = new LinkedList<>();
+    private final List<String[]> rows = new ArrayList<>();
 
     public void addRow(final String... cols) {
         rows.add(cols);
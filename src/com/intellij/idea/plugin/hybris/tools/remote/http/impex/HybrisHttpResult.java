@@ -18,6 +18,8 @@
 
 package com.intellij.idea.plugin.hybris.tools.remote.http.impex;
 
+import com.intellij.idea.plugin.hybris.tools.remote.http.flexibleSearch.FlexibleSearchResult;
+
 import static com.intellij.openapi.util.text.StringUtil.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.http.HttpStatus.SC_OK;
@@ -31,6 +33,7 @@ public class HybrisHttpResult {
     private String output;
     private String result;
     private int statusCode;
+    private FlexibleSearchResult flexibleSearchResult;
 
 
     private HybrisHttpResult() {
@@ -60,6 +63,10 @@ public class HybrisHttpResult {
         return result;
     }
 
+    public FlexibleSearchResult getFlexibleSearchResult() {
+        return flexibleSearchResult;
+    }
+
     static public class HybrisHttpResultBuilder {
 
         private boolean hasError = false;
@@ -69,6 +76,7 @@ public class HybrisHttpResult {
         private String output= EMPTY;
         private String result= EMPTY;
         private int statusCode = SC_OK;
+        private FlexibleSearchResult flexibleSearchResult;
 
         private HybrisHttpResultBuilder() {
         }
@@ -108,6 +116,11 @@ public class HybrisHttpResult {
             return this;
         }
 
+        public HybrisHttpResultBuilder flexibleSearchResult(final FlexibleSearchResult flexibleSearchResult) {
+            this.flexibleSearchResult = flexibleSearchResult;
+            return this;
+        }
+
 
         public HybrisHttpResult build() {
             final HybrisHttpResult httpResult = new HybrisHttpResult();
@@ -117,6 +130,7 @@ public class HybrisHttpResult {
             httpResult.output = this.output;
             httpResult.result = this.result;
             httpResult.statusCode = this.statusCode;
+            httpResult.flexibleSearchResult = this.flexibleSearchResult;
 
             return httpResult;
         }
@@ -0,0 +1,275 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.tools.validation
+
+import com.google.gson.GsonBuilder
+import com.intellij.codeHighlighting.HighlightDisplayLevel
+import com.intellij.codeInsight.daemon.HighlightDisplayKey
+import com.intellij.codeInspection.InspectionManager
+import com.intellij.codeInspection.ProblemDescriptorUtil
+import com.intellij.codeInspection.ex.LocalInspectionToolWrapper
+import com.intellij.ide.impl.ProjectUtil
+import com.intellij.idea.plugin.hybris.common.utils.ConcurrentProcessingUtils
+import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
+import com.intellij.idea.plugin.hybris.system.bean.meta.BSMetaModelAccess
+import com.intellij.idea.plugin.hybris.system.cockpitng.meta.CngMetaModelAccess
+import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
+import com.intellij.lang.Language
+import com.intellij.openapi.application.ApplicationStarter
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.application.ex.ApplicationManagerEx
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ex.ProjectManagerEx
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.roots.ProjectFileIndex
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager
+import com.intellij.psi.PsiManager
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Headless validation of the SAP Commerce project, intended for CI:
+ *
+ * `idea hybrisValidate <project path> [<report file>]`
+ *
+ * Opens the project, waits for indexes and Type, Bean and Cockpit NG systems, then runs all enabled inspections
+ * of this plugin over the project content in parallel. JSON [ValidationReport] is written to the report file
+ * or to the standard output. Exit code is `1` if any error is found and `2` if validation could not be performed.
+ */
+class HybrisValidationStarter : ApplicationStarter {
+
+    override val requiredModality: Int
+        get() = ApplicationStarter.NOT_IN_EDT
+
+    override fun main(args: List<String>) {
+        val projectPath = args.getOrNull(1)
+        val reportPath = args.getOrNull(2)?.let { Path.of(it) }
+
+        val exitCode = if (projectPath == null) fail("Usage: ${args.firstOrNull() ?: COMMAND} <project path> [<report file>]")
+        else try {
+            validate(Path.of(projectPath).toAbsolutePath(), reportPath)
+        } catch (e: Exception) {
+            LOG.error("Validation of the $projectPath has failed", e)
+            EXIT_FAILURE
+        }
+
+        // application is disposed before the process is terminated, so settings, caches and indexes are saved
+        ApplicationManagerEx.getApplicationEx().exit(/* force = */ true, /* exitConfirmed = */ true, exitCode)
+    }
+
+    private fun validate(projectPath: Path, reportPath: Path?): Int {
+        val project = ProjectUtil.openOrImport(projectPath)
+            ?: return fail("Unable to open project $projectPath")
+
+        try {
+            if (!HybrisProjectSettingsComponent.getInstance(project).isHybrisProject()) {
+                return fail("Project $projectPath is not a SAP Commerce project")
+            }
+
+            DumbService.getInstance(project).waitForSmartMode()
+            if (!waitForMetaModels(project)) {
+                return fail("Meta models were not built in $META_MODELS_TIMEOUT_MINUTES minutes")
+            }
+
+            val report = ProgressManager.getInstance().runProcess<ValidationReport>({ inspect(project) }, EmptyProgressIndicator())
+            val json = GsonBuilder().setPrettyPrinting().create().toJson(report)
+
+            if (reportPath != null) Files.writeString(reportPath, json)
+            else println(json)
+
+            LOG.info("Validation of ${project.name} completed in ${report.durationMs} ms: ${report.errors} errors, ${report.warnings} warnings")
+
+            return exitCode(report)
+        } finally {
+            ProjectManagerEx.getInstanceEx().forceCloseProject(project)
+        }
+    }
+
+    /**
+     * Meta models are built in background once indexes are ready, see `PreLoadSystemsStartupActivity`.
+     * Returns `false` if meta models were not built in [META_MODELS_TIMEOUT_MINUTES].
+     */
+    private fun waitForMetaModels(project: Project): Boolean {
+        val tsAccess = TSMetaModelAccess.getInstance(project)
+        val bsAccess = BSMetaModelAccess.getInstance(project)
+        val cngAccess = CngMetaModelAccess.getInstance(project)
+        val deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(META_MODELS_TIMEOUT_MINUTES)
+
+        while (!isBuilt { tsAccess.getMetaModel(); tsAccess.isInitialized() && !tsAccess.isStale() }
+            || !isBuilt { bsAccess.getMetaModel(); bsAccess.isInitialized() && !bsAccess.isStale() }
+            || !isBuilt { cngAccess.getMetaModel(); !cngAccess.isStale() }
+        ) {
+            if (System.nanoTime() > deadline) return false
+
+            DumbService.getInstance(project).waitForSmartMode()
+            Thread.sleep(META_MODELS_POLL_INTERVAL_MS)
+        }
+        return true
+    }
+
+    /**
+     * `getMetaModel` triggers the build of the meta model and throws [ProcessCanceledException] until the first snapshot is built.
+     */
+    private fun isBuilt(check: () -> Boolean) = try {
+        ReadAction.compute<Boolean, RuntimeException> { check() }
+    } catch (e: ProcessCanceledException) {
+        false
+    }
+
+    /**
+     * Runs all enabled inspections of this plugin over the project content, has to be called under a progress indicator outside of EDT.
+     */
+    internal fun inspect(project: Project): ValidationReport {
+        val started = System.nanoTime()
+        val profile = InspectionProjectProfileManager.getInstance(project).currentProfile
+        val inspectionManager = InspectionManager.getInstance(project)
+        val tools = ReadAction.compute<List<LocalInspectionToolWrapper>, RuntimeException> {
+            profile.getAllEnabledInspectionTools(project)
+                .mapNotNull { it.tool as? LocalInspectionToolWrapper }
+                .filter { it.tool.javaClass.name.startsWith(PLUGIN_PACKAGE) }
+        }
+        val files = ReadAction.compute<List<VirtualFile>, RuntimeException> { collectFiles(project) }
+        val baseDir = project.guessProjectDir()
+        val ruleTimings = ConcurrentHashMap<String, RuleCounters>()
+
+        LOG.info("Validating ${files.size} files of ${project.name} with ${tools.size} inspections")
+
+        val results = ConcurrentProcessingUtils.mapConcurrently<VirtualFile, FileResult>("Project validation", files) { file ->
+            val fileStarted = System.nanoTime()
+            val path = baseDir?.let { VfsUtilCore.getRelativePath(file, it) } ?: file.path
+
+            // non-blocking read action is cancelled by a write action and restarted, so timings are collected only for the completed run
+            val toolResults = ReadAction.nonBlocking<List<ToolResult>> {
+                val psiFile = PsiManager.getInstance(project).findFile(file) ?: return@nonBlocking emptyList()
+
+                tools
+                    .filter { wrapper ->
+                        wrapper.language
+                            ?.let { Language.findLanguageByID(it) }
+                            ?.let { psiFile.language.isKindOf(it) }
+                            ?: true
+                    }
+                    .map { wrapper ->
+                        val toolStarted = System.nanoTime()
+                        val descriptors = wrapper.tool.processFile(psiFile, inspectionManager)
+                        val severity = HighlightDisplayKey.find(wrapper.shortName)
+                            ?.let { profile.getErrorLevel(it, psiFile) }
+                            ?: HighlightDisplayLevel.WARNING
+
+                        val problems = descriptors.map { descriptor ->
+                            ValidationReport.Problem(
+                                path,
+                                descriptor.lineNumber + 1,
+                                wrapper.shortName,
+                                severity.name,
+                                ProblemDescriptorUtil.renderDescriptionMessage(descriptor, descriptor.psiElement)
+                            )
+                        }
+                        ToolResult(wrapper.shortName, System.nanoTime() - toolStarted, problems)
+                    }
+            }
+                .inSmartMode(project)
+                .expireWith(project)
+                .executeSynchronously()
+
+            toolResults.forEach {
+                ruleTimings.computeIfAbsent(it.rule) { RuleCounters() }
+                    .add(it.durationNanos, it.problems.size)
+            }
+            val problems = toolResults.flatMap { it.problems }
+
+            FileResult(problems, ValidationReport.FileTiming(path, toMillis(System.nanoTime() - fileStarted), problems.size))
+        }
+
+        val problems = results.flatMap { it.problems }
+
+        return ValidationReport(
+            project.basePath ?: project.name,
+            toMillis(System.nanoTime() - started),
+            problems.count { it.severity == HighlightDisplayLevel.ERROR.name },
+            problems.count { it.severity != HighlightDisplayLevel.ERROR.name },
+            problems,
+            results.map { it.timing }.sortedByDescending { it.durationMs },
+            ruleTimings
+                .map { (rule, counters) ->
+                    ValidationReport.RuleTiming(rule, toMillis(counters.duration.sum()), counters.files.sum().toInt(), counters.problems.sum().toInt())
+                }
+                .sortedByDescending { it.durationMs }
+        )
+    }
+
+    private fun collectFiles(project: Project): List<VirtualFile> {
+        val files = mutableListOf<VirtualFile>()
+
+        ProjectFileIndex.getInstance(project).iterateContent { file ->
+            if (!file.isDirectory && file.extension?.lowercase() in FILE_EXTENSIONS) files.add(file)
+            true
+        }
+
+        return files
+    }
+
+    private fun toMillis(nanos: Long) = TimeUnit.NANOSECONDS.toMillis(nanos)
+
+    private fun fail(message: String): Int {
+        System.err.println(message)
+        return EXIT_FAILURE
+    }
+
+    private data class ToolResult(val rule: String, val durationNanos: Long, val problems: List<ValidationReport.Problem>)
+
+    private data class FileResult(val problems: List<ValidationReport.Problem>, val timing: ValidationReport.FileTiming)
+
+    private class RuleCounters {
+        val duration = LongAdder()
+        val files = LongAdder()
+        val problems = LongAdder()
+
+        fun add(nanos: Long, problemsCount: Int) {
+            duration.add(nanos)
+            files.increment()
+            problems.add(problemsCount.toLong())
+        }
+    }
+
+    companion object {
+        const val COMMAND = "hybrisValidate"
+        const val EXIT_OK = 0
+        const val EXIT_ERRORS = 1
+        const val EXIT_FAILURE = 2
+
+        private val LOG = Logger.getInstance(HybrisValidationStarter::class.java)
+        private const val PLUGIN_PACKAGE = "com.intellij.idea.plugin.hybris."
+        private val FILE_EXTENSIONS = setOf("xml", "impex", "json")
+        private const val META_MODELS_TIMEOUT_MINUTES = 30L
+        private const val META_MODELS_POLL_INTERVAL_MS = 500L
+
+        fun exitCode(report: ValidationReport) = if (report.errors > 0) EXIT_ERRORS else EXIT_OK
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.tools.validation
+
+/**
+ * Machine-readable result of the [HybrisValidationStarter], serialized to JSON.
+ * All paths are relative to the project base directory, timings are in milliseconds.
+ */
+data class ValidationReport(
+    val project: String,
+    val durationMs: Long,
+    val errors: Int,
+    val warnings: Int,
+    val problems: List<Problem>,
+    val files: List<FileTiming>,
+    val rules: List<RuleTiming>
+) {
+
+    /**
+     * @param line 1-based line of the problem, `0` if not known
+     */
+    data class Problem(val file: String, val line: Int, val rule: String, val severity: String, val message: String)
+
+    data class FileTiming(val file: String, val durationMs: Long, val problems: Int)
+
+    data class RuleTiming(val rule: String, val durationMs: Long, val files: Int, val problems: Int)
+}
@@ -26,6 +26,7 @@ import com.intellij.idea.plugin.hybris.toolwindow.system.type.tree.TreeNode
 import com.intellij.idea.plugin.hybris.toolwindow.system.type.tree.nodes.*
 import com.intellij.idea.plugin.hybris.toolwindow.system.type.view.TSViewSettings
 import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.util.Disposer
 import com.intellij.ui.OnePixelSplitter
@@ -65,6 +66,13 @@ class TSTreePanel(
 
     fun update(globalMetaModel: TSGlobalMetaModel, changeType: TSViewSettings.ChangeType) {
         tree.update(globalMetaModel, changeType)
+            .onSuccess {
+                // unchanged nodes are kept by the tree, but their details may refer to the new meta
+                ApplicationManager.getApplication().invokeLater({
+                    val node = (tree.selectionPath?.lastPathComponent as? TreeNode)?.userObject as? TSNode
+                    updateSecondComponent(node)
+                }, myProject.disposed)
+            }
     }
 
     override fun dispose() {
@@ -30,6 +30,7 @@ import com.intellij.ui.tree.AsyncTreeModel
 import com.intellij.ui.treeStructure.Tree
 import com.intellij.util.containers.Convertor
 import org.jetbrains.annotations.NonNls
+import org.jetbrains.concurrency.Promise
 import java.io.Serial
 import javax.swing.event.TreeModelListener
 import javax.swing.tree.DefaultMutableTreeNode
@@ -58,11 +59,12 @@ class TSTree(val myProject: Project) : Tree(), DataProvider, Disposable {
     override fun getData(dataId: @NonNls String) = null
     override fun dispose() = Unit
 
-    fun update(globalMetaModel: TSGlobalMetaModel, changeType: TSViewSettings.ChangeType) {
-        if (changeType == TSViewSettings.ChangeType.FULL || changeType == TSViewSettings.ChangeType.UPDATE) {
-            previousSelection = lastSelectedPathComponent as? TreeNode
+    fun update(globalMetaModel: TSGlobalMetaModel, changeType: TSViewSettings.ChangeType): Promise<*> {
+        previousSelection = lastSelectedPathComponent as? TreeNode
 
-            myTreeModel.reload(globalMetaModel)
+        return when (changeType) {
+            TSViewSettings.ChangeType.FULL -> myTreeModel.reload(globalMetaModel)
+            TSViewSettings.ChangeType.UPDATE -> myTreeModel.update(globalMetaModel)
         }
     }
 
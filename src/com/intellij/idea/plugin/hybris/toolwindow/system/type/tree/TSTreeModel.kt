@@ -25,12 +25,20 @@ import com.intellij.openapi.application.ApplicationManager
 import com.intellij.ui.tree.BaseTreeModel
 import com.intellij.util.concurrency.Invoker
 import com.intellij.util.concurrency.InvokerSupplier
+import org.jetbrains.concurrency.Promise
 import javax.swing.tree.TreePath
 
+/**
+ * Tree nodes are cached only for the currently loaded children, once a child disappears from its parent,
+ * the whole subtree is evicted, so the cache does not grow with the number of the type system rebuilds.
+ *
+ * All cached state is accessed only from the [Invoker] thread.
+ */
 class TSTreeModel(private val rootTreeNode: TreeNode) : BaseTreeModel<TreeNode>(), Disposable, InvokerSupplier {
 
     private var globalMetaModel: TSGlobalMetaModel? = null
     private val nodes = mutableMapOf<TSNode, TreeNode>()
+    private val loadedChildren = mutableMapOf<TSNode, List<TSNode>>()
     private val myInvoker = if (ApplicationManager.getApplication().isUnitTestMode) {
         Invoker.forEventDispatchThread(this)
     } else {
@@ -47,24 +55,104 @@ class TSTreeModel(private val rootTreeNode: TreeNode) : BaseTreeModel<TreeNode>(
                 && parent.userObject is TSNode
             )
     ) {
-        ((parent as TreeNode).userObject as TSNode).getChildren(globalMetaModel)
+        loadChildren((parent as TreeNode).userObject as TSNode)
             .onEach { it.update() }
-            .map { nodes.computeIfAbsent(it) { tsNode -> TreeNode(tsNode) } }
+            .map { getTreeNode(it) }
     } else {
         emptyList()
     }
 
-    fun reload(globalMetaModel: TSGlobalMetaModel) {
+    /**
+     * Re-builds the whole tree, used when view settings affecting all nodes are changed.
+     */
+    fun reload(globalMetaModel: TSGlobalMetaModel): Promise<*> = myInvoker.invoke {
         this.globalMetaModel = globalMetaModel
 
         treeStructureChanged(TreePath(root), null, null)
     }
 
+    /**
+     * Applies changes of the new type system snapshot only to the loaded part of the tree.
+     *
+     * Parents with added or removed children get structure change event for their own subtree,
+     * remaining children get change event only in case of the changed presentation.
+     * Unchanged nodes are kept as is, so expansion and selection state survives the update.
+     */
+    fun update(globalMetaModel: TSGlobalMetaModel): Promise<*> = myInvoker.invoke {
+        this.globalMetaModel = globalMetaModel
+
+        val rootNode = rootTreeNode.userObject as TSNode
+        if (!loadedChildren.containsKey(rootNode)) {
+            treeStructureChanged(TreePath(root), null, null)
+            return@invoke
+        }
+
+        val queue = ArrayDeque<TSNode>()
+        queue.add(rootNode)
+
+        while (queue.isNotEmpty()) {
+            val parent = queue.removeFirst()
+            val previousChildren = loadedChildren[parent] ?: continue
+            val path = getPath(parent) ?: continue
+            val children = loadChildren(parent)
+
+            if (children != previousChildren) {
+                treeStructureChanged(path, null, null)
+                continue
+            }
+
+            val changedIndices = children.indices
+                .filter { children[it].update() }
+                .toIntArray()
+            if (changedIndices.isNotEmpty()) {
+                treeNodesChanged(path, changedIndices, changedIndices.map { getTreeNode(children[it]) }.toTypedArray())
+            }
+
+            queue.addAll(children)
+        }
+    }
+
+    private fun loadChildren(parent: TSNode): List<TSNode> {
+        val children = parent.getChildren(globalMetaModel).toList()
+
+        loadedChildren.put(parent, children)
+            ?.takeIf { it != children }
+            ?.let { previousChildren ->
+                val retained = children.toSet()
+                previousChildren
+                    .filterNot { retained.contains(it) }
+                    .forEach { evict(it) }
+            }
+
+        return children
+    }
+
+    private fun evict(node: TSNode) {
+        nodes.remove(node)
+        loadedChildren.remove(node)
+            ?.forEach { evict(it) }
+    }
+
+    private fun getTreeNode(node: TSNode) = nodes.computeIfAbsent(node) { TreeNode(it) }
+
+    private fun getPath(node: TSNode): TreePath? {
+        val path = ArrayList<TreeNode>()
+        var current: TSNode? = node
+
+        while (current != null) {
+            path.add(if (current == rootTreeNode.userObject) rootTreeNode else nodes[current] ?: return null)
+            current = current.parentDescriptor as? TSNode
+        }
+
+        return TreePath(path.asReversed().toTypedArray())
+    }
+
     override fun getInvoker() = myInvoker
 
     override fun dispose() {
         super.dispose()
         nodes.clear()
+        loadedChildren.clear()
     }
 
-}
\ No newline at end of file
+}
@@ -89,7 +89,7 @@ class TSView(val myProject: Project) : SimpleToolWindowPanel(false, true), Dispo
             })
             subscribe(TSMetaModelAccess.TOPIC, object : TSChangeListener {
                 override fun typeSystemChanged(globalMetaModel: TSGlobalMetaModel) {
-                    refreshContent(globalMetaModel, TSViewSettings.ChangeType.FULL)
+                    refreshContent(globalMetaModel, TSViewSettings.ChangeType.UPDATE)
                 }
             })
         }
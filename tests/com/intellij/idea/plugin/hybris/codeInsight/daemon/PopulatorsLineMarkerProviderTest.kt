@@ -0,0 +1,111 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.codeInsight.daemon
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo
+import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiJavaFile
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.test.assertEquals
+
+class PopulatorsLineMarkerProviderTest : BasePlatformTestCase() {
+
+    override fun setUp() {
+        super.setUp()
+        HybrisProjectSettingsComponent.getInstance(project).state.hybrisProject = true
+
+        addClass("de.hybris.platform.converters", "public interface Populator<SOURCE, TARGET> {}")
+        addClass("de.hybris.platform.servicelayer.dto.converter", "public interface Converter<SOURCE, TARGET> {}")
+        addClass("test", "public class ProductModel {}")
+        addClass("test", "public class ProductData {}")
+        addClass("test", "public class CategoryData {}")
+        addClass("test", "public class ProductPricePopulator implements de.hybris.platform.converters.Populator<ProductModel, CategoryData> {}")
+        addClass("test", "public class DefaultPopulator implements de.hybris.platform.converters.Populator<ProductModel, ProductData> {}")
+        addClass("test", "public class CategoryPopulator implements de.hybris.platform.converters.Populator<ProductModel, CategoryData> {}")
+    }
+
+    fun test_collect_genericsMatchesFirst_thenNameMatches() {
+        val facade = addClass(
+            "test", """
+            public class ProductFacade {
+                private de.hybris.platform.servicelayer.dto.converter.Converter<ProductModel, ProductData> productConverter;
+                private static de.hybris.platform.servicelayer.dto.converter.Converter<ProductModel, ProductData> staticProductConverter;
+                private String name;
+            }
+        """.trimIndent()
+        )
+
+        val markers = collect(facade)
+
+        assertEquals(listOf("productConverter"), markers.map { it.element?.text })
+        assertEquals(listOf("DefaultPopulator", "ProductPricePopulator"), targets(markers.single()))
+    }
+
+    fun test_collect_newPopulatorFoundAfterJavaChange() {
+        val facade = addClass(
+            "test", """
+            public class CategoryFacade {
+                private de.hybris.platform.servicelayer.dto.converter.Converter<ProductModel, ProductData> categoryConverter;
+            }
+        """.trimIndent()
+        )
+        assertEquals(listOf("DefaultPopulator", "CategoryPopulator"), targets(collect(facade).single()))
+
+        addClass("test", "public class CategoryUrlPopulator implements de.hybris.platform.converters.Populator<ProductModel, String> {}")
+
+        // name matches follow the generics matches in the search order
+        val targets = targets(collect(facade).single())
+        assertEquals("DefaultPopulator", targets.first())
+        assertEquals(setOf("CategoryPopulator", "CategoryUrlPopulator"), targets.drop(1).toSet())
+    }
+
+    fun test_collect_nameMatchesWholeWordsOfPopulator() {
+        val facade = addClass(
+            "test", """
+            public class PriceFacade {
+                private de.hybris.platform.servicelayer.dto.converter.Converter<String, String> priceConverter;
+                private de.hybris.platform.servicelayer.dto.converter.Converter<String, String> productPriceConverter;
+                private de.hybris.platform.servicelayer.dto.converter.Converter<String, String> riceConverter;
+            }
+        """.trimIndent()
+        )
+
+        val markers = collect(facade)
+
+        assertEquals(listOf("priceConverter", "productPriceConverter"), markers.map { it.element?.text })
+        markers.forEach { assertEquals(listOf("ProductPricePopulator"), targets(it)) }
+    }
+
+    private fun addClass(packageName: String, text: String): PsiClass {
+        val className = Regex("(class|interface) (\\w+)").find(text)!!.groupValues[2]
+        val file = myFixture.addFileToProject("${packageName.replace('.', '/')}/$className.java", "package $packageName;\n\n$text") as PsiJavaFile
+        return file.classes.single()
+    }
+
+    private fun collect(psiClass: PsiClass): List<LineMarkerInfo<*>> {
+        val result = mutableListOf<LineMarkerInfo<*>>()
+        PopulatorsLineMarkerProvider().collectSlowLineMarkers(mutableListOf(psiClass), result)
+        return result
+    }
+
+    private fun targets(marker: LineMarkerInfo<*>) = (marker as RelatedItemLineMarkerInfo<*>).createGotoRelatedItems()
+        .mapNotNull { (it.element as? PsiClass)?.name }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.intellij.idea.plugin.hybris.common.utils
+
+import java.util.*
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class IntGraphTest {
+
+    @Test
+    fun test_build_keepsOrderOfEdges() {
+        val graph = IntGraph.Builder(3)
+            .addEdge(2, 0)
+            .addEdge(0, 2)
+            .addEdge(2, 1)
+            .addEdge(0, 1)
+            .build()
+
+        assertEquals(listOf(2, 1), successors(graph, 0))
+        assertEquals(emptyList(), successors(graph, 1))
+        assertEquals(listOf(0, 1), successors(graph, 2))
+    }
+
+    @Test
+    fun test_build_unknownNode() {
+        assertFailsWith<IndexOutOfBoundsException> { IntGraph.Builder(2).addEdge(0, 2) }
+    }
+
+    @Test
+    fun test_of_ignoresEdgesOfUnknownNodes() {
+        val (graph, indices) = IntGraph.of(
+            listOf("a", "b", "a", "c"),
+            listOf("a" to "b", "b" to "x", "c" to "a", "y" to "c"),
+            { it.first },
+            { it.second }
+        )
+
+        assertEquals(mapOf("a" to 0, "b" to 1, "c" to 2), indices)
+        assertEquals(listOf(1), successors(graph, 0))
+        assertEquals(emptyList(), successors(graph, 1))
+        assertEquals(listOf(0), successors(graph, 2))
+    }
+
+    @Test
+    fun test_findCycles() {
+        val graph = IntGraph.Builder(6)
+            .addEdge(0, 1)
+            .addEdge(1, 2)
+            .addEdge(2, 0)
+            .addEdge(2, 3)
+            .addEdge(3, 3)
+            .addEdge(4, 5)
+            .addEdge(5, 4)
+            .build()
+
+        val cycles = graph.findCycles()
+
+        assertEquals(listOf(listOf(2, 1, 0), listOf(5, 4)), cycles.map { it.toList() })
+        assertContentEquals(intArrayOf(0, 0, 0, -1, 1, 1), graph.getCycleNumbers(cycles))
+    }
+
+    @Test
+    fun test_findCycles_deepGraph() {
+        val size = 200_000
+        val builder = IntGraph.Builder(size)
+        for (node in 0 until size - 1) builder.addEdge(node, node + 1)
+        builder.addEdge(size - 1, 0)
+
+        val cycles = builder.build().findCycles()
+
+        assertEquals(1, cycles.size)
+        assertEquals(size, cycles[0].size)
+    }
+
+    @Test
+    fun test_getCycleNumbers_manyCyclesAndEdges() {
+        val pairs = 50_000
+        val builder = IntGraph.Builder(pairs * 2)
+        for (pair in 0 until pairs) {
+            builder.addEdge(2 * pair, 2 * pair + 1)
+            builder.addEdge(2 * pair + 1, 2 * pair)
+            // edges between the cycles do not join them, all of them point to the following pairs only
+            if (pair + 1 < pairs) builder.addEdge(2 * pair + 1, 2 * pair + 2)
+        }
+        val graph = builder.build()
+
+        val cycles = graph.findCycles()
+        val cycleNumbers = graph.getCycleNumbers(cycles)
+
+        assertEquals(pairs, cycles.size)
+        for (pair in 0 until pairs) {
+            assertEquals(cycleNumbers[2 * pair], cycleNumbers[2 * pair + 1])
+            assertTrue(cycleNumbers[2 * pair] >= 0)
+        }
+        assertEquals(pairs, cycleNumbers.distinct().size)
+    }
+
+    @Test
+    fun test_findCycles_randomGraphs_sameAsRecursive() {
+        val random = Random(24)
+
+        repeat(200) {
+            val size = random.nextInt(1, 40)
+            val edges = List(random.nextInt(0, size * 3)) { random.nextInt(size) to random.nextInt(size) }
+            val builder = IntGraph.Builder(size)
+            edges.forEach { (source, target) -> builder.addEdge(source, target) }
+
+            val cycles = builder.build().findCycles().map { it.toList() }
+
+            assertEquals(findCyclesRecursively(size, edges), cycles)
+            assertTrue(cycles.flatten().let { it.size == it.distinct().size })
+        }
+    }
+
+    private fun successors(graph: IntGraph, node: Int) = mutableListOf<Int>()
+        .apply { graph.forEachSuccessor(node) { add(it) } }
+
+    /**
+     * Previous recursive implementation of the Tarjan's algorithm used by the module dependency diagram.
+     */
+    private fun findCyclesRecursively(size: Int, edges: List<Pair<Int, Int>>): List<List<Int>> {
+        val index = HashMap<Int, Int>()
+        val lowLink = HashMap<Int, Int>()
+        val deque = ArrayDeque<Int>()
+        var counter = 0
+
+        fun strongConnect(node: Int): List<List<Int>> {
+            index[node] = counter
+            lowLink[node] = counter++
+            deque.push(node)
+            val result = mutableListOf<List<Int>>()
+
+            edges.filter { it.first == node }.map { it.second }.forEach { successor ->
+                if (index[successor] == null) {
+                    result.addAll(strongConnect(successor))
+                    lowLink[node] = minOf(lowLink[node]!!, lowLink[successor]!!)
+                } else if (deque.contains(successor)) {
+                    lowLink[node] = minOf(lowLink[node]!!, index[successor]!!)
+                }
+            }
+
+            if (lowLink[node] == index[node]) {
+                val component = mutableListOf<Int>()
+                do {
+                    val member = deque.pop()
+                    component.add(member)
+                } while (member != node)
+
+                if (component.size > 1) result.add(component)
+            }
+            return result
+        }
+
+        return (0 until size).flatMap { if (index[it] == null) strongConnect(it) else emptyList() }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.common.utils
+
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class LongestPrefixMatcherTest {
+
+    @Test
+    fun test_longestPrefixOf_longestKeyWins() {
+        val matcher = LongestPrefixMatcher(listOf("\$a", "\$ab", "\$abc", "\$b"))
+
+        assertEquals("\$abc", matcher.longestPrefixOf("\$abcd"))
+        assertEquals("\$ab", matcher.longestPrefixOf("\$abd"))
+        assertEquals("\$a", matcher.longestPrefixOf("\$a"))
+        assertNull(matcher.longestPrefixOf("\$c"))
+        assertNull(matcher.longestPrefixOf(""))
+    }
+
+    @Test
+    fun test_longestPrefixOf_fromOffset() {
+        val matcher = LongestPrefixMatcher(listOf("\$lang", "\$language"))
+
+        assertEquals("\$language", matcher.longestPrefixOf("name[\$language]", 5))
+        assertEquals("\$lang", matcher.longestPrefixOf("name[\$lang]", 5))
+        assertNull(matcher.longestPrefixOf("name[\$lang]", 4))
+    }
+
+    @Test
+    fun test_longestPrefixOf_emptyAndDuplicatedKeys() {
+        val matcher = LongestPrefixMatcher(listOf("", "a", "a"))
+
+        assertEquals("a", matcher.longestPrefixOf("ab"))
+        assertNull(matcher.longestPrefixOf("b"))
+        assertTrue(LongestPrefixMatcher(listOf("")).isEmpty())
+    }
+
+    @Test
+    fun test_longestContainedIn_allLongestKeysInOrderOfOccurrence() {
+        val matcher = LongestPrefixMatcher(listOf("db.url", "db.usr", "db", "url"))
+
+        assertEquals(listOf("db.usr", "db.url"), matcher.longestContainedIn("\${db.usr}:\${db.url}").toList())
+        assertEquals(listOf("url"), matcher.longestContainedIn("jdbc.url").toList())
+        assertEquals(emptyList(), matcher.longestContainedIn("none").toList())
+    }
+
+    @Test
+    fun test_generatedKeys_sameAsBruteForce() {
+        val random = Random(42)
+        val keys = (0 until 500).map { randomText(random, 1, 6) }
+        val matcher = LongestPrefixMatcher(keys)
+
+        repeat(2_000) {
+            val text = randomText(random, 0, 20)
+            val start = if (text.isEmpty()) 0 else random.nextInt(text.length)
+
+            val expectedPrefix = keys
+                .filter { text.startsWith(it, start) }
+                .maxByOrNull { it.length }
+            assertEquals(expectedPrefix, matcher.longestPrefixOf(text, start), "prefix of '$text' at $start")
+
+            val contained = keys.filter { text.contains(it) }
+            val maxLength = contained.maxOfOrNull { it.length }
+            val expectedContained = contained
+                .filter { it.length == maxLength }
+                .distinct()
+                .sortedBy { text.indexOf(it) }
+            assertEquals(expectedContained, matcher.longestContainedIn(text).toList(), "contained in '$text'")
+        }
+    }
+
+    // small alphabet makes shared prefixes and multiple occurrences likely
+    private fun randomText(random: Random, minLength: Int, maxLength: Int) = (0 until random.nextInt(minLength, maxLength + 1))
+        .map { "ab.\$c"[random.nextInt(5)] }
+        .joinToString("")
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.intellij.idea.plugin.hybris.diagram.typeSystem.node.graph
+
+import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
+import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelProcessor
+import com.intellij.idea.plugin.hybris.system.type.meta.impl.TSMetaModelMergerImpl
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSGlobalMetaClassifier
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.util.Computable
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class TSGraphNodeClassifierTest : BasePlatformTestCase() {
+
+    private lateinit var globalMetaModel: TSGlobalMetaModel
+
+    override fun setUp() {
+        super.setUp()
+        HybrisProjectSettingsComponent.getInstance(project).state.hybrisProject = true
+
+        val psiFile = myFixture.addFileToProject("test-items.xml", ITEMS)
+        val metaModel = ProgressManager.getInstance().runProcess(
+            Computable { TSMetaModelProcessor.getInstance(project).process(psiFile) },
+            EmptyProgressIndicator()
+        )
+            ?: throw AssertionError("${psiFile.name} is not a Type System file")
+
+        globalMetaModel = TSGlobalMetaModel()
+        TSMetaModelMergerImpl(project).merge(globalMetaModel, listOf(metaModel))
+    }
+
+    fun test_fields_notBuiltWhileCollapsed() {
+        var built = 0
+        val node = TSGraphNodeClassifier("Product", meta("Product"), collapsed = true, fieldsProvider = {
+            built++
+            listOf(TSGraphFieldProperty("code", "String"))
+        })
+
+        assertTrue(node.fields.isEmpty())
+        assertEquals(0, built)
+
+        node.collapsed = false
+
+        assertEquals(listOf("code"), node.fields.map { it.name })
+        assertEquals(1, built)
+    }
+
+    fun test_fields_keptWhenCollapsed() {
+        var built = 0
+        val node = TSGraphNodeClassifier("Product", meta("Product"), fieldsProvider = {
+            built++
+            listOf(TSGraphFieldProperty("code", "String"))
+        })
+        val fields = node.fields
+
+        node.collapsed = true
+        assertTrue(node.fields.isEmpty())
+
+        node.collapsed = false
+        assertSame(fields, node.fields)
+        assertEquals(1, built)
+    }
+
+    fun test_tooltip_builtOnce() {
+        var built = 0
+        val node = TSGraphNodeClassifier("Product", meta("Product"), tooltipProvider = { "tooltip ${++built}" })
+
+        assertEquals(0, built)
+        assertEquals("tooltip 1", node.tooltip)
+        assertEquals("tooltip 1", node.tooltip)
+    }
+
+    fun test_equals_nameAndMeta() {
+        val meta = meta("Product")
+
+        assertEquals(
+            TSGraphNodeClassifier("Product", meta, collapsed = true),
+            TSGraphNodeClassifier("Product", meta, transitiveNode = true, fieldsProvider = { listOf(TSGraphFieldProperty("code", "String")) })
+        )
+        assertNotEquals(TSGraphNodeClassifier("Product", meta), TSGraphNodeClassifier("Product", meta("Category")))
+        assertNotEquals(TSGraphNodeClassifier("Product", meta), TSGraphNodeClassifier("Category", meta))
+    }
+
+    private fun meta(name: String): TSGlobalMetaClassifier<*> = globalMetaModel.getMetaItem(name)
+        ?: throw AssertionError("$name is not merged")
+
+    companion object {
+        private const val ITEMS = """<?xml version="1.0" encoding="ISO-8859-1"?>
+<items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+    <itemtypes>
+        <itemtype code="Product" extends="GenericItem" autocreate="true" generate="true"/>
+        <itemtype code="Category" extends="GenericItem" autocreate="true" generate="true"/>
+    </itemtypes>
+</items>
+"""
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.intellij.idea.plugin.hybris.flexibleSearch.psi
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.psi.util.parentOfType
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import org.jetbrains.plugins.groovy.lang.psi.util.backwardSiblings
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+/**
+ * Lookups through the [FlexibleSearchScopeTable] have to return the same elements as the previous walks over the PSI sub-trees.
+ */
+class FlexibleSearchScopeTableTest : BasePlatformTestCase() {
+
+    fun test_getTableAliases_whereClauseSubQuery() {
+        val file = configure(
+            """
+            SELECT {p.pk}, {c.code}
+            FROM {Product AS p JOIN Catalog AS c ON {p.catalog} = {c.pk}}
+            WHERE {p.code} IN ({{
+                SELECT {v.code} FROM {Variant AS v} WHERE {v.base} = {p.pk}
+            }})
+            ORDER BY {p.code}
+        """
+        )
+
+        assertEquivalent(file)
+        assertEquals(listOf("p", "c", "v"), aliasesAt(file, "{v.base}"))
+    }
+
+    fun test_getTableAliases_resultColumnSubQuery() {
+        val file = configure(
+            """
+            SELECT {p.pk}, ({{ SELECT COUNT({s.pk}) FROM {Stock AS s} WHERE {s.product} = {p.pk} }}) AS stock
+            FROM {Product AS p}
+            GROUP BY {p.pk}
+        """
+        )
+
+        assertEquivalent(file)
+        assertEquals(setOf("s", "p"), aliasesAt(file, "{s.product}").toSet())
+    }
+
+    fun test_getTableAliases_unionAndOrderBy() {
+        val file = configure(
+            """
+            SELECT x.pk FROM (
+                {{ SELECT {a.pk} AS pk FROM {Product AS a} ORDER BY {a.code} }}
+                UNION ALL
+                {{ SELECT {b.pk} AS pk FROM {Category AS b} }}
+            ) x
+            ORDER BY x.pk
+        """
+        )
+
+        assertEquivalent(file)
+    }
+
+    fun test_getTableToAlias_withoutAlias() {
+        val file = configure(
+            """
+            SELECT {pk}, {code} FROM {Product} WHERE {code} LIKE '%a%' ORDER BY {name}
+        """
+        )
+
+        assertEquivalent(file)
+        PsiTreeUtil.findChildrenOfType(file, FlexibleSearchYColumnName::class.java).forEach {
+            assertEquals("Product", FlexibleSearchScopeTable.getInstance(file).getTableToAlias(it)?.first?.text)
+        }
+    }
+
+    fun test_getTableAliases_manyJoins() {
+        val tables = 200
+        val joins = (1 until tables).joinToString(" ") { "JOIN Product AS t$it ON {t$it.pk} = {t${it - 1}.pk}" }
+        val columns = (0 until tables).joinToString(", ") { "{t$it.code}" }
+        val file = configure("SELECT $columns FROM {Product AS t0 $joins} WHERE {t${tables - 1}.code} IS NOT NULL")
+
+        assertEquivalent(file)
+        assertEquals((0 until tables).map { "t$it" }, aliasesAt(file, "{t${tables - 1}.code} IS"))
+    }
+
+    fun test_getInstance_recomputedOnModification() {
+        val file = configure("SELECT {p.pk} FROM {Product AS p}")
+        val table = FlexibleSearchScopeTable.getInstance(file)
+
+        assertSame(table, FlexibleSearchScopeTable.getInstance(file))
+
+        WriteCommandAction.runWriteCommandAction(project) {
+            myFixture.editor.document.setText("SELECT {q.pk} FROM {Product AS p JOIN Category AS q ON {p.pk} = {q.pk}}")
+            PsiDocumentManager.getInstance(project).commitAllDocuments()
+        }
+
+        assertNotSame(table, FlexibleSearchScopeTable.getInstance(file))
+        assertEquivalent(file)
+        assertEquals(listOf("p", "q"), aliasesAt(file, "{q.pk}"))
+    }
+
+    private fun configure(text: String) = myFixture.configureByText("test.fxs", text.trimIndent())
+
+    private fun aliasesAt(file: PsiFile, text: String): List<String> {
+        val element = file.findElementAt(file.text.indexOf(text) + 1)!!
+        return FlexibleSearchScopeTable.getInstance(file).getTableAliases(element).map { it.text }
+    }
+
+    private fun assertEquivalent(file: PsiFile) {
+        val table = FlexibleSearchScopeTable.getInstance(file)
+        val elements = PsiTreeUtil.findChildrenOfAnyType(
+            file,
+            FlexibleSearchYColumnName::class.java,
+            FlexibleSearchColumnName::class.java,
+            FlexibleSearchSelectedTableName::class.java
+        )
+        assertTrue(elements.isNotEmpty())
+
+        elements.forEach {
+            assertEquals(getTableAliasesByWalk(it), table.getTableAliases(it), it.text)
+        }
+        elements.filterIsInstance<FlexibleSearchYColumnName>().forEach {
+            assertEquals(getTableToAliasByWalk(it), table.getTableToAlias(it), it.text)
+        }
+    }
+
+    private fun getTableAliasesByWalk(element: PsiElement): List<FlexibleSearchTableAliasName> {
+        if (PsiTreeUtil.getParentOfType(element, FlexibleSearchOrderClause::class.java) != null) {
+            return PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectStatement::class.java)
+                ?.let { aliasesIn(it) }
+                ?: emptyList()
+        }
+
+        val topWhereClauseTableAliases = PsiTreeUtil.getTopmostParentOfType(element, FlexibleSearchWhereClause::class.java)
+            ?.let { PsiTreeUtil.getParentOfType(it, FlexibleSearchSelectCoreSelect::class.java) }
+            ?.let { aliasesIn(it) }
+            ?: emptyList()
+        val topResultColumnsTableAliases = PsiTreeUtil.getTopmostParentOfType(element, FlexibleSearchResultColumns::class.java)
+            ?.let { PsiTreeUtil.getParentOfType(it, FlexibleSearchSelectStatement::class.java) }
+            ?.let { aliasesIn(it) }
+            ?: emptyList()
+
+        val tableAliases = topWhereClauseTableAliases + topResultColumnsTableAliases
+        if (tableAliases.isNotEmpty()) return tableAliases
+
+        return PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectCoreSelect::class.java)
+            ?.fromClause
+            ?.let { aliasesIn(it) }
+            ?: emptyList()
+    }
+
+    private fun getTableToAliasByWalk(element: FlexibleSearchYColumnName): Pair<FlexibleSearchDefinedTableName, FlexibleSearchTableAliasName?>? {
+        val tableAlias = element
+            .backwardSiblings()
+            .firstOrNull { it is FlexibleSearchSelectedTableName }
+            ?.reference
+            ?.resolve()
+            ?.let { it as? FlexibleSearchTableAliasName }
+
+        return tableAlias
+            ?.table
+            ?.let { it to tableAlias }
+            ?: (PsiTreeUtil.getParentOfType(element, FlexibleSearchOrderClause::class.java)
+                ?.parentOfType<FlexibleSearchSelectStatement>()
+                ?.selectCoreSelectList
+                ?.mapNotNull { it.fromClause }
+                ?: PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectCoreSelect::class.java)
+                    ?.fromClause
+                    ?.let { listOf(it) }
+                ?: PsiTreeUtil.getParentOfType(element, FlexibleSearchSelectStatement::class.java)
+                    ?.selectCoreSelectList
+                    ?.mapNotNull { it.fromClause }
+                ?: emptyList())
+                .firstOrNull()
+                ?.let { PsiTreeUtil.findChildOfType(it, FlexibleSearchDefinedTableName::class.java) }
+                ?.let { it to it.tableAlias }
+    }
+
+    private fun aliasesIn(container: PsiElement) = PsiTreeUtil.findChildrenOfType(container, FlexibleSearchTableAliasName::class.java).toList()
+}
@@ -0,0 +1,261 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.impex.inspection.analyzer
+
+import com.intellij.codeInspection.InspectionManager
+import com.intellij.codeInspection.ProblemHighlightType
+import com.intellij.codeInspection.ProblemsHolder
+import com.intellij.idea.plugin.hybris.codeInspection.rule.impex.ImpexNoUniqueValueInspection
+import com.intellij.idea.plugin.hybris.impex.constants.modifier.AttributeModifier
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexFile
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexFullHeaderParameter
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexHeaderLine
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexTypes
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexValueGroup
+import com.intellij.idea.plugin.hybris.impex.utils.ImpexPsiUtils
+import com.intellij.idea.plugin.hybris.psi.util.PsiTreeUtilExt
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Grouping of the rows by their keys has to report exactly the same values as the previous pairwise comparison of the rows.
+ */
+class ImpexModificationValueAnalyzerTest : BasePlatformTestCase() {
+
+    fun test_analyze_overriddenValues() {
+        val file = myFixture.configureByText(
+            "test.impex", """
+            INSERT_UPDATE Product;code[unique=true];name;ean
+            ;p1;first;111
+            ;p2;second;
+            ;p1;;222
+            ;p1;third;
+        """.trimIndent()
+        )
+
+        val problems = analyze(file).map { it.substringAfter(' ') }
+
+        assertEquals(
+            listOf(
+                "first: This value is overridden by a value below",
+                "111: This value is overridden by a value below",
+                "third: This value will override the value above",
+                "222: This value will override the value above",
+            ).sorted(),
+            problems.sorted()
+        )
+        assertEquivalent(file)
+    }
+
+    fun test_analyze_generatedInput_sameAsPairwise() {
+        val random = Random(16)
+
+        repeat(3) {
+            val file = myFixture.configureByText("test$it.impex", generate(random))
+
+            assertTrue(analyze(file).isNotEmpty())
+            assertEquivalent(file)
+        }
+    }
+
+    fun test_analyze_manyRowsWithSameKey() {
+        val rows = 3_000
+        val text = "INSERT_UPDATE Product;code[unique=true];name\n" + (0 until rows).joinToString("\n") { ";p1;name$it" }
+        val file = myFixture.configureByText("test.impex", text)
+
+        val problems = analyze(file).map { it.substringAfter(' ') }
+
+        // the first value is overridden, each of the latter ones overrides the values above
+        assertEquals(listOf("name0: This value is overridden by a value below"), problems.filter { it.endsWith("below") })
+        assertEquals(rows - 1, problems.count { it.endsWith("will override the value above") })
+    }
+
+    private fun assertEquivalent(file: PsiFile) = assertEquals(analyzePairwise(file), analyze(file))
+
+    private fun analyze(file: PsiFile): List<String> {
+        val holder = ProblemsHolder(InspectionManager.getInstance(project), file, false)
+        ImpexNoUniqueValueInspection().buildVisitor(holder, false).visitFile(file)
+        return describe(holder)
+    }
+
+    /**
+     * Same as [ImpexNoUniqueValueInspection], but with the previous implementation of the [DataTable].
+     */
+    private fun analyzePairwise(file: PsiFile): List<String> {
+        val holder = ProblemsHolder(InspectionManager.getInstance(project), file, false)
+
+        PsiTreeUtil.getChildrenOfType(file, ImpexHeaderLine::class.java)
+            ?.filter { it.fullHeaderType != null }
+            ?.groupBy { "${it.fullHeaderType?.text?.replace(" ", "")}|${keyAttrsName(it).joinToString { attr -> attr.replace(" ", "") }}" }
+            ?.forEach { (_, headerLines) ->
+                val fullParametersList = fullParametersList(headerLines)
+                val keyAttrsList = keyAttributesList(fullParametersList)
+                if (keyAttrsList.isEmpty()) return@forEach
+
+                val notKeyAttrsList = notKeyAttributesList(fullParametersList)
+                val distinctCommonAttrsNames = notKeyAttrsList.map { it.text }.distinct()
+                val dataMap = fullParametersList.filter { keyAttrPredicate(it) }
+                    .groupBy { it.anyHeaderParameterName.text }
+                    .entries
+                    .associate { (name, attrs) ->
+                        name to attrs
+                            .flatMap { ImpexPsiUtils.getColumnForHeader(it) }
+                            .mapNotNull { it.value }
+                    }
+                val keyRows = createRows(dataMap.values.first().size, dataMap.size, dataMap)
+
+                if (distinctCommonAttrsNames.isEmpty()) {
+                    val attrsNames = fullParametersList.filter { keyAttrPredicate(it) }.map { it.text }.distinct()
+                    PairwiseDataTable(keyRows, attrsNames, keyAttrsList).analyze(holder)
+                } else {
+                    PairwiseDataTable(keyRows, distinctCommonAttrsNames, notKeyAttrsList).analyze(holder)
+                }
+            }
+
+        return describe(holder)
+    }
+
+    private fun describe(holder: ProblemsHolder) = holder.results
+        .map { "${it.psiElement.textRange.startOffset} ${it.psiElement.text.replace(";", "").trim()}: ${it.descriptionTemplate}" }
+        .sorted()
+
+    private fun generate(random: Random): String {
+        val text = StringBuilder()
+        val types = listOf("Product", "Category", "Media")
+
+        repeat(6) { headerIndex ->
+            val type = types[headerIndex % types.size]
+            val parameters = listOf("name", "description[lang=en]", "ean[mode=append]", "supercategories", "remarks")
+                .filter { random.nextBoolean() }
+
+            text.append("\nINSERT_UPDATE $type;code[unique=true];version[unique=true]")
+            parameters.forEach { text.append(';').append(it) }
+            text.append('\n')
+
+            repeat(120) {
+                text.append(";code${random.nextInt(15)};v${random.nextInt(2)}")
+                parameters.forEach { text.append(';').append(randomValue(random)) }
+                text.append('\n')
+            }
+        }
+        return text.toString()
+    }
+
+    private fun randomValue(random: Random) = when (random.nextInt(6)) {
+        0 -> ""
+        1 -> " "
+        2 -> "(+) a,b"
+        else -> "value${random.nextInt(3)}"
+    }
+
+    /**
+     * Previous implementation: value groups of each row were collected from the whole column of every header,
+     * and all rows with the same key were compared pairwise.
+     */
+    private class PairwiseDataTable(private val keyRows: List<Key>, private val attrs: List<String>, private val attrsValues: List<ImpexFullHeaderParameter>) {
+
+        private val rows = mutableListOf<PairwiseRow>()
+        private val errorBag = mutableSetOf<PsiElement>()
+        private val warningBag = mutableSetOf<PsiElement>()
+
+        fun analyze(problemsHolder: ProblemsHolder) {
+            analyzeProblems()
+            collectProblems()
+
+            warningBag.forEach { problemsHolder.registerProblem(it, "This value will override the value above", ProblemHighlightType.GENERIC_ERROR_OR_WARNING) }
+            errorBag.forEach { problemsHolder.registerProblem(it, "This value is overridden by a value below", ProblemHighlightType.GENERIC_ERROR) }
+        }
+
+        private fun collectProblems() {
+            rows.groupBy { it.key.toString() }.forEach { (_, rows) ->
+                rows.forEach { row1 ->
+                    rows.forEach { row2 ->
+                        if (row1.columns != row2.columns && intersection(row1.columns, row2.columns)) {
+                            row1.columns.forEachIndexed { idx, az ->
+                                val row1Element = row1.valueGroup[idx]
+                                val row2Element = row2.valueGroup[idx]
+
+                                if (row1Element != null && row1Element.text.replace(";", "").isNotBlank()
+                                    && row2Element != null && row2Element.text.replace(";", "").isNotBlank()
+                                    && az == 1.toByte()
+                                ) {
+                                    if (!errorBag.contains(row2Element) && !warningBag.contains(row2Element)) warningBag.add(row2Element)
+                                    if (!errorBag.contains(row1Element) && !warningBag.contains(row1Element)) errorBag.add(row1Element)
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private fun analyzeProblems() {
+            keyRows.forEach { keyValue ->
+                val bitSet = ByteArray(attrs.size)
+                val row = PairwiseRow(keyValue, bitSet, arrayOfNulls(attrs.size))
+
+                attrs.forEach { av ->
+                    attrsValues.filter { it.text == av }
+                        .filter { hasNoAppendModeModifier(it) }
+                        .flatMap { ImpexPsiUtils.getColumnForHeader(it) }
+                        .filter { it.value != null }
+                        .filter {
+                            PsiTreeUtilExt.getLeafsOfAnyElementType(
+                                it.value!!,
+                                ImpexTypes.COLLECTION_APPEND_PREFIX,
+                                ImpexTypes.COLLECTION_REMOVE_PREFIX,
+                                ImpexTypes.COLLECTION_MERGE_PREFIX
+                            ).isEmpty()
+                        }
+                        .filter {
+                            val commonContext = PsiTreeUtil.findCommonContext(keyValue.keys.first(), it)
+                            commonContext != null && commonContext !is ImpexFile
+                        }
+                        .forEach { valueGroup: ImpexValueGroup ->
+                            val headerForValueGroup = ImpexPsiUtils.getHeaderForValueGroup(valueGroup)
+                            if (headerForValueGroup is ImpexFullHeaderParameter) {
+                                val indexOf = attrs.indexOfFirst { headerForValueGroup.text == it }
+                                if (indexOf > -1) {
+                                    bitSet[indexOf] = 1
+                                    row.valueGroup[indexOf] = valueGroup
+                                }
+                            }
+                        }
+                }
+                rows.add(row)
+            }
+        }
+
+        private fun intersection(a: ByteArray, b: ByteArray) = a.filterIndexed { index, i -> b[index] != 0.toByte() && b[index] == i }.isNotEmpty()
+
+        private fun hasNoAppendModeModifier(headerParameter: ImpexFullHeaderParameter) = !headerParameter.modifiersList
+            .flatMap { it.attributeList }
+            .any {
+                it.anyAttributeName.text == AttributeModifier.LANG.modifierName
+                    || (it.anyAttributeName.text == AttributeModifier.MODE.modifierName && it.anyAttributeValue?.text == "append")
+            }
+    }
+
+    private class PairwiseRow(val key: Key, val columns: ByteArray, val valueGroup: Array<PsiElement?>)
+}
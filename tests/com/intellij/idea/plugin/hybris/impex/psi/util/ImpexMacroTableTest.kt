@@ -0,0 +1,116 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.impex.psi.util
+
+import com.intellij.idea.plugin.hybris.codeInspection.rule.impex.ImpexUnknownMacrosInspection
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexMacroDeclaration
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexMacroUsageDec
+import com.intellij.lang.annotation.HighlightSeverity
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+
+class ImpexMacroTableTest : BasePlatformTestCase() {
+
+    fun test_resolve_redefinedMacro() {
+        val file = myFixture.configureByText(
+            "test.impex", """
+            ${'$'}catalog=first
+            ${'$'}beforeRedefinition=${'$'}catalog
+            ${'$'}catalog=second
+            ${'$'}afterRedefinition=${'$'}catalog
+        """.trimIndent()
+        )
+        val declarations = declarations(file)
+        val usages = usages(file)
+
+        assertSame(declarations[0].macroNameDec, usages[0].reference?.resolve())
+        assertSame(declarations[2].macroNameDec, usages[1].reference?.resolve())
+    }
+
+    fun test_resolve_longestName() {
+        val file = myFixture.configureByText(
+            "test.impex", """
+            ${'$'}ab=long
+            ${'$'}a=short
+            ${'$'}first=${'$'}a
+            ${'$'}second=${'$'}ab
+            ${'$'}third=${'$'}abc
+        """.trimIndent()
+        )
+        val declarations = declarations(file)
+        val usages = usages(file)
+
+        assertSame(declarations[1].macroNameDec, usages[0].reference?.resolve())
+        assertSame(declarations[0].macroNameDec, usages[1].reference?.resolve())
+        assertSame(declarations[0].macroNameDec, usages[2].reference?.resolve())
+        assertEquals("${'$'}ab", usages[2].reference?.rangeInElement?.substring(usages[2].text))
+    }
+
+    fun test_unknownMacros_includeExternalData() {
+        myFixture.addFileToProject("included.impex", "${'$'}external=value")
+        myFixture.enableInspections(ImpexUnknownMacrosInspection::class.java)
+        myFixture.configureByText(
+            "test.impex", """
+            "#% impex.includeExternalData(ImpExManager.class.getResourceAsStream(""included.impex""), ""UTF-8"", 0, 0);"
+            ${'$'}local=${'$'}external
+            ${'$'}localSuffixed=${'$'}externalSuffix
+            ${'$'}other=${'$'}unknown
+        """.trimIndent()
+        )
+
+        val errors = myFixture.doHighlighting(HighlightSeverity.ERROR)
+            .filter { it.text.startsWith("$") }
+            .map { it.text }
+
+        assertEquals(listOf("${'$'}unknown"), errors)
+    }
+
+    fun test_findUsages_redefinedMacro() {
+        val file = myFixture.configureByText(
+            "test.impex", """
+            ${'$'}catalog=first
+            ${'$'}first=${'$'}catalog
+            ${'$'}second=${'$'}catalog
+            ${'$'}catalog=second
+            ${'$'}third=${'$'}catalog
+        """.trimIndent()
+        )
+        val declarations = declarations(file)
+        val usages = usages(file)
+
+        assertEquals(offsets(usages[0], usages[1]), findUsages(declarations[0].macroNameDec))
+        assertEquals(offsets(usages[2]), findUsages(declarations[3].macroNameDec))
+        assertEquals(offsets(usages[2]), findUsages(usages[2]))
+    }
+
+    private fun declarations(file: PsiFile) = PsiTreeUtil.findChildrenOfType(file, ImpexMacroDeclaration::class.java).toList()
+
+    private fun usages(file: PsiFile) = PsiTreeUtil.findChildrenOfType(file, ImpexMacroUsageDec::class.java).toList()
+
+    private fun findUsages(element: PsiElement) = myFixture.findUsages(element)
+        .mapNotNull { it.element?.textRange?.startOffset }
+        .distinct()
+        .sorted()
+
+    private fun offsets(vararg elements: PsiElement) = elements.map { it.textRange.startOffset }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.impex.psi.util
+
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexFullHeaderParameter
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexHeaderLine
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexValueGroup
+import com.intellij.idea.plugin.hybris.impex.psi.ImpexValueLine
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.psi.util.siblings
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+
+/**
+ * Table index has to answer the same as the PSI walks it replaces.
+ */
+class ImpexTableIndexTest : BasePlatformTestCase() {
+
+    fun test_index_sameAsPsiWalk() {
+        val file = myFixture.configureByText("test.impex", IMPEX)
+
+        assertSameAsPsiWalk(file)
+    }
+
+    fun test_index_generatedTables_sameAsPsiWalk() {
+        val text = (0 until 20).joinToString("\n\n") { table ->
+            val columns = 1 + table % 5
+            val header = "INSERT_UPDATE Product;code[unique=true]" + (1 until columns).joinToString("") { ";attribute$it" }
+            val rows = (0 until 50).joinToString("\n") { row -> ";p${table}_$row" + (1 until columns).joinToString("") { ";value$it" } }
+            "$header\n$rows"
+        }
+        val file = myFixture.configureByText("test.impex", text)
+
+        assertSameAsPsiWalk(file)
+    }
+
+    fun test_index_largeTable() {
+        val rows = 5_000
+        val text = "INSERT_UPDATE Product;code[unique=true];name;ean\n" + (0 until rows).joinToString("\n") { ";p$it;name$it;$it" }
+        val file = myFixture.configureByText("test.impex", text)
+        val index = ImpexTableIndex.getInstance(file)
+
+        val headerLine = PsiTreeUtil.getChildOfType(file, ImpexHeaderLine::class.java)!!
+        val valueLines = index.getValueLines(headerLine)!!
+        assertEquals(rows, valueLines.size)
+
+        val lastValueLine = valueLines.last()
+        assertSame(headerLine, index.getHeaderLine(lastValueLine))
+
+        val valueGroups = index.getValueGroups(lastValueLine)!!
+        assertEquals(listOf("p${rows - 1}", "name${rows - 1}", "${rows - 1}"), valueGroups.map { it.text.replace(";", "").trim() })
+        assertEquals(2, index.getColumnNumber(valueGroups.last()))
+    }
+
+    fun test_index_recomputedOnModification() {
+        val file = myFixture.configureByText("test.impex", IMPEX)
+        val index = ImpexTableIndex.getInstance(file)
+        assertSame(index, ImpexTableIndex.getInstance(file))
+
+        WriteCommandAction.runWriteCommandAction(project) {
+            val documentManager = PsiDocumentManager.getInstance(project)
+            val document = documentManager.getDocument(file)!!
+            document.insertString(document.textLength, "\n;p3;Product 3;\n")
+            documentManager.commitDocument(document)
+        }
+
+        assertNotSame(index, ImpexTableIndex.getInstance(file))
+        assertSameAsPsiWalk(file)
+        val lastHeaderLine = PsiTreeUtil.getChildrenOfTypeAsList(file, ImpexHeaderLine::class.java).last()
+        assertEquals(3, ImpexTableIndex.getInstance(file).getValueLines(lastHeaderLine)?.size)
+    }
+
+    private fun assertSameAsPsiWalk(file: PsiFile) {
+        val index = ImpexTableIndex.getInstance(file)
+
+        PsiTreeUtil.getChildrenOfTypeAsList(file, ImpexHeaderLine::class.java).forEach { headerLine ->
+            val valueLines = headerLine.siblings(withSelf = false)
+                .takeWhile { it !is ImpexHeaderLine }
+                .filterIsInstance<ImpexValueLine>()
+                .toList()
+            assertEquals(valueLines, index.getValueLines(headerLine), headerLine.text)
+
+            PsiTreeUtil.getChildrenOfTypeAsList(headerLine, ImpexFullHeaderParameter::class.java).forEachIndexed { column, parameter ->
+                assertEquals(column, index.getColumnNumber(parameter), parameter.text)
+            }
+        }
+
+        PsiTreeUtil.getChildrenOfTypeAsList(file, ImpexValueLine::class.java).forEach { valueLine ->
+            assertEquals(PsiTreeUtil.getPrevSiblingOfType(valueLine, ImpexHeaderLine::class.java), index.getHeaderLine(valueLine), valueLine.text)
+
+            val valueGroups = PsiTreeUtil.getChildrenOfTypeAsList(valueLine, ImpexValueGroup::class.java)
+            assertEquals(valueGroups, index.getValueGroups(valueLine), valueLine.text)
+            valueGroups.forEachIndexed { column, valueGroup -> assertEquals(column, index.getColumnNumber(valueGroup), valueGroup.text) }
+        }
+    }
+
+    companion object {
+        private val IMPEX = """
+            ${'$'}catalogVersion=catalogVersion(catalog(id[default='Default']), version[default='Staged'])[unique=true]
+            ;orphan;value
+
+            # products
+            INSERT_UPDATE Product;code[unique=true];name[lang=en];${'$'}catalogVersion
+            ;p1;Product 1;
+            ;p2;"Product
+            2";
+
+            UPDATE Product;code[unique=true];ean
+            ;p1;123
+            # comment between value lines
+            ;p2;
+        """.trimIndent()
+    }
+}
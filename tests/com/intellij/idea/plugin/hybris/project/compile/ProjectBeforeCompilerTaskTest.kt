@@ -0,0 +1,121 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.project.compile
+
+import java.nio.file.Path
+import kotlin.io.path.createDirectories
+import kotlin.io.path.createTempDirectory
+import kotlin.io.path.deleteRecursively
+import kotlin.io.path.writeText
+import kotlin.test.AfterTest
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class ProjectBeforeCompilerTaskTest {
+
+    private val task = ProjectBeforeCompilerTask()
+    private lateinit var genSrcDirectory: Path
+
+    @BeforeTest
+    fun setUp() {
+        genSrcDirectory = createTempDirectory("gensrc")
+        source("A", "public class A { public static final int X = 1; }")
+        source("B", "public class B { int y = A.X; }")
+        source("C", "import de.hybris.B; public class C { B b; }")
+        source("D", "public class D { Removed removed; }")
+        ('E'..'H').forEach { source("$it", "public class $it { }") }
+    }
+
+    @OptIn(kotlin.io.path.ExperimentalPathApi::class)
+    @AfterTest
+    fun tearDown() = genSrcDirectory.deleteRecursively()
+
+    @Test
+    fun collectChanges_unchanged() {
+        val sources = hashes()
+
+        assertTrue(assertNotNull(task.collectChanges(genSrcDirectory, sources, sources)).isEmpty())
+    }
+
+    @Test
+    fun collectChanges_recompilesDependentsTransitively() {
+        val changes = assertNotNull(task.collectChanges(genSrcDirectory, hashes(), hashes("A")))
+
+        assertEquals(setOf("de/hybris/A.java", "de/hybris/B.java", "de/hybris/C.java"), changes.affectedSources.toSet())
+        assertEquals(changes.affectedSources.map { genSrcDirectory.resolve(it) }.toSet(), changes.changedSources.toSet())
+    }
+
+    @Test
+    fun collectChanges_recompilesDependentsOfRemoved() {
+        val previous = hashes() + ("de/hybris/Removed.java" to 0L)
+        val changes = assertNotNull(task.collectChanges(genSrcDirectory, previous, hashes()))
+
+        assertEquals(setOf("de/hybris/D.java", "de/hybris/Removed.java"), changes.affectedSources.toSet())
+        assertEquals(listOf(genSrcDirectory.resolve("de/hybris/D.java")), changes.changedSources)
+    }
+
+    @Test
+    fun collectChanges_fullCompilationWhenMostSourcesChanged() {
+        assertNull(task.collectChanges(genSrcDirectory, hashes(), hashes("E", "F", "G", "H", "D")))
+    }
+
+    @Test
+    fun collectChanges_fullCompilationWhenMostSourcesDependOnChanged() {
+        source("E", "public class E { A a; }")
+        source("F", "public class F { A a; }")
+
+        assertNull(task.collectChanges(genSrcDirectory, hashes(), hashes("A")))
+    }
+
+    @Test
+    fun collectChanges_regeneratedAtOtherTime() {
+        ('A'..'H').forEach { source("$it", "public class $it { }", "18 Oct 2026, 18:44:23") }
+        val previous = ProjectCodeGenerationCache.hashSources(genSrcDirectory)
+
+        ('A'..'H').forEach { source("$it", "public class $it { }", "19 Oct 2026, 09:12:05") }
+        source("E", "public class E { int e; }", "19 Oct 2026, 09:12:05")
+        val changes = assertNotNull(task.collectChanges(genSrcDirectory, previous, ProjectCodeGenerationCache.hashSources(genSrcDirectory)))
+
+        assertEquals(setOf("de/hybris/E.java"), changes.affectedSources.toSet())
+    }
+
+    private fun source(className: String, text: String, generatedAt: String = "18 Oct 2026, 18:44:23") = genSrcDirectory
+        .resolve("de/hybris/$className.java")
+        .also { it.parent.createDirectories() }
+        .writeText(
+            """
+            /*
+             * ----------------------------------------------------------------
+             * --- WARNING: THIS FILE IS GENERATED AND WILL BE OVERWRITTEN! ---
+             * --- Generated at $generatedAt                       ---
+             * ----------------------------------------------------------------
+             */
+            package de.hybris;
+
+            $text
+            """.trimIndent()
+        )
+
+    private fun hashes(vararg changed: String) = ('A'..'H')
+        .associate { "de/hybris/$it.java" to if ("$it" in changed) 1L else 0L }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.project.compile
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import java.nio.file.Path
+import kotlin.io.path.createDirectories
+import kotlin.io.path.createTempDirectory
+import kotlin.io.path.deleteRecursively
+import kotlin.io.path.writeText
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class ProjectCodeGenerationCacheTest : BasePlatformTestCase() {
+
+    private lateinit var genSrcDirectory: Path
+
+    override fun setUp() {
+        super.setUp()
+        ProjectCodeGenerationCache.saveFingerprint(project, null)
+        genSrcDirectory = createTempDirectory("gensrc")
+    }
+
+    @OptIn(kotlin.io.path.ExperimentalPathApi::class)
+    override fun tearDown() {
+        try {
+            ProjectCodeGenerationCache.saveFingerprint(project, null)
+            genSrcDirectory.deleteRecursively()
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun test_loadFingerprint_missing() {
+        assertNull(ProjectCodeGenerationCache.loadFingerprint(project))
+    }
+
+    fun test_loadFingerprint_saved() {
+        ProjectCodeGenerationCache.saveFingerprint(project, 42L)
+
+        assertEquals(42L, ProjectCodeGenerationCache.loadFingerprint(project))
+    }
+
+    fun test_saveFingerprint_nullInvalidatesPrevious() {
+        ProjectCodeGenerationCache.saveFingerprint(project, 42L)
+        ProjectCodeGenerationCache.saveFingerprint(project, null)
+
+        assertNull(ProjectCodeGenerationCache.loadFingerprint(project))
+    }
+
+    fun test_hashSources_missingDirectory() {
+        assertTrue(ProjectCodeGenerationCache.hashSources(genSrcDirectory.resolve("missing")).isEmpty())
+    }
+
+    fun test_hashSources_relativeJavaSources() {
+        source("de/hybris/A.java", "class A {}")
+        source("de/hybris/B.java", "class B {}")
+        source("de/hybris/readme.txt", "not a source")
+
+        val hashes = ProjectCodeGenerationCache.hashSources(genSrcDirectory)
+
+        assertEquals(setOf("de/hybris/A.java", "de/hybris/B.java"), hashes.keys)
+        assertNotEquals(hashes["de/hybris/A.java"], hashes["de/hybris/B.java"])
+    }
+
+    fun test_hashSources_changedOnlyWithContent() {
+        source("de/hybris/A.java", "class A {}")
+        source("de/hybris/B.java", "class B {}")
+        val previous = ProjectCodeGenerationCache.hashSources(genSrcDirectory)
+
+        source("de/hybris/A.java", "class A {}")
+        source("de/hybris/B.java", "class B { int b; }")
+        val current = ProjectCodeGenerationCache.hashSources(genSrcDirectory)
+
+        assertEquals(previous["de/hybris/A.java"], current["de/hybris/A.java"])
+        assertNotEquals(previous["de/hybris/B.java"], current["de/hybris/B.java"])
+    }
+
+    fun test_hashSources_ignoresGenerationTime() {
+        source("de/hybris/A.java", generated("18 Oct 2026, 18:44:23", "class A {}"))
+        val previous = ProjectCodeGenerationCache.hashSources(genSrcDirectory)
+
+        source("de/hybris/A.java", generated("19 Oct 2026, 09:12:05", "class A {}"))
+        assertEquals(previous, ProjectCodeGenerationCache.hashSources(genSrcDirectory))
+
+        source("de/hybris/A.java", generated("19 Oct 2026, 09:12:05", "class A { int a; }"))
+        assertNotEquals(previous, ProjectCodeGenerationCache.hashSources(genSrcDirectory))
+    }
+
+    private fun generated(generatedAt: String, body: String) = """
+        /*
+         * --- Generated at $generatedAt ---
+         */
+        package de.hybris;
+
+        $body
+    """.trimIndent()
+
+    private fun source(path: String, text: String) = genSrcDirectory.resolve(path)
+        .also { it.parent.createDirectories() }
+        .writeText(text)
+}
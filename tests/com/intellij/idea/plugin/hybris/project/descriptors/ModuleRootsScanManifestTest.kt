@@ -0,0 +1,137 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.project.descriptors
+
+import com.intellij.idea.plugin.hybris.common.HybrisConstants
+import com.intellij.idea.plugin.hybris.project.services.HybrisProjectService
+import com.intellij.idea.plugin.hybris.project.tasks.TaskProgressProcessor
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class ModuleRootsScanManifestTest : BasePlatformTestCase() {
+
+    private lateinit var root: File
+    private lateinit var extension: File
+
+    override fun setUp() {
+        super.setUp()
+        root = FileUtil.createTempDirectory("modules-scan", null)
+        extension = File(root, "bin/custom/myext").also { it.mkdirs() }
+    }
+
+    override fun tearDown() {
+        try {
+            Files.deleteIfExists(ModuleRootsScanManifest.getManifestFile(root))
+            FileUtil.delete(root)
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun test_scan_reusesListingOfUnchangedDirectory() {
+        scanAndSave()
+        val modificationTime = Files.getLastModifiedTime(extension.toPath())
+
+        addExtensionInfo()
+        Files.setLastModifiedTime(extension.toPath(), modificationTime)
+
+        // marker added without modification of the directory is visible only to the full listing
+        assertTrue(scan(ModuleRootsScanManifest.load(root, false)).isEmpty())
+        assertEquals(setOf(extension), scan(null))
+    }
+
+    fun test_scan_relistsChangedDirectory() {
+        scanAndSave()
+        val modificationTime = Files.getLastModifiedTime(extension.toPath())
+
+        addExtensionInfo()
+        Files.setLastModifiedTime(extension.toPath(), FileTime.fromMillis(modificationTime.toMillis() + 10_000))
+
+        assertEquals(setOf(extension), scan(ModuleRootsScanManifest.load(root, false)))
+    }
+
+    fun test_load_discardsManifestOfOtherVersion() {
+        scanAndSave()
+        val modificationTime = Files.getLastModifiedTime(extension.toPath()).toMillis()
+
+        RandomAccessFile(ModuleRootsScanManifest.getManifestFile(root).toFile(), "rw").use { it.writeInt(0) }
+
+        assertNull(ModuleRootsScanManifest.load(root, false).get(extension.toPath(), modificationTime))
+    }
+
+    fun test_load_discardsManifestOfOtherSymlinkMode() {
+        scanAndSave()
+        val modificationTime = Files.getLastModifiedTime(extension.toPath()).toMillis()
+
+        assertNotNull(ModuleRootsScanManifest.load(root, false).get(extension.toPath(), modificationTime))
+        assertNull(ModuleRootsScanManifest.load(root, true).get(extension.toPath(), modificationTime))
+    }
+
+    fun test_scanDirectoryForHybrisModules_cancelledScanNotSaved() {
+        val cancelInCustom = object : TaskProgressProcessor<File> {
+            override fun shouldContinue(t: File) = t.name != "custom"
+        }
+
+        assertFailsWith<ProcessCanceledException> {
+            DefaultHybrisProjectDescriptor().scanDirectoryForHybrisModules(root, cancelInCustom, null)
+        }
+        assertFalse(Files.exists(ModuleRootsScanManifest.getManifestFile(root)))
+    }
+
+    private fun addExtensionInfo() = File(extension, HybrisConstants.EXTENSION_INFO_XML).writeText("<extensioninfo/>")
+
+    private fun scanAndSave() {
+        val manifest = ModuleRootsScanManifest.load(root, false)
+        assertTrue(scan(manifest).isEmpty())
+        manifest.save()
+    }
+
+    private fun scan(manifest: ModuleRootsScanManifest?): Set<File> {
+        val moduleRootMap = DefaultHybrisProjectDescriptor.DIRECTORY_TYPE.entries
+            .associateWith { ConcurrentHashMap.newKeySet<File>() }
+
+        ModuleRootsScanner(
+            ApplicationManager.getApplication().getService(HybrisProjectService::class.java),
+            moduleRootMap,
+            ConcurrentHashMap.newKeySet(),
+            emptySet(),
+            { false },
+            root,
+            false,
+            false,
+            null,
+            manifest
+        ).findModuleRoots(root)
+
+        return moduleRootMap.getValue(DefaultHybrisProjectDescriptor.DIRECTORY_TYPE.HYBRIS)
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.project.descriptors
+
+import com.intellij.idea.plugin.hybris.common.HybrisConstants
+import com.intellij.idea.plugin.hybris.project.services.HybrisProjectService
+import com.intellij.idea.plugin.hybris.project.tasks.TaskProgressProcessor
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import java.io.File
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.Predicate
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+
+class ModuleRootsScannerTest : BasePlatformTestCase() {
+
+    private lateinit var root: File
+
+    override fun setUp() {
+        super.setUp()
+        root = FileUtil.createTempDirectory("modules-scan", null)
+    }
+
+    override fun tearDown() {
+        try {
+            FileUtil.delete(root)
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun test_findModuleRoots_manyNestedExtensions() {
+        val extensions = (0 until 200).map { extension("bin/custom/group${it % 10}/ext$it") }
+
+        assertEquals(extensions.toSet(), scan())
+    }
+
+    fun test_findModuleRoots_notDescendingIntoModule() {
+        val extension = extension("bin/custom/myext")
+        extension("bin/custom/myext/nested")
+
+        assertEquals(setOf(extension), scan())
+    }
+
+    fun test_findModuleRoots_skipsExcludedDirectories() {
+        val extension = extension("bin/custom/myext")
+        extension("bin/custom/excluded/ext")
+        extension("data/ext")
+
+        assertEquals(
+            setOf(extension),
+            scan(
+                excludedFromScanning = setOf(File(root, "bin/custom/excluded")),
+                directoryExcluded = Predicate { it.endsWith("data") }
+            )
+        )
+    }
+
+    fun test_findModuleRoots_reportsScannedDirectories() {
+        extension("bin/custom/myext")
+        var scanned = 0
+
+        scan(progressListenerProcessor = object : TaskProgressProcessor<File> {
+            override fun shouldContinue(t: File) = true
+
+            override fun completed(t: File, processed: Int, durationMillis: Long) {
+                assertEquals(root, t)
+                scanned = processed
+            }
+        })
+
+        // root, bin, custom and myext
+        assertEquals(4, scanned)
+    }
+
+    fun test_findModuleRoots_cancelledByProgressProcessor() {
+        (0 until 50).forEach { extension("bin/custom/ext$it") }
+        var completed = false
+
+        assertFailsWith<ProcessCanceledException> {
+            scan(progressListenerProcessor = object : TaskProgressProcessor<File> {
+                override fun shouldContinue(t: File) = t.name != "ext25"
+
+                override fun completed(t: File, processed: Int, durationMillis: Long) {
+                    completed = true
+                }
+            })
+        }
+        assertFalse(completed)
+    }
+
+    private fun extension(path: String) = File(root, path)
+        .also { it.mkdirs() }
+        .also { File(it, HybrisConstants.EXTENSION_INFO_XML).writeText("<extensioninfo/>") }
+
+    private fun scan(
+        excludedFromScanning: Set<File> = emptySet(),
+        directoryExcluded: Predicate<Path> = Predicate { false },
+        progressListenerProcessor: TaskProgressProcessor<File>? = null
+    ): Set<File> {
+        val moduleRootMap = DefaultHybrisProjectDescriptor.DIRECTORY_TYPE.entries
+            .associateWith { ConcurrentHashMap.newKeySet<File>() }
+
+        ModuleRootsScanner(
+            ApplicationManager.getApplication().getService(HybrisProjectService::class.java),
+            moduleRootMap,
+            ConcurrentHashMap.newKeySet(),
+            excludedFromScanning,
+            directoryExcluded,
+            root,
+            false,
+            false,
+            progressListenerProcessor,
+            null
+        ).findModuleRoots(root)
+
+        return moduleRootMap.getValue(DefaultHybrisProjectDescriptor.DIRECTORY_TYPE.HYBRIS)
+    }
+}
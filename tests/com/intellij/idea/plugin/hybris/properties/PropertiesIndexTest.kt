@@ -0,0 +1,140 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.properties
+
+import com.intellij.lang.properties.IProperty
+import com.intellij.lang.properties.psi.PropertiesFile
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class PropertiesIndexTest : BasePlatformTestCase() {
+
+    private var files = 0
+
+    fun test_findProperty_nestedPlaceholdersResolved() {
+        val index = index(
+            "db.host" to "localhost",
+            "db.url" to "jdbc:hsqldb:\${db.host}/\${db.name}",
+            "db.name" to "\${tenant}_db",
+            "tenant" to "master"
+        )
+
+        assertEquals("jdbc:hsqldb:localhost/master_db", index.findProperty("db.url"))
+        assertEquals("master_db", index.findProperty("db.name"))
+        assertNull(index.findProperty("unknown"))
+    }
+
+    fun test_findProperty_unknownPlaceholderKept() {
+        val index = index("a" to "\${unknown}/\${b}", "b" to "value", "c" to "\${broken")
+
+        assertEquals("\${unknown}/value", index.findProperty("a"))
+        assertEquals("\${broken", index.findProperty("c"))
+    }
+
+    fun test_findProperty_cycleKept() {
+        val index = index("a" to "\${b}", "b" to "\${a}", "c" to "\${c}", "d" to "x\${a}")
+
+        assertEquals("\${b}", index.findProperty("a"))
+        assertEquals("\${a}", index.findProperty("b"))
+        assertEquals("\${c}", index.findProperty("c"))
+        assertEquals("x\${a}", index.findProperty("d"))
+    }
+
+    fun test_findProperty_sharedNestedPropertyResolvedInEachPlace() {
+        val index = index("a" to "\${b}\${c}", "b" to "\${d}", "c" to "\${d}", "d" to "\${e}", "e" to "x")
+
+        assertEquals("xx", index.findProperty("a"))
+    }
+
+    fun test_findProperty_latterPropertyAndOverridesWin() {
+        val index = PropertiesIndex.create(
+            propertiesOf("a" to "1", "b" to "\${a}", "a" to "2", "c" to "3"),
+            mapOf("c" to "env")
+        )
+
+        assertEquals("2", index.findProperty("a"))
+        assertEquals("2", index.findProperty("b"))
+        assertEquals("env", index.findProperty("c"))
+    }
+
+    fun test_findAutoCompleteProperties() {
+        val index = index("db.url" to "", "db.user" to "", "mail.host" to "")
+
+        assertEquals(listOf("db.url", "db.user"), index.findAutoCompleteProperties("db.").map { it.key })
+        assertEquals(listOf("db.url", "db.user", "mail.host"), index.findAutoCompleteProperties(" ").map { it.key })
+    }
+
+    fun test_findMacroProperty() {
+        val (db, user, url) = propertiesOf("db" to "", "db.usr" to "", "db.url" to "")
+        val index = PropertiesIndex.create(listOf(db, user, url), emptyMap())
+
+        assertSame(url, index.findMacroProperty("\${db.url}"))
+        assertSame(url, index.findMacroProperty("\${db.usr}:\${db.url}"))
+        assertSame(url, index.findMacroProperty(""))
+        assertNull(index.findMacroProperty("none"))
+    }
+
+    fun test_findMacroProperty_generatedProperties_sameAsFilter() {
+        val random = Random(7)
+        val properties = propertiesOf(*Array(300) { randomText(random, 1, 5) to "" })
+        val index = PropertiesIndex.create(properties, emptyMap())
+        val uniqueProperties = index.properties
+
+        repeat(2_000) {
+            val query = randomText(random, 0, 16)
+
+            // previous implementation checked every property and kept the last one of the longest
+            val expected = uniqueProperties
+                .filter { query.contains(it.key!!) || query.isBlank() }
+                .takeIf { it.isNotEmpty() }
+                ?.reduce { one, two -> if (one.key!!.length > two.key!!.length) one else two }
+
+            assertSame(expected, index.findMacroProperty(query), "macro property of '$query'")
+        }
+    }
+
+    fun test_findMacroProperty_manyKeysOfEqualLength_lastWins() {
+        val properties = propertiesOf(*Array(20_000) { "key.%05d".format(it) to "" })
+        val index = PropertiesIndex.create(properties, emptyMap())
+
+        // every key is contained in the query, all of them have the same length
+        val query = properties.reversed().joinToString(":") { "\${${it.key}}" }
+
+        assertSame(properties.last(), index.findMacroProperty(query))
+    }
+
+    private fun index(vararg properties: Pair<String, String>) = PropertiesIndex.create(propertiesOf(*properties), emptyMap())
+
+    /**
+     * Properties are read from a `.properties` file of the test project in the order of their declaration.
+     */
+    private fun propertiesOf(vararg properties: Pair<String, String>): List<IProperty> {
+        val text = properties.joinToString("\n") { (key, value) -> "$key=$value" }
+        val file = myFixture.addFileToProject("test${files++}.properties", text) as PropertiesFile
+
+        return file.properties
+    }
+
+    private fun randomText(random: Random, minLength: Int, maxLength: Int) = (0 until random.nextInt(minLength, maxLength + 1))
+        .map { "ab.c"[random.nextInt(4)] }
+        .joinToString("")
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.meta
+
+import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
+import com.intellij.idea.plugin.hybris.system.type.meta.impl.CaseInsensitive
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSGlobalMetaItem
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSMetaItem
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSMetaType
+import com.intellij.idea.plugin.hybris.system.type.meta.model.impl.TSGlobalMetaItemImpl
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.util.Computable
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+/**
+ * Hierarchy is built from the merged `extends` of the Item types only, `allExtends` is not computed for the Item types,
+ * as its order is not defined for the types re-declared in several `items.xml` files.
+ *
+ * Item types are declared in a single `items.xml` file of the test project, global Item types are created directly
+ * from the local ones, without the post-merge, which would resolve `allExtends` of each type.
+ */
+class TSMetaItemHierarchyTest : BasePlatformTestCase() {
+
+    private val declaredNames = ArrayList<String>()
+    private val parents = HashMap<String, String>()
+    private val metaItems = CaseInsensitive.CaseInsensitiveConcurrentHashMap<String, TSGlobalMetaItem>()
+
+    override fun setUp() {
+        super.setUp()
+        HybrisProjectSettingsComponent.getInstance(project).state.hybrisProject = true
+    }
+
+    fun test_subTypes() {
+        item("GenericItem")
+        item("Product")
+        item("VariantProduct", "Product")
+        item("ApparelProduct", "Product")
+        item("ApparelSizeVariantProduct", "VariantProduct")
+        item("Category", "GenericItem")
+
+        val hierarchy = build()
+
+        assertEquals(listOf("Category", "Product"), hierarchy.getDirectSubTypes("genericitem").map { it.name })
+        assertEquals(listOf("ApparelProduct", "VariantProduct"), hierarchy.getDirectSubTypes("product").map { it.name })
+        assertEquals(
+            setOf("ApparelProduct", "VariantProduct", "ApparelSizeVariantProduct"),
+            hierarchy.getAllSubTypes("Product").map { it.name }.toSet()
+        )
+        assertEquals(5, hierarchy.getAllSubTypes("GENERICITEM").size)
+        assertTrue(hierarchy.getAllSubTypes("Category").isEmpty())
+        assertTrue(hierarchy.getAllSubTypes("Unknown").isEmpty())
+        assertTrue(hierarchy.getAllSubTypes(null).isEmpty())
+
+        assertTrue(hierarchy.isSubTypeOf("ApparelSizeVariantProduct", "genericItem"))
+        assertTrue(hierarchy.isSubTypeOf("VariantProduct", "Product"))
+        assertFalse(hierarchy.isSubTypeOf("GenericItem", "GenericItem"))
+        assertFalse(hierarchy.isSubTypeOf("Product", "Product"))
+        assertFalse(hierarchy.isSubTypeOf("Product", "VariantProduct"))
+        assertFalse(hierarchy.isSubTypeOf("Category", "Product"))
+        assertFalse(hierarchy.isSubTypeOf(null, "GenericItem"))
+    }
+
+    fun test_unknownParent_isRoot() {
+        item("Product", "Unknown")
+        item("VariantProduct", "Product")
+
+        val hierarchy = build()
+
+        assertEquals(listOf("VariantProduct"), hierarchy.getAllSubTypes("Product").map { it.name })
+        assertFalse(hierarchy.isSubTypeOf("Product", "Unknown"))
+    }
+
+    fun test_cycle_isSkipped() {
+        item("A", "B")
+        item("B", "A")
+        item("C", "C")
+
+        val hierarchy = build()
+
+        assertTrue(hierarchy.getAllSubTypes("A").isEmpty())
+        assertTrue(hierarchy.getAllSubTypes("C").isEmpty())
+        assertFalse(hierarchy.isSubTypeOf("A", "B"))
+    }
+
+    fun test_deepHierarchy() {
+        val depth = 20_000
+        item("T0", "Unknown")
+        for (level in 1 until depth) item("T$level", "T${level - 1}")
+
+        val hierarchy = build()
+
+        assertEquals(depth - 1, hierarchy.getAllSubTypes("T0").size)
+        assertTrue(hierarchy.isSubTypeOf("T${depth - 1}", "T0"))
+        assertFalse(hierarchy.isSubTypeOf("T0", "T${depth - 1}"))
+    }
+
+    fun test_randomHierarchy_sameAsExtendsChain() {
+        val random = Random(5)
+        item("GenericItem")
+        item("Type1")
+        for (index in 2 until 300) item("Type$index", "Type${random.nextInt(1, index)}".takeIf { random.nextInt(10) > 0 })
+
+        val hierarchy = build()
+        val names = metaItems.values.mapNotNull { it.name }
+
+        names.forEach { parent ->
+            val expected = names.filter { ancestors(it).any { ancestor -> ancestor.equals(parent, true) } }
+
+            assertEquals(expected.toSet(), hierarchy.getAllSubTypes(parent).map { it.name }.toSet())
+            assertEquals(
+                names.filter { ancestors(it).firstOrNull() == parent }.toSet(),
+                hierarchy.getDirectSubTypes(parent).map { it.name }.toSet()
+            )
+            names.forEach { child ->
+                assertEquals(child in expected, hierarchy.isSubTypeOf(child, parent), "$child < $parent")
+            }
+        }
+    }
+
+    /**
+     * Item type without the merged `extends` extends GenericItem, same as in the merged Type System.
+     */
+    private fun item(name: String, parent: String? = null) {
+        declaredNames.add(name)
+        parent?.let { parents[name] = it }
+    }
+
+    private fun build(): TSMetaItemHierarchy {
+        val text = declaredNames.joinToString("\n", "<items><itemtypes>\n", "\n</itemtypes></items>") { name ->
+            """<itemtype code="$name"${parents[name]?.let { " extends=\"$it\"" } ?: ""}/>"""
+        }
+        val psiFile = myFixture.addFileToProject("test-items.xml", text)
+        val metaModel = ProgressManager.getInstance().runProcess(
+            Computable { TSMetaModelProcessor.getInstance(project).process(psiFile) },
+            EmptyProgressIndicator()
+        )
+            ?: throw AssertionError("${psiFile.name} is not a Type System file")
+
+        metaModel.getMetaType<TSMetaItem>(TSMetaType.META_ITEM).values()
+            .forEach { metaItems[it.name!!] = TSGlobalMetaItemImpl(it) }
+
+        return TSMetaItemHierarchy.build(metaItems)
+    }
+
+    private fun ancestors(name: String): List<String> {
+        val result = mutableListOf<String>()
+        var current = name
+        while (true) {
+            val parent = parents[current] ?: "GenericItem".takeUnless { current == it } ?: break
+            if (!metaItems.containsKey(parent) || parent in result || parent == name) break
+            result.add(parent)
+            current = parent
+        }
+        return result
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.meta.impl
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class CaseInsensitiveTest {
+
+    private val map = CaseInsensitive.CaseInsensitiveConcurrentHashMap<String, String>()
+
+    @Test
+    fun test_lookupIgnoresCase() {
+        map["Product"] = "product"
+
+        assertEquals("product", map["product"])
+        assertEquals("product", map["PRODUCT"])
+        assertEquals("product", map["pRoDuCt"])
+        assertNull(map["Products"])
+    }
+
+    @Test
+    fun test_keysAreStoredLowerCased() {
+        map["Product"] = "product"
+        map["PRODUCT"] = "PRODUCT"
+        map["catalogVersion"] = "catalogVersion"
+
+        assertEquals(setOf("product", "catalogversion"), map.keys)
+        assertEquals(setOf("product", "catalogversion"), map.entries.map { it.key }.toSet())
+        assertEquals("PRODUCT", map["product"])
+    }
+
+    @Test
+    fun test_computeIfAbsentIgnoresCase() {
+        val first = map.computeIfAbsent("Product") { "first" }
+        val second = map.computeIfAbsent("PRODUCT") { "second" }
+
+        assertSame(first, second)
+        assertEquals(1, map.size)
+    }
+
+    @Test
+    fun test_removeIgnoresCase() {
+        map["Product"] = "product"
+
+        assertEquals("product", map.remove("PRODUCT"))
+        assertTrue(map.isEmpty())
+    }
+
+    @Test
+    fun test_multiMapGroupsValuesIgnoringCase() {
+        val multiMap = CaseInsensitive.NoCaseMultiMap<String>()
+        multiMap.putValue("Product", "a")
+        multiMap.putValue("PRODUCT", "b")
+        multiMap.putValues("product", listOf("c"))
+
+        assertEquals(listOf("a", "b", "c"), multiMap.get("pRoDuCt")?.toList())
+        assertEquals(1, multiMap.entrySet().size)
+    }
+}
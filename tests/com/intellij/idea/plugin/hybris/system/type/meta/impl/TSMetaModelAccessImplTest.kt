@@ -0,0 +1,94 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.meta.impl
+
+import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
+import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelAccess
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.testFramework.DumbModeTestUtils
+import com.intellij.testFramework.PlatformTestUtil
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+
+class TSMetaModelAccessImplTest : BasePlatformTestCase() {
+
+    private lateinit var itemsFile: PsiFile
+
+    override fun setUp() {
+        super.setUp()
+        HybrisProjectSettingsComponent.getInstance(project).state.hybrisProject = true
+
+        itemsFile = myFixture.addFileToProject(
+            "access-items.xml",
+            """
+            <items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+                <itemtypes>
+                    <itemtype code="RebuiltAfterCancel" extends="GenericItem"/>
+                </itemtypes>
+            </items>
+            """.trimIndent()
+        )
+    }
+
+    fun test_getMetaModel_rebuildsAfterCancelledBuild() {
+        val access = TSMetaModelAccess.getInstance(project) as TSMetaModelAccessImpl
+        val token = DumbModeTestUtils.startEternalDumbModeTask(project)
+
+        try {
+            // build waits for the smart mode and gets cancelled meanwhile
+            access.initMetaModel()
+            access.cancelBuild()
+        } finally {
+            DumbModeTestUtils.endEternalDumbModeTaskAndWaitForSmartMode(project, token)
+        }
+
+        PlatformTestUtil.waitWithEventsDispatching("Type System was not re-built after the cancelled build", {
+            runCatching { access.getMetaModel().getMetaItem("RebuiltAfterCancel") != null }
+                .getOrDefault(false)
+        }, 10)
+    }
+
+    fun test_getMetaModel_includesChangesMadeDuringBuild() {
+        val access = TSMetaModelAccess.getInstance(project) as TSMetaModelAccessImpl
+        val token = DumbModeTestUtils.startEternalDumbModeTask(project)
+
+        try {
+            // build is already started when the file gets changed, it must not block the write action
+            access.initMetaModel()
+
+            WriteCommandAction.runWriteCommandAction(project) {
+                val documentManager = PsiDocumentManager.getInstance(project)
+                val document = documentManager.getDocument(itemsFile)!!
+                document.setText(document.text.replace("RebuiltAfterCancel", "ChangedDuringBuild"))
+                documentManager.commitDocument(document)
+            }
+        } finally {
+            DumbModeTestUtils.endEternalDumbModeTaskAndWaitForSmartMode(project, token)
+        }
+
+        PlatformTestUtil.waitWithEventsDispatching("Type System does not reflect the change made during the build", {
+            runCatching {
+                val metaModel = access.getMetaModel()
+                metaModel.getMetaItem("ChangedDuringBuild") != null && metaModel.getMetaItem("RebuiltAfterCancel") == null
+            }
+                .getOrDefault(false)
+        }, 10)
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for Intellij IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.meta.impl
+
+import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
+import com.intellij.idea.plugin.hybris.system.type.meta.TSGlobalMetaModel
+import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModel
+import com.intellij.idea.plugin.hybris.system.type.meta.TSMetaModelProcessor
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSGlobalMetaItem
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSGlobalMetaRelation
+import com.intellij.idea.plugin.hybris.system.type.meta.model.TSTypedClassifier
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.util.Computable
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNotSame
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+/**
+ * Incrementally merged Type System has to be equal to the one merged from scratch for the same set of `items.xml` files.
+ */
+class TSMetaModelMergerImplTest : BasePlatformTestCase() {
+
+    private lateinit var coreFile: PsiFile
+    private lateinit var customFile: PsiFile
+    private lateinit var mediaFile: PsiFile
+
+    override fun setUp() {
+        super.setUp()
+        HybrisProjectSettingsComponent.getInstance(project).state.hybrisProject = true
+
+        coreFile = myFixture.addFileToProject("core-items.xml", CORE_ITEMS)
+        customFile = myFixture.addFileToProject("custom-items.xml", CUSTOM_ITEMS)
+        mediaFile = myFixture.addFileToProject("media-items.xml", MEDIA_ITEMS)
+    }
+
+    fun test_merge_attributeTypeChanged() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        val previous = merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, customFile, CUSTOM_ITEMS.replace("\"style\" type=\"java.lang.String\"", "\"style\" type=\"Status\""))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertSame(previous.getMetaItem("Media"), incremental.getMetaItem("Media"), "Item types of unchanged files have to be re-used")
+        assertEquals("Status", incremental.getMetaItem("ApparelProduct")?.allAttributes?.get("style")?.flattenType)
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_extendsChanged() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, customFile, CUSTOM_ITEMS.replace("code=\"ApparelProduct\" extends=\"VariantProduct\"", "code=\"ApparelProduct\" extends=\"Product\""))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertEquals(setOf("Product"), incremental.getMetaItem("ApparelProduct")?.allExtends?.mapNotNull { it.name }?.toSet())
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_superTypeAttributeAdded() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, customFile, CUSTOM_ITEMS.replace(PRODUCT_EAN_ATTRIBUTE, PRODUCT_EAN_ATTRIBUTE + PRODUCT_KEYWORDS_ATTRIBUTE))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertNotNull(incremental.getMetaItem("ApparelProduct")?.allAttributes?.get("keywords"))
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_itemTypeAdded() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, mediaFile, MEDIA_ITEMS.replace("</itemtypes>", "<itemtype code=\"MediaFolder\" extends=\"GenericItem\"/></itemtypes>"))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertNotNull(incremental.getMetaItem("MediaFolder"))
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_fileRemoved() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = localMetaModels.filter { it.psiFile != mediaFile }
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertNull(incremental.getMetaItem("Media"))
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_enumChanged() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        val previous = merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, coreFile, CORE_ITEMS.replace("<value code=\"NEW\"/>", "<value code=\"NEW\"/><value code=\"OLD\"/>"))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertSame(previous.getMetaItem("Product"), incremental.getMetaItem("Product"), "Flatten type of the enum is not changed, so its usages have to be re-used")
+        assertNotSame(previous.getMetaEnum("Status"), incremental.getMetaEnum("Status"))
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_unchangedDeclarationsOfChangedFileReused() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        val previous = merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, customFile, CUSTOM_ITEMS.replace("\"style\" type=\"java.lang.String\"", "\"style\" type=\"Status\""))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertSame(previous.getMetaItem("VariantProduct"), incremental.getMetaItem("VariantProduct"), "Not changed Item types of the changed file have to be re-used")
+        assertSame(previous.getMetaItem("Product"), incremental.getMetaItem("Product"))
+        assertNotSame(previous.getMetaItem("ApparelProduct"), incremental.getMetaItem("ApparelProduct"))
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_collectionElementTypeChanged() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        merge(merger, localMetaModels)
+
+        val firstChange = update(localMetaModels, customFile, CUSTOM_ITEMS.replace("\"style\" type=\"java.lang.String\"", "\"style\" type=\"StringCollection\""))
+        val previous = merge(merger, firstChange)
+        val secondChange = update(firstChange, coreFile, CORE_ITEMS.replace("elementtype=\"java.lang.String\"", "elementtype=\"java.lang.Integer\""))
+        val incremental = merge(merger, secondChange)
+
+        assertSame(previous.getMetaItem("Media"), incremental.getMetaItem("Media"))
+        assertNotSame(previous.getMetaItem("ApparelProduct"), incremental.getMetaItem("ApparelProduct"), "Item type with attribute of the changed collection type has to be re-created")
+        assertEquals(
+            incremental.getMetaCollection("StringCollection")?.flattenType,
+            incremental.getMetaItem("ApparelProduct")?.allAttributes?.get("style")?.flattenType
+        )
+        assertEquivalent(secondChange, incremental)
+    }
+
+    fun test_merge_relationChanged() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        val previous = merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, coreFile, CORE_ITEMS.replace("collectiontype=\"list\" ordered=\"true\"", "collectiontype=\"set\" ordered=\"false\""))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertSame(previous.getMetaItem("Media"), incremental.getMetaItem("Media"))
+        assertNotSame(previous.getMetaItem("Category"), incremental.getMetaItem("Category"), "Owners of the changed relation ends have to be re-created")
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_relationEndTypeDeclared() {
+        val folderFile = myFixture.addFileToProject("folder-items.xml", FOLDER_ITEMS)
+        val localMetaModels = processAll() + process(folderFile)
+        val merger = TSMetaModelMergerImpl(project)
+        val previous = merge(merger, localMetaModels)
+
+        val changedLocalMetaModels = update(localMetaModels, mediaFile, MEDIA_ITEMS.replace("</itemtypes>", "<itemtype code=\"MediaFolder\" extends=\"GenericItem\"/></itemtypes>"))
+        val incremental = merge(merger, changedLocalMetaModels)
+
+        assertNotSame(
+            previous.getMetaRelation("MediaFolder2Media"), incremental.getMetaRelation("MediaFolder2Media"),
+            "Not changed Relation with the changed flatten type of its end must not be re-flattened in place"
+        )
+        assertEquivalent(changedLocalMetaModels, incremental)
+    }
+
+    fun test_merge_consecutiveChanges() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        merge(merger, localMetaModels)
+
+        val firstChange = update(localMetaModels, customFile, CUSTOM_ITEMS.replace("\"style\" type=\"java.lang.String\"", "\"style\" type=\"StringCollection\""))
+        merge(merger, firstChange)
+        val secondChange = update(firstChange, mediaFile, MEDIA_ITEMS.replace("\"mime\" type=\"java.lang.String\"", "\"mime\" type=\"Status\""))
+        val incremental = merge(merger, secondChange)
+
+        assertEquivalent(secondChange, incremental)
+    }
+
+    fun test_merge_itemHierarchy() {
+        val genericFile = myFixture.addFileToProject("generic-items.xml", GENERIC_ITEMS)
+        val localMetaModels = processAll() + process(genericFile)
+        val merger = TSMetaModelMergerImpl(project)
+        val previous = merge(merger, localMetaModels).getItemHierarchy()
+
+        assertEquals(listOf("Category", "Media", "Product"), previous.getDirectSubTypes("GenericItem").map { it.name })
+        assertEquals(listOf("VariantProduct"), previous.getDirectSubTypes("Product").map { it.name })
+        assertTrue(previous.isSubTypeOf("ApparelProduct", "Product"))
+
+        val changedLocalMetaModels = update(localMetaModels, customFile, CUSTOM_ITEMS.replace("code=\"ApparelProduct\" extends=\"VariantProduct\"", "code=\"ApparelProduct\" extends=\"Product\""))
+        val incremental = merge(merger, changedLocalMetaModels).getItemHierarchy()
+        val full = merge(TSMetaModelMergerImpl(project), changedLocalMetaModels).getItemHierarchy()
+
+        listOf(incremental, full).forEach { hierarchy ->
+            assertEquals(listOf("Category", "Media", "Product"), hierarchy.getDirectSubTypes("GenericItem").map { it.name })
+            assertEquals(listOf("ApparelProduct", "VariantProduct"), hierarchy.getDirectSubTypes("Product").map { it.name })
+            assertEquals(setOf("Category", "Media", "Product", "VariantProduct", "ApparelProduct"), hierarchy.getAllSubTypes("GenericItem").map { it.name }.toSet())
+            assertTrue(hierarchy.isSubTypeOf("ApparelProduct", "Product"))
+            assertFalse(hierarchy.isSubTypeOf("ApparelProduct", "VariantProduct"))
+        }
+    }
+
+    fun test_merge_previousModelUntouched() {
+        val localMetaModels = processAll()
+        val merger = TSMetaModelMergerImpl(project)
+        val previous = merge(merger, localMetaModels)
+        val previousDump = dump(previous)
+
+        val changedLocalMetaModels = update(localMetaModels, customFile, CUSTOM_ITEMS.replace(PRODUCT_EAN_ATTRIBUTE, PRODUCT_EAN_ATTRIBUTE + PRODUCT_KEYWORDS_ATTRIBUTE))
+        merge(merger, changedLocalMetaModels)
+
+        assertEquals(previousDump, dump(previous))
+    }
+
+    private fun assertEquivalent(localMetaModels: List<TSMetaModel>, incremental: TSGlobalMetaModel) {
+        val full = merge(TSMetaModelMergerImpl(project), localMetaModels)
+
+        assertEquals(dump(full).joinToString("\n"), dump(incremental).joinToString("\n"))
+    }
+
+    private fun merge(merger: TSMetaModelMergerImpl, localMetaModels: List<TSMetaModel>) = TSGlobalMetaModel()
+        .also { merger.merge(it, localMetaModels) }
+
+    private fun processAll() = listOf(coreFile, customFile, mediaFile).map { process(it) }
+
+    /**
+     * Unchanged files keep the same instance of the local model, as it is done by the per-file cache.
+     */
+    private fun update(localMetaModels: List<TSMetaModel>, psiFile: PsiFile, text: String): List<TSMetaModel> {
+        WriteCommandAction.runWriteCommandAction(project) {
+            val documentManager = PsiDocumentManager.getInstance(project)
+            val document = documentManager.getDocument(psiFile)!!
+            document.setText(text)
+            documentManager.commitDocument(document)
+        }
+
+        return localMetaModels.map { if (it.psiFile == psiFile) process(psiFile) else it }
+    }
+
+    private fun process(psiFile: PsiFile): TSMetaModel = ProgressManager.getInstance().runProcess(
+        Computable { TSMetaModelProcessor.getInstance(project).process(psiFile) },
+        EmptyProgressIndicator()
+    )
+        ?: throw AssertionError("${psiFile.name} is not a Type System file")
+
+    private fun dump(globalMetaModel: TSGlobalMetaModel): List<String> {
+        val lines = mutableListOf<String>()
+
+        globalMetaModel.getMetaTypes().toSortedMap().forEach { (metaType, metas) ->
+            metas.toSortedMap().forEach { (key, meta) ->
+                lines += "$metaType $key name=${meta.name} custom=${meta.isCustom} declarations=${meta.declarations.size}"
+
+                when (meta) {
+                    is TSGlobalMetaItem -> {
+                        lines += "  extends=${meta.extendedMetaItemName} allExtends=${meta.allExtends.map { it.name }} catalogAware=${meta.isCatalogAware}"
+                        lines += "  flattenType=${meta.flattenType} deployment=${meta.deployment?.typeCode}"
+                        meta.allAttributes.toSortedMap().forEach { (name, attribute) ->
+                            lines += "  attribute $name type=${attribute.type} flattenType=${attribute.flattenType}"
+                        }
+                        lines += "  relationEnds=${meta.relationEnds.map { it.qualifier }.sortedBy { it }}"
+                        lines += "  allRelationEnds=${meta.allRelationEnds.map { it.qualifier }.sortedBy { it }}"
+                        lines += "  allOrderingAttributes=${meta.allOrderingAttributes.keys.sorted()}"
+                    }
+
+                    is TSGlobalMetaRelation -> lines += "  flattenType=${meta.flattenType} source=${meta.source.flattenType} target=${meta.target.flattenType}"
+                    is TSTypedClassifier -> lines += "  flattenType=${meta.flattenType}"
+                }
+            }
+        }
+        globalMetaModel.getAllRelations().entrySet()
+            .sortedBy { it.key }
+            .forEach { lines += "relations ${it.key} ${it.value.map { relationEnd -> relationEnd.qualifier }.sortedBy { qualifier -> qualifier }}" }
+        globalMetaModel.getDeploymentTypeCodes().toSortedMap()
+            .forEach { (typeCode, deployment) -> lines += "deployment $typeCode ${deployment.table}" }
+
+        return lines
+    }
+
+    companion object {
+        private const val PRODUCT_EAN_ATTRIBUTE = """
+                <attribute qualifier="ean" type="java.lang.String">
+                    <persistence type="property"/>
+                </attribute>"""
+        private const val PRODUCT_KEYWORDS_ATTRIBUTE = """
+                <attribute qualifier="keywords" type="StringCollection">
+                    <persistence type="property"/>
+                </attribute>"""
+
+        private const val CORE_ITEMS = """<?xml version="1.0" encoding="ISO-8859-1"?>
+<items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+    <collectiontypes>
+        <collectiontype code="StringCollection" elementtype="java.lang.String" autocreate="true" generate="false"/>
+    </collectiontypes>
+    <enumtypes>
+        <enumtype code="Status" autocreate="true" generate="true">
+            <value code="NEW"/>
+        </enumtype>
+    </enumtypes>
+    <relations>
+        <relation code="Product2Category" autocreate="true" generate="true" localized="false">
+            <deployment table="cat2prodrel" typecode="143"/>
+            <sourceElement qualifier="supercategories" type="Category" cardinality="many" ordered="false"/>
+            <targetElement qualifier="products" type="Product" cardinality="many" collectiontype="list" ordered="true"/>
+        </relation>
+    </relations>
+    <itemtypes>
+        <itemtype code="Product" extends="GenericItem" autocreate="true" generate="true">
+            <deployment table="products" typecode="1"/>
+            <attributes>
+                <attribute qualifier="code" type="java.lang.String">
+                    <persistence type="property"/>
+                </attribute>
+                <attribute qualifier="status" type="Status">
+                    <persistence type="property"/>
+                </attribute>
+            </attributes>
+        </itemtype>
+        <itemtype code="Category" extends="GenericItem" autocreate="true" generate="true">
+            <deployment table="categories" typecode="142"/>
+            <attributes>
+                <attribute qualifier="code" type="java.lang.String">
+                    <persistence type="property"/>
+                </attribute>
+            </attributes>
+        </itemtype>
+    </itemtypes>
+</items>
+"""
+
+        private const val CUSTOM_ITEMS = """<?xml version="1.0" encoding="ISO-8859-1"?>
+<items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+    <itemtypes>
+        <itemtype code="Product" autocreate="false" generate="false">
+            <attributes>$PRODUCT_EAN_ATTRIBUTE
+            </attributes>
+        </itemtype>
+        <itemtype code="VariantProduct" extends="Product" autocreate="true" generate="true">
+            <attributes>
+                <attribute qualifier="baseProduct" type="Product">
+                    <persistence type="property"/>
+                </attribute>
+            </attributes>
+        </itemtype>
+        <itemtype code="ApparelProduct" extends="VariantProduct" autocreate="true" generate="true">
+            <attributes>
+                <attribute qualifier="style" type="java.lang.String">
+                    <persistence type="property"/>
+                </attribute>
+            </attributes>
+        </itemtype>
+    </itemtypes>
+</items>
+"""
+
+        /**
+         * Product and VariantProduct are re-declared without `extends`, as it is usually done in custom extensions.
+         */
+        private const val GENERIC_ITEMS = """<?xml version="1.0" encoding="ISO-8859-1"?>
+<items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+    <itemtypes>
+        <itemtype code="GenericItem" autocreate="true" generate="false"/>
+        <itemtype code="Product" autocreate="false" generate="false"/>
+        <itemtype code="VariantProduct" autocreate="false" generate="false"/>
+    </itemtypes>
+</items>
+"""
+
+        private const val FOLDER_ITEMS = """<?xml version="1.0" encoding="ISO-8859-1"?>
+<items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+    <relations>
+        <relation code="MediaFolder2Media" autocreate="true" generate="true" localized="false">
+            <sourceElement qualifier="folder" type="MediaFolder" cardinality="one"/>
+            <targetElement qualifier="medias" type="Media" cardinality="many"/>
+        </relation>
+    </relations>
+</items>
+"""
+
+        private const val MEDIA_ITEMS = """<?xml version="1.0" encoding="ISO-8859-1"?>
+<items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+    <itemtypes>
+        <itemtype code="Media" extends="GenericItem" autocreate="true" generate="true">
+            <deployment table="medias" typecode="30"/>
+            <attributes>
+                <attribute qualifier="mime" type="java.lang.String">
+                    <persistence type="property"/>
+                </attribute>
+            </attributes>
+        </itemtype>
+    </itemtypes>
+</items>
+"""
+    }
+}
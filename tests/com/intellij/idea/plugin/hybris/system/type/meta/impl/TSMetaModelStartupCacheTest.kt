@@ -0,0 +1,119 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.meta.impl
+
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.project.getProjectDataPath
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import java.nio.file.Files
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class TSMetaModelStartupCacheTest : BasePlatformTestCase() {
+
+    override fun setUp() {
+        super.setUp()
+        deleteCacheFile()
+    }
+
+    override fun tearDown() {
+        try {
+            deleteCacheFile()
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun test_load_missingCache() {
+        assertNull(TSMetaModelStartupCache(project).load())
+    }
+
+    fun test_load_unchangedFiles() {
+        val files = itemsFiles(2)
+        TSMetaModelStartupCache(project).save(files)
+
+        assertEquals(files, TSMetaModelStartupCache(project).load())
+    }
+
+    fun test_load_touchedFileWithSameContent() {
+        val files = itemsFiles(2)
+        TSMetaModelStartupCache(project).save(files)
+
+        write(files[0], files[0].contentsToByteArray(), files[0].timeStamp + 10_000)
+
+        assertEquals(files, TSMetaModelStartupCache(project).load())
+    }
+
+    fun test_load_skipsModifiedFile() {
+        val files = itemsFiles(3)
+        TSMetaModelStartupCache(project).save(files)
+
+        write(files[0], modified(files[0]), files[0].timeStamp + 10_000)
+
+        assertEquals(files.drop(1), TSMetaModelStartupCache(project).load())
+    }
+
+    fun test_load_outdatedWhenMostFilesModified() {
+        val files = itemsFiles(2)
+        TSMetaModelStartupCache(project).save(files)
+
+        files.forEach { write(it, modified(it), it.timeStamp + 10_000) }
+
+        assertNull(TSMetaModelStartupCache(project).load())
+    }
+
+    fun test_load_hashNotComparedWhenStampUnchanged() {
+        val files = itemsFiles(2)
+        TSMetaModelStartupCache(project).save(files)
+
+        // same time stamp and length, content is not read at all
+        write(files[0], modified(files[0]), files[0].timeStamp)
+
+        assertEquals(files, TSMetaModelStartupCache(project).load())
+    }
+
+    fun test_save_notRewrittenWhenUnchanged() {
+        val files = itemsFiles(2)
+        val cache = TSMetaModelStartupCache(project)
+        cache.save(files)
+        deleteCacheFile()
+
+        cache.save(files)
+        assertNull(TSMetaModelStartupCache(project).load())
+
+        write(files[0], modified(files[0]), files[0].timeStamp + 10_000)
+        cache.save(files)
+        assertEquals(files, TSMetaModelStartupCache(project).load())
+    }
+
+    private fun itemsFiles(count: Int) = (0 until count).map {
+        myFixture.addFileToProject("ext$it/resources/ext$it-items.xml", "<items><itemtypes/></items>").virtualFile
+    }
+
+    // same length, so only content hash can reveal the change
+    private fun modified(file: VirtualFile) = file.contentsToByteArray()
+        .also { it[1] = if (it[1] == 'x'.code.toByte()) 'y'.code.toByte() else 'x'.code.toByte() }
+
+    private fun write(file: VirtualFile, content: ByteArray, timeStamp: Long) = WriteAction.runAndWait<Throwable> {
+        file.setBinaryContent(content, -1, timeStamp)
+    }
+
+    private fun deleteCacheFile() = Files.deleteIfExists(project.getProjectDataPath("sap-commerce").resolve("ts-dependencies.bin"))
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.system.type.validation.impl
+
+import com.intellij.idea.plugin.hybris.settings.HybrisApplicationSettingsComponent
+import com.intellij.idea.plugin.hybris.settings.HybrisProjectSettingsComponent
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ItemsFileValidationTest : BasePlatformTestCase() {
+
+    private var warnIfGeneratedItemsAreOutOfDate = true
+    private lateinit var validation: ItemsFileValidation
+    private lateinit var itemsFile: VirtualFile
+
+    override fun setUp() {
+        super.setUp()
+        HybrisProjectSettingsComponent.getInstance(project).state.hybrisProject = true
+
+        val settings = HybrisApplicationSettingsComponent.getInstance().state
+        warnIfGeneratedItemsAreOutOfDate = settings.warnIfGeneratedItemsAreOutOfDate
+        settings.warnIfGeneratedItemsAreOutOfDate = true
+
+        myFixture.addFileToProject(
+            "de/hybris/platform/core/model/ItemModel.java",
+            "package de.hybris.platform.core.model; public class ItemModel {}"
+        )
+        itemsFile = myFixture.addFileToProject(
+            "ext-items.xml",
+            """
+            <items xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xsi:noNamespaceSchemaLocation="items.xsd">
+                <itemtypes>
+                    <itemtype code="Product" extends="GenericItem">
+                        <attributes>
+                            <attribute qualifier="code" type="java.lang.String"/>
+                        </attributes>
+                    </itemtype>
+                </itemtypes>
+            </items>
+            """.trimIndent()
+        ).virtualFile
+        validation = ItemsFileValidation(project)
+        validation.initCache()
+    }
+
+    override fun tearDown() {
+        try {
+            HybrisApplicationSettingsComponent.getInstance().state.warnIfGeneratedItemsAreOutOfDate = warnIfGeneratedItemsAreOutOfDate
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun test_isFileOutOfDate_generatedClassAdded() {
+        assertTrue(validation.isFileOutOfDate(itemsFile))
+
+        addProductModel("public static final String CODE = \"code\";")
+
+        assertFalse(validation.isFileOutOfDate(itemsFile))
+    }
+
+    fun test_isFileOutOfDate_generatedClassRemoved() {
+        val productModel = addProductModel("public static final String CODE = \"code\";")
+        assertFalse(validation.isFileOutOfDate(itemsFile))
+
+        WriteCommandAction.runWriteCommandAction(project) { productModel.delete() }
+
+        assertTrue(validation.isFileOutOfDate(itemsFile))
+    }
+
+    fun test_isFileOutOfDate_generatedClassReplaced() {
+        val productModel = addProductModel("")
+        assertTrue(validation.isFileOutOfDate(itemsFile))
+
+        WriteCommandAction.runWriteCommandAction(project) { productModel.delete() }
+        addProductModel("public static final String CODE = \"code\";")
+
+        assertFalse(validation.isFileOutOfDate(itemsFile))
+    }
+
+    private fun addProductModel(body: String) = myFixture.addFileToProject(
+        "de/hybris/platform/core/model/product/ProductModel.java",
+        """
+        package de.hybris.platform.core.model.product;
+
+        public class ProductModel extends de.hybris.platform.core.model.ItemModel {
+            $body
+        }
+        """.trimIndent()
+    )
+}
@@ -0,0 +1,344 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.tools.remote.http
+
+import com.intellij.credentialStore.Credentials
+import com.intellij.idea.plugin.hybris.settings.HybrisRemoteConnectionSettings
+import com.intellij.idea.plugin.hybris.tools.remote.RemoteConnectionType
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProcessCanceledException
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import org.apache.http.HttpResponse
+import org.apache.http.HttpStatus
+import org.apache.http.message.BasicNameValuePair
+import org.apache.http.util.EntityUtils
+import java.net.InetSocketAddress
+import java.net.URLDecoder
+import java.nio.charset.StandardCharsets
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Runs the client against a stub HAC, which requires a CSRF token of the session for each request and rejects unknown sessions.
+ */
+class AbstractHybrisHacHttpClientTest : BasePlatformTestCase() {
+
+    private lateinit var hac: StubHac
+    private lateinit var client: AbstractHybrisHacHttpClient
+
+    override fun setUp() {
+        super.setUp()
+        hac = StubHac()
+        client = object : AbstractHybrisHacHttpClient() {}
+    }
+
+    override fun tearDown() {
+        try {
+            client.dispose()
+            hac.stop()
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun test_login_reusesCsrfTokenOfLoginPage() {
+        val settings = settings()
+
+        assertEquals("ok", content(post(settings)))
+        assertEquals("ok", content(post(settings)))
+
+        assertEquals(1, hac.logins.get())
+        assertEquals(1, hac.landingPageRequests.get())
+    }
+
+    fun test_login_reRequestsCsrfTokenRegeneratedForSession() {
+        hac.regenerateCsrfTokenOnLogin = true
+        val settings = settings()
+
+        assertEquals("ok", content(post(settings)))
+        assertEquals("ok", content(post(settings)))
+
+        assertEquals(1, hac.logins.get())
+        assertEquals(2, hac.landingPageRequests.get())
+    }
+
+    fun test_login_wrongCredentials() {
+        val settings = settings(password = "wrong")
+
+        val response = post(settings)
+
+        assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE, response.statusLine.statusCode)
+        assertTrue(response.statusLine.reasonPhrase.startsWith("Wrong username/password"))
+        assertEquals(0, hac.actions.get())
+    }
+
+    fun test_post_reLoginsOnceSessionExpired() {
+        val settings = settings()
+        assertEquals("ok", content(post(settings)))
+
+        hac.expireSessions()
+
+        assertEquals("ok", content(post(settings)))
+        assertEquals(2, hac.logins.get())
+    }
+
+    fun test_post_concurrentRequestsShareLogin() {
+        val settings = settings()
+        val responses = ConcurrentHashMap<Int, String>()
+
+        (0 until 8)
+            .map { index -> thread { responses[index] = content(post(settings)) } }
+            .forEach { it.join(TimeUnit.SECONDS.toMillis(10)) }
+
+        assertEquals(8, responses.size)
+        assertTrue(responses.values.all { it == "ok" })
+        assertEquals(1, hac.logins.get())
+    }
+
+    fun test_post_reusesPooledConnection() {
+        val settings = settings()
+
+        repeat(5) { assertEquals("ok", content(post(settings))) }
+
+        assertEquals(1, hac.clientPorts.size)
+    }
+
+    fun test_post_limitsConcurrentRequests() {
+        val settings = settings()
+        assertEquals("ok", content(post(settings)))
+        hac.actionsLatch = CountDownLatch(1)
+
+        val threads = (0 until 8).map { thread { content(post(settings)) } }
+        waitFor { hac.actionsInFlight.get() == 4 }
+        Thread.sleep(200)
+
+        assertEquals(4, hac.actionsInFlight.get())
+        hac.actionsLatch.countDown()
+        threads.forEach { it.join(TimeUnit.SECONDS.toMillis(10)) }
+        assertEquals(4, hac.maxActionsInFlight.get())
+        assertEquals(9, hac.actions.get())
+    }
+
+    fun test_post_releasesPermitOfNotConsumedResponse() {
+        val settings = settings()
+
+        // responses are neither read nor closed, each of them keeps its pooled connection leased
+        val responses = (0 until 6).map { post(settings) }
+
+        assertTrue(responses.all { it.statusLine.statusCode == HttpStatus.SC_OK })
+        assertEquals(6, hac.actions.get())
+        responses.forEach { EntityUtils.consumeQuietly(it.entity) }
+    }
+
+    fun test_post_abortedOnCancel() {
+        val settings = settings()
+        assertEquals("ok", content(post(settings)))
+        hac.actionsLatch = CountDownLatch(1)
+
+        val indicator = EmptyProgressIndicator()
+        val cancelled = CountDownLatch(1)
+        val request = thread {
+            try {
+                ProgressManager.getInstance().runProcess<HttpResponse>({ post(settings) }, indicator)
+            } catch (e: ProcessCanceledException) {
+                cancelled.countDown()
+            }
+        }
+        waitFor { hac.actionsInFlight.get() == 1 }
+        indicator.cancel()
+
+        // request is aborted while the server is still processing it
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS))
+        request.join()
+        hac.actionsLatch.countDown()
+
+        // permit of the aborted request is returned
+        repeat(5) { assertEquals("ok", content(post(settings))) }
+    }
+
+    private fun post(settings: HybrisRemoteConnectionSettings): HttpResponse = client.post(
+        project, settings.generatedURL + "/console/action", listOf(BasicNameValuePair("script", "ok")), true, TIMEOUT, settings
+    )
+
+    private fun content(response: HttpResponse) = EntityUtils.toString(response.entity, StandardCharsets.UTF_8)
+
+    private fun settings(password: String = PASSWORD) = HybrisRemoteConnectionSettings().apply {
+        uuid = UUID.randomUUID().toString()
+        type = RemoteConnectionType.Hybris
+        isSsl = false
+        hostIP = "127.0.0.1"
+        port = hac.port.toString()
+        hacWebroot = "hac"
+        credentials = Credentials(USERNAME, password)
+    }
+
+    private fun waitFor(condition: () -> Boolean) {
+        val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10)
+        while (!condition() && System.currentTimeMillis() < deadline) Thread.sleep(10)
+        assertTrue(condition())
+    }
+
+    private class StubHac {
+
+        val logins = AtomicInteger()
+        val landingPageRequests = AtomicInteger()
+        val actions = AtomicInteger()
+        val actionsInFlight = AtomicInteger()
+        val maxActionsInFlight = AtomicInteger()
+        val clientPorts: MutableSet<Int> = ConcurrentHashMap.newKeySet()
+
+        @Volatile
+        var regenerateCsrfTokenOnLogin = false
+
+        @Volatile
+        var actionsLatch = CountDownLatch(0)
+
+        private val sessionIds = AtomicInteger()
+        private val csrfTokens = ConcurrentHashMap<String, String>()
+        private val authenticatedSessions: MutableSet<String> = ConcurrentHashMap.newKeySet()
+        private val executor = Executors.newCachedThreadPool()
+        private val server = HttpServer.create(InetSocketAddress("127.0.0.1", 0), 0).apply {
+            createContext("/hac") { exchange -> exchange.use { handle(it) } }
+            executor = this@StubHac.executor
+            start()
+        }
+
+        val port get() = server.address.port
+
+        fun expireSessions() = authenticatedSessions.clear()
+
+        fun stop() {
+            server.stop(0)
+            executor.shutdownNow()
+        }
+
+        private fun handle(exchange: HttpExchange) {
+            clientPorts.add(exchange.remoteAddress.port)
+            val path = exchange.requestURI.path.trimEnd('/')
+
+            when {
+                exchange.requestMethod == "GET" && path == "/hac" -> landingPage(exchange)
+                exchange.requestMethod == "POST" && path == "/hac/j_spring_security_check" -> login(exchange)
+                exchange.requestMethod == "POST" && path == "/hac/console/action" -> action(exchange)
+                else -> exchange.sendResponseHeaders(HttpStatus.SC_NOT_FOUND, -1)
+            }
+        }
+
+        private fun landingPage(exchange: HttpExchange) {
+            landingPageRequests.incrementAndGet()
+            val sessionId = sessionId(exchange)
+                ?.takeIf { csrfTokens.containsKey(it) }
+                ?: newSession("anonymous").also { exchange.responseHeaders.add("Set-Cookie", "JSESSIONID=$it; Path=/hac; HttpOnly") }
+
+            send(exchange, HttpStatus.SC_OK, """<html><head><meta name="_csrf" content="${csrfTokens[sessionId]}"/></head></html>""")
+        }
+
+        private fun login(exchange: HttpExchange) {
+            logins.incrementAndGet()
+            val sessionId = sessionId(exchange)
+            val params = formParams(exchange)
+
+            if (sessionId == null || params["_csrf"] != csrfTokens[sessionId]) {
+                exchange.sendResponseHeaders(HttpStatus.SC_FORBIDDEN, -1)
+                return
+            }
+            if (params["j_username"] != USERNAME || params["j_password"] != PASSWORD) {
+                exchange.responseHeaders.add("Location", "/hac/login?login_error=1")
+                exchange.sendResponseHeaders(HttpStatus.SC_MOVED_TEMPORARILY, -1)
+                return
+            }
+
+            val newSessionId = newSession("authenticated")
+            if (!regenerateCsrfTokenOnLogin) csrfTokens[newSessionId] = csrfTokens[sessionId]!!
+            authenticatedSessions.add(newSessionId)
+
+            exchange.responseHeaders.add("Set-Cookie", "JSESSIONID=$newSessionId; Path=/hac; HttpOnly")
+            exchange.responseHeaders.add("Location", "/hac/")
+            exchange.sendResponseHeaders(HttpStatus.SC_MOVED_TEMPORARILY, -1)
+        }
+
+        private fun action(exchange: HttpExchange) {
+            val sessionId = sessionId(exchange)
+            val params = formParams(exchange)
+
+            if (sessionId == null || sessionId !in authenticatedSessions) {
+                exchange.responseHeaders.add("Location", "/hac/login")
+                exchange.sendResponseHeaders(HttpStatus.SC_MOVED_TEMPORARILY, -1)
+                return
+            }
+            if (exchange.requestHeaders.getFirst("X-CSRF-TOKEN") != csrfTokens[sessionId]) {
+                exchange.sendResponseHeaders(HttpStatus.SC_FORBIDDEN, -1)
+                return
+            }
+
+            actions.incrementAndGet()
+            val inFlight = actionsInFlight.incrementAndGet()
+            maxActionsInFlight.accumulateAndGet(inFlight) { a, b -> maxOf(a, b) }
+            try {
+                actionsLatch.await(10, TimeUnit.SECONDS)
+                send(exchange, HttpStatus.SC_OK, params["script"] ?: "")
+            } finally {
+                actionsInFlight.decrementAndGet()
+            }
+        }
+
+        private fun newSession(prefix: String): String {
+            val sessionId = "$prefix-${sessionIds.incrementAndGet()}"
+            csrfTokens[sessionId] = UUID.randomUUID().toString()
+            return sessionId
+        }
+
+        private fun sessionId(exchange: HttpExchange) = exchange.requestHeaders["Cookie"]
+            ?.flatMap { it.split(';') }
+            ?.map { it.trim() }
+            ?.firstOrNull { it.startsWith("JSESSIONID=") }
+            ?.substringAfter('=')
+
+        private fun formParams(exchange: HttpExchange) = exchange.requestBody.readAllBytes()
+            .toString(StandardCharsets.UTF_8)
+            .split('&')
+            .filter { it.isNotEmpty() }
+            .associate {
+                URLDecoder.decode(it.substringBefore('='), StandardCharsets.UTF_8) to
+                    URLDecoder.decode(it.substringAfter('=', ""), StandardCharsets.UTF_8)
+            }
+
+        private fun send(exchange: HttpExchange, status: Int, content: String) {
+            val bytes = content.toByteArray(StandardCharsets.UTF_8)
+            exchange.sendResponseHeaders(status, bytes.size.toLong())
+            exchange.responseBody.write(bytes)
+        }
+    }
+
+    companion object {
+        private const val TIMEOUT = 5_000L
+        private const val USERNAME = "admin"
+        private const val PASSWORD = "nimda"
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.intellij.idea.plugin.hybris.tools.remote.http.flexibleSearch
+
+import com.google.gson.Gson
+import java.io.PipedReader
+import java.io.PipedWriter
+import java.io.StringReader
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class FlexibleSearchResultTest {
+
+    @Test
+    fun test_read_headersAndRows() {
+        val result = read(response(listOf("PK", "code"), listOf(listOf("1", "a"), listOf("2", "b"))))
+
+        assertNull(result.exceptionMessage)
+        assertEquals(2, result.rowCount)
+        assertEquals(tableOf(listOf("PK", "code"), listOf(listOf("1", "a"), listOf("2", "b"))), result.render(0, 100))
+    }
+
+    @Test
+    fun test_read_unknownPropertiesSkipped() {
+        val result = read(
+            """
+            {
+              "catalogVersionsAsString": "Default:Online",
+              "headers": ["PK"],
+              "query": {"nested": [1, 2, {"deep": true}]},
+              "resultList": [["1"]],
+              "executionTime": 12
+            }
+            """.trimIndent()
+        )
+
+        assertEquals(1, result.rowCount)
+        assertEquals(tableOf(listOf("PK"), listOf(listOf("1"))), result.render(0, 100))
+    }
+
+    @Test
+    fun test_read_exception() {
+        val result = read("""{"headers": null, "resultList": null, "exception": {"message": "type Foo not found", "cause": {}}}""")
+
+        assertEquals("type Foo not found", result.exceptionMessage)
+        assertEquals(0, result.rowCount)
+    }
+
+    @Test
+    fun test_read_exceptionWithoutMessage() {
+        val result = read("""{"exception": {}}""")
+
+        assertEquals("", result.exceptionMessage)
+    }
+
+    @Test
+    fun test_read_nonStringValues() {
+        val result = read("""{"headers": ["a", "b", "c", "d"], "resultList": [[null, 42, true, {"x": 1}]]}""")
+
+        assertEquals(tableOf(listOf("a", "b", "c", "d"), listOf(listOf(null, "42", "true", null))), result.render(0, 1))
+    }
+
+    @Test
+    fun test_read_emptyResult() {
+        val result = read(response(listOf("PK", "code"), emptyList()))
+
+        assertEquals(0, result.rowCount)
+        assertEquals(tableOf(listOf("PK", "code"), emptyList()), result.render(0, 100))
+    }
+
+    @Test
+    fun test_read_manyRows_sameAsTableBuilder() {
+        val headers = listOf("PK", "code", "name")
+        val rows = (0 until 10_000).map { listOf(it.toString(), "code_$it", "name ".repeat(it % 7)) }
+
+        val result = read(response(headers, rows))
+
+        assertEquals(rows.size, result.rowCount)
+        assertEquals(tableOf(headers, rows), result.render(0, rows.size))
+    }
+
+    @Test
+    fun test_render_pages() {
+        val headers = listOf("PK")
+        val rows = (0 until 250).map { listOf(it.toString()) }
+        val result = read(response(headers, rows))
+
+        assertEquals(tableOf(headers, rows.subList(0, 100)), result.render(0, 100))
+        assertEquals(tableOf(headers, rows.subList(100, 200)), result.render(100, 200))
+        assertEquals(tableOf(headers, rows.subList(200, 250)), result.render(200, 300))
+        assertEquals(tableOf(headers, emptyList()), result.render(300, 400))
+    }
+
+    @Test
+    fun test_render_pagesOfStreamedResponse() {
+        val headers = listOf("PK", "code")
+        val rows = (0 until 1_000).map { listOf(it.toString(), if (it % 10 == 0) null else "code_$it") }
+        val json = response(headers, rows)
+        val reader = PipedReader(16)
+        val writer = PipedWriter(reader)
+
+        // response arrives in small chunks, so rows and columns are split between reads and storage grows several times
+        val server = thread {
+            writer.use { json.chunked(7).forEach { chunk -> it.write(chunk) } }
+        }
+        val result = FlexibleSearchResult.read(reader)
+        server.join()
+
+        assertEquals(rows.size, result.rowCount)
+        (0 until rows.size step 100).forEach { fromRow ->
+            assertEquals(tableOf(headers, rows.subList(fromRow, fromRow + 100)), result.render(fromRow, fromRow + 100))
+        }
+    }
+
+    @Test
+    fun test_render_rowsLongerThanHeaders() {
+        val result = read("""{"headers": ["a"], "resultList": [["1"], ["2", "3"]]}""")
+
+        assertEquals(2, result.rowCount)
+        assertEquals(tableOf(listOf("a"), listOf(listOf("1", null), listOf("2", "3"))), result.render(0, 2))
+    }
+
+    @Test
+    fun test_read_firstPageStreamedBeforeResponseCompleted() {
+        val headers = listOf("PK", "code")
+        val rows = (0 until 300).map { listOf(it.toString(), "code_$it") }
+        val json = response(headers, rows)
+        val firstPageEnd = json.indexOf("[\"100\"")
+        val firstPageLatch = CountDownLatch(1)
+        var firstPage: String? = null
+        var streamed = false
+
+        val reader = PipedReader()
+        val writer = PipedWriter(reader)
+        val server = thread {
+            writer.use {
+                it.write(json, 0, firstPageEnd)
+                it.flush()
+                streamed = firstPageLatch.await(10, TimeUnit.SECONDS)
+                it.write(json, firstPageEnd, json.length - firstPageEnd)
+            }
+        }
+
+        val result = FlexibleSearchResult.read(reader, 100) {
+            firstPage = it
+            firstPageLatch.countDown()
+        }
+        server.join()
+
+        assertTrue(streamed)
+        assertEquals(tableOf(headers, rows.subList(0, 100)), firstPage)
+        assertEquals(rows.size, result.rowCount)
+    }
+
+    @Test
+    fun test_read_firstPageNotStreamedForSmallResult() {
+        val rows = (0 until 99).map { listOf(it.toString()) }
+        var firstPage: String? = null
+
+        val result = FlexibleSearchResult.read(StringReader(response(listOf("PK"), rows)), 100) { firstPage = it }
+
+        assertNull(firstPage)
+        assertEquals(99, result.rowCount)
+    }
+
+    private fun read(json: String) = FlexibleSearchResult.read(StringReader(json))
+
+    private fun response(headers: List<String>, rows: List<List<String?>>) = Gson().toJson(
+        mapOf(
+            "headers" to headers,
+            "resultList" to rows,
+            "exception" to null
+        )
+    )
+
+    private fun tableOf(headers: List<String>, rows: List<List<String?>>) = TableBuilder()
+        .apply {
+            addRow(*headers.toTypedArray())
+            rows.forEach { addRow(*it.toTypedArray()) }
+        }
+        .toString()
+}
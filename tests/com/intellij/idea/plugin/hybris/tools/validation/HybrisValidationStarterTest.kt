@@ -0,0 +1,105 @@
+/*
+ * This file is part of "SAP Commerce Developers Toolset" plugin for IntelliJ IDEA.
+ * Copyright (C) 2019-2024 EPAM Systems <hybrisideaplugin@epam.com> and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.intellij.idea.plugin.hybris.tools.validation
+
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonParser
+import com.intellij.codeHighlighting.HighlightDisplayLevel
+import com.intellij.idea.plugin.hybris.codeInspection.rule.impex.ImpexNoUniqueValueInspection
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.testFramework.PlatformTestUtil
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class HybrisValidationStarterTest : BasePlatformTestCase() {
+
+    fun test_inspect_reportsProblemsPerFileAndRule() {
+        myFixture.enableInspections(ImpexNoUniqueValueInspection())
+        myFixture.configureByText(
+            "overridden.impex", """
+            INSERT_UPDATE Product;code[unique=true];name
+            ;p1;first
+            ;p1;second
+        """.trimIndent()
+        )
+        myFixture.configureByText(
+            "unique.impex", """
+            INSERT_UPDATE Product;code[unique=true];name
+            ;p1;first
+            ;p2;second
+        """.trimIndent()
+        )
+
+        // files are inspected in non-blocking read actions, which must not be started from EDT
+        val report = PlatformTestUtil.waitForFuture(ApplicationManager.getApplication().executeOnPooledThread<ValidationReport> {
+            ProgressManager.getInstance().runProcess<ValidationReport>({ HybrisValidationStarter().inspect(project) }, EmptyProgressIndicator())
+        }, 60_000)
+        val problems = report.problems.filter { it.rule == RULE }
+
+        assertEquals(listOf(2, 3), problems.map { it.line }.sorted())
+        assertTrue(problems.all { it.file.endsWith("overridden.impex") })
+        assertTrue(problems.all { it.severity == HighlightDisplayLevel.WEAK_WARNING.name })
+        assertEquals(report.problems.count { it.severity == HighlightDisplayLevel.ERROR.name }, report.errors)
+        assertEquals(report.problems.size - report.errors, report.warnings)
+
+        val files = report.files.filter { it.file.endsWith(".impex") }
+        assertEquals(2, files.size)
+        assertEquals(2, files.first { it.file.endsWith("overridden.impex") }.problems)
+        assertEquals(0, files.first { it.file.endsWith("unique.impex") }.problems)
+
+        val rule = report.rules.first { it.rule == RULE }
+        assertEquals(2, rule.files)
+        assertEquals(2, rule.problems)
+    }
+
+    fun test_exitCode() {
+        assertEquals(HybrisValidationStarter.EXIT_OK, HybrisValidationStarter.exitCode(report(errors = 0, warnings = 3)))
+        assertEquals(HybrisValidationStarter.EXIT_ERRORS, HybrisValidationStarter.exitCode(report(errors = 1, warnings = 0)))
+    }
+
+    fun test_report_serializedForCi() {
+        val report = ValidationReport(
+            "test", 42, 1, 0,
+            listOf(ValidationReport.Problem("items.xml", 3, RULE, HighlightDisplayLevel.ERROR.name, "message")),
+            listOf(ValidationReport.FileTiming("items.xml", 5, 1)),
+            listOf(ValidationReport.RuleTiming(RULE, 4, 1, 1))
+        )
+
+        val json = JsonParser.parseString(GsonBuilder().setPrettyPrinting().create().toJson(report)).asJsonObject
+
+        assertEquals(setOf("project", "durationMs", "errors", "warnings", "problems", "files", "rules"), json.keySet())
+        assertEquals(
+            setOf("file", "line", "rule", "severity", "message"),
+            json.getAsJsonArray("problems")[0].asJsonObject.keySet()
+        )
+        assertEquals(3, json.getAsJsonArray("problems")[0].asJsonObject["line"].asInt)
+        assertEquals(setOf("file", "durationMs", "problems"), json.getAsJsonArray("files")[0].asJsonObject.keySet())
+        assertEquals(setOf("rule", "durationMs", "files", "problems"), json.getAsJsonArray("rules")[0].asJsonObject.keySet())
+    }
+
+    private fun report(errors: Int, warnings: Int) = ValidationReport("test", 0, errors, warnings, emptyList(), emptyList(), emptyList())
+
+    companion object {
+        private const val RULE = "ImpexNoUniqueValueInspection"
+    }
+}